@@ -0,0 +1,63 @@
+package crawler.bench;
+
+import crawler.util.DomainMatcher;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the compiled allowed-domain matcher against the previous check,
+ * which streamed over the domain list with {@code host::endsWith} for every link.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DomainMatcherBenchmark {
+
+    @Param({"1", "100", "5000"})
+    private int domainCount;
+
+    private List<String> domains;
+    private DomainMatcher matcher;
+    private String[] hosts;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        domains = new ArrayList<>();
+        for (int i = 0; i < domainCount; i++) {
+            domains.add("site" + i + ".example");
+        }
+        matcher = DomainMatcher.of(domains);
+
+        hosts = new String[1024];
+        for (int i = 0; i < hosts.length; i++) {
+            // half of the hosts are allowed subdomains, half belong to unknown sites
+            int site = random.nextInt(domainCount * 2);
+            hosts[i] = "www.site" + site + ".example";
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1024)
+    public void compiledMatcher(Blackhole blackhole) {
+        for (String host : hosts) {
+            blackhole.consume(matcher.matches(host));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1024)
+    public void streamEndsWith(Blackhole blackhole) {
+        for (String host : hosts) {
+            blackhole.consume(domains.stream().anyMatch(host::endsWith));
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package crawler.bench;
+
+import crawler.adapters.JsoupHtmlDocument;
+import crawler.adapters.StreamingHtmlDocument;
+import crawler.model.PageResult;
+import crawler.parser.HtmlParser;
+import org.jsoup.Jsoup;
+import org.openjdk.jmh.annotations.*;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares building a jsoup DOM for section extraction against the streaming tokenizer.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HtmlExtractionBenchmark {
+    private static final URI BASE_URI = URI.create("https://example.com/articles/index.html");
+
+    @Param({"100", "2000"})
+    private int sectionCount;
+
+    private final HtmlParser parser = new HtmlParser();
+    private String html;
+
+    @Setup
+    public void setUp() {
+        StringBuilder page = new StringBuilder("<!DOCTYPE html><html><head><title>Bench</title>")
+                .append("<script>var config = { items: [1, 2, 3] };</script></head><body><nav><ul>");
+        for (int i = 0; i < 20; i++) {
+            page.append("<li><a href=\"/nav/").append(i).append("\">Nav ").append(i).append("</a></li>");
+        }
+        page.append("</ul></nav><main>");
+        for (int i = 0; i < sectionCount; i++) {
+            page.append("<section><h2 class=\"title\">Section ").append(i).append("</h2>")
+                    .append("<div class=\"body\"><p>Lorem ipsum <b>dolor</b> sit amet, ")
+                    .append("<a href=\"/articles/").append(i).append("\">read more</a> or see ")
+                    .append("<a href=\"https://other.example.org/ref?id=").append(i).append("&amp;x=1\">ref</a>.</p>")
+                    .append("<img src=\"/img/").append(i).append(".png\" alt=\"\"></div></section>");
+        }
+        page.append("</main></body></html>");
+        html = page.toString();
+    }
+
+    @Benchmark
+    public PageResult jsoupDom() {
+        return parser.parse(BASE_URI, 0, new JsoupHtmlDocument(Jsoup.parse(html)));
+    }
+
+    @Benchmark
+    public PageResult streaming() {
+        return parser.parse(BASE_URI, 0, new StreamingHtmlDocument(html));
+    }
+}
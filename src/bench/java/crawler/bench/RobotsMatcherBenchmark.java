@@ -0,0 +1,112 @@
+package crawler.bench;
+
+import crawler.fetcher.RobotsTxtHandler;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the compiled robots.txt matcher against the previous linear scan,
+ * which normalized every path through a new URI and tested each rule with startsWith.
+ * With the gc profiler, {@code compiledTrie} reports 0 B/op: the URIs' raw paths are stored
+ * fields and the matcher works in per-thread scratch arrays.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RobotsMatcherBenchmark {
+
+    @Param({"10", "100", "500"})
+    private int ruleCount;
+
+    private RobotsTxtHandler compiled;
+    private LinearRobotsRules linear;
+    private URI[] urls;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        StringBuilder robotsTxt = new StringBuilder("User-agent: *\n");
+        List<String> disallowed = new ArrayList<>();
+        List<String> allowed = new ArrayList<>();
+
+        for (int i = 0; i < ruleCount; i++) {
+            String path = "/section" + random.nextInt(ruleCount) + "/page" + i;
+            if (i % 5 == 0) {
+                allowed.add(path);
+                robotsTxt.append("Allow: ").append(path).append('\n');
+            } else {
+                disallowed.add(path);
+                robotsTxt.append("Disallow: ").append(path).append('\n');
+            }
+        }
+
+        compiled = RobotsTxtHandler.parse("BenchBot", robotsTxt.toString());
+        linear = new LinearRobotsRules(allowed, disallowed);
+
+        urls = new URI[1024];
+        for (int i = 0; i < urls.length; i++) {
+            urls[i] = URI.create("https://example.com/section" + random.nextInt(ruleCount)
+                    + "/page" + random.nextInt(ruleCount * 2) + "/detail");
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1024)
+    public void compiledTrie(Blackhole blackhole) {
+        for (URI url : urls) {
+            blackhole.consume(compiled.isAllowed(url));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1024)
+    public void linearScan(Blackhole blackhole) {
+        for (URI url : urls) {
+            blackhole.consume(linear.isAllowed(url));
+        }
+    }
+
+    /**
+     * The matching logic RobotsTxtHandler used before rules were compiled.
+     */
+    static final class LinearRobotsRules {
+        private final Set<URI> allowedPaths = new LinkedHashSet<>();
+        private final Set<URI> disallowedPaths = new LinkedHashSet<>();
+
+        LinearRobotsRules(List<String> allowed, List<String> disallowed) {
+            allowed.forEach(path -> allowedPaths.add(URI.create(path)));
+            disallowed.forEach(path -> disallowedPaths.add(URI.create(path)));
+        }
+
+        boolean isAllowed(URI uri) {
+            String path = uri.getPath();
+            if (path == null || path.isEmpty()) {
+                path = "/";
+            }
+            URI normalizedPath = URI.create(path).normalize();
+
+            for (URI allow : allowedPaths) {
+                if (normalizedPath.getPath().startsWith(allow.getPath())) {
+                    return true;
+                }
+            }
+            for (URI disallow : disallowedPaths) {
+                if (normalizedPath.getPath().startsWith(disallow.getPath())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
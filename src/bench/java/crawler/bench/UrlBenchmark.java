@@ -0,0 +1,65 @@
+package crawler.bench;
+
+import crawler.model.Url;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-link work of the crawler: resolve the href against the page, read the host for the
+ * domain check, and build the visited key. Compares {@link Url} against the previous
+ * {@link URI} pipeline, which parsed each link again for the five-argument constructor.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UrlBenchmark {
+    private static final int LINK_COUNT = 1024;
+    private static final String PAGE = "https://www.example.com/articles/2024/index.html?page=2";
+
+    private final URI baseUri = URI.create(PAGE);
+    private final Url baseUrl = Url.parse(PAGE);
+    private String[] hrefs;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        hrefs = new String[LINK_COUNT];
+        for (int i = 0; i < LINK_COUNT; i++) {
+            hrefs[i] = switch (random.nextInt(4)) {
+                case 0 -> "/articles/2024/post-" + i + ".html";
+                case 1 -> "post-" + i + ".html#comments";
+                case 2 -> "../2023/archive.html?page=" + i;
+                default -> "https://cdn.example.org/assets/" + i + "/image.png";
+            };
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINK_COUNT)
+    public void uri(Blackhole blackhole) throws URISyntaxException {
+        for (String href : hrefs) {
+            URI link = baseUri.resolve(href);
+            blackhole.consume(link.getHost());
+            URI key = new URI(link.getScheme(), link.getAuthority(), link.getPath(), link.getQuery(), null);
+            blackhole.consume(key.toString());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINK_COUNT)
+    public void url(Blackhole blackhole) {
+        for (String href : hrefs) {
+            Url link = baseUrl.resolve(href);
+            blackhole.consume(link.host());
+            blackhole.consume(link.normalized());
+        }
+    }
+}
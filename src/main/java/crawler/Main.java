@@ -1,30 +1,54 @@
 package crawler;
 
 import crawler.app.WebCrawler;
+import crawler.factory.CrawlerFactory;
+import crawler.factory.CrawlerFactory.FetcherType;
+import crawler.factory.CrawlerFactory.VisitedSetType;
 import crawler.model.CrawlerConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
+import static crawler.constants.CrawlerConstants.DEFAULT_FRONTIER_HEAP_BUDGET_BYTES;
+import static crawler.constants.CrawlerConstants.DEFAULT_MAX_FETCHES_PER_HOST;
 import static crawler.constants.CrawlerConstants.USER_AGENT;
-import static crawler.factory.CrawlerFactory.createCrawler;
 
 public class Main {
     private static final Logger logger = LoggerFactory.getLogger(Main.class);
+    private static final String CONCURRENT_FLAG = "--concurrent";
+    private static final String VIRTUAL_THREADS_FLAG = "--virtual-threads";
+    private static final String HTTP_CLIENT_FLAG = "--http-client";
+    private static final String STREAMING_FLAG = "--streaming";
+    private static final String CACHE_OPTION = "--cache";
+    private static final String FINGERPRINT_VISITED_FLAG = "--fingerprint-visited";
+    private static final String BLOOM_VISITED_FLAG = "--bloom-visited";
+    private static final String BLOOM_VISITED_CONFIRMED_FLAG = "--bloom-visited-confirmed";
+    private static final String INCREMENTAL_REPORT_FLAG = "--incremental-report";
+    private static final String REPORT_OPTION = "--report";
+    private static final String CHECKPOINT_OPTION = "--checkpoint";
+    private static final String RESUME_OPTION = "--resume";
+    private static final String FRONTIER_MEMORY_OPTION = "--frontier-memory";
+    private static final String STRICT_BREADTH_FIRST_FLAG = "--strict-bfs";
+    private static final String PARALLEL_REPORT_FLAG = "--parallel-report";
     private static final int DEFAULT_CONCURRENT_THREADS = Runtime.getRuntime().availableProcessors() * 2;
-    private static final long SEQUENTIAL_TIMEOUT = 30;
-    private static final long CONCURRENT_TIMEOUT = 300;
 
     public static void main(String[] args) {
-        if (!hasValidArguments(args)) {
+        CrawlOptions crawlOptions = parseCrawlOptions(args);
+        args = removeCrawlOptions(args);
+
+        if (crawlOptions == null || !hasValidArguments(args)) {
             printUsage();
             System.exit(1);
         }
 
         try {
             CrawlConfiguration crawlConfig = parseArguments(args);
-            executeCrawl(crawlConfig);
+            executeCrawl(crawlConfig, crawlOptions);
             logger.info("Crawling completed successfully.");
         } catch (Exception e) {
             logger.error("Error during crawl execution", e);
@@ -32,41 +56,147 @@ public class Main {
         }
     }
 
+    /**
+     * @return the crawl options found anywhere in the arguments, or null if they are incomplete
+     */
+    private static CrawlOptions parseCrawlOptions(String[] args) {
+        List<String> options = Arrays.asList(args);
+        FetcherType fetcherType = FetcherType.JSOUP;
+        if (options.contains(STREAMING_FLAG)) {
+            fetcherType = FetcherType.HTTP_CLIENT_STREAMING;
+        } else if (options.contains(HTTP_CLIENT_FLAG)) {
+            fetcherType = FetcherType.HTTP_CLIENT;
+        }
+
+        Path cacheDirectory = null;
+        int cacheIndex = options.indexOf(CACHE_OPTION);
+        if (cacheIndex >= 0) {
+            if (cacheIndex + 1 >= args.length) {
+                return null;
+            }
+            cacheDirectory = Path.of(args[cacheIndex + 1]);
+            if (fetcherType != FetcherType.JSOUP) {
+                logger.error("{} only applies to the default jsoup fetcher, not to {} or {}",
+                        CACHE_OPTION, HTTP_CLIENT_FLAG, STREAMING_FLAG);
+                return null;
+            }
+        }
+        Path reportFile = null;
+        int reportIndex = options.indexOf(REPORT_OPTION);
+        if (reportIndex >= 0) {
+            if (reportIndex + 1 >= args.length) {
+                return null;
+            }
+            reportFile = Path.of(args[reportIndex + 1]);
+        }
+        // --resume <dir> journals into <dir> as well, so --checkpoint may only repeat the same directory
+        Path checkpointDirectory = null;
+        int checkpointIndex = options.indexOf(CHECKPOINT_OPTION);
+        if (checkpointIndex >= 0) {
+            if (checkpointIndex + 1 >= args.length) {
+                return null;
+            }
+            checkpointDirectory = Path.of(args[checkpointIndex + 1]);
+        }
+        boolean resume = options.contains(RESUME_OPTION);
+        if (resume) {
+            int resumeIndex = options.indexOf(RESUME_OPTION);
+            if (resumeIndex + 1 >= args.length) {
+                return null;
+            }
+            Path resumeDirectory = Path.of(args[resumeIndex + 1]);
+            if (checkpointDirectory != null && !checkpointDirectory.equals(resumeDirectory)) {
+                logger.error("{} {} keeps journaling into {} and cannot be combined with {} {}", RESUME_OPTION,
+                        resumeDirectory, resumeDirectory, CHECKPOINT_OPTION, checkpointDirectory);
+                return null;
+            }
+            checkpointDirectory = resumeDirectory;
+        }
+        VisitedSetType visitedSetType = VisitedSetType.EXACT;
+        if (options.contains(BLOOM_VISITED_CONFIRMED_FLAG)) {
+            visitedSetType = VisitedSetType.BLOOM_CONFIRMED;
+        } else if (options.contains(BLOOM_VISITED_FLAG)) {
+            visitedSetType = VisitedSetType.BLOOM;
+        } else if (options.contains(FINGERPRINT_VISITED_FLAG)) {
+            visitedSetType = VisitedSetType.FINGERPRINT;
+        }
+        long frontierHeapBudgetBytes = DEFAULT_FRONTIER_HEAP_BUDGET_BYTES;
+        int frontierMemoryIndex = options.indexOf(FRONTIER_MEMORY_OPTION);
+        if (frontierMemoryIndex >= 0) {
+            if (frontierMemoryIndex + 1 >= args.length) {
+                return null;
+            }
+            try {
+                frontierHeapBudgetBytes = Long.parseLong(args[frontierMemoryIndex + 1]) * 1024 * 1024;
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return new CrawlOptions(fetcherType, cacheDirectory, visitedSetType, options.contains(INCREMENTAL_REPORT_FLAG),
+                reportFile, checkpointDirectory, resume, frontierHeapBudgetBytes,
+                options.contains(STRICT_BREADTH_FIRST_FLAG), options.contains(PARALLEL_REPORT_FLAG));
+    }
+
+    private static String[] removeCrawlOptions(String[] args) {
+        List<String> remaining = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case HTTP_CLIENT_FLAG, STREAMING_FLAG, FINGERPRINT_VISITED_FLAG,
+                     BLOOM_VISITED_FLAG, BLOOM_VISITED_CONFIRMED_FLAG, INCREMENTAL_REPORT_FLAG,
+                     STRICT_BREADTH_FIRST_FLAG, PARALLEL_REPORT_FLAG -> { /* crawl option */ }
+                case CACHE_OPTION, REPORT_OPTION, CHECKPOINT_OPTION, RESUME_OPTION,
+                     FRONTIER_MEMORY_OPTION -> i++; // skip the option's value as well
+                default -> remaining.add(args[i]);
+            }
+        }
+        return remaining.toArray(String[]::new);
+    }
+
     private static boolean hasValidArguments(String[] args) {
         if (args.length < 3) return false;
-        return !args[0].equals("--concurrent") || args.length >= 4;
+        return !isModeFlag(args[0]) || args.length >= 4;
+    }
+
+    private static boolean isModeFlag(String arg) {
+        return arg.equals(CONCURRENT_FLAG) || arg.equals(VIRTUAL_THREADS_FLAG);
     }
 
     private static CrawlConfiguration parseArguments(String[] args) {
-        if (args[0].equals("--concurrent")) {
-            return parseConcurrentArguments(args);
-        } else {
-            return parseSequentialArguments(args);
-        }
+        return switch (args[0]) {
+            case CONCURRENT_FLAG -> parseConcurrentArguments(args);
+            case VIRTUAL_THREADS_FLAG -> parseVirtualThreadArguments(args);
+            default -> parseSequentialArguments(args);
+        };
     }
 
     private static CrawlConfiguration parseSequentialArguments(String[] args) {
         CrawlerConfig config = createCrawlerConfig(args, 0);
-        return new CrawlConfiguration(config, 1, SEQUENTIAL_TIMEOUT);
+        return new CrawlConfiguration(config, 1, false, DEFAULT_MAX_FETCHES_PER_HOST);
     }
 
     private static CrawlConfiguration parseConcurrentArguments(String[] args) {
         CrawlerConfig config = createCrawlerConfig(args, 1); // Skip --concurrent flag
-        int threadCount = extractThreadCount(args);
-        return new CrawlConfiguration(config, threadCount, CONCURRENT_TIMEOUT);
+        int threadCount = extractPositiveInt(args, 4, DEFAULT_CONCURRENT_THREADS, "thread count");
+        return new CrawlConfiguration(config, threadCount, false, DEFAULT_MAX_FETCHES_PER_HOST);
+    }
+
+    private static CrawlConfiguration parseVirtualThreadArguments(String[] args) {
+        CrawlerConfig config = createCrawlerConfig(args, 1); // Skip --virtual-threads flag
+        int maxFetchesPerHost = extractPositiveInt(args, 4, DEFAULT_MAX_FETCHES_PER_HOST, "fetches per host");
+        return new CrawlConfiguration(config, 1, true, maxFetchesPerHost);
     }
 
-    private static int extractThreadCount(String[] args) {
-        if (args.length <= 4) {
-            return DEFAULT_CONCURRENT_THREADS;
+    private static int extractPositiveInt(String[] args, int index, int defaultValue, String name) {
+        if (args.length <= index) {
+            return defaultValue;
         }
 
         try {
-            int threadCount = Integer.parseInt(args[4]);
-            return threadCount > 0 ? threadCount : DEFAULT_CONCURRENT_THREADS;
+            int value = Integer.parseInt(args[index]);
+            return value > 0 ? value : defaultValue;
         } catch (NumberFormatException e) {
-            logger.warn("Invalid thread count format, using default: {}", DEFAULT_CONCURRENT_THREADS);
-            return DEFAULT_CONCURRENT_THREADS;
+            logger.warn("Invalid {} format, using default: {}", name, defaultValue);
+            return defaultValue;
         }
     }
 
@@ -84,18 +214,41 @@ public class Main {
         logger.info("Starting crawl: URL={}, depth={}, domains={}", url, depth, domainLog);
     }
 
-    private static void executeCrawl(CrawlConfiguration crawlConfig) {
-        WebCrawler crawler = createCrawler(USER_AGENT, crawlConfig.threadCount(), crawlConfig.timeoutSeconds());
+    private static void executeCrawl(CrawlConfiguration crawlConfig, CrawlOptions crawlOptions) {
+        WebCrawler.Builder builder = CrawlerFactory.builder(USER_AGENT, crawlOptions.fetcherType(),
+                        crawlOptions.cacheDirectory(), crawlOptions.visitedSetType())
+                .reporter(CrawlerFactory.createReporter(crawlOptions.reportFile(), crawlOptions.parallelReport()))
+                .incrementalReport(crawlOptions.incrementalReport())
+                .checkpointDirectory(crawlOptions.checkpointDirectory())
+                .resume(crawlOptions.resume())
+                .frontierHeapBudgetBytes(crawlOptions.frontierHeapBudgetBytes())
+                .strictBreadthFirst(crawlOptions.strictBreadthFirst());
+        if (crawlConfig.virtualThreads()) {
+            builder.virtualThreads(true).maxFetchesPerHost(crawlConfig.maxFetchesPerHost());
+        } else {
+            builder.threadCount(crawlConfig.threadCount());
+        }
+        WebCrawler crawler = builder.build();
 
-        logCrawlerMode(crawlConfig.threadCount());
+        logCrawlerMode(crawlConfig);
+        logger.info("Fetching pages with {}", crawlOptions.fetcherType());
+        if (crawlOptions.cacheDirectory() != null) {
+            logger.info("Caching responses in {}", crawlOptions.cacheDirectory());
+        }
+        if (crawlOptions.checkpointDirectory() != null) {
+            logger.info("{} checkpoints in {}", crawlOptions.resume() ? "Resuming from" : "Writing",
+                    crawlOptions.checkpointDirectory());
+        }
         crawler.crawl(crawlConfig.config());
     }
 
-    private static void logCrawlerMode(int threadCount) {
-        if (threadCount == 1) {
+    private static void logCrawlerMode(CrawlConfiguration crawlConfig) {
+        if (crawlConfig.virtualThreads()) {
+            logger.info("Using virtual-thread crawler with {} fetches per host", crawlConfig.maxFetchesPerHost());
+        } else if (crawlConfig.threadCount() == 1) {
             logger.info("Using sequential crawler");
         } else {
-            logger.info("Using concurrent crawler with {} threads", threadCount);
+            logger.info("Using concurrent crawler with {} threads", crawlConfig.threadCount());
         }
     }
 
@@ -103,15 +256,42 @@ public class Main {
         logger.error("Usage:");
         logger.error("  Sequential: <URL> <depth> <domains (comma-separated)>");
         logger.error("  Concurrent: --concurrent <URL> <depth> <domains (comma-separated)> [thread-count]");
+        logger.error("  Virtual threads: --virtual-threads <URL> <depth> <domains (comma-separated)> [fetches-per-host]");
+        logger.error("  Add --http-client to any mode to fetch pages over a shared HTTP/2 client");
+        logger.error("  Add --streaming to also extract headings and links without building a DOM");
+        logger.error("  Add --cache <dir> to keep responses on disk and revalidate them on the next crawl;");
+        logger.error("    it cannot be combined with --http-client or --streaming");
+        logger.error("  Add --fingerprint-visited to remember visited URLs as 64-bit fingerprints for large crawls");
+        logger.error("  Add --bloom-visited to remember visited URLs in a Bloom filter for very large crawls,");
+        logger.error("    or --bloom-visited-confirmed to confirm its hits against a fingerprint file on disk");
+        logger.error("  Add --incremental-report to write each page to the report as soon as it is crawled");
+        logger.error("  Add --report <file> to choose the report file; .ndjson/.jsonl writes JSON Lines,");
+        logger.error("    .bin writes compact binary records, anything else Markdown");
+        logger.error("  Add --checkpoint <dir> to journal the crawl's progress,");
+        logger.error("    and --resume <dir> to continue an interrupted crawl without fetching finished pages again;");
+        logger.error("    --resume keeps journaling into <dir>, so --checkpoint may only name the same directory");
+        logger.error("  Add --frontier-memory <MB> to set the heap budget for pending URLs; more are spilled to disk");
+        logger.error("  Add --strict-bfs to finish each depth before the next starts, so pages appear at their minimal depth");
+        logger.error("  Add --parallel-report to render a Markdown report on all cores at the end of the crawl");
         logger.error("");
         logger.error("Examples:");
         logger.error("  java -jar webcrawler.jar https://example.com 2 example.com");
         logger.error("  java -jar webcrawler.jar --concurrent https://example.com 2 example.com,example.org 8");
+        logger.error("  java -jar webcrawler.jar --virtual-threads https://example.com 2 example.com 16");
+        logger.error("  java -jar webcrawler.jar --virtual-threads https://example.com 2 example.com 16 --http-client");
+        logger.error("  java -jar webcrawler.jar https://example.com 2 example.com --cache .crawl-cache");
+        logger.error("  java -jar webcrawler.jar --concurrent https://example.com 3 example.com --resume .crawl-state");
     }
 
     private record CrawlConfiguration(
             CrawlerConfig config,
             int threadCount,
-            long timeoutSeconds
+            boolean virtualThreads,
+            int maxFetchesPerHost
     ) {}
+
+    private record CrawlOptions(FetcherType fetcherType, Path cacheDirectory, VisitedSetType visitedSetType,
+                                boolean incrementalReport, Path reportFile, Path checkpointDirectory,
+                                boolean resume, long frontierHeapBudgetBytes, boolean strictBreadthFirst,
+                                boolean parallelReport) {}
 }
\ No newline at end of file
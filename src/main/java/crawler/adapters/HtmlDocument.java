@@ -1,5 +1,7 @@
 package crawler.adapters;
 
+import crawler.model.Url;
+
 import java.net.URI;
 import java.util.List;
 
@@ -31,6 +33,24 @@ public interface HtmlDocument {
      */
     String getTitle();
 
+    /**
+     * Reports headings and links to the handler in document order.
+     * Headings with blank text and links that cannot be resolved are skipped.
+     *
+     * @param baseUri the base URI for resolving relative links
+     * @param handler receives the headings and links
+     */
+    void traverse(URI baseUri, ContentHandler handler);
+
+    /**
+     * Callback for {@link #traverse(URI, ContentHandler)}.
+     */
+    interface ContentHandler {
+        void heading(int level, String text);
+
+        void link(Url link);
+    }
+
     /**
      * Represents a heading found in the document.
      */
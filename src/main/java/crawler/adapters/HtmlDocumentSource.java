@@ -5,8 +5,9 @@ import java.net.URI;
 /**
  * Abstraction for HTML document retrieval and parsing.
  * This interface provides a clean boundary to third-party HTML parsing libraries.
+ * A source that holds connections or threads releases them in {@link #close}.
  */
-public interface HtmlDocumentSource {
+public interface HtmlDocumentSource extends AutoCloseable {
 
     /**
      * Retrieves and parses an HTML document from the given URI.
@@ -17,34 +18,50 @@ public interface HtmlDocumentSource {
      */
     HtmlDocument fetchDocument(URI uri) throws DocumentRetrievalException;
 
+    /**
+     * Releases the resources of the source. No documents can be fetched afterwards.
+     */
+    @Override
+    default void close() {
+    }
+
     /**
      * Exception thrown when document retrieval fails.
      */
     class DocumentRetrievalException extends Exception {
         private final ErrorType errorType;
         private final int statusCode;
+        private final String retryAfter;
 
         public DocumentRetrievalException(String message, Throwable cause, ErrorType errorType) {
-            super(message, cause);
-            this.errorType = errorType;
-            this.statusCode = -1;
+            this(message, cause, errorType, -1);
         }
 
         public DocumentRetrievalException(String message, Throwable cause, ErrorType errorType, int statusCode) {
+            this(message, cause, errorType, statusCode, null);
+        }
+
+        public DocumentRetrievalException(String message, Throwable cause, ErrorType errorType, int statusCode,
+                                          String retryAfter) {
             super(message, cause);
             this.errorType = errorType;
             this.statusCode = statusCode;
+            this.retryAfter = retryAfter;
         }
 
         public ErrorType getErrorType() { return errorType; }
         public int getStatusCode() { return statusCode; }
+        /** @return the response's {@code Retry-After} header, or null if it had none */
+        public String getRetryAfter() { return retryAfter; }
 
         public enum ErrorType {
             NETWORK_ERROR,
             HTTP_ERROR,
             TIMEOUT,
             INVALID_URL,
-            PARSING_ERROR
+            PARSING_ERROR,
+            /** The response is not HTML or its body is too large, so it was not read. */
+            CONTENT_SKIPPED
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,428 @@
+package crawler.adapters;
+
+import org.jsoup.nodes.Entities;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Minimal incremental HTML tokenizer. It reads characters from a {@link Reader} and reports
+ * start tags, end tags and text as they are found, without building a document tree.
+ * <p>
+ * Comments, doctypes and processing instructions are skipped. The content of raw-text elements
+ * such as {@code script} and {@code style} is reported as data, not parsed for tags.
+ * Character references are left in place; {@link #decode(String, boolean)} resolves them
+ * for the few values that are actually used.
+ */
+final class HtmlTokenizer {
+    private static final int EOF = -1;
+    private static final Set<String> RAW_TEXT_ELEMENTS = Set.of("script", "style", "xmp", "iframe", "noembed", "noframes");
+    private static final Set<String> RCDATA_ELEMENTS = Set.of("title", "textarea");
+    private static final char REPLACEMENT_CHARACTER = '\uFFFD';
+    private static final int WINDOWS_1252_START = 0x80;
+    private static final int[] WINDOWS_1252_EXTENSIONS = {
+            0x20AC, 0x0081, 0x201A, 0x0192, 0x201E, 0x2026, 0x2020, 0x2021,
+            0x02C6, 0x2030, 0x0160, 0x2039, 0x0152, 0x008D, 0x017D, 0x008F,
+            0x0090, 0x2018, 0x2019, 0x201C, 0x201D, 0x2022, 0x2013, 0x2014,
+            0x02DC, 0x2122, 0x0161, 0x203A, 0x0153, 0x009D, 0x017E, 0x0178
+    };
+
+    private final Reader in;
+    private final char[] buffer = new char[8192];
+    private final StringBuilder text = new StringBuilder();
+    private final StringBuilder scratch = new StringBuilder();
+    private final Attributes attributes = new Attributes();
+    private int position = 0;
+    private int limit = 0;
+
+    HtmlTokenizer(Reader in) {
+        this.in = in;
+    }
+
+    /**
+     * Receives the tokens of a document in order.
+     */
+    interface TokenHandler {
+        void startTag(String name, Attributes attributes, boolean selfClosing);
+
+        void endTag(String name);
+
+        /**
+         * @param text the raw text, entities not yet decoded
+         * @param data true for the content of script-like elements, which is not document text
+         */
+        void text(String text, boolean data);
+    }
+
+    /**
+     * Tokenizes the whole input.
+     *
+     * @param handler receives the tokens
+     * @throws IOException if reading fails
+     */
+    void tokenize(TokenHandler handler) throws IOException {
+        int c;
+        while ((c = read()) != EOF) {
+            if (c != '<') {
+                text.append((char) c);
+                continue;
+            }
+
+            int next = peek(0);
+            if (isLetter(next)) {
+                flushText(handler, false);
+                readStartTag(handler);
+            } else if (next == '/' && isLetter(peek(1))) {
+                flushText(handler, false);
+                read();
+                String name = readTagName();
+                skipPast('>');
+                handler.endTag(name);
+            } else if (next == '!' || next == '?' || next == '/') {
+                flushText(handler, false);
+                skipMarkup();
+            } else {
+                text.append('<');
+            }
+        }
+        flushText(handler, false);
+    }
+
+    private void readStartTag(TokenHandler handler) throws IOException {
+        String name = readTagName();
+        boolean selfClosing = readAttributes();
+        handler.startTag(name, attributes, selfClosing);
+
+        if (RAW_TEXT_ELEMENTS.contains(name)) {
+            readRawText(name, handler, true);
+        } else if (RCDATA_ELEMENTS.contains(name)) {
+            readRawText(name, handler, false);
+        } else if (name.equals("plaintext")) {
+            int c;
+            while ((c = read()) != EOF) {
+                text.append((char) c);
+            }
+        }
+    }
+
+    private String readTagName() throws IOException {
+        scratch.setLength(0);
+        int c;
+        while ((c = peek(0)) != EOF && !isWhitespace(c) && c != '/' && c != '>') {
+            scratch.append((char) read());
+        }
+        return scratch.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return true if the tag ended with "/>"
+     */
+    private boolean readAttributes() throws IOException {
+        attributes.clear();
+        while (true) {
+            skipWhitespace();
+            int c = peek(0);
+            if (c == EOF) {
+                return false;
+            }
+            if (c == '>') {
+                read();
+                return false;
+            }
+            if (c == '/') {
+                read();
+                if (peek(0) == '>') {
+                    read();
+                    return true;
+                }
+                continue;
+            }
+
+            String name = readAttributeName();
+            skipWhitespace();
+            String value = "";
+            if (peek(0) == '=') {
+                read();
+                skipWhitespace();
+                value = readAttributeValue();
+            }
+            attributes.add(name, value);
+        }
+    }
+
+    private String readAttributeName() throws IOException {
+        scratch.setLength(0);
+        scratch.append((char) read()); // may be '=' or a quote, which HTML allows as first name character
+        int c;
+        while ((c = peek(0)) != EOF && !isWhitespace(c) && c != '/' && c != '>' && c != '=') {
+            scratch.append((char) read());
+        }
+        return scratch.toString().toLowerCase(Locale.ROOT);
+    }
+
+    private String readAttributeValue() throws IOException {
+        scratch.setLength(0);
+        int quote = peek(0);
+        int c;
+        if (quote == '"' || quote == '\'') {
+            read();
+            while ((c = read()) != EOF && c != quote) {
+                scratch.append((char) c);
+            }
+        } else {
+            while ((c = peek(0)) != EOF && !isWhitespace(c) && c != '>') {
+                scratch.append((char) read());
+            }
+        }
+        return scratch.toString();
+    }
+
+    /**
+     * Reads the content of a raw-text or RCDATA element up to its end tag.
+     */
+    private void readRawText(String name, TokenHandler handler, boolean data) throws IOException {
+        int c;
+        while ((c = read()) != EOF) {
+            if (c == '<' && peek(0) == '/' && isEndTagOf(name)) {
+                flushText(handler, data);
+                read();
+                readTagName();
+                skipPast('>');
+                handler.endTag(name);
+                return;
+            }
+            text.append((char) c);
+        }
+        flushText(handler, data);
+    }
+
+    private boolean isEndTagOf(String name) throws IOException {
+        for (int i = 0; i < name.length(); i++) {
+            int c = peek(i + 1);
+            if (c == EOF || Character.toLowerCase((char) c) != name.charAt(i)) {
+                return false;
+            }
+        }
+        int after = peek(name.length() + 1);
+        return after == EOF || isWhitespace(after) || after == '/' || after == '>';
+    }
+
+    /**
+     * Skips a comment, doctype, processing instruction or bogus end tag after its "&lt;".
+     */
+    private void skipMarkup() throws IOException {
+        if (peek(0) == '!' && peek(1) == '-' && peek(2) == '-') {
+            read();
+            read();
+            read();
+            int dashes = 0;
+            int c;
+            while ((c = read()) != EOF) {
+                if (c == '>' && dashes >= 2) {
+                    return;
+                }
+                dashes = c == '-' ? dashes + 1 : 0;
+            }
+            return;
+        }
+        skipPast('>');
+    }
+
+    private void skipPast(char end) throws IOException {
+        int c;
+        while ((c = read()) != EOF && c != end) {
+            // skip
+        }
+    }
+
+    private void skipWhitespace() throws IOException {
+        while (isWhitespace(peek(0))) {
+            read();
+        }
+    }
+
+    private void flushText(TokenHandler handler, boolean data) {
+        if (!text.isEmpty()) {
+            handler.text(text.toString(), data);
+            text.setLength(0);
+        }
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill(1)) {
+            return EOF;
+        }
+        return buffer[position++];
+    }
+
+    private int peek(int offset) throws IOException {
+        if (position + offset >= limit && !fill(offset + 1)) {
+            return EOF;
+        }
+        return buffer[position + offset];
+    }
+
+    /**
+     * Makes at least {@code needed} characters available from the current position.
+     */
+    private boolean fill(int needed) throws IOException {
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            limit -= position;
+            position = 0;
+        }
+        while (limit < needed) {
+            int count = in.read(buffer, limit, buffer.length - limit);
+            if (count < 0) {
+                return false;
+            }
+            limit += count;
+        }
+        return true;
+    }
+
+    /**
+     * Resolves character references the way jsoup's tokenizer does, including references
+     * without a trailing semicolon and the Windows-1252 fallback for numeric references.
+     *
+     * @param text        raw text or attribute value
+     * @param inAttribute true for attribute values, where "&amp;name=" stays literal
+     * @return the decoded text, or {@code text} itself if it contains no references
+     */
+    static String decode(String text, boolean inAttribute) {
+        int amp = text.indexOf('&');
+        if (amp < 0) {
+            return text;
+        }
+
+        StringBuilder out = new StringBuilder(text.length());
+        int copied = 0;
+        while (amp >= 0) {
+            out.append(text, copied, amp);
+            int end = decodeReference(text, amp + 1, inAttribute, out);
+            if (end < 0) {
+                out.append('&');
+                copied = amp + 1;
+            } else {
+                copied = end;
+            }
+            amp = text.indexOf('&', copied);
+        }
+        out.append(text, copied, text.length());
+        return out.toString();
+    }
+
+    /**
+     * @return the index after the reference starting at {@code start}, or -1 if there is none
+     */
+    private static int decodeReference(String text, int start, boolean inAttribute, StringBuilder out) {
+        int length = text.length();
+        if (start >= length) {
+            return -1;
+        }
+        char first = text.charAt(start);
+        if (isWhitespace(first) || first == '<' || first == '&') {
+            return -1;
+        }
+        return first == '#'
+                ? decodeNumericReference(text, start + 1, out)
+                : decodeNamedReference(text, start, inAttribute, out);
+    }
+
+    private static int decodeNumericReference(String text, int start, StringBuilder out) {
+        int length = text.length();
+        boolean hex = start < length && (text.charAt(start) == 'x' || text.charAt(start) == 'X');
+        int digitsStart = hex ? start + 1 : start;
+        int end = digitsStart;
+        while (end < length && Character.digit(text.charAt(end), hex ? 16 : 10) >= 0) {
+            end++;
+        }
+        if (end == digitsStart) {
+            return -1;
+        }
+
+        int codePoint;
+        try {
+            codePoint = Integer.parseInt(text, digitsStart, end, hex ? 16 : 10);
+        } catch (NumberFormatException e) {
+            codePoint = -1;
+        }
+        if (codePoint == -1 || (codePoint >= 0xD800 && codePoint <= 0xDFFF) || codePoint > Character.MAX_CODE_POINT) {
+            out.append(REPLACEMENT_CHARACTER);
+        } else {
+            int index = codePoint - WINDOWS_1252_START;
+            if (index >= 0 && index < WINDOWS_1252_EXTENSIONS.length) {
+                codePoint = WINDOWS_1252_EXTENSIONS[index];
+            }
+            out.appendCodePoint(codePoint);
+        }
+        return end < length && text.charAt(end) == ';' ? end + 1 : end;
+    }
+
+    private static int decodeNamedReference(String text, int start, boolean inAttribute, StringBuilder out) {
+        int length = text.length();
+        int end = start;
+        while (end < length && Character.isLetter(text.charAt(end))) {
+            end++;
+        }
+        while (end < length && text.charAt(end) >= '0' && text.charAt(end) <= '9') {
+            end++;
+        }
+
+        String name = text.substring(start, end);
+        boolean terminated = end < length && text.charAt(end) == ';';
+        if (!Entities.isBaseNamedEntity(name) && !(terminated && Entities.isNamedEntity(name))) {
+            return -1;
+        }
+        if (inAttribute && !terminated && end < length) {
+            char next = text.charAt(end);
+            if (Character.isLetter(next) || Character.isDigit(next) || next == '=' || next == '-' || next == '_') {
+                return -1;
+            }
+        }
+
+        out.append(Entities.getByName(name));
+        return terminated ? end + 1 : end;
+    }
+
+    private static boolean isLetter(int c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isWhitespace(int c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f';
+    }
+
+    /**
+     * Attributes of the current start tag. Only valid during {@link TokenHandler#startTag}.
+     */
+    static final class Attributes {
+        private final List<String> names = new ArrayList<>();
+        private final List<String> values = new ArrayList<>();
+
+        private void clear() {
+            names.clear();
+            values.clear();
+        }
+
+        private void add(String name, String value) {
+            if (!names.contains(name)) { // the first occurrence wins
+                names.add(name);
+                values.add(value);
+            }
+        }
+
+        /**
+         * @param name the lower-case attribute name
+         * @return the raw attribute value, entities not yet decoded, or null if absent
+         */
+        String get(String name) {
+            int index = names.indexOf(name);
+            return index >= 0 ? values.get(index) : null;
+        }
+    }
+}
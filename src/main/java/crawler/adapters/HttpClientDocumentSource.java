@@ -0,0 +1,452 @@
+package crawler.adapters;
+
+import crawler.adapters.HtmlDocumentSource.DocumentRetrievalException.ErrorType;
+import crawler.fetcher.PageFetcher;
+import org.jsoup.Jsoup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodySubscriber;
+import java.net.http.HttpResponse.BodySubscribers;
+import java.net.http.HttpTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.function.Supplier;
+
+import static crawler.constants.CrawlerConstants.CONNECTION_TIMEOUT_MS;
+import static crawler.constants.CrawlerConstants.MAX_BODY_SIZE_BYTES;
+
+/**
+ * {@link HtmlDocumentSource} backed by one shared {@link HttpClient}.
+ * <p>
+ * The client keeps connections alive between requests and prefers HTTP/2, so requests to the
+ * same host reuse a pooled connection or are multiplexed over a single one instead of opening
+ * a new connection per page. Responses are parsed with jsoup, or, in streaming mode, fed to a
+ * {@link StreamingHtmlDocument} tokenizer as they arrive, which keeps only the headings and links
+ * instead of building a DOM or buffering the body.
+ * <p>
+ * Like {@link PageFetcher}, the decision whether a body is worth reading is made from the response
+ * headers: responses that are not HTML or announce a body larger than the limit are cancelled
+ * before their body is read, and bodies without a length are read up to the limit and dropped
+ * if they exceed it. Such responses fail with {@link ErrorType#CONTENT_SKIPPED}.
+ * <p>
+ * {@link #close} closes the client and an executor the source created itself; an executor passed
+ * in by the caller stays open.
+ */
+public class HttpClientDocumentSource implements HtmlDocumentSource {
+    private static final int FIRST_ERROR_STATUS = 400;
+
+    private final HttpClient client;
+    private final ExecutorService ownedExecutor;
+    private final String userAgent;
+    private final Duration requestTimeout;
+    private final int maxBodyBytes;
+    private final boolean streaming;
+
+    /**
+     * Creates a source whose client runs its asynchronous work on virtual threads.
+     *
+     * @param userAgent the User-Agent header sent with every request
+     */
+    public HttpClientDocumentSource(String userAgent) {
+        this(userAgent, false);
+    }
+
+    /**
+     * Creates a source whose client runs its asynchronous work on virtual threads.
+     *
+     * @param userAgent the User-Agent header sent with every request
+     * @param streaming true to extract headings and links without building a DOM
+     */
+    public HttpClientDocumentSource(String userAgent, boolean streaming) {
+        this(Executors.newVirtualThreadPerTaskExecutor(), userAgent, streaming);
+    }
+
+    /**
+     * @param userAgent the User-Agent header sent with every request
+     * @param executor  runs the client's asynchronous tasks, e.g. response handling; in streaming
+     *                  mode it also waits for the body while tokenizing it, so it should not be a
+     *                  small bounded pool
+     * @param streaming true to extract headings and links without building a DOM
+     */
+    public HttpClientDocumentSource(String userAgent, Executor executor, boolean streaming) {
+        this(newClient(executor), null, userAgent, Duration.ofMillis(CONNECTION_TIMEOUT_MS), MAX_BODY_SIZE_BYTES,
+                streaming);
+    }
+
+    private HttpClientDocumentSource(ExecutorService ownedExecutor, String userAgent, boolean streaming) {
+        this(newClient(ownedExecutor), ownedExecutor, userAgent, Duration.ofMillis(CONNECTION_TIMEOUT_MS),
+                MAX_BODY_SIZE_BYTES, streaming);
+    }
+
+    HttpClientDocumentSource(HttpClient client, String userAgent, Duration requestTimeout, int maxBodyBytes,
+                             boolean streaming) {
+        this(client, null, userAgent, requestTimeout, maxBodyBytes, streaming);
+    }
+
+    private HttpClientDocumentSource(HttpClient client, ExecutorService ownedExecutor, String userAgent,
+                                     Duration requestTimeout, int maxBodyBytes, boolean streaming) {
+        this.client = client;
+        this.ownedExecutor = ownedExecutor;
+        this.userAgent = userAgent;
+        this.requestTimeout = requestTimeout;
+        this.maxBodyBytes = maxBodyBytes;
+        this.streaming = streaming;
+    }
+
+    private static HttpClient newClient(Executor executor) {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(Duration.ofMillis(CONNECTION_TIMEOUT_MS))
+                .executor(executor)
+                .build();
+    }
+
+    /**
+     * Waits for running requests to finish, then closes the client's connections and the executor
+     * the source created.
+     */
+    @Override
+    public void close() {
+        client.close();
+        if (ownedExecutor != null) {
+            ownedExecutor.close();
+        }
+    }
+
+    @Override
+    public HtmlDocument fetchDocument(URI uri) throws DocumentRetrievalException {
+        try {
+            return fetchDocumentAsync(uri).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof DocumentRetrievalException retrievalException) {
+                throw retrievalException;
+            }
+            throw new DocumentRetrievalException("Failed to fetch " + uri, e.getCause(), ErrorType.NETWORK_ERROR);
+        }
+    }
+
+    /**
+     * Fetches and parses a document without blocking the calling thread.
+     *
+     * @param uri the URI to fetch
+     * @return a future completed with the parsed document, or completed exceptionally
+     *         with a {@link DocumentRetrievalException}
+     */
+    public CompletableFuture<HtmlDocument> fetchDocumentAsync(URI uri) {
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(uri)
+                    .timeout(requestTimeout)
+                    .header("User-Agent", userAgent)
+                    .GET()
+                    .build();
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(
+                    new DocumentRetrievalException("Invalid URL: " + uri, e, ErrorType.INVALID_URL));
+        }
+
+        if (streaming) {
+            return send(uri, request, BodySubscribers::ofInputStream, this::extractDocument);
+        }
+        return send(uri, request,
+                () -> new LimitedSubscriber(maxBodyBytes, () -> bodyTooLarge(uri)),
+                HttpClientDocumentSource::parseDocument);
+    }
+
+    private <T> CompletableFuture<HtmlDocument> send(URI uri, HttpRequest request,
+                                                     Supplier<BodySubscriber<T>> bodyReader, BodyParser<T> parser) {
+        return client.sendAsync(request, info -> bodySubscriber(uri, info, bodyReader))
+                .handle((response, error) -> {
+                    if (error != null) {
+                        throw new CompletionException(toRetrievalException(uri, unwrap(error)));
+                    }
+                    try {
+                        checkStatus(uri, response);
+                        return parser.parse(uri, response);
+                    } catch (DocumentRetrievalException e) {
+                        throw new CompletionException(e);
+                    }
+                });
+    }
+
+    /**
+     * Decides from the status and headers how the body is read. Error bodies are discarded,
+     * unwanted bodies are cancelled unread, and HTML bodies are handed to the body reader.
+     */
+    private <T> BodySubscriber<T> bodySubscriber(URI uri, HttpResponse.ResponseInfo info,
+                                                 Supplier<BodySubscriber<T>> bodyReader) {
+        if (info.statusCode() >= FIRST_ERROR_STATUS) {
+            return BodySubscribers.replacing(null);
+        }
+
+        String contentType = info.headers().firstValue("Content-Type").orElse(null);
+        if (contentType != null && !PageFetcher.isHtml(contentType)) {
+            return new CancellingSubscriber<>(contentSkipped(
+                    "Skipping " + uri + ": content type " + contentType + " is not HTML"));
+        }
+
+        long contentLength = PageFetcher.parseContentLength(info.headers().firstValue("Content-Length").orElse(null));
+        if (contentLength > maxBodyBytes) {
+            return new CancellingSubscriber<>(contentSkipped("Skipping " + uri + ": Content-Length " + contentLength
+                    + " exceeds " + maxBodyBytes + " bytes"));
+        }
+        return bodyReader.get();
+    }
+
+    private DocumentRetrievalException bodyTooLarge(URI uri) {
+        return contentSkipped("Body of " + uri + " exceeds " + maxBodyBytes + " bytes");
+    }
+
+    private static DocumentRetrievalException contentSkipped(String message) {
+        return new DocumentRetrievalException(message, null, ErrorType.CONTENT_SKIPPED);
+    }
+
+    private static void checkStatus(URI uri, HttpResponse<?> response) throws DocumentRetrievalException {
+        int status = response.statusCode();
+        if (status >= FIRST_ERROR_STATUS) {
+            throw new DocumentRetrievalException(
+                    "HTTP error fetching URL: " + uri + ", Status: " + status, null, ErrorType.HTTP_ERROR, status,
+                    response.headers().firstValue("Retry-After").orElse(null));
+        }
+    }
+
+    private static HtmlDocument parseDocument(URI uri, HttpResponse<byte[]> response)
+            throws DocumentRetrievalException {
+        try {
+            return new JsoupHtmlDocument(Jsoup.parse(new ByteArrayInputStream(response.body()),
+                    charsetOf(response.headers()), response.uri().toString()));
+        } catch (IOException | RuntimeException e) {
+            throw new DocumentRetrievalException("Failed to parse " + uri, e, ErrorType.PARSING_ERROR);
+        }
+    }
+
+    /**
+     * Tokenizes the body while it is being received, so only the extracted headings and links
+     * are kept. This blocks the client's executor thread until the body is read.
+     */
+    private HtmlDocument extractDocument(URI uri, HttpResponse<InputStream> response)
+            throws DocumentRetrievalException {
+        try (Reader reader = new InputStreamReader(new LimitedInputStream(response.body(), maxBodyBytes),
+                streamCharset(charsetOf(response.headers())))) {
+            return StreamingHtmlDocument.extract(reader);
+        } catch (BodyTooLargeException e) {
+            throw bodyTooLarge(uri);
+        } catch (IOException e) {
+            throw new DocumentRetrievalException("I/O error reading " + uri, e, ErrorType.NETWORK_ERROR);
+        } catch (RuntimeException e) {
+            throw new DocumentRetrievalException("Failed to parse " + uri, e, ErrorType.PARSING_ERROR);
+        }
+    }
+
+    private static Charset streamCharset(String name) {
+        if (name == null) {
+            return StandardCharsets.UTF_8;
+        }
+        try {
+            return Charset.forName(name);
+        } catch (IllegalArgumentException e) {
+            return StandardCharsets.UTF_8; // unknown or malformed charset name
+        }
+    }
+
+    /**
+     * @return the charset named in the Content-Type header, or null if it names none
+     */
+    private static String charsetOf(HttpHeaders headers) {
+        String contentType = headers.firstValue("Content-Type").orElse("");
+        for (String parameter : contentType.split(";")) {
+            String[] pair = parameter.split("=", 2);
+            if (pair.length == 2 && pair[0].trim().toLowerCase(Locale.ROOT).equals("charset")) {
+                String name = pair[1].trim().replace("\"", "");
+                return name.isEmpty() ? null : name;
+            }
+        }
+        return null;
+    }
+
+    private static DocumentRetrievalException toRetrievalException(URI uri, Throwable error) {
+        if (error instanceof DocumentRetrievalException retrievalException) {
+            return retrievalException;
+        }
+        if (error instanceof HttpTimeoutException) {
+            return new DocumentRetrievalException("Timeout fetching URL: " + uri, error, ErrorType.TIMEOUT);
+        }
+        if (error instanceof IllegalArgumentException) {
+            return new DocumentRetrievalException("Invalid URL: " + uri, error, ErrorType.INVALID_URL);
+        }
+        if (error instanceof IOException) {
+            return new DocumentRetrievalException("I/O error fetching URL: " + uri, error, ErrorType.NETWORK_ERROR);
+        }
+        return new DocumentRetrievalException("Failed to fetch " + uri, error, ErrorType.NETWORK_ERROR);
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    /**
+     * Reads the body of a response whose status and headers were accepted.
+     */
+    @FunctionalInterface
+    private interface BodyParser<T> {
+        HtmlDocument parse(URI uri, HttpResponse<T> response) throws DocumentRetrievalException;
+    }
+
+    /**
+     * Cancels the body as soon as it arrives and fails with the given reason, which resets or
+     * closes the connection instead of downloading a body nobody reads.
+     */
+    private static final class CancellingSubscriber<T> implements BodySubscriber<T> {
+        private final CompletableFuture<T> body = new CompletableFuture<>();
+        private final DocumentRetrievalException reason;
+
+        private CancellingSubscriber(DocumentRetrievalException reason) {
+            this.reason = reason;
+        }
+
+        @Override
+        public CompletionStage<T> getBody() {
+            return body;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.cancel();
+            body.completeExceptionally(reason);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> item) {
+            // cancelled, nothing is read
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            body.completeExceptionally(reason);
+        }
+
+        @Override
+        public void onComplete() {
+            body.completeExceptionally(reason);
+        }
+    }
+
+    /**
+     * Collects the body, but cancels it and fails once it grows beyond the limit.
+     */
+    private static final class LimitedSubscriber implements BodySubscriber<byte[]> {
+        private final CompletableFuture<byte[]> body = new CompletableFuture<>();
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private final int maxBytes;
+        private final Supplier<DocumentRetrievalException> tooLarge;
+        private Flow.Subscription subscription;
+
+        private LimitedSubscriber(int maxBytes, Supplier<DocumentRetrievalException> tooLarge) {
+            this.maxBytes = maxBytes;
+            this.tooLarge = tooLarge;
+        }
+
+        @Override
+        public CompletionStage<byte[]> getBody() {
+            return body;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> items) {
+            if (body.isDone()) {
+                return;
+            }
+            for (ByteBuffer item : items) {
+                if (buffer.size() + (long) item.remaining() > maxBytes) {
+                    subscription.cancel();
+                    body.completeExceptionally(tooLarge.get());
+                    return;
+                }
+                byte[] bytes = new byte[item.remaining()];
+                item.get(bytes);
+                buffer.writeBytes(bytes);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            body.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            body.complete(buffer.toByteArray());
+        }
+    }
+
+    /**
+     * Fails with {@link BodyTooLargeException} once more than the limit has been read.
+     */
+    private static final class LimitedInputStream extends FilterInputStream {
+        private final int maxBytes;
+        private long read = 0;
+
+        private LimitedInputStream(InputStream in, int maxBytes) {
+            super(in);
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        private void count(int n) throws BodyTooLargeException {
+            read += n;
+            if (read > maxBytes) {
+                throw new BodyTooLargeException();
+            }
+        }
+    }
+
+    private static final class BodyTooLargeException extends IOException {
+        private static final long serialVersionUID = 1L;
+    }
+}
@@ -0,0 +1,87 @@
+package crawler.adapters;
+
+import crawler.model.Url;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import static crawler.constants.CrawlerConstants.MAX_HEADING_LEVEL;
+
+/**
+ * {@link HtmlDocument} backed by a fully parsed jsoup {@link Document}.
+ */
+public class JsoupHtmlDocument implements HtmlDocument {
+    private final Document document;
+
+    public JsoupHtmlDocument(Document document) {
+        this.document = document;
+    }
+
+    @Override
+    public List<DocumentHeading> getHeadings() {
+        List<DocumentHeading> headings = new ArrayList<>();
+        traverse(null, new ContentHandler() {
+            @Override
+            public void heading(int level, String text) {
+                headings.add(new DocumentHeading(level, text));
+            }
+
+            @Override
+            public void link(Url link) {
+                // only headings are collected
+            }
+        });
+        return headings;
+    }
+
+    @Override
+    public List<URI> getLinks(URI baseUri) {
+        Url base = LinkResolver.base(baseUri);
+        List<URI> links = new ArrayList<>();
+        for (Element anchor : document.select("a")) {
+            Url link = LinkResolver.resolve(base, anchor.attr("href"));
+            if (link != null) {
+                links.add(link.toUri());
+            }
+        }
+        return links;
+    }
+
+    @Override
+    public String getTitle() {
+        return document.title();
+    }
+
+    @Override
+    public void traverse(URI baseUri, ContentHandler handler) {
+        Url base = LinkResolver.base(baseUri);
+        for (Element el : document.getAllElements()) {
+            int level = headingLevel(el);
+            if (level > 0) {
+                String text = el.text().trim();
+                if (!text.isEmpty()) {
+                    handler.heading(level, text);
+                }
+            } else if ("a".equals(el.tagName())) {
+                Url link = LinkResolver.resolve(base, el.attr("href"));
+                if (link != null) {
+                    handler.link(link);
+                }
+            }
+        }
+    }
+
+    private static int headingLevel(Element el) {
+        String tag = el.tagName();
+        if (tag.length() == 2 && tag.charAt(0) == 'h') {
+            int level = tag.charAt(1) - '0';
+            if (level >= 1 && level <= MAX_HEADING_LEVEL) {
+                return level;
+            }
+        }
+        return 0;
+    }
+}
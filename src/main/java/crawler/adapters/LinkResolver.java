@@ -0,0 +1,42 @@
+package crawler.adapters;
+
+import crawler.model.Url;
+
+import java.net.URI;
+
+/**
+ * Resolves raw href attribute values against a page URL.
+ */
+final class LinkResolver {
+
+    private LinkResolver() {
+        // Utility class - prevent instantiation
+    }
+
+    /**
+     * @param baseUri the URI passed to {@link HtmlDocument#traverse}
+     * @return the base for resolving links, or null if the URI is not absolute
+     */
+    static Url base(URI baseUri) {
+        if (baseUri == null || !baseUri.isAbsolute()) {
+            return null;
+        }
+        try {
+            return Url.of(baseUri);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @param base the URL of the page containing the link, or null if links are not needed
+     * @param href the raw href attribute value
+     * @return the resolved URL, or null for blank or malformed links
+     */
+    static Url resolve(Url base, String href) {
+        if (base == null || href == null || href.isBlank()) {
+            return null;
+        }
+        return base.resolve(href.trim());
+    }
+}
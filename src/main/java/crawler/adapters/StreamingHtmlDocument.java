@@ -0,0 +1,411 @@
+package crawler.adapters;
+
+import crawler.model.Url;
+import org.jsoup.parser.Tag;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import static crawler.constants.CrawlerConstants.MAX_HEADING_LEVEL;
+
+/**
+ * {@link HtmlDocument} that extracts headings and links by tokenizing the HTML on every
+ * traversal instead of building a DOM.
+ * <p>
+ * Only the state needed to reproduce the jsoup based extraction is kept: the open elements,
+ * the text of the heading being read and the links found inside it. Heading text is normalized
+ * the way jsoup's {@code Element.text()} does it.
+ * <p>
+ * A document built from a string tokenizes it again on every traversal. {@link #extract(Reader)}
+ * instead reads a stream once, e.g. a response body as it arrives, and keeps only the title,
+ * headings and link targets, so the HTML is never held in memory.
+ */
+public class StreamingHtmlDocument implements HtmlDocument {
+    private final String html;
+
+    public StreamingHtmlDocument(String html) {
+        this.html = html;
+    }
+
+    /**
+     * Streams headings and links from a reader without keeping the HTML in memory.
+     *
+     * @param reader  the HTML to tokenize
+     * @param baseUri the base URI for resolving relative links
+     * @param handler receives the headings and links
+     * @throws IOException if reading fails
+     */
+    public static void traverse(Reader reader, URI baseUri, ContentHandler handler) throws IOException {
+        ContentExtractor extractor = new ContentExtractor(resolving(LinkResolver.base(baseUri), handler));
+        new HtmlTokenizer(reader).tokenize(extractor);
+        extractor.finish();
+    }
+
+    /**
+     * Reads a document in one pass and keeps its title, headings and link targets.
+     * Links are resolved against the base URI given when the result is traversed.
+     *
+     * @param reader the HTML to tokenize
+     * @return the extracted document
+     * @throws IOException if reading fails
+     */
+    public static HtmlDocument extract(Reader reader) throws IOException {
+        ExtractedDocument document = new ExtractedDocument();
+        ContentExtractor extractor = new ContentExtractor(document);
+        TitleExtractor titleExtractor = new TitleExtractor();
+        new HtmlTokenizer(reader).tokenize(new HtmlTokenizer.TokenHandler() {
+            @Override
+            public void startTag(String name, HtmlTokenizer.Attributes attributes, boolean selfClosing) {
+                extractor.startTag(name, attributes, selfClosing);
+                titleExtractor.startTag(name, attributes, selfClosing);
+            }
+
+            @Override
+            public void endTag(String name) {
+                extractor.endTag(name);
+                titleExtractor.endTag(name);
+            }
+
+            @Override
+            public void text(String text, boolean data) {
+                extractor.text(text, data);
+                titleExtractor.text(text, data);
+            }
+        });
+        extractor.finish();
+        document.title = titleExtractor.title.toString().trim();
+        return document;
+    }
+
+    /**
+     * Resolves link targets against the base before handing them on; without a base, links are dropped.
+     */
+    private static TargetHandler resolving(Url base, ContentHandler handler) {
+        return new TargetHandler() {
+            @Override
+            public void heading(int level, String text) {
+                handler.heading(level, text);
+            }
+
+            @Override
+            public void link(String target) {
+                Url link = base == null ? null : LinkResolver.resolve(base, target);
+                if (link != null) {
+                    handler.link(link);
+                }
+            }
+        };
+    }
+
+    @Override
+    public void traverse(URI baseUri, ContentHandler handler) {
+        try {
+            traverse(new StringReader(html), baseUri, handler);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // a StringReader does not fail
+        }
+    }
+
+    @Override
+    public List<DocumentHeading> getHeadings() {
+        List<DocumentHeading> headings = new ArrayList<>();
+        traverse(null, new ContentHandler() {
+            @Override
+            public void heading(int level, String text) {
+                headings.add(new DocumentHeading(level, text));
+            }
+
+            @Override
+            public void link(Url link) {
+                // only headings are collected
+            }
+        });
+        return headings;
+    }
+
+    @Override
+    public List<URI> getLinks(URI baseUri) {
+        List<URI> links = new ArrayList<>();
+        traverse(baseUri, new ContentHandler() {
+            @Override
+            public void heading(int level, String text) {
+                // only links are collected
+            }
+
+            @Override
+            public void link(Url link) {
+                links.add(link.toUri());
+            }
+        });
+        return links;
+    }
+
+    @Override
+    public String getTitle() {
+        TitleExtractor extractor = new TitleExtractor();
+        try {
+            new HtmlTokenizer(new StringReader(html)).tokenize(extractor);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return extractor.title.toString().trim();
+    }
+
+    private static int headingLevel(String name) {
+        if (name.length() == 2 && name.charAt(0) == 'h') {
+            int level = name.charAt(1) - '0';
+            if (level >= 1 && level <= MAX_HEADING_LEVEL) {
+                return level;
+            }
+        }
+        return 0;
+    }
+
+    private static boolean isBlock(String name) {
+        return Tag.isKnownTag(name) && Tag.valueOf(name).isBlock();
+    }
+
+    private static boolean isVoid(String name, boolean selfClosing) {
+        if (Tag.isKnownTag(name)) {
+            return Tag.valueOf(name).isEmpty();
+        }
+        return selfClosing; // unknown tags written as <tag/> have no content
+    }
+
+    /**
+     * Appends text with whitespace runs collapsed to one space and invisible characters dropped,
+     * like jsoup does when collecting element text.
+     */
+    private static void appendNormalized(StringBuilder target, String text) {
+        boolean lastWasWhite = endsWithSpace(target);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == ' ' || c == '\t' || c == '\n' || c == '\f' || c == '\r' || c == '\u00A0') {
+                if (!lastWasWhite) {
+                    target.append(' ');
+                    lastWasWhite = true;
+                }
+            } else if (c != '\u200B' && c != '\u00AD') {
+                target.append(c);
+                lastWasWhite = false;
+            }
+        }
+    }
+
+    private static boolean endsWithSpace(StringBuilder text) {
+        return !text.isEmpty() && text.charAt(text.length() - 1) == ' ';
+    }
+
+    /**
+     * Receives headings and the decoded targets of links, before the links are resolved.
+     */
+    private interface TargetHandler {
+        void heading(int level, String text);
+
+        void link(String target);
+    }
+
+    /**
+     * Turns tokens into heading and link events in the order of their start tags.
+     * Links inside a heading are held back until the heading's text is complete.
+     */
+    private static final class ContentExtractor implements HtmlTokenizer.TokenHandler {
+        private final TargetHandler handler;
+        private final List<String> openElements = new ArrayList<>();
+        private final StringBuilder headingText = new StringBuilder();
+        private final List<String> headingLinks = new ArrayList<>();
+        private int headingLevel = 0;
+        private int headingDepth = 0;
+        private boolean spaceBeforeText = false;
+
+        private ContentExtractor(TargetHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void startTag(String name, HtmlTokenizer.Attributes attributes, boolean selfClosing) {
+            int level = headingLevel(name);
+            if (level > 0) {
+                closeHeading(); // headings do not nest
+                headingLevel = level;
+                headingDepth = openElements.size();
+                return;
+            }
+
+            if (name.equals("a")) {
+                String href = attributes.get("href");
+                if (href != null) {
+                    String target = HtmlTokenizer.decode(href, true);
+                    if (headingLevel > 0) {
+                        headingLinks.add(target);
+                    } else {
+                        handler.link(target);
+                    }
+                }
+            }
+
+            if (headingLevel > 0) {
+                spaceBeforeText = false;
+                if (isBlock(name) || name.equals("br")) {
+                    appendSpace();
+                }
+            }
+            if (!isVoid(name, selfClosing)) {
+                openElements.add(name);
+            }
+        }
+
+        @Override
+        public void endTag(String name) {
+            if (headingLevel(name) > 0) {
+                closeHeading();
+                return;
+            }
+
+            int index = openElements.lastIndexOf(name);
+            if (index < 0) {
+                return; // stray end tag
+            }
+            if (headingLevel > 0) {
+                if (index < headingDepth) {
+                    closeHeading(); // an element around the heading ends, so does the heading
+                } else if (isBlock(name)) {
+                    spaceBeforeText = true;
+                }
+            }
+            openElements.subList(index, openElements.size()).clear();
+        }
+
+        @Override
+        public void text(String text, boolean data) {
+            if (headingLevel == 0 || data) {
+                return;
+            }
+            if (spaceBeforeText) {
+                appendSpace();
+                spaceBeforeText = false;
+            }
+            appendNormalized(headingText, HtmlTokenizer.decode(text, false));
+        }
+
+        private void appendSpace() {
+            if (!headingText.isEmpty() && !endsWithSpace(headingText)) {
+                headingText.append(' ');
+            }
+        }
+
+        private void closeHeading() {
+            if (headingLevel == 0) {
+                return;
+            }
+            String text = headingText.toString().trim();
+            if (!text.isEmpty()) {
+                handler.heading(headingLevel, text);
+            }
+            headingLinks.forEach(handler::link);
+
+            headingLinks.clear();
+            headingText.setLength(0);
+            headingLevel = 0;
+            spaceBeforeText = false;
+        }
+
+        private void finish() {
+            closeHeading();
+        }
+    }
+
+    /**
+     * Collects the text of the first title element.
+     */
+    private static final class TitleExtractor implements HtmlTokenizer.TokenHandler {
+        private final StringBuilder title = new StringBuilder();
+        private boolean inTitle = false;
+        private boolean done = false;
+
+        @Override
+        public void startTag(String name, HtmlTokenizer.Attributes attributes, boolean selfClosing) {
+            inTitle = !done && name.equals("title");
+        }
+
+        @Override
+        public void endTag(String name) {
+            if (inTitle && name.equals("title")) {
+                inTitle = false;
+                done = true;
+            }
+        }
+
+        @Override
+        public void text(String text, boolean data) {
+            if (inTitle) {
+                appendNormalized(title, HtmlTokenizer.decode(text, false));
+            }
+        }
+    }
+
+    /**
+     * Document read by {@link #extract(Reader)}: headings and link targets in document order.
+     */
+    private static final class ExtractedDocument implements HtmlDocument, TargetHandler {
+        private final List<Object> content = new ArrayList<>(); // headings and link targets, in order
+        private String title = "";
+
+        @Override
+        public void heading(int level, String text) {
+            content.add(new DocumentHeading(level, text));
+        }
+
+        @Override
+        public void link(String target) {
+            content.add(target);
+        }
+
+        @Override
+        public void traverse(URI baseUri, ContentHandler handler) {
+            TargetHandler target = resolving(LinkResolver.base(baseUri), handler);
+            for (Object item : content) {
+                if (item instanceof DocumentHeading heading) {
+                    target.heading(heading.level(), heading.text());
+                } else {
+                    target.link((String) item);
+                }
+            }
+        }
+
+        @Override
+        public List<DocumentHeading> getHeadings() {
+            return content.stream()
+                    .filter(DocumentHeading.class::isInstance)
+                    .map(DocumentHeading.class::cast)
+                    .toList();
+        }
+
+        @Override
+        public List<URI> getLinks(URI baseUri) {
+            List<URI> links = new ArrayList<>();
+            traverse(baseUri, new ContentHandler() {
+                @Override
+                public void heading(int level, String text) {
+                    // only links are collected
+                }
+
+                @Override
+                public void link(Url link) {
+                    links.add(link.toUri());
+                }
+            });
+            return links;
+        }
+
+        @Override
+        public String getTitle() {
+            return title;
+        }
+    }
+}
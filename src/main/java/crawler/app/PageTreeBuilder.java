@@ -0,0 +1,131 @@
+package crawler.app;
+
+import crawler.frontier.CrawlTask;
+import crawler.model.CompactPageStore;
+import crawler.model.CompactPageStore.CompactPage;
+import crawler.model.PageResult;
+
+import java.net.URI;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Collects crawled pages together with their parent pointers and assembles
+ * the {@code PageResult} tree once the crawl has finished.
+ * Workers only record flat results, so nobody has to wait for child pages.
+ * <p>
+ * Pages are kept in a {@link CompactPageStore} during the crawl. The tree returned by
+ * {@link #build} expands child pages while they are iterated, so a report walks it without
+ * the whole expanded tree ever being in memory.
+ */
+public class PageTreeBuilder {
+    private final CompactPageStore store = new CompactPageStore();
+    private final Map<URI, CompactPage> pages = new ConcurrentHashMap<>();
+    private final Map<URI, Queue<URI>> childrenByParent = new ConcurrentHashMap<>();
+
+    /**
+     * Records the result of a finished crawl task.
+     *
+     * @param task the task that produced the page
+     * @param page the crawled page, without children
+     */
+    public void record(CrawlTask task, PageResult page) {
+        pages.put(task.url(), store.compact(page));
+        if (!task.isRoot()) {
+            childrenByParent.computeIfAbsent(task.parent(), p -> new ConcurrentLinkedQueue<>())
+                    .add(task.url());
+        }
+    }
+
+    /**
+     * Builds the page tree below the given root.
+     * Children are expanded from the compact store each time they are iterated.
+     *
+     * @param rootUrl the URL of the root page
+     * @return the root page with all children attached, or null if the root was never recorded
+     */
+    public PageResult build(URI rootUrl) {
+        if (!pages.containsKey(rootUrl)) {
+            return null;
+        }
+        return expand(rootUrl);
+    }
+
+    private PageResult expand(URI url) {
+        Queue<URI> childUrls = childrenByParent.get(url);
+        Set<PageResult> children = childUrls == null ? Set.of() : new ExpandingChildren(childUrls);
+        return store.expand(pages.get(url), children);
+    }
+
+    public int size() {
+        return pages.size();
+    }
+
+    /**
+     * @return the store holding the recorded pages
+     */
+    public CompactPageStore getStore() {
+        return store;
+    }
+
+    /**
+     * The recorded children of a page, expanded one at a time during iteration.
+     */
+    private final class ExpandingChildren extends AbstractSet<PageResult> {
+        private final Queue<URI> childUrls;
+
+        private ExpandingChildren(Queue<URI> childUrls) {
+            this.childUrls = childUrls;
+        }
+
+        @Override
+        public Iterator<PageResult> iterator() {
+            Iterator<URI> urls = childUrls.iterator();
+            return new Iterator<>() {
+                private URI next = advance();
+
+                private URI advance() {
+                    while (urls.hasNext()) {
+                        URI url = urls.next();
+                        if (pages.containsKey(url)) {
+                            return url;
+                        }
+                    }
+                    return null;
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return next != null;
+                }
+
+                @Override
+                public PageResult next() {
+                    if (next == null) {
+                        throw new NoSuchElementException();
+                    }
+                    URI url = next;
+                    next = advance();
+                    return expand(url);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            int count = 0;
+            for (URI url : childUrls) {
+                if (pages.containsKey(url)) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+}
@@ -1,76 +1,173 @@
 package crawler.app;
 
+import crawler.adapters.HtmlDocument;
+import crawler.adapters.HtmlDocumentSource;
+import crawler.checkpoint.CrawlJournal;
+import crawler.error.CrawlError;
+import crawler.error.DefaultErrorHandlingStrategy;
 import crawler.error.ErrorCollector;
+import crawler.error.ErrorHandlingStrategy;
+import crawler.error.RetryPolicy;
+import crawler.fetcher.HttpResponseCache;
 import crawler.fetcher.PageFetcher;
 import crawler.fetcher.RobotsTxtCache;
+import crawler.fetcher.RobotsTxtHandler;
+import crawler.frontier.CrawlTask;
+import crawler.frontier.Frontier;
+import crawler.host.CrawlDelayPolicy;
+import crawler.host.HostCircuitBreaker;
+import crawler.host.HostConcurrencyPolicy;
+import crawler.host.HostPermits;
 import crawler.model.CrawlerConfig;
 import crawler.model.PageResult;
+import crawler.model.Url;
 import crawler.parser.HtmlParser;
-import crawler.reporter.MarkdownReporter;
+import crawler.reporter.Reporter;
+import crawler.util.BloomVisitedSet;
 import crawler.util.LinkFilter;
 import org.jsoup.nodes.Document;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
-import java.util.ArrayList;
-import java.util.HashSet;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.*;
-
-import static crawler.constants.CrawlerConstants.MIN_THREADS;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static crawler.constants.CrawlerConstants.DEFAULT_CRAWL_DELAY_MS;
+import static crawler.constants.CrawlerConstants.DEFAULT_FRONTIER_HEAP_BUDGET_BYTES;
+import static crawler.constants.CrawlerConstants.DEFAULT_MAX_FETCHES_PER_HOST;
+import static crawler.constants.CrawlerConstants.MAX_VIRTUAL_THREADS_IN_FLIGHT;
 import static crawler.constants.CrawlerConstants.THREAD_KEEP_ALIVE_TIME;
 
 /**
  * Unified web crawler that supports both sequential and concurrent crawling.
- * When threadCount = 1, it behaves like a sequential crawler.
- * When threadCount > 1, it crawls pages concurrently.
+ * All engines take tasks from a {@link Frontier}, which hands out the shallowest task of the hosts
+ * that may be fetched now and lets hosts take turns within a depth. With strict breadth-first
+ * order, a depth only starts once the previous one is done, so every page is crawled at its
+ * minimal depth. The page tree
+ * is assembled from parent pointers once the frontier is exhausted.
+ * When threadCount = 1, tasks are crawled one at a time on the calling thread.
+ * When threadCount > 1, a dispatcher hands tasks to a fixed pool of workers.
+ * In virtual-thread mode every page fetch runs on its own virtual thread,
+ * bounded per host by {@link HostPermits}.
+ * The engines space fetches of the same host by its Crawl-delay, and hold a new
+ * host's URLs in the frontier while its robots.txt is prefetched in the background. A task whose
+ * host was evicted from the robots.txt cache goes back to the frontier and is held the same way,
+ * so no worker waits on robots I/O.
+ * How many fetches a host may have in flight adapts to its latency, timeouts and 429/503
+ * responses through a {@link HostConcurrencyPolicy}.
+ * Failed fetches that the {@link ErrorHandlingStrategy} deems transient are put back into the
+ * frontier with a backoff delay from the {@link RetryPolicy}.
+ * Pending URLs beyond the frontier's heap budget are spilled to disk.
+ * With an incremental report, pages are written as they finish instead of being kept
+ * for a report at the end.
+ * With a checkpoint directory, the crawler records its progress in a
+ * {@link CrawlJournal}, from which an interrupted crawl can be resumed.
  */
 public class WebCrawler {
     private static final Logger logger = LoggerFactory.getLogger(WebCrawler.class);
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final int SERVICE_UNAVAILABLE = 503;
+    private static final int SERVER_ERROR = 500;
+    /** Statuses worth retrying: timeout, rate limit and server errors. */
+    private static final Set<Integer> TRANSIENT_STATUSES = Set.of(408, 429, 500, 502, 503, 504);
+    /** Hosts listed when the concurrency windows are logged, narrowest first. */
+    private static final int LOGGED_HOST_WINDOWS = 10;
 
     private final PageFetcher fetcher;
+    private final HtmlDocumentSource documentSource;
     private final HtmlParser parser;
     private final RobotsTxtCache robotsCache;
     private final LinkFilter linkFilter;
-    private final MarkdownReporter reporter;
+    private final Reporter reporter;
     private final int threadCount;
-    private final long timeoutSeconds;
+    private final boolean virtualThreads;
+    private final boolean incrementalReport;
+    private final Path checkpointDirectory;
+    private final boolean resume;
+    private final long frontierHeapBudgetBytes;
+    private final boolean strictBreadthFirst;
+    private final HostPermits hostPermits;
+    private final CrawlDelayPolicy crawlDelays;
+    private final HostConcurrencyPolicy hostConcurrency;
+    private final ErrorHandlingStrategy errorStrategy;
+    private final RetryPolicy retryPolicy;
+    private final HostCircuitBreaker circuitBreaker;
+    private final ErrorCollector errorCollector = new ErrorCollector();
 
     /**
      * Creates a WebCrawler with configurable concurrency.
      *
-     * @param fetcher        Component for fetching web pages
-     * @param parser         Component for parsing HTML content
-     * @param robotsCache    Component for checking robots.txt rules
-     * @param linkFilter     Component for filtering links
-     * @param reporter       Component for generating reports
-     * @param threadCount    Number of threads to use (1 = sequential, >1 = concurrent)
-     * @param timeoutSeconds Timeout for individual page fetches
+     * @param fetcher     Component for fetching web pages
+     * @param parser      Component for parsing HTML content
+     * @param robotsCache Component for checking robots.txt rules
+     * @param linkFilter  Component for filtering links
+     * @param reporter    Component for generating reports
+     * @param threadCount Number of threads to use (1 = sequential, >1 = concurrent)
      */
     public WebCrawler(PageFetcher fetcher, HtmlParser parser, RobotsTxtCache robotsCache,
-                      LinkFilter linkFilter, MarkdownReporter reporter,
-                      int threadCount, long timeoutSeconds) {
-        this.fetcher = fetcher;
-        this.parser = parser;
-        this.robotsCache = robotsCache;
-        this.linkFilter = linkFilter;
-        this.reporter = reporter;
-        this.threadCount = Math.max(1, threadCount);
-        this.timeoutSeconds = timeoutSeconds;
+                      LinkFilter linkFilter, Reporter reporter, int threadCount) {
+        this(builder()
+                .fetcher(fetcher)
+                .parser(parser)
+                .robotsCache(robotsCache)
+                .linkFilter(linkFilter)
+                .reporter(reporter)
+                .threadCount(threadCount));
     }
 
     /**
      * Convenience constructor for sequential crawling (1 thread).
      */
     public WebCrawler(PageFetcher fetcher, HtmlParser parser, RobotsTxtCache robotsCache,
-                      LinkFilter linkFilter, MarkdownReporter reporter) {
-        this(fetcher, parser, robotsCache, linkFilter, reporter, 1, 30);
+                      LinkFilter linkFilter, Reporter reporter) {
+        this(fetcher, parser, robotsCache, linkFilter, reporter, 1);
+    }
+
+    private WebCrawler(Builder builder) {
+        this.fetcher = builder.fetcher;
+        this.documentSource = builder.documentSource;
+        this.parser = builder.parser;
+        this.robotsCache = builder.robotsCache;
+        this.linkFilter = builder.linkFilter;
+        this.reporter = builder.reporter;
+        this.threadCount = Math.max(1, builder.threadCount);
+        this.virtualThreads = builder.virtualThreads;
+        this.incrementalReport = builder.incrementalReport;
+        this.checkpointDirectory = builder.checkpointDirectory;
+        this.resume = builder.resume;
+        this.frontierHeapBudgetBytes = builder.frontierHeapBudgetBytes;
+        this.strictBreadthFirst = builder.strictBreadthFirst;
+        this.hostPermits = new HostPermits(builder.maxFetchesPerHost);
+        this.crawlDelays = new CrawlDelayPolicy(builder.defaultCrawlDelayMillis);
+        this.hostConcurrency = new HostConcurrencyPolicy(virtualThreads ? builder.maxFetchesPerHost : threadCount);
+        this.errorStrategy = builder.errorStrategy;
+        this.retryPolicy = builder.retryPolicy;
+        this.circuitBreaker = builder.circuitBreaker;
+    }
+
+    public static Builder builder() {
+        return new Builder();
     }
 
     /**
      * Executes the crawling process according to the provided configuration.
+     * The document source is closed when the crawl ends, so it runs at most one crawl.
      *
      * @param config The configuration for this crawl
      */
@@ -80,233 +177,702 @@ public class WebCrawler {
             return;
         }
 
+        try {
+            runCrawl(config);
+        } finally {
+            if (documentSource != null) {
+                documentSource.close();
+            }
+        }
+    }
+
+    private void runCrawl(CrawlerConfig config) {
         long startTime = System.currentTimeMillis();
+        errorCollector.clear();
 
-        if (threadCount == 1) {
+        if (virtualThreads) {
+            logger.info("Starting virtual-thread crawl with at most {} fetches per host, max depth {}",
+                    hostPermits.getPermitsPerHost(), config.getMaxDepth());
+        } else if (threadCount == 1) {
             logger.info("Starting sequential crawl, max depth {}", config.getMaxDepth());
-            crawlSequential(config, startTime);
         } else {
             logger.info("Starting concurrent crawl with {} threads, max depth {}",
                     threadCount, config.getMaxDepth());
-            crawlConcurrent(config, startTime);
         }
-    }
-
-    private void crawlSequential(CrawlerConfig config, long startTime) {
-        PageResult rootResult = crawlPageSequential(config.getRootUrl(), 0, config);
 
-        long endTime = System.currentTimeMillis();
-        logger.info("Sequential crawl completed in {} ms", endTime - startTime);
-
-        if (rootResult != null) {
-            reporter.writeReport(rootResult, config);
-        } else {
-            logger.warn("No crawl results were generated");
+        if (incrementalReport) {
+            try (Reporter.ReportWriter report = reporter.openReport(config, Reporter.Layout.FLAT)) {
+                runFrontier(config, (task, page) -> report.writePage(page, task.parent()));
+            } catch (IOException e) {
+                logger.error("Failed to write report: {}", e.getMessage());
+            }
+            logCompletion(startTime);
+            logErrorSummary();
+            return;
         }
-    }
 
-    private PageResult crawlPageSequential(URI url, int depth, CrawlerConfig config) {
-        logger.debug("Crawling {} at depth {} (sequential)", url, depth);
+        PageTreeBuilder tree = new PageTreeBuilder();
+        runFrontier(config, tree::record);
+        logCompletion(startTime);
+        generateReport(tree.build(config.getRootUrl()), config);
+    }
 
-        if (!isAllowedByRobots(url)) {
-            return PageResult.brokenLink(url, depth);
-        }
+    /**
+     * Crawls from the root until the frontier is exhausted, handing every finished page to the recorder.
+     */
+    private void runFrontier(CrawlerConfig config, BiConsumer<CrawlTask, PageResult> recorder) {
+        try (Frontier frontier = new Frontier(crawlDelays, hostConcurrency, robotsCache::prefetch,
+                frontierHeapBudgetBytes, null, strictBreadthFirst);
+             CrawlJournal journal = openJournal(config, recorder)) {
+            if (journal.isResumed()) {
+                List<CrawlTask> pending = journal.getPendingTasks();
+                logger.info("Resuming crawl from {} with {} pending pages", checkpointDirectory, pending.size());
+                pending.forEach(frontier::offer);
+            } else {
+                CrawlTask root = CrawlTask.root(config.getRootUrl());
+                linkFilter.markVisited(root.url());
+                journal.enqueued(root);
+                frontier.offer(root);
+            }
 
-        try {
-            return fetchAndParse(url, depth, config);
-        } catch (PageFetcher.FetchException e) {
-            logger.warn("Failed to fetch {}: {}", url, e.getMessage());
-            return PageResult.brokenLink(url, depth);
+            Consumer<CrawlTask> action = task -> crawlTask(task, config, frontier, recorder, journal);
+            if (isSequential()) {
+                dispatchSequential(frontier, action);
+            } else {
+                try (ExecutorService executor = createExecutor()) {
+                    dispatch(frontier, executor, action);
+                }
+            }
+            if (frontier.totalSpilledCount() > 0) {
+                logger.info("Frontier spilled {} pending URLs to disk", frontier.totalSpilledCount());
+            }
+        } catch (InterruptedException e) {
+            logger.warn("Crawl interrupted, reporting partial results");
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            logger.error("Cannot open checkpoint in {}: {}", checkpointDirectory, e.getMessage());
+        } catch (UncheckedIOException e) {
+            logger.error("Frontier spill failed, reporting partial results: {}", e.getMessage());
+        } catch (RejectedExecutionException e) {
+            logger.error("Crawl executor rejected a task, reporting partial results: {}", e.getMessage());
         }
     }
 
-    private PageResult fetchAndParse(URI url, int depth, CrawlerConfig config)
-            throws PageFetcher.FetchException {
-
-        Document document = fetcher.fetch(url);
-        PageResult page = parser.parse(url, depth, document);
-        Set<PageResult> children = processChildLinksSequential(page.getAllLinks(), depth, config);
+    /**
+     * Opens the checkpoint journal. A resumed journal marks its tasks as visited and hands its
+     * finished pages to the recorder, so they are reported without being fetched again.
+     */
+    private CrawlJournal openJournal(CrawlerConfig config, BiConsumer<CrawlTask, PageResult> recorder)
+            throws IOException {
+        if (checkpointDirectory == null) {
+            return CrawlJournal.disabled();
+        }
+        if (!resume) {
+            return CrawlJournal.create(checkpointDirectory, config);
+        }
+        return CrawlJournal.resume(checkpointDirectory, config, new CrawlJournal.Replay() {
+            @Override
+            public void enqueued(CrawlTask task) {
+                linkFilter.markVisited(task.url());
+            }
 
-        return page.withChildren(children);
+            @Override
+            public void completed(CrawlTask task, PageResult page) {
+                recorder.accept(task, page);
+            }
+        });
     }
 
-    private Set<PageResult> processChildLinksSequential(List<URI> links, int depth, CrawlerConfig config) {
-        Set<PageResult> children = new HashSet<>();
+    private boolean isSequential() {
+        return threadCount == 1 && !virtualThreads;
+    }
 
-        if (links == null || links.isEmpty()) {
-            return children;
-        }
+    private void logCompletion(long startTime) {
+        long endTime = System.currentTimeMillis();
+        logger.info("{} crawl completed in {} ms. Visited {} URLs, {} errors",
+                isSequential() ? "Sequential" : virtualThreads ? "Virtual-thread" : "Concurrent",
+                endTime - startTime, linkFilter.getVisitedCount(), errorCollector.getTotalErrors());
+        logStatistics();
+    }
 
-        for (URI link : links) {
-            if (isLinkEligibleForCrawling(link, depth, config) && linkFilter.markVisited(link)) {
-                PageResult child = crawlPageSequential(link, depth + 1, config);
-                if (child != null) {
-                    children.add(child);
-                }
+    /**
+     * Hands frontier tasks to the executor until the frontier is exhausted.
+     * The number of tasks in flight is bounded, so pending work stays in the frontier
+     * instead of piling up in the executor queue. The permit is taken before the task, so a
+     * task only leaves the frontier, and claims its host's slot, once a worker is free to run it.
+     */
+    private void dispatch(Frontier frontier, ExecutorService executor, Consumer<CrawlTask> action)
+            throws InterruptedException {
+        Semaphore inFlight = new Semaphore(virtualThreads ? MAX_VIRTUAL_THREADS_IN_FLIGHT : threadCount);
+
+        while (true) {
+            inFlight.acquire();
+            CrawlTask current = frontier.take();
+            if (current == null) {
+                inFlight.release();
+                return;
+            }
+            try {
+                executor.execute(() -> {
+                    try {
+                        action.accept(current);
+                    } catch (RuntimeException e) {
+                        logger.warn("Unexpected error crawling {}: {}", current.url(), e.getMessage());
+                        recordError(current.url(), current.depth(), CrawlError.ErrorType.UNKNOWN, e);
+                    } finally {
+                        inFlight.release();
+                        frontier.complete(current);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                inFlight.release();
+                frontier.complete(current);
+                throw e;
             }
-
         }
-
-        return children;
     }
 
-    private void crawlConcurrent(CrawlerConfig config, long startTime) {
-        ErrorCollector errorCollector = new ErrorCollector();
-
-        try (ThreadPoolExecutor executor = createThreadPool()) {
-            PageResult rootResult = crawlPageConcurrent(config.getRootUrl(), 0, config,
-                    executor, errorCollector);
+    /**
+     * Crawls frontier tasks one at a time on the calling thread until the frontier is exhausted.
+     */
+    private void dispatchSequential(Frontier frontier, Consumer<CrawlTask> action) throws InterruptedException {
+        CrawlTask task;
 
-            long endTime = System.currentTimeMillis();
-            logger.info("Concurrent crawl completed in {} ms. Visited {} URLs, {} errors",
-                    endTime - startTime, linkFilter.getVisitedCount(), errorCollector.getTotalErrors());
+        while ((task = frontier.take()) != null) {
+            try {
+                action.accept(task);
+            } catch (RuntimeException e) {
+                logger.warn("Unexpected error crawling {}: {}", task.url(), e.getMessage());
+                recordError(task.url(), task.depth(), CrawlError.ErrorType.UNKNOWN, e);
+            } finally {
+                frontier.complete(task);
+            }
+        }
+    }
 
-            generateReport(rootResult, config, errorCollector);
+    private void crawlTask(CrawlTask task, CrawlerConfig config, Frontier frontier,
+                           BiConsumer<CrawlTask, PageResult> recorder, CrawlJournal journal) {
+        logger.debug("Crawling {} at depth {}", task.url(), task.depth());
+        PageResult page = virtualThreads
+                ? fetchPageWithHostPermit(task, frontier)
+                : fetchTaskPage(task, frontier);
+        if (page == null) {
+            return; // retried later as a new task
+        }
+        recorder.accept(task, page);
 
-        } catch (Exception e) {
-            logger.error("Fatal error during concurrent crawl", e);
+        if (!page.broken()) {
+            enqueueChildLinks(task, page.getAllLinks(), config, frontier, journal);
         }
+        journal.completed(task, page);
     }
 
-    private PageResult crawlPageConcurrent(URI url, int depth, CrawlerConfig config,
-                                           ThreadPoolExecutor executor, ErrorCollector errorCollector) {
-        logger.debug("Crawling {} at depth {} (concurrent)", url, depth);
+    private PageResult fetchPageWithHostPermit(CrawlTask task, Frontier frontier) {
+        URI url = task.url();
+        try {
+            hostPermits.acquire(url);
+        } catch (InterruptedException e) {
+            logger.warn("Interrupted while waiting for a fetch slot for {}", url);
+            Thread.currentThread().interrupt();
+            recordError(url, task.depth(), CrawlError.ErrorType.THREAD_INTERRUPTED, e);
+            return PageResult.brokenLink(url, task.depth());
+        }
 
-        if (!robotsCache.getHandler(url).isAllowed(url)) {
-            logger.debug("Blocked by robots.txt: {}", url);
-            return PageResult.brokenLink(url, depth);
+        try {
+            return fetchTaskPage(task, frontier);
+        } finally {
+            hostPermits.release(url);
         }
+    }
 
-        PageResult pageResult;
+    /**
+     * Fetches a task's page in every crawl mode, checking robots.txt and the host's circuit
+     * breaker first. Any failure yields a broken page, so the page is always recorded and journaled.
+     *
+     * @return the page, or null if the task was queued again, after a failed fetch or
+     *         because the host's robots.txt is not loaded
+     */
+    private PageResult fetchTaskPage(CrawlTask task, Frontier frontier) {
+        URI url = task.url();
+        int depth = task.depth();
         try {
-            Document document = fetcher.fetch(url);
-            pageResult = parser.parse(url, depth, document);
-        } catch (Exception e) {
+            RobotsTxtHandler robots = robotsCache.getLoadedHandler(url);
+            if (robots == null) {
+                // evicted from the robots.txt cache: the frontier holds the host until it is loaded again
+                logger.debug("robots.txt for {} is not loaded, queueing the task again", url);
+                frontier.retry(task, 0);
+                return null;
+            }
+            crawlDelays.setCrawlDelay(url, robots.getCrawlDelayMillis());
+            if (!robots.isAllowed(url)) {
+                logger.debug("Blocked by robots.txt: {}", url);
+                return robotsBlockedPage(url, depth);
+            }
+            if (!circuitBreaker.allowRequest(url)) {
+                return circuitOpenPage(url, depth);
+            }
+            return fetchPage(url, depth);
+        } catch (PageFetcher.ContentSkippedException e) {
+            return skippedPage(url, depth, e);
+        } catch (PageFetcher.FetchException e) {
+            return fetchFailed(task, frontier, e);
+        } catch (RuntimeException e) {
             logger.warn("Failed to crawl {}: {}", url, e.getMessage());
+            recordError(url, depth, CrawlError.ErrorType.UNKNOWN, e);
             return PageResult.brokenLink(url, depth);
         }
+    }
 
-        if (pageResult.broken()) {
-            return pageResult;
+    /**
+     * Lets the error handling strategy decide about a failed fetch. Retries are put back into the
+     * frontier with a delay from the retry policy, so no worker waits for them. Every failed
+     * attempt is recorded, including those that are retried.
+     *
+     * @return the broken page, or null if the task was scheduled for a retry
+     */
+    private PageResult fetchFailed(CrawlTask task, Frontier frontier, PageFetcher.FetchException e) {
+        CrawlError error = CrawlError.create(task.url(), task.depth(), errorTypeOf(e), e.getMessage(), e.getCause());
+        errorCollector.addError(error);
+        if (errorStrategy.handleError(error) == ErrorHandlingStrategy.ErrorAction.RETRY) {
+            long delayMillis = retryPolicy.retryDelayMillis(task.attempt(), e.getRetryAfter());
+            if (delayMillis >= 0) {
+                logger.debug("Retrying {} in {} ms (attempt {})", task.url(), delayMillis, task.attempt() + 2);
+                frontier.retry(task.retry(), TimeUnit.MILLISECONDS.toNanos(delayMillis));
+                return null;
+            }
+            logger.debug("Not retrying {} after {} attempts", task.url(), task.attempt() + 1);
         }
-
-        List<URI> links = pageResult.getAllLinks();
-        Set<PageResult> children = crawlChildrenConcurrent(links, depth + 1, config,
-                executor, errorCollector);
-
-        return pageResult.withChildren(children);
+        return PageResult.brokenLink(task.url(), task.depth());
     }
 
-    private Set<PageResult> crawlChildrenConcurrent(List<URI> links, int childDepth,
-                                                    CrawlerConfig config, ThreadPoolExecutor executor,
-                                                    ErrorCollector errorCollector) {
-        if (links == null || links.isEmpty()) {
-            return Set.of();
+    private static CrawlError.ErrorType errorTypeOf(PageFetcher.FetchException e) {
+        if (e.isTimeout()) {
+            return CrawlError.ErrorType.TIMEOUT;
         }
-
-        List<Future<PageResult>> futures = submitCrawlTasks(links, childDepth, config, executor, errorCollector);
-        return collectResults(futures, childDepth);
+        int status = e.getStatusCode();
+        if (status >= 0) {
+            return TRANSIENT_STATUSES.contains(status)
+                    ? CrawlError.ErrorType.HTTP_UNAVAILABLE
+                    : CrawlError.ErrorType.HTTP_ERROR;
+        }
+        if (e.getCause() instanceof HtmlDocumentSource.DocumentRetrievalException retrieval) {
+            return switch (retrieval.getErrorType()) {
+                case INVALID_URL -> CrawlError.ErrorType.INVALID_URL;
+                case PARSING_ERROR -> CrawlError.ErrorType.PARSING_ERROR;
+                case TIMEOUT -> CrawlError.ErrorType.TIMEOUT;
+                case CONTENT_SKIPPED -> CrawlError.ErrorType.CONTENT_SKIPPED;
+                case NETWORK_ERROR, HTTP_ERROR -> CrawlError.ErrorType.NETWORK_ERROR;
+            };
+        }
+        if (e.getCause() instanceof IllegalArgumentException) {
+            return CrawlError.ErrorType.INVALID_URL;
+        }
+        return CrawlError.ErrorType.NETWORK_ERROR;
     }
 
-    private List<Future<PageResult>> submitCrawlTasks(List<URI> links, int childDepth,
-                                                      CrawlerConfig config, ThreadPoolExecutor executor,
-                                                      ErrorCollector errorCollector) {
-        List<Future<PageResult>> futures = new ArrayList<>();
+    /**
+     * Fetches and parses a page through the configured document source,
+     * or through the jsoup page fetcher if none is set.
+     * The fetch's latency or overload signal adjusts the host's concurrency window, and its
+     * outcome feeds the host's circuit breaker.
+     */
+    private PageResult fetchPage(URI url, int depth) throws PageFetcher.FetchException {
+        retryPolicy.recordFetch();
+        long start = System.nanoTime();
+        boolean answered = false;
+        try {
+            if (documentSource == null) {
+                Document document = fetcher.fetch(url);
+                answered = true;
+                fetchSucceeded(url, start);
+                return parser.parse(url, depth, document);
+            }
 
-        for (URI link : links) {
-            if (isLinkEligibleForCrawling(link, childDepth - 1, config) && linkFilter.markVisited(link)) {
-                Future<PageResult> future = executor.submit(() ->
-                        crawlPageConcurrent(link, childDepth, config, executor, errorCollector)
-                );
-                futures.add(future);
+            HtmlDocument document = fetchDocument(url);
+            answered = true;
+            fetchSucceeded(url, start);
+            return parser.parse(url, depth, document);
+        } catch (PageFetcher.ContentSkippedException e) {
+            circuitBreaker.recordSuccess(url);
+            throw e;
+        } catch (PageFetcher.FetchException e) {
+            if (isOverload(e)) {
+                logger.debug("Host of {} is overloaded, narrowing its window: {}", url, e.getMessage());
+                hostConcurrency.recordOverload(url);
+            }
+            if (isHostFailure(e)) {
+                circuitBreaker.recordFailure(url);
+            } else {
+                circuitBreaker.recordSuccess(url);
+            }
+            throw e;
+        } catch (RuntimeException e) {
+            if (!answered) {
+                circuitBreaker.recordFailure(url);
             }
+            throw e;
         }
-
-        return futures;
     }
 
-    private Set<PageResult> collectResults(List<Future<PageResult>> futures, int childDepth) {
-        Set<PageResult> children = new HashSet<>();
+    private void fetchSucceeded(URI url, long start) {
+        hostConcurrency.recordSuccess(url, System.nanoTime() - start);
+        circuitBreaker.recordSuccess(url);
+    }
 
-        for (Future<PageResult> future : futures) {
-            try {
-                PageResult child = future.get(timeoutSeconds, TimeUnit.SECONDS);
-                if (child != null) {
-                    children.add(child);
-                }
-            } catch (TimeoutException e) {
-                logger.warn("Timeout waiting for child result at depth {}", childDepth);
-                future.cancel(true);
-            } catch (InterruptedException e) {
-                logger.warn("Thread interrupted while waiting for child result at depth {}", childDepth);
-                Thread.currentThread().interrupt();
-                cancelRemainingFutures(futures, future);
-                return children; // Return partial results
-            } catch (ExecutionException e) {
-                logger.warn("Error getting child result at depth {}: {}", childDepth, e.getMessage());
-                if (e.getCause() != null) {
-                    logger.debug("Execution error cause: {}", e.getCause().getMessage());
-                }
+    private HtmlDocument fetchDocument(URI url) throws PageFetcher.FetchException {
+        try {
+            return documentSource.fetchDocument(url);
+        } catch (HtmlDocumentSource.DocumentRetrievalException e) {
+            if (e.getErrorType() == HtmlDocumentSource.DocumentRetrievalException.ErrorType.CONTENT_SKIPPED) {
+                throw new PageFetcher.ContentSkippedException(e.getMessage());
             }
+            throw new PageFetcher.FetchException(e.getMessage(), e, e.getStatusCode(), e.getRetryAfter());
         }
+    }
+
+    private static boolean isOverload(PageFetcher.FetchException e) {
+        int status = e.getStatusCode();
+        return e.isTimeout() || status == TOO_MANY_REQUESTS || status == SERVICE_UNAVAILABLE;
+    }
+
+    /**
+     * A host fails if it does not answer or answers with a server error; a 404 or an invalid URL
+     * says nothing about the host's health.
+     */
+    private static boolean isHostFailure(PageFetcher.FetchException e) {
+        return switch (errorTypeOf(e)) {
+            case NETWORK_ERROR, TIMEOUT -> true;
+            case HTTP_UNAVAILABLE -> e.getStatusCode() >= SERVER_ERROR;
+            default -> false;
+        };
+    }
+
+    private PageResult circuitOpenPage(URI url, int depth) {
+        logger.debug("Circuit breaker open, not fetching {}", url);
+        errorCollector.addError(CrawlError.create(url, depth, CrawlError.ErrorType.CIRCUIT_OPEN,
+                "Host is failing, circuit breaker open"));
+        return PageResult.brokenLink(url, depth);
+    }
+
+    private PageResult robotsBlockedPage(URI url, int depth) {
+        errorCollector.addError(CrawlError.create(url, depth, CrawlError.ErrorType.ROBOTS_BLOCKED,
+                "Blocked by robots.txt"));
+        return PageResult.brokenLink(url, depth);
+    }
 
-        return children;
+    private void recordError(URI url, int depth, CrawlError.ErrorType type, Exception e) {
+        String message = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+        errorCollector.addError(CrawlError.create(url, depth, type, message, e));
     }
 
-    private void cancelRemainingFutures(List<Future<PageResult>> futures, Future<PageResult> excludeFuture) {
-        futures.stream()
-                .filter(f -> f != excludeFuture && !f.isDone())
-                .forEach(f -> f.cancel(true));
+    private PageResult skippedPage(URI url, int depth, PageFetcher.ContentSkippedException e) {
+        logger.debug("{}", e.getMessage());
+        errorCollector.addError(CrawlError.create(url, depth, CrawlError.ErrorType.CONTENT_SKIPPED, e.getMessage()));
+        return PageResult.skipped(url, depth);
     }
 
-    private boolean isAllowedByRobots(URI url) {
-        boolean allowed = robotsCache.getHandler(url).isAllowed(url);
-        if (!allowed) {
-            logger.warn("Blocked by robots.txt: {}", url);
+    private void enqueueChildLinks(CrawlTask task, List<Url> links, CrawlerConfig config, Frontier frontier,
+                                   CrawlJournal journal) {
+        if (links == null || links.isEmpty()) {
+            return;
+        }
+
+        for (Url link : links) {
+            if (isLinkEligibleForCrawling(link, task.depth(), config) && linkFilter.markVisited(link)) {
+                CrawlTask child = task.child(link.toUri());
+                journal.enqueued(child);
+                frontier.offer(child);
+            }
         }
-        return allowed;
     }
 
-    private boolean isLinkEligibleForCrawling(URI link, int depth, CrawlerConfig config) {
-        return linkFilter.isAllowedDomain(link, config.getAllowedDomains()) &&
+    private boolean isLinkEligibleForCrawling(Url link, int depth, CrawlerConfig config) {
+        return linkFilter.isAllowedDomain(link, config.getDomainMatcher()) &&
                 depth + 1 <= config.getMaxDepth();
     }
 
+    private ExecutorService createExecutor() {
+        if (virtualThreads) {
+            return Executors.newVirtualThreadPerTaskExecutor();
+        }
+        return createThreadPool();
+    }
+
     private ThreadPoolExecutor createThreadPool() {
+        AtomicInteger threadNumber = new AtomicInteger(1);
         return new ThreadPoolExecutor(
-                Math.min(threadCount, MIN_THREADS),
+                threadCount,
                 threadCount,
                 THREAD_KEEP_ALIVE_TIME,
                 TimeUnit.SECONDS,
                 new LinkedBlockingQueue<>(),
                 r -> {
-                    Thread t = new Thread(r, "CrawlerThread");
+                    Thread t = new Thread(r, "CrawlerThread-" + threadNumber.getAndIncrement());
                     t.setDaemon(true);
                     return t;
                 }
         );
     }
 
-    private void generateReport(PageResult rootResult, CrawlerConfig config, ErrorCollector errorCollector) {
+    private void logStatistics() {
+        logger.info("Visited set holds {} URLs in about {} KiB",
+                linkFilter.getVisitedCount(), linkFilter.getVisitedMemoryBytes() / 1024);
+        if (linkFilter.getVisitedSet() instanceof BloomVisitedSet filter) {
+            logger.info("Visited filter: fill ratio {}, estimated false-positive rate {} (target {})",
+                    String.format("%.3f", filter.getFillRatio()), String.format("%.2e", filter.getFalsePositiveRate()),
+                    filter.getTargetFalsePositiveRate());
+        }
+        HttpResponseCache cache = fetcher == null ? null : fetcher.getCache();
+        if (cache != null) {
+            logger.info("HTTP cache: {} hits, {} revalidated, {} misses",
+                    cache.getHitCount(), cache.getRevalidatedCount(), cache.getMissCount());
+        }
+        Map<String, Integer> windows = hostConcurrency.getWindows();
+        if (!windows.isEmpty()) {
+            String narrowest = windows.entrySet().stream()
+                    .sorted(Map.Entry.comparingByValue())
+                    .limit(LOGGED_HOST_WINDOWS)
+                    .map(entry -> entry.getKey() + "=" + entry.getValue())
+                    .collect(Collectors.joining(", "));
+            logger.info("Host concurrency windows for {} hosts (max {}), narrowest: {}",
+                    windows.size(), hostConcurrency.getMaxWindow(), narrowest);
+        }
+        Map<String, HostCircuitBreaker.State> tripped = circuitBreaker.getTrippedHosts();
+        if (!tripped.isEmpty()) {
+            logger.info("Circuit breakers not closed for {} hosts: {}", tripped.size(), tripped);
+        }
+    }
+
+    private void generateReport(PageResult rootResult, CrawlerConfig config) {
         if (rootResult != null) {
             reporter.writeReport(rootResult, config);
-
-            if (errorCollector.hasErrors()) {
-                logger.info("Crawl completed with {} errors. Error breakdown: {}",
-                        errorCollector.getTotalErrors(),
-                        errorCollector.getErrorStatistics());
-            }
+            logErrorSummary();
         } else {
             logger.warn("No crawl results generated - check configuration and connectivity");
         }
     }
 
+    private void logErrorSummary() {
+        if (errorCollector.hasErrors()) {
+            logger.info("Crawl completed with {} errors. Error breakdown: {}",
+                    errorCollector.getTotalErrors(),
+                    errorCollector.getErrorStatistics());
+        }
+    }
+
     // Getters for testing
     public int getThreadCount() {
         return threadCount;
     }
 
-    public long getTimeoutSeconds() {
-        return timeoutSeconds;
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public boolean usesIncrementalReport() {
+        return incrementalReport;
+    }
+
+    public Path getCheckpointDirectory() {
+        return checkpointDirectory;
+    }
+
+    public boolean resumesFromCheckpoint() {
+        return resume;
+    }
+
+    public long getFrontierHeapBudgetBytes() {
+        return frontierHeapBudgetBytes;
+    }
+
+    public boolean isStrictBreadthFirst() {
+        return strictBreadthFirst;
+    }
+
+    /**
+     * @return the current number of fetches each host may have in flight, by host
+     */
+    public Map<String, Integer> getHostConcurrencyWindows() {
+        return hostConcurrency.getWindows();
+    }
+
+    /**
+     * @return the per-host circuit breakers consulted before every fetch
+     */
+    public HostCircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * @return the errors recorded during the last crawl
+     */
+    public ErrorCollector getErrorCollector() {
+        return errorCollector;
+    }
+
+    /**
+     * Builder for crawlers that need more than the constructor defaults.
+     */
+    public static class Builder {
+        private PageFetcher fetcher;
+        private HtmlDocumentSource documentSource;
+        private HtmlParser parser;
+        private RobotsTxtCache robotsCache;
+        private LinkFilter linkFilter;
+        private Reporter reporter;
+        private int threadCount = 1;
+        private boolean virtualThreads = false;
+        private boolean incrementalReport = false;
+        private Path checkpointDirectory;
+        private boolean resume = false;
+        private long frontierHeapBudgetBytes = DEFAULT_FRONTIER_HEAP_BUDGET_BYTES;
+        private boolean strictBreadthFirst = false;
+        private int maxFetchesPerHost = DEFAULT_MAX_FETCHES_PER_HOST;
+        private long defaultCrawlDelayMillis = DEFAULT_CRAWL_DELAY_MS;
+        private ErrorHandlingStrategy errorStrategy = new DefaultErrorHandlingStrategy();
+        private RetryPolicy retryPolicy = new RetryPolicy();
+        private HostCircuitBreaker circuitBreaker = new HostCircuitBreaker();
+
+        private Builder() {}
+
+        public Builder fetcher(PageFetcher fetcher) {
+            this.fetcher = fetcher;
+            return this;
+        }
+
+        /**
+         * Fetches pages through the given document source instead of the jsoup page fetcher.
+         * The crawler closes the source when its crawl ends.
+         */
+        public Builder documentSource(HtmlDocumentSource documentSource) {
+            this.documentSource = documentSource;
+            return this;
+        }
+
+        public Builder parser(HtmlParser parser) {
+            this.parser = parser;
+            return this;
+        }
+
+        public Builder robotsCache(RobotsTxtCache robotsCache) {
+            this.robotsCache = robotsCache;
+            return this;
+        }
+
+        public Builder linkFilter(LinkFilter linkFilter) {
+            this.linkFilter = linkFilter;
+            return this;
+        }
+
+        public Builder reporter(Reporter reporter) {
+            this.reporter = reporter;
+            return this;
+        }
+
+        /**
+         * Number of platform threads (1 = sequential, >1 = concurrent).
+         * Ignored when virtual threads are enabled.
+         */
+        public Builder threadCount(int threadCount) {
+            this.threadCount = threadCount;
+            return this;
+        }
+
+        /**
+         * Runs every page fetch on its own virtual thread instead of a fixed thread pool.
+         */
+        public Builder virtualThreads(boolean virtualThreads) {
+            this.virtualThreads = virtualThreads;
+            return this;
+        }
+
+        /**
+         * Writes each page to the report as soon as it is finished instead of building the
+         * page tree first, using {@link Reporter.Layout#FLAT}.
+         */
+        public Builder incrementalReport(boolean incrementalReport) {
+            this.incrementalReport = incrementalReport;
+            return this;
+        }
+
+        /**
+         * Records the crawl's progress in a journal in this directory, so that it can be resumed.
+         */
+        public Builder checkpointDirectory(Path checkpointDirectory) {
+            this.checkpointDirectory = checkpointDirectory;
+            return this;
+        }
+
+        /**
+         * Continues the crawl recorded in the checkpoint directory instead of starting over.
+         * Pages finished before are reported without being fetched again.
+         */
+        public Builder resume(boolean resume) {
+            this.resume = resume;
+            return this;
+        }
+
+        /**
+         * Estimated heap memory the frontier may use for pending URLs before it spills
+         * further URLs to disk.
+         */
+        public Builder frontierHeapBudgetBytes(long frontierHeapBudgetBytes) {
+            this.frontierHeapBudgetBytes = frontierHeapBudgetBytes;
+            return this;
+        }
+
+        /**
+         * Starts a depth only once the previous one is done, so every page is crawled at its
+         * minimal depth, at the cost of idle workers while a slow host finishes a depth.
+         */
+        public Builder strictBreadthFirst(boolean strictBreadthFirst) {
+            this.strictBreadthFirst = strictBreadthFirst;
+            return this;
+        }
+
+        /**
+         * Maximum number of simultaneous fetches per host in virtual-thread mode.
+         */
+        public Builder maxFetchesPerHost(int maxFetchesPerHost) {
+            this.maxFetchesPerHost = maxFetchesPerHost;
+            return this;
+        }
+
+        /**
+         * Minimum spacing between two fetches of the same host when its robots.txt
+         * announces no Crawl-delay.
+         */
+        public Builder defaultCrawlDelayMillis(long defaultCrawlDelayMillis) {
+            this.defaultCrawlDelayMillis = defaultCrawlDelayMillis;
+            return this;
+        }
+
+        /**
+         * Decides per error type whether a failed fetch is retried or reported as a broken link.
+         */
+        public Builder errorHandlingStrategy(ErrorHandlingStrategy errorStrategy) {
+            this.errorStrategy = errorStrategy;
+            return this;
+        }
+
+        /**
+         * Backoff, maximum attempts and crawl-wide budget for retried fetches.
+         */
+        public Builder retryPolicy(RetryPolicy retryPolicy) {
+            this.retryPolicy = retryPolicy;
+            return this;
+        }
+
+        /**
+         * Failure threshold and open duration after which requests to a failing host are refused.
+         */
+        public Builder circuitBreaker(HostCircuitBreaker circuitBreaker) {
+            this.circuitBreaker = circuitBreaker;
+            return this;
+        }
+
+        public WebCrawler build() {
+            return new WebCrawler(this);
+        }
     }
 }
\ No newline at end of file
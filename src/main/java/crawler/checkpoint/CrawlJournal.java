@@ -0,0 +1,427 @@
+package crawler.checkpoint;
+
+import crawler.frontier.CrawlTask;
+import crawler.model.CrawlerConfig;
+import crawler.model.PageResult;
+import crawler.model.PageResult.Heading;
+import crawler.model.PageResult.Section;
+import crawler.model.Url;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import static crawler.constants.CrawlerConstants.CHECKPOINT_INTERVAL_MS;
+import static crawler.constants.CrawlerConstants.CHECKPOINT_JOURNAL_FILENAME;
+
+/**
+ * Append-only journal of a crawl, from which an interrupted crawl is resumed.
+ * <p>
+ * Every task is recorded when it enters the frontier and again, with its page, once it is
+ * finished. The tasks of a page's links are recorded before the page itself, so a crash between
+ * the two only causes that page to be fetched again. On resume, the enqueued tasks rebuild the
+ * visited set, finished pages are handed back without being fetched, and the remaining tasks
+ * are the pending frontier.
+ * <p>
+ * Records are buffered and written to disk at most every {@value
+ * crawler.constants.CrawlerConstants#CHECKPOINT_INTERVAL_MS} ms, so a crash loses at most that much
+ * work. Each record carries its length and a CRC-32; a torn record at the end of the journal is
+ * dropped on resume. Write failures stop the journal but not the crawl.
+ */
+public final class CrawlJournal implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(CrawlJournal.class);
+
+    private static final int MAGIC = 0x57434a31; // "WCJ1"
+    private static final byte HEADER = 'H';
+    private static final byte ENQUEUED = 'E';
+    private static final byte COMPLETED = 'C';
+
+    private final Path file;
+    private final FileChannel channel;
+    private final OutputStream out;
+    private final long intervalNanos;
+    private final RecordBuffer record = new RecordBuffer();
+    private final DataOutputStream body = new DataOutputStream(record);
+    private final CRC32 crc = new CRC32();
+    private final List<CrawlTask> pendingTasks;
+    private final boolean resumed;
+    private long lastCheckpoint = System.nanoTime();
+    private long recordCount;
+    private IOException failure;
+
+    private CrawlJournal(Path file, FileChannel channel, long intervalMillis,
+                         List<CrawlTask> pendingTasks, boolean resumed) {
+        this.file = file;
+        this.channel = channel;
+        this.out = channel == null ? null : new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16);
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+        this.pendingTasks = pendingTasks;
+        this.resumed = resumed;
+    }
+
+    /**
+     * @return a journal that records nothing
+     */
+    public static CrawlJournal disabled() {
+        return new CrawlJournal(null, null, 0, List.of(), false);
+    }
+
+    /**
+     * Starts a new journal in the directory, replacing any previous one.
+     *
+     * @param directory the checkpoint directory, created if missing
+     * @param config    the crawl to record
+     * @return the open journal
+     * @throws IOException if the journal cannot be created
+     */
+    public static CrawlJournal create(Path directory, CrawlerConfig config) throws IOException {
+        Files.createDirectories(directory);
+        Path file = directory.resolve(CHECKPOINT_JOURNAL_FILENAME);
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        CrawlJournal journal = new CrawlJournal(file, channel, CHECKPOINT_INTERVAL_MS, List.of(), false);
+        try {
+            journal.writeHeader(config);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return journal;
+    }
+
+    /**
+     * Replays the journal in the directory and opens it for further records.
+     * Starts a new journal if the directory holds none.
+     *
+     * @param directory the checkpoint directory
+     * @param config    the crawl to resume; must have the root URL and depth of the recorded crawl
+     * @param replay    receives the recorded tasks and finished pages
+     * @return the open journal, whose {@link #getPendingTasks} are the tasks still to crawl
+     * @throws IOException if the journal cannot be read or belongs to a different crawl
+     */
+    public static CrawlJournal resume(Path directory, CrawlerConfig config, Replay replay) throws IOException {
+        Path file = directory.resolve(CHECKPOINT_JOURNAL_FILENAME);
+        if (!Files.exists(file) || Files.size(file) == 0) {
+            return create(directory, config);
+        }
+
+        Map<URI, CrawlTask> pending = new LinkedHashMap<>();
+        long validLength = replay(file, config, pending, replay);
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE);
+        try {
+            if (validLength < channel.size()) {
+                logger.warn("Dropping {} bytes of an incomplete record at the end of {}",
+                        channel.size() - validLength, file);
+                channel.truncate(validLength);
+            }
+            channel.position(validLength);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return new CrawlJournal(file, channel, CHECKPOINT_INTERVAL_MS, List.copyOf(pending.values()), true);
+    }
+
+    /**
+     * Records a task that was added to the frontier.
+     */
+    public synchronized void enqueued(CrawlTask task) {
+        if (out == null || failure != null) {
+            return;
+        }
+        try {
+            startRecord(ENQUEUED);
+            writeString(task.url().toString());
+            body.writeInt(task.depth());
+            writeString(task.parent() == null ? "" : task.parent().toString());
+            appendRecord();
+            recordCount++;
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Records a finished task together with its page. The tasks for the page's links must have
+     * been recorded before.
+     */
+    public synchronized void completed(CrawlTask task, PageResult page) {
+        if (out == null || failure != null) {
+            return;
+        }
+        try {
+            startRecord(COMPLETED);
+            writeString(task.url().toString());
+            body.writeBoolean(page.broken());
+            body.writeInt(page.sections().size());
+            for (Section section : page.sections()) {
+                body.writeInt(section.heading().level());
+                writeString(section.heading().text());
+                body.writeInt(section.links().size());
+                for (Url link : section.links()) {
+                    writeString(link.toString());
+                }
+            }
+            appendRecord();
+            recordCount++;
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Writes all buffered records to disk.
+     */
+    public synchronized void checkpoint() {
+        if (out == null || failure != null) {
+            return;
+        }
+        try {
+            out.flush();
+            channel.force(false);
+            lastCheckpoint = System.nanoTime();
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * @return the tasks that were enqueued but not finished when the journal was resumed,
+     *         in the order they were enqueued
+     */
+    public List<CrawlTask> getPendingTasks() {
+        return pendingTasks;
+    }
+
+    /**
+     * @return true if an existing journal was replayed
+     */
+    public boolean isResumed() {
+        return resumed;
+    }
+
+    /**
+     * @return number of tasks and pages recorded since the journal was opened
+     */
+    public synchronized long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Writes the remaining records and closes the journal. Failures are logged, not thrown.
+     */
+    @Override
+    public synchronized void close() {
+        if (channel == null) {
+            return;
+        }
+        checkpoint();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            fail(e);
+        }
+        if (failure == null) {
+            logger.info("Checkpoint journal {} holds {} new records", file, recordCount);
+        }
+    }
+
+    private void writeHeader(CrawlerConfig config) throws IOException {
+        startRecord(HEADER);
+        body.writeInt(MAGIC);
+        writeString(config.getRootUrl().toString());
+        body.writeInt(config.getMaxDepth());
+        appendRecord();
+        checkpoint();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void startRecord(byte type) throws IOException {
+        record.reset();
+        body.writeByte(type);
+    }
+
+    private void writeString(String s) throws IOException {
+        byte[] bytes = (s == null ? "" : s).getBytes(StandardCharsets.UTF_8);
+        body.writeInt(bytes.length);
+        body.write(bytes);
+    }
+
+    private void appendRecord() throws IOException {
+        crc.reset();
+        crc.update(record.bytes(), 0, record.size());
+        writeInt(record.size());
+        writeInt((int) crc.getValue());
+        out.write(record.bytes(), 0, record.size());
+        if (System.nanoTime() - lastCheckpoint >= intervalNanos) {
+            checkpoint();
+        }
+    }
+
+    private void writeInt(int value) throws IOException {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    private void fail(IOException e) {
+        if (failure == null) {
+            failure = e;
+            logger.error("Checkpointing to {} stopped after {} records: {}", file, recordCount, e.getMessage());
+        }
+    }
+
+    /**
+     * Reads all complete records, filling the pending tasks and replaying finished pages.
+     *
+     * @return the length of the journal up to the last complete record
+     */
+    private static long replay(Path file, CrawlerConfig config, Map<URI, CrawlTask> pending, Replay replay)
+            throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            long size = Files.size(file);
+            long position = 0;
+            byte[] bytes = new byte[256];
+            CRC32 crc = new CRC32();
+            boolean first = true;
+            while (true) {
+                int length;
+                int checksum;
+                try {
+                    length = in.readInt();
+                    checksum = in.readInt();
+                    if (length <= 0 || length > size - position) {
+                        return position;
+                    }
+                    if (length > bytes.length) {
+                        bytes = new byte[Math.max(length, bytes.length * 2)];
+                    }
+                    in.readFully(bytes, 0, length);
+                } catch (EOFException e) {
+                    return position;
+                }
+                crc.reset();
+                crc.update(bytes, 0, length);
+                if ((int) crc.getValue() != checksum) {
+                    return position;
+                }
+
+                DataInputStream record = new DataInputStream(new ByteArrayInputStream(bytes, 0, length));
+                byte type = record.readByte();
+                if (first) {
+                    checkHeader(type, record, file, config);
+                    first = false;
+                } else if (type == ENQUEUED) {
+                    URI url = URI.create(readString(record));
+                    int depth = record.readInt();
+                    String parent = readString(record);
+                    CrawlTask task = new CrawlTask(url, depth, parent.isEmpty() ? null : URI.create(parent));
+                    pending.put(url, task);
+                    replay.enqueued(task);
+                } else if (type == COMPLETED) {
+                    CrawlTask task = pending.remove(URI.create(readString(record)));
+                    if (task != null) {
+                        replay.completed(task, readPage(task, record));
+                    }
+                } else {
+                    throw new IOException("Unknown record type " + type + " in " + file);
+                }
+                position += 2L * Integer.BYTES + length;
+            }
+        }
+    }
+
+    private static void checkHeader(byte type, DataInputStream record, Path file, CrawlerConfig config)
+            throws IOException {
+        if (type != HEADER || record.readInt() != MAGIC) {
+            throw new IOException("Not a crawl journal: " + file);
+        }
+        String rootUrl = readString(record);
+        int maxDepth = record.readInt();
+        if (!rootUrl.equals(config.getRootUrl().toString()) || maxDepth != config.getMaxDepth()) {
+            throw new IOException("Checkpoint " + file + " belongs to a crawl of " + rootUrl
+                    + " with depth " + maxDepth);
+        }
+    }
+
+    private static PageResult readPage(CrawlTask task, DataInputStream record) throws IOException {
+        boolean broken = record.readBoolean();
+        int sectionCount = record.readInt();
+        List<Section> sections = new ArrayList<>(sectionCount);
+        for (int i = 0; i < sectionCount; i++) {
+            Heading heading = new Heading(record.readInt(), readString(record));
+            int linkCount = record.readInt();
+            LinkedHashSet<Url> links = LinkedHashSet.newLinkedHashSet(linkCount);
+            for (int j = 0; j < linkCount; j++) {
+                links.add(Url.parse(readString(record)));
+            }
+            sections.add(new Section(heading, links));
+        }
+        return new PageResult(task.url(), task.depth(), broken, List.copyOf(sections), Set.of());
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Receives the contents of a journal while it is resumed.
+     */
+    public interface Replay {
+
+        /**
+         * Called for every recorded task, finished or not, in the order they were enqueued.
+         */
+        void enqueued(CrawlTask task);
+
+        /**
+         * Called for every finished task, after the tasks for its links.
+         *
+         * @param task the finished task
+         * @param page its page, without children
+         */
+        void completed(CrawlTask task, PageResult page);
+    }
+
+    /**
+     * Exposes the internal array, so records are checksummed and written without copying.
+     */
+    private static final class RecordBuffer extends ByteArrayOutputStream {
+        RecordBuffer() {
+            super(256);
+        }
+
+        byte[] bytes() {
+            return buf;
+        }
+    }
+}
@@ -7,9 +7,47 @@ public class CrawlerConstants {
     public static final int CONNECTION_TIMEOUT_MS = 2000;
     public static final String USER_AGENT = "SimpleWebCrawlerBot/1.0";
     public static final String REPORT_FILENAME = "report.md";
+    public static final String NDJSON_REPORT_FILENAME = "report.ndjson";
+    public static final String BINARY_REPORT_FILENAME = "report.bin";
+    public static final int REPORT_BUFFER_SIZE = 1 << 16;
+    public static final String CHECKPOINT_JOURNAL_FILENAME = "crawl.journal";
+    public static final long CHECKPOINT_INTERVAL_MS = 5_000L;
+
+    public static final long DEFAULT_FRONTIER_HEAP_BUDGET_BYTES = 128L * 1024 * 1024;
+    public static final long FRONTIER_SEGMENT_BYTES = 16L * 1024 * 1024;
     public static final int MAX_HEADING_LEVEL = 6;
+    public static final int MAX_BODY_SIZE_BYTES = 5 * 1024 * 1024;
 
-    public static final int MIN_THREADS = 4;
     public static final long THREAD_KEEP_ALIVE_TIME = 60L;
+    public static final int DEFAULT_MAX_FETCHES_PER_HOST = 8;
+    public static final int MAX_VIRTUAL_THREADS_IN_FLIGHT = 10_000;
+
+    public static final long VISITED_FILTER_EXPECTED_URLS = 10_000_000L;
+    public static final double VISITED_FILTER_FALSE_POSITIVE_RATE = 0.001;
+
+    public static final long DEFAULT_CRAWL_DELAY_MS = 0L;
+    public static final long MAX_CRAWL_DELAY_MS = 30_000L;
+
+    public static final int INITIAL_HOST_CONCURRENCY = 2;
+    public static final double HOST_CONCURRENCY_DECREASE_FACTOR = 0.5;
+    public static final double HOST_LATENCY_TOLERANCE = 2.0;
+
+    public static final int MAX_FETCH_ATTEMPTS = 3;
+    public static final long RETRY_BASE_DELAY_MS = 500L;
+    public static final long MAX_RETRY_DELAY_MS = 30_000L;
+    public static final double RETRY_BUDGET_RATIO = 0.1;
+    public static final int MIN_RETRY_BUDGET = 10;
+
+    public static final int CIRCUIT_BREAKER_FAILURE_THRESHOLD = 5;
+    public static final long CIRCUIT_BREAKER_OPEN_MS = 30_000L;
+
+    public static final int ERROR_SAMPLES_PER_TYPE = 1000;
+    public static final int ERROR_SAMPLE_RATE = 64;
+
+    public static final int ROBOTS_CACHE_MAX_HOSTS = 10_000;
+    public static final long ROBOTS_CACHE_TTL_MS = 24 * 60 * 60 * 1000L;
+    public static final long ROBOTS_CACHE_NEGATIVE_TTL_MS = 60 * 60 * 1000L;
+    public static final int ROBOTS_CONNECT_TIMEOUT_MS = 2000;
+    public static final int ROBOTS_READ_TIMEOUT_MS = 5000;
 
 }
@@ -19,10 +19,13 @@ public record CrawlError(
     public enum ErrorType {
         NETWORK_ERROR("Network connectivity issue"),
         HTTP_ERROR("HTTP response error"),
+        HTTP_UNAVAILABLE("Temporary HTTP error (408, 429, 5xx)"),
         TIMEOUT("Request timeout"),
         INVALID_URL("Malformed or invalid URL"),
         PARSING_ERROR("HTML parsing failure"),
         ROBOTS_BLOCKED("Blocked by robots.txt"),
+        CONTENT_SKIPPED("Not HTML or body too large"),
+        CIRCUIT_OPEN("Host skipped while its circuit breaker is open"),
         THREAD_INTERRUPTED("Thread execution interrupted"),
         UNKNOWN("Unexpected error");
 
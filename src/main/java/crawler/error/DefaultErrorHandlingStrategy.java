@@ -5,7 +5,8 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Default error handling strategy that provides sensible error handling behavior.
- * Network and HTTP errors are handled gracefully, while critical errors may abort crawling.
+ * Transient network errors, timeouts and temporary HTTP errors are retried, other HTTP errors
+ * are handled gracefully, while critical errors may abort crawling.
  */
 public class DefaultErrorHandlingStrategy implements ErrorHandlingStrategy {
     private static final Logger logger = LoggerFactory.getLogger(DefaultErrorHandlingStrategy.class);
@@ -16,7 +17,11 @@ public class DefaultErrorHandlingStrategy implements ErrorHandlingStrategy {
                 error.url(), error.depth(), error.type(), error.message());
 
         return switch (error.type()) {
-            case NETWORK_ERROR, HTTP_ERROR, TIMEOUT, PARSING_ERROR, ROBOTS_BLOCKED -> {
+            case NETWORK_ERROR, TIMEOUT, HTTP_UNAVAILABLE -> {
+                logger.debug("Retrying after transient {} for {}", error.type(), error.url());
+                yield ErrorAction.RETRY;
+            }
+            case HTTP_ERROR, PARSING_ERROR, ROBOTS_BLOCKED -> {
                 logger.debug("Continuing crawl despite {} for {}", error.type(), error.url());
                 yield ErrorAction.CONTINUE;
             }
@@ -24,6 +29,14 @@ public class DefaultErrorHandlingStrategy implements ErrorHandlingStrategy {
                 logger.debug("Skipping invalid URL: {}", error.url());
                 yield ErrorAction.SKIP;
             }
+            case CONTENT_SKIPPED -> {
+                logger.debug("Skipping non-HTML or oversized response: {}", error.url());
+                yield ErrorAction.SKIP;
+            }
+            case CIRCUIT_OPEN -> {
+                logger.debug("Skipping URL of failing host: {}", error.url());
+                yield ErrorAction.SKIP;
+            }
             case THREAD_INTERRUPTED -> {
                 logger.warn("Thread interrupted, aborting crawl");
                 yield ErrorAction.ABORT;
@@ -1,52 +1,154 @@
 package crawler.error;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.List;
-import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import static crawler.constants.CrawlerConstants.ERROR_SAMPLES_PER_TYPE;
+import static crawler.constants.CrawlerConstants.ERROR_SAMPLE_RATE;
 
 /**
  * Thread-safe collector for crawl errors.
  * Provides statistics and categorization of errors encountered during crawling.
+ * <p>
+ * Errors are counted per type in {@link LongAdder}s, so concurrent workers do not contend on a
+ * shared counter. Full records are kept in a fixed-size ring per type: the first
+ * {@code samplesPerType} errors of a type are all kept, after that one in {@code sampleRate} replaces
+ * the oldest sample. Memory therefore stays constant however many errors a crawl produces, and a
+ * flood of one type does not push out the samples of another.
  */
 public class ErrorCollector {
-    private final ConcurrentLinkedQueue<CrawlError> errors = new ConcurrentLinkedQueue<>();
-    private final AtomicInteger totalErrors = new AtomicInteger(0);
+    private final int sampleRate;
+    private final Map<CrawlError.ErrorType, LongAdder> counts = new EnumMap<>(CrawlError.ErrorType.class);
+    private final Map<CrawlError.ErrorType, Samples> samples = new EnumMap<>(CrawlError.ErrorType.class);
+
+    public ErrorCollector() {
+        this(ERROR_SAMPLES_PER_TYPE, ERROR_SAMPLE_RATE);
+    }
+
+    /**
+     * @param samplesPerType error records kept per type
+     * @param sampleRate     once a type's samples are full, one in this many of its errors is kept
+     */
+    public ErrorCollector(int samplesPerType, int sampleRate) {
+        if (samplesPerType < 1 || sampleRate < 1) {
+            throw new IllegalArgumentException("Sample capacity and rate must be positive.");
+        }
+        this.sampleRate = sampleRate;
+        for (CrawlError.ErrorType type : CrawlError.ErrorType.values()) {
+            counts.put(type, new LongAdder());
+            samples.put(type, new Samples(samplesPerType));
+        }
+    }
 
     public void addError(CrawlError error) {
         if (error != null) {
-            errors.offer(error);
-            totalErrors.incrementAndGet();
+            counts.get(error.type()).increment();
+            samples.get(error.type()).add(error, sampleRate);
         }
     }
 
+    /**
+     * @return the sampled error records of all types, oldest first
+     */
     public List<CrawlError> getAllErrors() {
-        return List.copyOf(errors);
+        List<CrawlError> all = new ArrayList<>();
+        samples.values().forEach(typeSamples -> typeSamples.copyTo(all));
+        all.sort(Comparator.comparing(CrawlError::timestamp));
+        return List.copyOf(all);
+    }
+
+    public long getTotalErrors() {
+        long total = 0;
+        for (LongAdder count : counts.values()) {
+            total += count.sum();
+        }
+        return total;
     }
 
-    public int getTotalErrors() {
-        return totalErrors.get();
+    /**
+     * @return the number of errors of the given type, including those not kept as samples
+     */
+    public long getErrorCount(CrawlError.ErrorType type) {
+        return counts.get(type).sum();
     }
 
+    /**
+     * @return the sampled error records of the given type
+     */
     public List<CrawlError> getErrorsByType(CrawlError.ErrorType type) {
-        return errors.stream()
-                .filter(error -> error.type() == type)
-                .toList();
+        List<CrawlError> errors = new ArrayList<>();
+        samples.get(type).copyTo(errors);
+        errors.sort(Comparator.comparing(CrawlError::timestamp));
+        return List.copyOf(errors);
     }
 
-    public java.util.Map<CrawlError.ErrorType, Long> getErrorStatistics() {
-        return errors.stream()
-                .collect(java.util.stream.Collectors.groupingBy(
-                        CrawlError::type,
-                        java.util.stream.Collectors.counting()
-                ));
+    /**
+     * @return the number of errors per type, for the types that occurred
+     */
+    public Map<CrawlError.ErrorType, Long> getErrorStatistics() {
+        Map<CrawlError.ErrorType, Long> statistics = new EnumMap<>(CrawlError.ErrorType.class);
+        counts.forEach((type, count) -> {
+            long sum = count.sum();
+            if (sum > 0) {
+                statistics.put(type, sum);
+            }
+        });
+        return statistics;
     }
 
     public boolean hasErrors() {
-        return !errors.isEmpty();
+        return getTotalErrors() > 0;
     }
 
+    /**
+     * Resets counts and samples; not meant to run concurrently with {@link #addError}.
+     */
     public void clear() {
-        errors.clear();
-        totalErrors.set(0);
+        counts.values().forEach(LongAdder::reset);
+        samples.values().forEach(Samples::clear);
+    }
+
+    /**
+     * Ring of error records. Slots are claimed from a sequence, which is only touched by errors
+     * that are kept.
+     */
+    private static final class Samples {
+        private final AtomicReferenceArray<CrawlError> ring;
+        private final AtomicLong written = new AtomicLong();
+
+        Samples(int capacity) {
+            this.ring = new AtomicReferenceArray<>(capacity);
+        }
+
+        void add(CrawlError error, int sampleRate) {
+            if (written.get() >= ring.length() && ThreadLocalRandom.current().nextInt(sampleRate) != 0) {
+                return;
+            }
+            long slot = written.getAndIncrement();
+            ring.set((int) (slot % ring.length()), error);
+        }
+
+        void copyTo(List<CrawlError> target) {
+            for (int i = 0; i < ring.length(); i++) {
+                CrawlError error = ring.get(i);
+                if (error != null) {
+                    target.add(error);
+                }
+            }
+        }
+
+        void clear() {
+            for (int i = 0; i < ring.length(); i++) {
+                ring.set(i, null);
+            }
+            written.set(0);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,139 @@
+package crawler.error;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.DoubleSupplier;
+
+import static crawler.constants.CrawlerConstants.MAX_FETCH_ATTEMPTS;
+import static crawler.constants.CrawlerConstants.MAX_RETRY_DELAY_MS;
+import static crawler.constants.CrawlerConstants.MIN_RETRY_BUDGET;
+import static crawler.constants.CrawlerConstants.RETRY_BASE_DELAY_MS;
+import static crawler.constants.CrawlerConstants.RETRY_BUDGET_RATIO;
+
+/**
+ * Thread-safe policy deciding when a failed fetch is tried again.
+ * <p>
+ * The n-th retry waits a random time between zero and {@code baseDelay * 2^n}, capped at the
+ * maximum delay ("full jitter"), so retries of pages that failed together do not hit the host
+ * together again. A {@code Retry-After} header raises the wait to what the server asked for;
+ * if that is longer than the maximum delay, the fetch is not retried.
+ * <p>
+ * Retries are limited crawl-wide to a fixed minimum plus a ratio of all fetches, so a failing
+ * site cannot fill the crawl with retries.
+ */
+public class RetryPolicy {
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final double budgetRatio;
+    private final int minBudget;
+    private final DoubleSupplier jitter;
+    private long fetches;
+    private long retries;
+
+    public RetryPolicy() {
+        this(MAX_FETCH_ATTEMPTS, RETRY_BASE_DELAY_MS, MAX_RETRY_DELAY_MS, RETRY_BUDGET_RATIO, MIN_RETRY_BUDGET,
+                () -> ThreadLocalRandom.current().nextDouble());
+    }
+
+    /**
+     * @param maxAttempts     fetches per URL including the first one
+     * @param baseDelayMillis upper bound of the first retry's delay
+     * @param maxDelayMillis  longest delay before a retry
+     * @param budgetRatio     retries allowed per fetch, on top of the minimum budget
+     * @param minBudget       retries allowed regardless of the number of fetches
+     * @param jitter          supplies uniformly distributed values in [0, 1)
+     */
+    public RetryPolicy(int maxAttempts, long baseDelayMillis, long maxDelayMillis,
+                       double budgetRatio, int minBudget, DoubleSupplier jitter) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("At least one fetch attempt is required.");
+        }
+        if (baseDelayMillis < 0 || maxDelayMillis < baseDelayMillis) {
+            throw new IllegalArgumentException("Retry delays must satisfy 0 <= base <= max.");
+        }
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.budgetRatio = budgetRatio;
+        this.minBudget = minBudget;
+        this.jitter = jitter;
+    }
+
+    /**
+     * Counts a fetch towards the retry budget.
+     */
+    public synchronized void recordFetch() {
+        fetches++;
+    }
+
+    /**
+     * Decides whether a failed fetch is tried again and takes a retry from the budget if so.
+     *
+     * @param failedAttempts earlier failed fetches of the URL, not counting this one
+     * @param retryAfter     the response's {@code Retry-After} header, or null
+     * @return milliseconds to wait before the retry, or -1 if the fetch is not retried
+     */
+    public long retryDelayMillis(int failedAttempts, String retryAfter) {
+        if (failedAttempts + 1 >= maxAttempts) {
+            return -1;
+        }
+        long requested = parseRetryAfterMillis(retryAfter, Instant.now());
+        if (requested > maxDelayMillis) {
+            return -1;
+        }
+        if (!takeFromBudget()) {
+            return -1;
+        }
+
+        long ceiling = Math.min(maxDelayMillis, baseDelayMillis << Math.min(failedAttempts, 30));
+        long backoff = (long) (jitter.getAsDouble() * ceiling);
+        return Math.max(backoff, requested);
+    }
+
+    private synchronized boolean takeFromBudget() {
+        if (retries >= minBudget + budgetRatio * fetches) {
+            return false;
+        }
+        retries++;
+        return true;
+    }
+
+    /**
+     * @return the number of retries granted so far
+     */
+    public synchronized long getRetryCount() {
+        return retries;
+    }
+
+    /**
+     * Parses a {@code Retry-After} header given either in seconds or as an HTTP date.
+     *
+     * @param retryAfter the header value, or null
+     * @param now        the current time, for HTTP dates
+     * @return the requested wait in milliseconds, or 0 if the header is missing or invalid
+     */
+    static long parseRetryAfterMillis(String retryAfter, Instant now) {
+        if (retryAfter == null || retryAfter.isBlank()) {
+            return 0;
+        }
+        String value = retryAfter.trim();
+        try {
+            return Math.max(0, Math.multiplyExact(Long.parseLong(value), 1000L));
+        } catch (NumberFormatException e) {
+            // not delta-seconds, try an HTTP date
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE;
+        }
+        try {
+            Instant until = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+            return Math.max(0, Duration.between(now, until).toMillis());
+        } catch (DateTimeParseException e) {
+            return 0;
+        }
+    }
+}
@@ -1,11 +1,31 @@
 package crawler.factory;
 
+import crawler.adapters.HttpClientDocumentSource;
 import crawler.app.WebCrawler;
+import crawler.fetcher.HttpResponseCache;
 import crawler.fetcher.PageFetcher;
 import crawler.fetcher.RobotsTxtCache;
 import crawler.parser.HtmlParser;
+import crawler.reporter.BinaryReporter;
 import crawler.reporter.MarkdownReporter;
+import crawler.reporter.NdjsonReporter;
+import crawler.reporter.Reporter;
+import crawler.util.BloomVisitedSet;
+import crawler.util.FingerprintVisitedSet;
+import crawler.util.HashVisitedSet;
 import crawler.util.LinkFilter;
+import crawler.util.VisitedSet;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+
+import static crawler.constants.CrawlerConstants.MAX_BODY_SIZE_BYTES;
+import static crawler.constants.CrawlerConstants.VISITED_FILTER_EXPECTED_URLS;
+import static crawler.constants.CrawlerConstants.VISITED_FILTER_FALSE_POSITIVE_RATE;
 
 /**
  * Factory for creating web crawlers with configurable concurrency.
@@ -16,32 +36,162 @@ public class CrawlerFactory {
         // Utility class - prevent instantiation
     }
 
+    /**
+     * How pages are downloaded.
+     */
+    public enum FetcherType {
+        /** A new jsoup connection per page. */
+        JSOUP,
+        /** One shared HttpClient with pooled keep-alive connections and HTTP/2. */
+        HTTP_CLIENT,
+        /** Like {@link #HTTP_CLIENT}, but headings and links are extracted without building a DOM. */
+        HTTP_CLIENT_STREAMING
+    }
+
+    /**
+     * How visited URLs are remembered.
+     */
+    public enum VisitedSetType {
+        /** Every normalized URL string in a concurrent hash set. */
+        EXACT,
+        /** A 64-bit fingerprint per URL in a primitive hash table; far smaller, with a tiny collision risk. */
+        FINGERPRINT,
+        /** A fixed-size Bloom filter; a few bytes per URL, but some unseen URLs are treated as visited. */
+        BLOOM,
+        /** A Bloom filter whose possible hits are confirmed against a fingerprint file on disk. */
+        BLOOM_CONFIRMED
+    }
+
+    /**
+     * How the crawl report is written.
+     */
+    public enum ReportFormat {
+        /** A readable Markdown document. */
+        MARKDOWN,
+        /** One JSON object per page and line. */
+        NDJSON,
+        /** Length-prefixed binary records, read back with {@link crawler.reporter.BinaryReportReader}. */
+        BINARY;
+
+        /**
+         * @param reportFile a report file name
+         * @return NDJSON for {@code .ndjson} and {@code .jsonl} files, BINARY for {@code .bin} files,
+         *         MARKDOWN otherwise
+         */
+        public static ReportFormat forFile(Path reportFile) {
+            String name = reportFile.getFileName().toString().toLowerCase(Locale.ROOT);
+            if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+                return NDJSON;
+            }
+            return name.endsWith(".bin") ? BINARY : MARKDOWN;
+        }
+    }
+
     /**
      * Creates a sequential web crawler (1 thread).
      */
     public static WebCrawler createSequentialCrawler(String userAgent) {
-        return createCrawler(userAgent, 1, 30);
+        return createCrawler(userAgent, 1);
     }
 
     /**
      * Creates a concurrent web crawler.
      */
-    public static WebCrawler createConcurrentCrawler(String userAgent, int threadCount, long timeoutSeconds) {
-        return createCrawler(userAgent, threadCount, timeoutSeconds);
+    public static WebCrawler createConcurrentCrawler(String userAgent, int threadCount) {
+        return createCrawler(userAgent, threadCount);
+    }
+
+    /**
+     * Creates a crawler that runs every page fetch on its own virtual thread.
+     *
+     * @param maxFetchesPerHost maximum number of simultaneous fetches against one host
+     */
+    public static WebCrawler createVirtualThreadCrawler(String userAgent, int maxFetchesPerHost) {
+        return builder(userAgent, FetcherType.JSOUP, null, VisitedSetType.EXACT)
+                .virtualThreads(true)
+                .maxFetchesPerHost(maxFetchesPerHost)
+                .build();
     }
 
     /**
      * Creates a web crawler with specified parameters.
      */
-    public static WebCrawler createCrawler(String userAgent, int threadCount, long timeoutSeconds) {
-        PageFetcher fetcher = new PageFetcher();
-        HtmlParser parser = new HtmlParser();
-        RobotsTxtCache robotsCache = new RobotsTxtCache(userAgent);
-        LinkFilter linkFilter = new LinkFilter();
-        MarkdownReporter reporter = new MarkdownReporter();
+    public static WebCrawler createCrawler(String userAgent, int threadCount) {
+        return builder(userAgent, FetcherType.JSOUP, null, VisitedSetType.EXACT)
+                .threadCount(threadCount)
+                .build();
+    }
+
+    /**
+     * Starts a crawler with the factory's fetcher, parser, robots.txt cache and link filter.
+     * It writes a Markdown report to {@code report.md} unless another reporter is set, see
+     * {@link #createReporter}. The crawl mode, report and frontier options are set on the builder.
+     *
+     * @param fetcherType    how pages are downloaded
+     * @param cacheDirectory where responses are cached between crawls, or null to disable caching;
+     *                       only the {@link FetcherType#JSOUP} fetcher has a cache
+     * @throws IllegalArgumentException if a cache directory is given for another fetcher
+     * @param visitedSetType how visited URLs are remembered
+     */
+    public static WebCrawler.Builder builder(String userAgent, FetcherType fetcherType, Path cacheDirectory,
+                                             VisitedSetType visitedSetType) {
+        if (cacheDirectory != null && fetcherType != FetcherType.JSOUP) {
+            throw new IllegalArgumentException("The response cache only applies to the jsoup fetcher, not to "
+                    + fetcherType);
+        }
+        WebCrawler.Builder builder = WebCrawler.builder();
+        switch (fetcherType) {
+            case HTTP_CLIENT -> builder.documentSource(new HttpClientDocumentSource(userAgent));
+            case HTTP_CLIENT_STREAMING -> builder.documentSource(new HttpClientDocumentSource(userAgent, true));
+            case JSOUP -> { /* PageFetcher is always set */ }
+        }
+        HttpResponseCache cache = cacheDirectory == null ? null : new HttpResponseCache(cacheDirectory);
+        return builder
+                .fetcher(new PageFetcher(MAX_BODY_SIZE_BYTES, cache))
+                .parser(new HtmlParser())
+                .robotsCache(new RobotsTxtCache(userAgent))
+                .linkFilter(new LinkFilter(createVisitedSet(visitedSetType)))
+                .reporter(createReporter(null, false));
+    }
+
+    /**
+     * Creates the reporter for a report file.
+     * A parallel Markdown report is rendered on the common fork-join pool; the output is the same
+     * either way. It only pays off for large trees on several cores.
+     *
+     * @param reportFile the report file, or null for {@code report.md}
+     * @param parallel   whether a Markdown report is rendered in parallel
+     */
+    public static Reporter createReporter(Path reportFile, boolean parallel) {
+        ForkJoinPool pool = parallel ? ForkJoinPool.commonPool() : null;
+        if (reportFile == null) {
+            return new MarkdownReporter(pool);
+        }
+        return switch (ReportFormat.forFile(reportFile)) {
+            case MARKDOWN -> new MarkdownReporter(reportFile, pool);
+            case NDJSON -> new NdjsonReporter(reportFile);
+            case BINARY -> new BinaryReporter(reportFile);
+        };
+    }
+
+    private static VisitedSet createVisitedSet(VisitedSetType visitedSetType) {
+        return switch (visitedSetType) {
+            case EXACT -> new HashVisitedSet();
+            case FINGERPRINT -> new FingerprintVisitedSet();
+            case BLOOM -> new BloomVisitedSet(VISITED_FILTER_EXPECTED_URLS, VISITED_FILTER_FALSE_POSITIVE_RATE);
+            case BLOOM_CONFIRMED -> new BloomVisitedSet(VISITED_FILTER_EXPECTED_URLS,
+                    VISITED_FILTER_FALSE_POSITIVE_RATE, createFingerprintFile());
+        };
+    }
 
-        return new WebCrawler(fetcher, parser, robotsCache, linkFilter, reporter,
-                threadCount, timeoutSeconds);
+    private static Path createFingerprintFile() {
+        try {
+            Path file = Files.createTempFile("visited", ".fingerprints");
+            file.toFile().deleteOnExit();
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create visited fingerprint file", e);
+        }
     }
 
     public static WebCrawler getWebCrawler(String userAgent) {
@@ -0,0 +1,259 @@
+package crawler.fetcher;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Persistent cache of page responses, one file per normalized URL.
+ * <p>
+ * Each entry keeps the body together with its {@code ETag}, {@code Last-Modified} and the expiry
+ * computed from {@code Cache-Control: max-age}. Fresh entries are served without a request,
+ * stale ones are revalidated with a conditional request. Entries are written to a temporary
+ * file and moved into place, so concurrent crawls never read a half-written entry.
+ */
+public class HttpResponseCache {
+    private static final Logger logger = LoggerFactory.getLogger(HttpResponseCache.class);
+    private static final int MAGIC = 0x57434331; // "WCC1"
+
+    private final Path directory;
+    private final LongSupplier clock;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder revalidations = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param directory where entries are stored; created if it does not exist
+     */
+    public HttpResponseCache(Path directory) {
+        this(directory, System::currentTimeMillis);
+    }
+
+    HttpResponseCache(Path directory, LongSupplier clock) {
+        this.directory = directory;
+        this.clock = clock;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create cache directory " + directory, e);
+        }
+    }
+
+    /**
+     * @param url the page URL
+     * @return the stored entry, or null if there is none or it cannot be read
+     */
+    public Entry lookup(URI url) {
+        String key = cacheKey(url);
+        Path file = fileFor(key);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || !in.readUTF().equals(key)) {
+                return null;
+            }
+            String etag = in.readUTF();
+            String lastModified = in.readUTF();
+            long expiresAt = in.readLong();
+            String charset = in.readUTF();
+            byte[] body = in.readNBytes(in.readInt());
+            return new Entry(etag, lastModified, expiresAt, charset, body);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Discarding unreadable cache entry for {}: {}", url, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Stores or replaces the entry for a URL. Failures are logged, the crawl goes on without caching.
+     */
+    public void store(URI url, Entry entry) {
+        String key = cacheKey(url);
+        Path file = fileFor(key);
+        try {
+            Path temp = Files.createTempFile(directory, "entry", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeUTF(key);
+                out.writeUTF(entry.etag());
+                out.writeUTF(entry.lastModified());
+                out.writeLong(entry.expiresAt());
+                out.writeUTF(entry.charset());
+                out.writeInt(entry.body().length);
+                out.write(entry.body());
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.warn("Failed to cache response for {}: {}", url, e.getMessage());
+        }
+    }
+
+    /**
+     * Builds an entry from response headers.
+     *
+     * @param etag         the ETag header, or null
+     * @param lastModified the Last-Modified header, or null
+     * @param cacheControl the Cache-Control header, or null
+     * @param charset      the response charset, or null to detect it from the body
+     * @param body         the response body
+     * @return the entry, or null if the response must not or cannot usefully be cached
+     */
+    public Entry createEntry(String etag, String lastModified, String cacheControl, String charset, byte[] body) {
+        CacheControl control = CacheControl.parse(cacheControl);
+        if (control.noStore()) {
+            return null;
+        }
+        if (control.maxAgeSeconds() <= 0 && isBlank(etag) && isBlank(lastModified)) {
+            return null; // could never be reused
+        }
+        return new Entry(nullToEmpty(etag), nullToEmpty(lastModified), expiresAt(control), nullToEmpty(charset), body);
+    }
+
+    /**
+     * Returns a copy of a cached entry refreshed by a 304 response's headers.
+     */
+    public Entry revalidate(Entry entry, String etag, String lastModified, String cacheControl) {
+        CacheControl control = CacheControl.parse(cacheControl);
+        return new Entry(
+                isBlank(etag) ? entry.etag() : etag,
+                isBlank(lastModified) ? entry.lastModified() : lastModified,
+                expiresAt(control),
+                entry.charset(),
+                entry.body());
+    }
+
+    public boolean isFresh(Entry entry) {
+        return entry.expiresAt() > clock.getAsLong();
+    }
+
+    private long expiresAt(CacheControl control) {
+        long now = clock.getAsLong();
+        return control.noCache() || control.maxAgeSeconds() <= 0 ? now : now + control.maxAgeSeconds() * 1000;
+    }
+
+    void recordHit() {
+        hits.increment();
+    }
+
+    void recordRevalidation() {
+        revalidations.increment();
+    }
+
+    void recordMiss() {
+        misses.increment();
+    }
+
+    /**
+     * @return pages served from the cache without any request
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return pages served from the cache after the server answered 304 Not Modified
+     */
+    public long getRevalidatedCount() {
+        return revalidations.sum();
+    }
+
+    /**
+     * @return pages that had to be downloaded in full
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Normalizes a URL into its cache key: lower-case scheme and host, no fragment.
+     */
+    static String cacheKey(URI url) {
+        try {
+            String scheme = url.getScheme() == null ? null : url.getScheme().toLowerCase(Locale.ROOT);
+            String authority = url.getRawAuthority() == null ? null : url.getRawAuthority().toLowerCase(Locale.ROOT);
+            String path = url.getRawPath() == null || url.getRawPath().isEmpty() ? "/" : url.getRawPath();
+            String query = url.getRawQuery() == null ? "" : "?" + url.getRawQuery();
+            return new URI(scheme + "://" + authority + path + query).normalize().toString();
+        } catch (URISyntaxException e) {
+            return url.toString();
+        }
+    }
+
+    private Path fileFor(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return directory.resolve(HexFormat.of().formatHex(digest) + ".entry");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    /**
+     * A cached response.
+     *
+     * @param etag         the ETag validator, or "" if none
+     * @param lastModified the Last-Modified validator, or "" if none
+     * @param expiresAt    epoch millis until which the entry may be used without revalidation
+     * @param charset      the response charset, or "" to detect it from the body
+     * @param body         the response body
+     */
+    public record Entry(String etag, String lastModified, long expiresAt, String charset, byte[] body) {}
+
+    private record CacheControl(boolean noStore, boolean noCache, long maxAgeSeconds) {
+        private static CacheControl parse(String header) {
+            boolean noStore = false;
+            boolean noCache = false;
+            long maxAge = -1;
+            if (header != null) {
+                for (String directive : header.split(",")) {
+                    String[] parts = directive.trim().toLowerCase(Locale.ROOT).split("=", 2);
+                    switch (parts[0]) {
+                        case "no-store" -> noStore = true;
+                        case "no-cache" -> noCache = true;
+                        case "max-age" -> maxAge = parseSeconds(parts);
+                        default -> { /* other directives do not affect a single-client cache */ }
+                    }
+                }
+            }
+            return new CacheControl(noStore, noCache, maxAge);
+        }
+
+        private static long parseSeconds(String[] parts) {
+            if (parts.length < 2) {
+                return -1;
+            }
+            try {
+                return Long.parseLong(parts[1].replace("\"", "").trim());
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+    }
+}
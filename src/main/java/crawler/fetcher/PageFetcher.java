@@ -1,36 +1,111 @@
 package crawler.fetcher;
 
 import crawler.constants.CrawlerConstants;
+import org.jsoup.Connection;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
-import org.jsoup.HttpStatusException;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.net.SocketTimeoutException;
 import java.net.URI;
+import java.net.http.HttpTimeoutException;
+import java.util.Locale;
 
 /**
  * Fetches HTML with jsoup, handles connections, timeouts etc.
+ * <p>
+ * The decision whether a response is worth reading is made from its headers: responses that are
+ * not HTML or announce a body larger than the limit are closed before their body is read.
+ * Bodies without a length are read up to the limit and dropped if they exceed it.
+ * <p>
+ * With an {@link HttpResponseCache}, fresh pages are served from disk without a request and
+ * stale ones are revalidated with {@code If-None-Match} / {@code If-Modified-Since}.
  */
 public class PageFetcher {
+    private static final int NOT_MODIFIED = 304;
+    private static final int OK = 200;
+    private static final int FIRST_ERROR_STATUS = 400;
+
+    private final int maxBodyBytes;
+    private final HttpResponseCache cache;
+
+    public PageFetcher() {
+        this(CrawlerConstants.MAX_BODY_SIZE_BYTES);
+    }
+
+    /**
+     * @param maxBodyBytes largest response body that is still parsed
+     */
+    public PageFetcher(int maxBodyBytes) {
+        this(maxBodyBytes, null);
+    }
+
+    /**
+     * @param maxBodyBytes largest response body that is still parsed
+     * @param cache        persistent response cache, or null to always download
+     */
+    public PageFetcher(int maxBodyBytes, HttpResponseCache cache) {
+        if (maxBodyBytes <= 0 || maxBodyBytes == Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Body size limit must be between 1 and " + (Integer.MAX_VALUE - 1));
+        }
+        this.maxBodyBytes = maxBodyBytes;
+        this.cache = cache;
+    }
 
     /**
      * Fetches a page and returns its Jsoup Document.
      *
      * @param url the URL to fetch
      * @return Document if successful
-     * @throws FetchException if any problem occurs (network, invalid page, etc.)
+     * @throws ContentSkippedException if the response is not HTML or its body is too large
+     * @throws FetchException if the server answers with an error status, or any other problem
+     *                        occurs (network, invalid page, etc.)
      */
     public Document fetch(URI url) throws FetchException {
+        HttpResponseCache.Entry cached = cache == null ? null : cache.lookup(url);
+        if (cached != null && cache.isFresh(cached)) {
+            cache.recordHit();
+            return parseCached(url, cached);
+        }
+
         try {
-            return Jsoup.connect(url.toString())
+            Connection connection = Jsoup.connect(url.toString())
                     .timeout(CrawlerConstants.CONNECTION_TIMEOUT_MS)
                     .userAgent("SimpleWebCrawlerBot/1.0")
                     .ignoreHttpErrors(true)
                     .ignoreContentType(true)
                     .followRedirects(true)
-                    .get();
-        } catch (HttpStatusException e) {
-            throw new FetchException("HTTP error fetching URL: " + url + ", Status: " + e.getStatusCode(), e);
+                    .maxBodySize(maxBodyBytes + 1); // one byte more tells a full body from a truncated one
+            if (cached != null) {
+                addValidators(connection, cached);
+            }
+            Connection.Response response = connection.execute();
+
+            if (cached != null && response.statusCode() == NOT_MODIFIED) {
+                cache.recordRevalidation();
+                cache.store(url, cache.revalidate(cached, response.header("ETag"),
+                        response.header("Last-Modified"), response.header("Cache-Control")));
+                return parseCached(url, cached);
+            }
+            if (cache != null) {
+                cache.recordMiss();
+            }
+            if (response.statusCode() >= FIRST_ERROR_STATUS) {
+                abort(response);
+                throw new FetchException("HTTP error fetching URL: " + url + ", Status: " + response.statusCode(),
+                        null, response.statusCode(), response.header("Retry-After"));
+            }
+
+            checkHeaders(url, response);
+            byte[] body = response.bodyAsBytes();
+            if (body.length > maxBodyBytes) {
+                throw new ContentSkippedException("Body of " + url + " exceeds " + maxBodyBytes + " bytes");
+            }
+            if (cache != null && response.statusCode() == OK) {
+                storeInCache(url, response, body);
+            }
+            return response.parse();
         } catch (IOException e) {
             throw new FetchException("I/O error fetching URL: " + url, e);
         } catch (IllegalArgumentException e) {
@@ -38,12 +113,145 @@ public class PageFetcher {
         }
     }
 
+    private static void addValidators(Connection connection, HttpResponseCache.Entry cached) {
+        if (!cached.etag().isEmpty()) {
+            connection.header("If-None-Match", cached.etag());
+        }
+        if (!cached.lastModified().isEmpty()) {
+            connection.header("If-Modified-Since", cached.lastModified());
+        }
+    }
+
+    private void storeInCache(URI url, Connection.Response response, byte[] body) {
+        HttpResponseCache.Entry entry = cache.createEntry(response.header("ETag"), response.header("Last-Modified"),
+                response.header("Cache-Control"), response.charset(), body);
+        if (entry != null) {
+            cache.store(url, entry);
+        }
+    }
+
+    private static Document parseCached(URI url, HttpResponseCache.Entry cached) throws FetchException {
+        String charset = cached.charset().isEmpty() ? null : cached.charset();
+        try {
+            return Jsoup.parse(new ByteArrayInputStream(cached.body()), charset, url.toString());
+        } catch (IOException e) {
+            throw new FetchException("Failed to parse cached page: " + url, e);
+        }
+    }
+
+    /**
+     * @return the response cache, or null if responses are not cached
+     */
+    public HttpResponseCache getCache() {
+        return cache;
+    }
+
+    private void checkHeaders(URI url, Connection.Response response) throws ContentSkippedException {
+        String contentType = response.contentType();
+        if (contentType != null && !isHtml(contentType)) {
+            abort(response);
+            throw new ContentSkippedException("Skipping " + url + ": content type " + contentType + " is not HTML");
+        }
+
+        long contentLength = parseContentLength(response.header("Content-Length"));
+        if (contentLength > maxBodyBytes) {
+            abort(response);
+            throw new ContentSkippedException("Skipping " + url + ": Content-Length " + contentLength
+                    + " exceeds " + maxBodyBytes + " bytes");
+        }
+    }
+
+    /**
+     * @param contentType a Content-Type header value
+     * @return true if it names HTML or XHTML, or no media type at all
+     */
+    public static boolean isHtml(String contentType) {
+        String mimeType = contentType.split(";", 2)[0].trim().toLowerCase(Locale.ROOT);
+        return mimeType.isEmpty() || mimeType.equals("text/html") || mimeType.equals("application/xhtml+xml");
+    }
+
+    /**
+     * @param value a Content-Length header value, or null
+     * @return the announced length, or -1 if there is none or it is not a number
+     */
+    public static long parseContentLength(String value) {
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Closes the connection without reading the body.
+     */
+    private static void abort(Connection.Response response) {
+        try {
+            response.bodyStream().close();
+        } catch (IOException | RuntimeException e) {
+            // the response is discarded either way
+        }
+    }
+
     /**
      * Custom exception for fetch errors.
      */
     public static class FetchException extends Exception {
+        private final int statusCode;
+        private final String retryAfter;
+
         public FetchException(String message, Throwable cause) {
+            this(message, cause, -1);
+        }
+
+        public FetchException(String message, Throwable cause, int statusCode) {
+            this(message, cause, statusCode, null);
+        }
+
+        public FetchException(String message, Throwable cause, int statusCode, String retryAfter) {
             super(message, cause);
+            this.statusCode = statusCode;
+            this.retryAfter = retryAfter;
+        }
+
+        /**
+         * @return the HTTP status the server answered with, or -1 if no response was received
+         */
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        /**
+         * @return the response's {@code Retry-After} header, or null if it had none
+         */
+        public String getRetryAfter() {
+            return retryAfter;
+        }
+
+        /**
+         * @return true if the request timed out
+         */
+        public boolean isTimeout() {
+            for (Throwable cause = getCause(); cause != null; cause = cause.getCause()) {
+                if (cause instanceof SocketTimeoutException || cause instanceof HttpTimeoutException) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Thrown when a response is deliberately not downloaded: it is not HTML or exceeds the body size limit.
+     */
+    public static class ContentSkippedException extends FetchException {
+        private static final long serialVersionUID = 1L;
+
+        public ContentSkippedException(String message) {
+            super(message, null);
         }
     }
 }
@@ -0,0 +1,276 @@
+package crawler.fetcher;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Allow and disallow rules of one robots.txt group, compiled into a character trie.
+ * <p>
+ * Matching follows RFC 9309: {@code *} matches any sequence of characters, a trailing {@code $}
+ * anchors the pattern at the end of the path, the longest matching pattern decides, and
+ * allow wins over disallow when both match with the same length.
+ * A lookup walks the path once, keeping the set of trie nodes that match the input so far, so it
+ * takes at most O(path length &times; trie size) steps however many wildcards the patterns contain.
+ * The node sets live in per-thread scratch arrays, so a lookup allocates nothing once its thread
+ * has matched a trie of the same size.
+ */
+public final class RobotsRules {
+    private static final int NO_MATCH = -1;
+    private static final RobotsRules EMPTY =
+            new RobotsRules(new Node(0, false, new char[0], new Node[0], null, NO_MATCH, NO_MATCH), 1, 0);
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private final Node root;
+    private final int nodeCount;
+    private final int ruleCount;
+
+    private RobotsRules(Node root, int nodeCount, int ruleCount) {
+        this.root = root;
+        this.nodeCount = nodeCount;
+        this.ruleCount = ruleCount;
+    }
+
+    public static RobotsRules empty() {
+        return EMPTY;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Checks a request path against the rules.
+     *
+     * @param path  the raw path of the request, starting with "/"
+     * @param query the raw query of the request, or null if it has none
+     * @return true if no rule matches or the longest matching rule is an allow rule
+     */
+    public boolean isAllowed(String path, String query) {
+        if (ruleCount == 0) {
+            return true;
+        }
+        int length = query == null ? path.length() : path.length() + 1 + query.length();
+        int best = match(path, query, length);
+        return best == NO_MATCH || (best & 1) == 1;
+    }
+
+    public int size() {
+        return ruleCount;
+    }
+
+    /**
+     * Returns the priority of the best rule matching the input,
+     * encoded as {@code patternLength * 2 + (allow ? 1 : 0)}.
+     * <p>
+     * A node reached through a wildcard stays active for every later position, since the
+     * wildcard may swallow any further character; each node is active at most once per position.
+     */
+    private int match(String path, String query, int length) {
+        Scratch scratch = SCRATCH.get();
+        scratch.ensureCapacity(nodeCount);
+        Node[] active = scratch.active;
+        Node[] next = scratch.next;
+        int[] addedAt = scratch.addedAt; // base + 1 + the position a node was last activated for
+        int base = scratch.reserve(length + 1);
+        int activeCount = activate(active, 0, addedAt, base + 1, root);
+        int best = NO_MATCH;
+
+        for (int position = 0; activeCount > 0; position++) {
+            for (int i = 0; i < activeCount; i++) {
+                best = Math.max(best, active[i].prefixRule);
+            }
+            if (position == length) {
+                for (int i = 0; i < activeCount; i++) {
+                    best = Math.max(best, active[i].anchoredRule);
+                }
+                break;
+            }
+
+            char c = charAt(path, query, position);
+            int nextCount = 0;
+            for (int i = 0; i < activeCount; i++) {
+                Node node = active[i];
+                if (node.loops) {
+                    nextCount = activate(next, nextCount, addedAt, base + position + 2, node);
+                }
+                int index = binarySearch(node.labels, c);
+                if (index >= 0) {
+                    nextCount = activate(next, nextCount, addedAt, base + position + 2, node.children[index]);
+                }
+            }
+            Node[] swap = active;
+            active = next;
+            next = swap;
+            activeCount = nextCount;
+        }
+        return best;
+    }
+
+    /**
+     * Adds a node and, since a wildcard may match nothing, the wildcard node behind it.
+     */
+    private static int activate(Node[] set, int count, int[] addedAt, int stamp, Node node) {
+        while (node != null && addedAt[node.id] != stamp) {
+            addedAt[node.id] = stamp;
+            set[count++] = node;
+            node = node.wildcard;
+        }
+        return count;
+    }
+
+    /**
+     * Reads the virtual string {@code path + "?" + query} without concatenating it.
+     */
+    private static char charAt(String path, String query, int position) {
+        int pathLength = path.length();
+        if (position < pathLength) {
+            return path.charAt(position);
+        }
+        return position == pathLength ? '?' : query.charAt(position - pathLength - 1);
+    }
+
+    private static int binarySearch(char[] labels, char key) {
+        int low = 0;
+        int high = labels.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char label = labels[mid];
+            if (label < key) {
+                low = mid + 1;
+            } else if (label > key) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Node sets of one thread's lookups. Each lookup stamps activations with a fresh range of
+     * values, so {@code addedAt} never has to be cleared between lookups.
+     */
+    private static final class Scratch {
+        private Node[] active = new Node[0];
+        private Node[] next = new Node[0];
+        private int[] addedAt = new int[0];
+        private int stamp = 0;
+
+        private void ensureCapacity(int nodeCount) {
+            if (addedAt.length < nodeCount) {
+                active = new Node[nodeCount];
+                next = new Node[nodeCount];
+                addedAt = new int[nodeCount];
+                stamp = 0;
+            }
+        }
+
+        /**
+         * @return the base of {@code count} stamps no node carries yet
+         */
+        private int reserve(int count) {
+            if (stamp > Integer.MAX_VALUE - count) {
+                Arrays.fill(addedAt, 0);
+                stamp = 0;
+            }
+            int base = stamp;
+            stamp += count;
+            return base;
+        }
+    }
+
+    /**
+     * @param id    index of the node in the lookup arrays
+     * @param loops whether the node is reached through a wildcard and so matches any further character
+     */
+    private record Node(int id, boolean loops, char[] labels, Node[] children, Node wildcard,
+                        int prefixRule, int anchoredRule) {}
+
+    /**
+     * Collects rules and compiles them into an immutable trie.
+     */
+    public static final class Builder {
+        private final MutableNode root = new MutableNode();
+        private int ruleCount = 0;
+
+        private Builder() {}
+
+        public Builder allow(String pattern) {
+            return add(pattern, true);
+        }
+
+        public Builder disallow(String pattern) {
+            return add(pattern, false);
+        }
+
+        private Builder add(String pattern, boolean allow) {
+            if (pattern == null || pattern.isEmpty()) {
+                return this; // an empty rule matches nothing
+            }
+
+            int priority = pattern.length() * 2 + (allow ? 1 : 0);
+            boolean anchored = pattern.endsWith("$");
+            int end = anchored ? pattern.length() - 1 : pattern.length();
+            if (!anchored) {
+                while (end > 0 && pattern.charAt(end - 1) == '*') {
+                    end--; // a trailing wildcard is implied by prefix matching
+                }
+            }
+
+            MutableNode node = root;
+            for (int i = 0; i < end; i++) {
+                char c = pattern.charAt(i);
+                if (c == '*') {
+                    if (node.wildcard == null) {
+                        node.wildcard = new MutableNode();
+                    }
+                    node = node.wildcard;
+                    while (i + 1 < end && pattern.charAt(i + 1) == '*') {
+                        i++;
+                    }
+                } else {
+                    node = node.children.computeIfAbsent(c, k -> new MutableNode());
+                }
+            }
+
+            if (anchored) {
+                node.anchoredRule = Math.max(node.anchoredRule, priority);
+            } else {
+                node.prefixRule = Math.max(node.prefixRule, priority);
+            }
+            ruleCount++;
+            return this;
+        }
+
+        public RobotsRules build() {
+            if (ruleCount == 0) {
+                return EMPTY;
+            }
+            int[] nodeCount = new int[1];
+            Node compiled = root.compile(false, nodeCount);
+            return new RobotsRules(compiled, nodeCount[0], ruleCount);
+        }
+    }
+
+    private static final class MutableNode {
+        private final Map<Character, MutableNode> children = new TreeMap<>();
+        private MutableNode wildcard;
+        private int prefixRule = NO_MATCH;
+        private int anchoredRule = NO_MATCH;
+
+        private Node compile(boolean loops, int[] nodeCount) {
+            int id = nodeCount[0]++;
+            char[] labels = new char[children.size()];
+            Node[] compiled = new Node[children.size()];
+            int i = 0;
+            for (Map.Entry<Character, MutableNode> child : children.entrySet()) {
+                labels[i] = child.getKey();
+                compiled[i] = child.getValue().compile(false, nodeCount);
+                i++;
+            }
+            Node compiledWildcard = wildcard == null ? null : wildcard.compile(true, nodeCount);
+            return new Node(id, loops, labels, compiled, compiledWildcard, prefixRule, anchoredRule);
+        }
+    }
+}
@@ -1,30 +1,202 @@
 package crawler.fetcher;
 
+import crawler.host.HostKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.net.URI;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import static crawler.constants.CrawlerConstants.ROBOTS_CACHE_MAX_HOSTS;
+import static crawler.constants.CrawlerConstants.ROBOTS_CACHE_NEGATIVE_TTL_MS;
+import static crawler.constants.CrawlerConstants.ROBOTS_CACHE_TTL_MS;
 
 /**
- * Caches RobotsTxtHandler per domain to avoid re-downloading robots.txt repeatedly.
+ * Thread-safe cache of RobotsTxtHandler per host.
+ * <p>
+ * Loading is single-flight: the first thread asking for a host downloads robots.txt outside of
+ * any lock, and concurrent callers for the same host wait for that result instead of downloading
+ * again. Missing or failed robots.txt files are cached as allow-all handlers with a shorter TTL.
+ * An expired handler keeps being served while a fresh copy is downloaded in the background.
+ * The number of cached hosts is bounded; the least recently used host is evicted first.
+ * <p>
+ * {@link #prefetch(URI)} starts the download in the background on a virtual thread,
+ * so the crawl can hold a new host's URLs back without any worker waiting on robots I/O.
+ * {@link #getLoadedHandler(URI)} never waits either, for hosts that were evicted in the meantime.
  */
 public class RobotsTxtCache {
+    private static final Logger logger = LoggerFactory.getLogger(RobotsTxtCache.class);
 
-    private final Map<String, RobotsTxtHandler> robotsCache = new HashMap<>();
     private final String userAgent;
+    private final Function<URI, RobotsTxtHandler> loader;
+    private final long ttlMillis;
+    private final long negativeTtlMillis;
+    private final LongSupplier clock;
+    private final Executor loadExecutor;
+    private final Map<String, Entry> robotsCache;
+    private final LongAdder loads = new LongAdder();
 
     public RobotsTxtCache(String userAgent) {
+        this(userAgent, ROBOTS_CACHE_MAX_HOSTS, ROBOTS_CACHE_TTL_MS, ROBOTS_CACHE_NEGATIVE_TTL_MS);
+    }
+
+    /**
+     * @param userAgent         the crawler's user agent
+     * @param maxHosts          maximum number of hosts kept in the cache
+     * @param ttlMillis         how long a downloaded robots.txt stays valid
+     * @param negativeTtlMillis how long a missing or failed robots.txt stays cached
+     */
+    public RobotsTxtCache(String userAgent, int maxHosts, long ttlMillis, long negativeTtlMillis) {
+        this(userAgent, uri -> new RobotsTxtHandler(userAgent, uri),
+                maxHosts, ttlMillis, negativeTtlMillis, System::currentTimeMillis,
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("robots-", 0).factory()));
+    }
+
+    RobotsTxtCache(String userAgent, Function<URI, RobotsTxtHandler> loader, int maxHosts,
+                   long ttlMillis, long negativeTtlMillis, LongSupplier clock, Executor loadExecutor) {
+        if (maxHosts < 1) {
+            throw new IllegalArgumentException("Cache must hold at least one host.");
+        }
         this.userAgent = userAgent;
+        this.loader = loader;
+        this.ttlMillis = ttlMillis;
+        this.negativeTtlMillis = negativeTtlMillis;
+        this.clock = clock;
+        this.loadExecutor = loadExecutor;
+        this.robotsCache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxHosts;
+            }
+        };
     }
 
     /**
      * Get the RobotsTxtHandler for a domain, loading if necessary.
+     * Blocks only while robots.txt for a host that is not cached is being downloaded.
      *
      * @param uri the URI to check
      * @return RobotsTxtHandler for the domain
      */
     public RobotsTxtHandler getHandler(URI uri) {
-        String domain = uri.getHost();
-        robotsCache.computeIfAbsent(domain, d -> new RobotsTxtHandler(userAgent, uri));
-        return robotsCache.get(domain);
+        Lookup lookup = lookup(uri);
+        if (lookup.created()) {
+            load(uri, lookup.entry());
+        }
+        return lookup.entry().handler.join();
+    }
+
+    /**
+     * Returns the handler for the URI's host without waiting for robots.txt.
+     * If the host is not cached, its download is started in the background like {@link #prefetch(URI)}.
+     *
+     * @param uri the URI to check
+     * @return the host's handler, possibly expired, or null if robots.txt is not loaded yet
+     */
+    public RobotsTxtHandler getLoadedHandler(URI uri) {
+        return prefetch(uri).getNow(null);
+    }
+
+    /**
+     * Starts loading robots.txt for the URI's host in the background unless it is cached
+     * or already loading. Never blocks on network I/O.
+     *
+     * @param uri any URI of the host
+     * @return a future completed with the host's handler
+     */
+    public CompletableFuture<RobotsTxtHandler> prefetch(URI uri) {
+        Lookup lookup = lookup(uri);
+        if (lookup.created()) {
+            loadExecutor.execute(() -> load(uri, lookup.entry()));
+        }
+        return lookup.entry().handler;
+    }
+
+    /**
+     * Finds the host's entry, creating it if the host is not cached. An expired entry is returned
+     * as is, and the first lookup to see it starts its refresh.
+     */
+    private Lookup lookup(URI uri) {
+        String host = HostKey.of(uri);
+        Entry entry;
+        boolean refresh = false;
+        synchronized (robotsCache) {
+            entry = robotsCache.get(host);
+            if (entry == null) {
+                entry = new Entry();
+                robotsCache.put(host, entry);
+                return new Lookup(entry, true);
+            }
+            if (entry.isExpired(clock.getAsLong()) && !entry.refreshing) {
+                entry.refreshing = true;
+                refresh = true;
+            }
+        }
+        if (refresh) {
+            Entry stale = entry;
+            loadExecutor.execute(() -> refresh(uri, host, stale));
+        }
+        return new Lookup(entry, false);
+    }
+
+    /**
+     * Downloads robots.txt again and replaces the expired entry, unless it was evicted meanwhile.
+     */
+    private void refresh(URI uri, String host, Entry stale) {
+        Entry fresh = new Entry();
+        load(uri, fresh);
+        synchronized (robotsCache) {
+            robotsCache.replace(host, stale, fresh);
+        }
+    }
+
+    private void load(URI uri, Entry entry) {
+        loads.increment();
+        RobotsTxtHandler handler;
+        try {
+            handler = loader.apply(uri);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to load robots.txt for {}, allowing all paths: {}", uri.getHost(), e.getMessage());
+            handler = RobotsTxtHandler.allowAll(userAgent);
+        }
+
+        long ttl = handler.isLoaded() ? ttlMillis : negativeTtlMillis;
+        entry.expiresAt = clock.getAsLong() + ttl;
+        entry.handler.complete(handler);
+    }
+
+    /**
+     * @return the number of hosts currently cached, including loads in progress
+     */
+    public int size() {
+        synchronized (robotsCache) {
+            return robotsCache.size();
+        }
+    }
+
+    /**
+     * @return how many robots.txt downloads this cache has started
+     */
+    public long getLoadCount() {
+        return loads.sum();
+    }
+
+    private record Lookup(Entry entry, boolean created) {}
+
+    private static final class Entry {
+        private final CompletableFuture<RobotsTxtHandler> handler = new CompletableFuture<>();
+        private volatile long expiresAt = Long.MAX_VALUE; // never expires while loading
+        private boolean refreshing = false; // guarded by the cache
+
+        private boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
     }
 }
@@ -1,45 +1,85 @@
 package crawler.fetcher;
 
+import crawler.model.Url;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.StringReader;
 import java.net.URI;
 import java.net.URL;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
-import java.util.function.BiConsumer;
+import java.net.URLConnection;
+import java.util.Locale;
+
+import static crawler.constants.CrawlerConstants.ROBOTS_CONNECT_TIMEOUT_MS;
+import static crawler.constants.CrawlerConstants.ROBOTS_READ_TIMEOUT_MS;
 
 /**
  * Simple robots.txt handler: downloads and parses robots.txt,
  * checks if a given URI is allowed to crawl.
+ * <p>
+ * The rules of the group for our user agent (or the {@code *} group if there is none)
+ * are compiled once into {@link RobotsRules}, so link checks do not rescan the rule list.
  */
 public class RobotsTxtHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(RobotsTxtHandler.class);
 
-    protected final Set<URI> disallowedPaths = new HashSet<>();
-    protected final Set<URI> allowedPaths = new HashSet<>();
-    protected int delay = 0;
+    protected RobotsRules rules = RobotsRules.empty();
+    protected long crawlDelayMillis = 0;
     private final String userAgent;
+    private boolean loaded = false;
 
     public RobotsTxtHandler(String userAgent, URI baseUri) {
         this.userAgent = userAgent;
         fetchAndParseRobotsTxt(baseUri);
     }
 
+    private RobotsTxtHandler(String userAgent) {
+        this.userAgent = userAgent;
+    }
+
+    /**
+     * Creates a handler without rules, used when robots.txt is missing or could not be loaded.
+     *
+     * @param userAgent the crawler's user agent
+     * @return a handler that allows every path
+     */
+    public static RobotsTxtHandler allowAll(String userAgent) {
+        return new RobotsTxtHandler(userAgent);
+    }
+
+    /**
+     * Creates a handler from robots.txt content that has already been downloaded.
+     *
+     * @param userAgent the crawler's user agent
+     * @param robotsTxt the robots.txt content
+     * @return a handler for the parsed rules
+     */
+    public static RobotsTxtHandler parse(String userAgent, String robotsTxt) {
+        RobotsTxtHandler handler = new RobotsTxtHandler(userAgent);
+        try (BufferedReader reader = new BufferedReader(new StringReader(robotsTxt))) {
+            handler.parseRobotsTxt(reader);
+            handler.loaded = true;
+        } catch (IOException e) {
+            logger.warn("Failed to parse robots.txt content: {}", e.getMessage());
+        }
+        return handler;
+    }
+
     private void fetchAndParseRobotsTxt(URI baseUri) {
         try (BufferedReader reader = downloadRobotsTxt(baseUri)) {
             parseRobotsTxt(reader);
+            loaded = true;
         } catch (IOException e) {
             logger.warn("No robots.txt found or failed to load for {}: {}", baseUri.getHost(), e.getMessage());
         }
     }
 
     private BufferedReader downloadRobotsTxt(URI baseUri) throws IOException {
+        URL robotsUrl;
         try {
             URI robotsUri = new URI(
                     baseUri.getScheme(),
@@ -47,113 +87,136 @@ public class RobotsTxtHandler {
                     "/robots.txt",
                     null
             );
-            URL robotsUrl = robotsUri.toURL();
-            logger.info("Fetching robots.txt from {}", robotsUrl);
-            return new BufferedReader(new InputStreamReader(robotsUrl.openStream()));
+            robotsUrl = robotsUri.toURL();
         } catch (Exception e) {
             throw new IOException("Failed to construct robots.txt URL for " + baseUri, e);
         }
+
+        logger.info("Fetching robots.txt from {}", robotsUrl);
+        URLConnection connection = robotsUrl.openConnection();
+        connection.setConnectTimeout(ROBOTS_CONNECT_TIMEOUT_MS);
+        connection.setReadTimeout(ROBOTS_READ_TIMEOUT_MS);
+        connection.setRequestProperty("User-Agent", userAgent);
+        return new BufferedReader(new InputStreamReader(connection.getInputStream()));
     }
 
     private void parseRobotsTxt(BufferedReader reader) throws IOException {
-        boolean appliesToUs = false;
+        GroupCollector ownGroup = new GroupCollector();
+        GroupCollector wildcardGroup = new GroupCollector();
+        boolean inUserAgentLines = false;
+        boolean groupIsOwn = false;
+        boolean groupIsWildcard = false;
         String line;
 
         while ((line = reader.readLine()) != null) {
-            line = line.trim();
+            line = stripComment(line).trim();
             if (isIgnorableLine(line)) continue;
 
             String[] parts = line.split(":", 2);
-
-            String key = parts[0].trim().toLowerCase();
+            String key = parts[0].trim().toLowerCase(Locale.ROOT);
             String value = parts[1].trim();
 
-            appliesToUs = handleRobotsDirective(key, value, appliesToUs);
+            if (key.equals("user-agent")) {
+                if (!inUserAgentLines) {
+                    groupIsOwn = false;
+                    groupIsWildcard = false;
+                    inUserAgentLines = true;
+                }
+                if (value.equals("*")) {
+                    groupIsWildcard = true;
+                } else if (checkUserAgent(value)) {
+                    groupIsOwn = true;
+                    ownGroup.seen = true;
+                }
+                continue;
+            }
+
+            inUserAgentLines = false;
+            if (groupIsOwn) {
+                ownGroup.handleDirective(key, value);
+            } else if (groupIsWildcard) {
+                wildcardGroup.handleDirective(key, value);
+            }
         }
 
-        logger.info("Finished parsing robots.txt: {} allowed, {} disallowed paths, delay {}",
-                allowedPaths.size(), disallowedPaths.size(), delay);
+        GroupCollector applicable = ownGroup.seen ? ownGroup : wildcardGroup;
+        rules = applicable.rules.build();
+        crawlDelayMillis = applicable.crawlDelayMillis;
+
+        logger.info("Finished parsing robots.txt: {} rules, delay {} ms", rules.size(), crawlDelayMillis);
     }
 
-    private boolean isIgnorableLine(String line) {
-        return line.startsWith("#") || !line.contains(":");
+    private static String stripComment(String line) {
+        int hash = line.indexOf('#');
+        return hash >= 0 ? line.substring(0, hash) : line;
     }
 
-    private final Map<String, BiConsumer<String, Boolean>> directiveHandlers = Map.of(
-            "disallow", (value, applies) -> { if (Boolean.TRUE.equals(applies)) addDisallowedPath(value); },
-            "allow", (value, applies) -> { if (Boolean.TRUE.equals(applies)) addAllowedPath(value); },
-            "crawl-delay", (value, applies) -> { if (Boolean.TRUE.equals(applies)) parseCrawlDelay(value); }
-    );
+    private boolean isIgnorableLine(String line) {
+        return line.isEmpty() || !line.contains(":");
+    }
 
-    private boolean handleRobotsDirective(String key, String value, boolean appliesToUs) {
-        if (key.equals("user-agent")) {
-            return checkUserAgent(value);
-        }
+    /**
+     * Matches a user-agent line against our product token, e.g. "SimpleWebCrawlerBot" for
+     * "SimpleWebCrawlerBot/1.0".
+     */
+    private boolean checkUserAgent(String agent) {
+        return productToken(agent).equalsIgnoreCase(productToken(userAgent));
+    }
 
-        BiConsumer<String, Boolean> handler = directiveHandlers.get(key);
-        if (handler != null) {
-            handler.accept(value, appliesToUs);
-        }
-        return appliesToUs;
+    private static String productToken(String agent) {
+        int slash = agent.indexOf('/');
+        return (slash >= 0 ? agent.substring(0, slash) : agent).trim();
     }
 
-    private void parseCrawlDelay(String value) {
+    private static long parseCrawlDelay(String value) {
         try {
-            this.delay = Integer.parseInt(value);
+            // Crawl-delay is given in (possibly fractional) seconds
+            return Math.max(0, Math.round(Double.parseDouble(value) * 1000));
         } catch (NumberFormatException e) {
             logger.warn("Invalid crawl-delay value in robots.txt: {}", value);
+            return 0;
         }
     }
 
-    private boolean checkUserAgent(String line) {
-        if (line.length() <= 11) {
-            return false;
-        }
-
-        String agent = line.substring(11).trim();
-        return agent.equals("*") || agent.equalsIgnoreCase(userAgent);
+    /**
+     * Rule paths with dot segments are normalized once at compile time,
+     * everything else is matched exactly as written.
+     */
+    private String compilablePath(String path) {
+        return path.contains("/.") ? normalizePath(path) : path;
     }
 
-    private void addDisallowedPath(String line) {
-        String path = line.substring(9).trim();
-        if (!path.isEmpty()) {
-            disallowedPaths.add(normalizePath(path));
+    /**
+     * @param path a path from robots.txt
+     * @return the path as an absolute path without dot segments, or "/" if it is not a path
+     */
+    String normalizePath(String path) {
+        if (path == null || path.isBlank()) {
+            return "/";
         }
-    }
-
-    private void addAllowedPath(String line) {
-        String path = line.substring(6).trim();
-        if (!path.isEmpty()) {
-            allowedPaths.add(normalizePath(path));
+        if (!path.startsWith("/")) {
+            int colon = path.indexOf(':');
+            int slash = path.indexOf('/');
+            if (path.startsWith("../") || (colon >= 0 && (slash < 0 || colon < slash))) {
+                return "/";
+            }
+            path = "/" + path;
         }
+        return Url.removeDotSegments(path);
     }
 
-    URI normalizePath(String path) {
-        try {
-            if (path == null || path.trim().isEmpty()) {
-                return URI.create("/");
-            }
-
-            URI rawUri = new URI(path);
-            URI normalized = rawUri.normalize();
-            String normalizedPath = normalized.getPath();
-
-            if (normalizedPath == null ||
-                    normalizedPath.isEmpty() ||
-                    normalizedPath.startsWith("../") ||
-                    normalizedPath.contains("/../")) {
-                return URI.create("/");
-            }
-
-            if (!normalizedPath.startsWith("/")) {
-                normalizedPath = URI.create("/") + normalizedPath;
-            }
+    /**
+     * @return true if robots.txt was downloaded and parsed, false if the host had none or it failed
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
 
-            return URI.create(normalizedPath);
-        } catch (Exception e) {
-            logger.warn("Failed to normalize path '{}', defaulting to root '/'", path);
-            return URI.create("/");
-        }
+    /**
+     * @return the Crawl-delay announced for our user agent in milliseconds, or 0 if none
+     */
+    public long getCrawlDelayMillis() {
+        return crawlDelayMillis;
     }
 
     /**
@@ -163,23 +226,38 @@ public class RobotsTxtHandler {
      * @return true if allowed, false if disallowed
      */
     public boolean isAllowed(URI uri) {
-        String path = uri.getPath();
+        if (rules.size() == 0) {
+            return true;
+        }
+
+        String path = uri.getRawPath();
         if (path == null || path.isEmpty()) {
             path = "/";
+        } else if (path.contains("/.")) {
+            path = Url.removeDotSegments(path);
         }
-        URI normalizedPath = normalizePath(path);
+        return rules.isAllowed(path, uri.getRawQuery());
+    }
 
-        for (URI allow : allowedPaths) {
-            if (normalizedPath.getPath().startsWith(allow.getPath())) {
-                return true;
-            }
-        }
-        for (URI disallow : disallowedPaths) {
-            if (normalizedPath.getPath().startsWith(disallow.getPath())) {
-                return false;
+    /**
+     * Collects the directives of one user-agent group.
+     */
+    private final class GroupCollector {
+        private final RobotsRules.Builder rules = RobotsRules.builder();
+        private long crawlDelayMillis = 0;
+        private boolean seen = false;
+
+        private void handleDirective(String key, String value) {
+            switch (key) {
+                case "allow" -> {
+                    if (!value.isEmpty()) rules.allow(compilablePath(value));
+                }
+                case "disallow" -> {
+                    if (!value.isEmpty()) rules.disallow(compilablePath(value));
+                }
+                case "crawl-delay" -> crawlDelayMillis = parseCrawlDelay(value);
+                default -> { /* sitemap and unknown directives are ignored */ }
             }
         }
-
-        return true;
     }
 }
@@ -0,0 +1,41 @@
+package crawler.frontier;
+
+import java.net.URI;
+
+/**
+ * A unit of pending crawl work waiting in the {@link Frontier}.
+ * The parent pointer is used to rebuild the page tree once the crawl has finished.
+ *
+ * @param url     The URL to crawl.
+ * @param depth   The crawl depth of the URL relative to the root page.
+ * @param parent  The URL of the page that linked to this one, or {@code null} for the root.
+ * @param attempt The number of earlier fetches of the URL that failed and are being retried.
+ */
+public record CrawlTask(URI url, int depth, URI parent, int attempt) {
+
+    public CrawlTask(URI url, int depth, URI parent) {
+        this(url, depth, parent, 0);
+    }
+
+    public static CrawlTask root(URI url) {
+        return new CrawlTask(url, 0, null);
+    }
+
+    /**
+     * Creates the task for a link found on this task's page.
+     */
+    public CrawlTask child(URI link) {
+        return new CrawlTask(link, depth + 1, url);
+    }
+
+    /**
+     * Creates the task for fetching this task's URL once more after a failure.
+     */
+    public CrawlTask retry() {
+        return new CrawlTask(url, depth, parent, attempt + 1);
+    }
+
+    public boolean isRoot() {
+        return parent == null;
+    }
+}
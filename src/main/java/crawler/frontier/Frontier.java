@@ -0,0 +1,371 @@
+package crawler.frontier;
+
+import crawler.host.CrawlDelayPolicy;
+import crawler.host.HostConcurrencyPolicy;
+import crawler.host.HostKey;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static crawler.constants.CrawlerConstants.DEFAULT_FRONTIER_HEAP_BUDGET_BYTES;
+import static crawler.constants.CrawlerConstants.FRONTIER_SEGMENT_BYTES;
+
+/**
+ * Thread-safe queue of pending crawl tasks shared by all crawler workers.
+ * <p>
+ * Besides the queued tasks, the frontier tracks how many tasks are still being processed.
+ * A crawl is finished once nothing is queued and every taken task has been completed,
+ * at which point {@link #take()} returns {@code null}.
+ * <p>
+ * Tasks are handed out shallowest first among the hosts that may be fetched now, and within a
+ * depth hosts take turns, so one large host cannot starve the others. Tasks are handed out per
+ * host according to the {@link CrawlDelayPolicy}: while one host waits for its crawl delay to
+ * pass, tasks for other hosts are still returned immediately, even if they are deeper.
+ * <p>
+ * A strictly breadth-first frontier additionally holds every task back until all shallower tasks
+ * have been completed, so a page is always discovered first from a parent at the smallest depth
+ * and each URL is crawled at its minimal depth. The price is that one slow host or crawl delay
+ * at a depth idles the workers until that depth is done. Retries waiting for their delay do not
+ * hold deeper tasks back; they count again once their delay has passed.
+ * A {@link HostGate} can hold a host's tasks back until the host is prepared,
+ * e.g. until its robots.txt has been fetched in the background, and a
+ * {@link HostConcurrencyPolicy} bounds how many of a host's tasks may run at once.
+ * Failed tasks can be {@link #retry retried} after a delay without blocking a worker.
+ * <p>
+ * Queued tasks are kept on the heap up to a budget, estimated from their URL lengths. Beyond it,
+ * new tasks are spilled in offer order to segment files on disk, and moved back once the tasks
+ * on the heap have fallen to half the budget. Tasks keep entering the frontier in the order they
+ * were offered; only the per-host scheduling is limited to the tasks on the heap.
+ * The frontier must be closed to delete its spill files.
+ */
+public class Frontier implements AutoCloseable {
+    /** Rough heap cost of a queued task besides its URL characters: record, URI fields, deque slot. */
+    private static final int TASK_OVERHEAD_BYTES = 380;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final PolitenessScheduler scheduler;
+    private final HostGate hostGate;
+    private final long heapBudgetBytes;
+    private final SpillQueue spill;
+    private long heapBytes = 0;
+    private int pending = 0;
+    /** Queued and running tasks per depth. */
+    private int[] pendingByDepth = new int[8];
+    private int shallowestPendingDepth = Integer.MAX_VALUE;
+    private final boolean strictBreadthFirst;
+    private final PriorityQueue<DelayedTask> retries =
+            new PriorityQueue<>(Comparator.comparingLong(DelayedTask::dueAt));
+
+    /**
+     * Creates a frontier without any delay between fetches of the same host.
+     */
+    public Frontier() {
+        this(new CrawlDelayPolicy(0));
+    }
+
+    public Frontier(CrawlDelayPolicy crawlDelays) {
+        this(crawlDelays, HostGate.OPEN);
+    }
+
+    public Frontier(CrawlDelayPolicy crawlDelays, HostGate hostGate) {
+        this(crawlDelays, hostGate, DEFAULT_FRONTIER_HEAP_BUDGET_BYTES, null);
+    }
+
+    /**
+     * @param heapBudgetBytes estimated heap memory for queued tasks before they are spilled to disk
+     * @param spillDirectory  where spill files are created, or null for the temp directory
+     */
+    public Frontier(CrawlDelayPolicy crawlDelays, HostGate hostGate, long heapBudgetBytes, Path spillDirectory) {
+        this(crawlDelays, null, hostGate, heapBudgetBytes, spillDirectory);
+    }
+
+    /**
+     * @param hostConcurrency limits the running tasks per host, or null for no limit
+     * @param heapBudgetBytes estimated heap memory for queued tasks before they are spilled to disk
+     * @param spillDirectory  where spill files are created, or null for the temp directory
+     */
+    public Frontier(CrawlDelayPolicy crawlDelays, HostConcurrencyPolicy hostConcurrency, HostGate hostGate,
+                    long heapBudgetBytes, Path spillDirectory) {
+        this(crawlDelays, hostConcurrency, hostGate, heapBudgetBytes, spillDirectory, false);
+    }
+
+    /**
+     * @param hostConcurrency    limits the running tasks per host, or null for no limit
+     * @param heapBudgetBytes    estimated heap memory for queued tasks before they are spilled to disk
+     * @param spillDirectory     where spill files are created, or null for the temp directory
+     * @param strictBreadthFirst true to hand out a task only once every shallower task has been completed
+     */
+    public Frontier(CrawlDelayPolicy crawlDelays, HostConcurrencyPolicy hostConcurrency, HostGate hostGate,
+                    long heapBudgetBytes, Path spillDirectory, boolean strictBreadthFirst) {
+        this.strictBreadthFirst = strictBreadthFirst;
+        this.scheduler = new PolitenessScheduler(crawlDelays, hostConcurrency);
+        this.hostGate = hostGate;
+        this.heapBudgetBytes = heapBudgetBytes;
+        this.spill = new SpillQueue(spillDirectory, FRONTIER_SEGMENT_BYTES);
+    }
+
+    /**
+     * Adds a task to the frontier. If its host is not prepared yet, the task is held
+     * until the host gate opens. If the heap budget is used up, the task is spilled to disk.
+     *
+     * @param task the task to crawl
+     */
+    public void offer(CrawlTask task) {
+        lock.lock();
+        try {
+            if (!spill.isEmpty() || heapBytes + estimateBytes(task) > heapBudgetBytes) {
+                spill.add(task);
+                addPending(task);
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        admit(task, true);
+    }
+
+    /**
+     * Queues a task that failed to be fetched again once the delay has passed, in front of
+     * its host's other tasks. The task counts as pending, so the crawl is not exhausted before
+     * the retry is done, but its depth only holds deeper tasks back once the delay has passed.
+     * Like discovered links, the retry must be queued before the failed task is completed.
+     *
+     * @param task       the task to retry, see {@link CrawlTask#retry()}
+     * @param delayNanos how long to wait before the task may be handed out
+     */
+    public void retry(CrawlTask task, long delayNanos) {
+        lock.lock();
+        try {
+            retries.add(new DelayedTask(task, System.nanoTime() + delayNanos));
+            pending++;
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Moves retries whose delay has passed to the front of their hosts' queues.
+     * Called with the lock held.
+     */
+    private void releaseDueRetries(long now) {
+        while (!retries.isEmpty() && retries.peek().dueAt() - now <= 0) {
+            CrawlTask task = retries.poll().task();
+            addPendingDepth(task.depth());
+            admit(task, false, true);
+        }
+    }
+
+    /**
+     * Queues a task on the heap.
+     *
+     * @param newTask true if the task is not yet counted as pending
+     */
+    private void admit(CrawlTask task, boolean newTask) {
+        admit(task, newTask, false);
+    }
+
+    /**
+     * @param first true to queue the task in front of its host's other tasks
+     */
+    private void admit(CrawlTask task, boolean newTask, boolean first) {
+        CompletableFuture<?> gate = hostGate.open(task.url());
+        boolean hold = !gate.isDone();
+
+        lock.lock();
+        try {
+            if (first) {
+                scheduler.addFirst(task, System.nanoTime(), hold);
+            } else {
+                scheduler.add(task, System.nanoTime(), hold);
+            }
+            heapBytes += estimateBytes(task);
+            if (newTask) {
+                addPending(task);
+            }
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+
+        if (hold) {
+            String hostKey = HostKey.of(task.url());
+            gate.whenComplete((result, error) -> release(hostKey));
+        }
+    }
+
+    private void release(String hostKey) {
+        lock.lock();
+        try {
+            scheduler.release(hostKey, System.nanoTime());
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes the next task whose host may be fetched now. Waits while no host is ready or has a free slot,
+     * in a strictly breadth-first frontier while shallower tasks are still queued or running,
+     * or while the queue is empty but other tasks are still running.
+     *
+     * @return the next task, or {@code null} once the crawl is exhausted
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public CrawlTask take() throws InterruptedException {
+        lock.lock();
+        try {
+            while (true) {
+                refill();
+                long now = System.nanoTime();
+                releaseDueRetries(now);
+                int maxDepth = strictBreadthFirst ? shallowestPendingDepth : Integer.MAX_VALUE;
+                CrawlTask task = scheduler.poll(now, maxDepth);
+                if (task != null) {
+                    heapBytes -= estimateBytes(task);
+                    return task;
+                }
+
+                long wait = scheduler.nanosUntilReady(now, maxDepth);
+                if (!retries.isEmpty()) {
+                    wait = Math.min(wait, Math.max(0, retries.peek().dueAt() - now));
+                }
+                if (pending == 0) {
+                    return null;
+                } else if (wait == Long.MAX_VALUE) {
+                    changed.await();
+                } else {
+                    changed.awaitNanos(wait);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Moves spilled tasks back onto the heap once the tasks there have fallen to half the budget.
+     * Called with the lock held.
+     */
+    private void refill() {
+        if (spill.isEmpty() || heapBytes > heapBudgetBytes / 2) {
+            return;
+        }
+        while (!spill.isEmpty() && heapBytes < heapBudgetBytes) {
+            admit(spill.poll(), false);
+        }
+    }
+
+    private void addPending(CrawlTask task) {
+        pending++;
+        addPendingDepth(task.depth());
+    }
+
+    private void addPendingDepth(int depth) {
+        if (depth >= pendingByDepth.length) {
+            pendingByDepth = Arrays.copyOf(pendingByDepth, Math.max(depth + 1, pendingByDepth.length * 2));
+        }
+        pendingByDepth[depth]++;
+        shallowestPendingDepth = Math.min(shallowestPendingDepth, depth);
+    }
+
+    private static long estimateBytes(CrawlTask task) {
+        return TASK_OVERHEAD_BYTES + 2L * task.url().toString().length();
+    }
+
+    /**
+     * Marks a previously taken task as finished.
+     * Tasks for discovered links must be offered before their parent is completed.
+     *
+     * @param task the task returned by {@link #take()}
+     */
+    public void complete(CrawlTask task) {
+        lock.lock();
+        try {
+            scheduler.finished(task, System.nanoTime());
+            changed.signal();
+            pending--;
+            if (--pendingByDepth[task.depth()] == 0 && task.depth() == shallowestPendingDepth) {
+                while (shallowestPendingDepth < pendingByDepth.length
+                        && pendingByDepth[shallowestPendingDepth] == 0) {
+                    shallowestPendingDepth++;
+                }
+                if (shallowestPendingDepth == pendingByDepth.length) {
+                    shallowestPendingDepth = Integer.MAX_VALUE;
+                }
+                changed.signalAll(); // the next depth may start, or the crawl is exhausted
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of queued tasks that have not been taken yet, including waiting retries
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return scheduler.size() + (int) spill.size() + retries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of tasks that are queued or still being processed
+     */
+    public int pendingCount() {
+        lock.lock();
+        try {
+            return pending;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of queued tasks currently spilled to disk
+     */
+    public long spilledCount() {
+        lock.lock();
+        try {
+            return spill.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of tasks that were spilled to disk since the frontier was created
+     */
+    public long totalSpilledCount() {
+        lock.lock();
+        try {
+            return spill.totalSpilled();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Deletes the spill files. Tasks still spilled are dropped.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            spill.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private record DelayedTask(CrawlTask task, long dueAt) {}
+}
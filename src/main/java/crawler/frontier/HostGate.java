@@ -0,0 +1,26 @@
+package crawler.frontier;
+
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Decides when the frontier may start handing out URLs of a host,
+ * e.g. once the host's robots.txt has been downloaded.
+ */
+@FunctionalInterface
+public interface HostGate {
+
+    /**
+     * A gate that lets every host through immediately.
+     */
+    HostGate OPEN = url -> CompletableFuture.completedFuture(null);
+
+    /**
+     * Prepares the URL's host for crawling.
+     * Must not block; slow preparation belongs in the returned future.
+     *
+     * @param url a URL about to be queued
+     * @return a future that completes once URLs of this host may be handed out
+     */
+    CompletableFuture<?> open(URI url);
+}
@@ -0,0 +1,293 @@
+package crawler.frontier;
+
+import crawler.host.CrawlDelayPolicy;
+import crawler.host.HostConcurrencyPolicy;
+import crawler.host.HostKey;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Per-host task queues ordered by the time each host may be fetched again and by depth.
+ * <p>
+ * Every host with queued tasks waits in a delay queue keyed by its ready time. Once that time has
+ * come, the host moves to a ready queue keyed by the depth of its next task, then by ready time.
+ * The shallowest ready host is served first, but a host still waiting for its crawl delay
+ * never holds back ready hosts with deeper tasks. Handing out a task pushes the host's ready time
+ * forward by its crawl delay and puts the host behind every other host at the same depth, so
+ * hosts take turns within a depth and a throttled host does not stop tasks for other hosts.
+ * Hosts can also be held back entirely, e.g. until their robots.txt has arrived.
+ * <p>
+ * With a {@link HostConcurrencyPolicy}, a host that has as many tasks running as its window allows
+ * leaves the delay queue until one of them is {@link #finished finished}.
+ * <p>
+ * A host's tasks are handed out in the order they were added. A crawl mostly discovers them in
+ * non-decreasing depth, so a host's next task is usually its shallowest.
+ * <p>
+ * Not thread-safe; the owning {@link Frontier} guards all access.
+ */
+class PolitenessScheduler {
+    private final CrawlDelayPolicy delays;
+    private final HostConcurrencyPolicy concurrency;
+    private final Map<String, HostQueue> hosts = new HashMap<>();
+    private final PriorityQueue<HostQueue> waitingQueue = new PriorityQueue<>(
+            Comparator.<HostQueue>comparingLong(h -> h.readyAt)
+                    .thenComparingLong(h -> h.sequence));
+    private final PriorityQueue<HostQueue> readyQueue = new PriorityQueue<>(
+            Comparator.<HostQueue>comparingInt(h -> h.depth)
+                    .thenComparingLong(h -> h.readyAt)
+                    .thenComparingLong(h -> h.sequence));
+    private long nextSequence = 0;
+    private int size = 0;
+
+    PolitenessScheduler(CrawlDelayPolicy delays) {
+        this(delays, null);
+    }
+
+    /**
+     * @param concurrency limits the running tasks per host, or null for no limit
+     */
+    PolitenessScheduler(CrawlDelayPolicy delays, HostConcurrencyPolicy concurrency) {
+        this.delays = delays;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Queues a task behind the other tasks of its host.
+     *
+     * @param task the task to queue
+     * @param now  the current {@link System#nanoTime()}
+     */
+    void add(CrawlTask task, long now) {
+        add(task, now, false);
+    }
+
+    /**
+     * Queues a task behind the other tasks of its host.
+     *
+     * @param task the task to queue
+     * @param now  the current {@link System#nanoTime()}
+     * @param hold true to keep the host's tasks back until {@link #release(String, long)}
+     */
+    void add(CrawlTask task, long now, boolean hold) {
+        add(task, now, hold, false);
+    }
+
+    /**
+     * Queues a task in front of the other tasks of its host, e.g. a retry of a task that was
+     * handed out before them. Its depth must not exceed that of the host's queued tasks.
+     *
+     * @param task the task to queue
+     * @param now  the current {@link System#nanoTime()}
+     * @param hold true to keep the host's tasks back until {@link #release(String, long)}
+     */
+    void addFirst(CrawlTask task, long now, boolean hold) {
+        add(task, now, hold, true);
+    }
+
+    private void add(CrawlTask task, long now, boolean hold, boolean first) {
+        HostQueue host = hosts.computeIfAbsent(HostKey.of(task.url()), key -> new HostQueue(key, now));
+        if (first) {
+            host.tasks.addFirst(task);
+            if (host.scheduled && host.depth != task.depth()) {
+                if (!readyQueue.remove(host)) { // re-queued below under its new head depth
+                    waitingQueue.remove(host);
+                }
+                host.scheduled = false;
+            }
+        } else {
+            host.tasks.addLast(task);
+        }
+        size++;
+
+        if (hold) {
+            host.held = true;
+        } else if (host.held) {
+            release(host, now);
+        } else if (!host.scheduled && hasFreeSlot(host)) {
+            scheduleFrom(host, now);
+        }
+    }
+
+    /**
+     * Lets a held host's tasks be handed out again.
+     *
+     * @param hostKey the host as returned by {@link HostKey#of}
+     * @param now     the current {@link System#nanoTime()}
+     */
+    void release(String hostKey, long now) {
+        HostQueue host = hosts.get(hostKey);
+        if (host != null && host.held) {
+            release(host, now);
+        }
+    }
+
+    private void release(HostQueue host, long now) {
+        host.held = false;
+        if (!host.scheduled && !host.tasks.isEmpty() && hasFreeSlot(host)) {
+            scheduleFrom(host, now);
+        }
+    }
+
+    /**
+     * Frees the slot of a task handed out by {@link #poll}, letting its host be scheduled again
+     * if it was at its concurrency limit.
+     *
+     * @param task the finished task
+     * @param now  the current {@link System#nanoTime()}
+     */
+    void finished(CrawlTask task, long now) {
+        if (concurrency == null) {
+            return;
+        }
+        HostQueue host = hosts.get(HostKey.of(task.url()));
+        if (host == null) {
+            return;
+        }
+        host.running--;
+        if (!host.tasks.isEmpty()) {
+            if (!host.scheduled && !host.held && hasFreeSlot(host)) {
+                scheduleFrom(host, now);
+            }
+        } else if (host.running == 0 && delays.getDelayNanos(host.key) == 0) {
+            hosts.remove(host.key);
+        }
+    }
+
+    /**
+     * Takes the next task whose host is ready and reserves the host's next slot.
+     *
+     * @param now the current {@link System#nanoTime()}
+     * @return the task, or null if no host is ready yet
+     */
+    CrawlTask poll(long now) {
+        return poll(now, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Takes the shallowest task whose host is ready, unless it is deeper than the given depth,
+     * and reserves the host's next slot.
+     *
+     * @param now      the current {@link System#nanoTime()}
+     * @param maxDepth the deepest task that may be handed out
+     * @return the task, or null if no host with a task up to that depth is ready yet
+     */
+    CrawlTask poll(long now, int maxDepth) {
+        promoteReadyHosts(now);
+        HostQueue host;
+        while (true) {
+            host = readyQueue.peek();
+            if (host == null || host.depth > maxDepth) {
+                return null;
+            }
+            readyQueue.poll();
+            if (hasFreeSlot(host)) {
+                break;
+            }
+            host.scheduled = false; // its window shrank; rescheduled once a task finishes
+        }
+
+        CrawlTask task = host.tasks.pollFirst();
+        size--;
+        if (concurrency != null) {
+            host.running++;
+        }
+
+        long delay = delays.getDelayNanos(host.key);
+        host.readyAt = now + delay;
+        if (!host.tasks.isEmpty() && hasFreeSlot(host)) {
+            schedule(host);
+        } else {
+            host.scheduled = false;
+            if (host.tasks.isEmpty() && host.running == 0 && delay == 0) {
+                hosts.remove(host.key); // nothing to remember for hosts without delay
+            }
+        }
+        return task;
+    }
+
+    /**
+     * @param now the current {@link System#nanoTime()}
+     * @return nanoseconds until the next host becomes ready, 0 if one is ready now,
+     *         or {@code Long.MAX_VALUE} if nothing is queued
+     */
+    long nanosUntilReady(long now) {
+        return nanosUntilReady(now, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param now      the current {@link System#nanoTime()}
+     * @param maxDepth the deepest task that may be handed out
+     * @return 0 if a host with a task up to that depth is ready now, otherwise nanoseconds until
+     *         the next waiting host becomes ready, whatever its depth, or {@code Long.MAX_VALUE}
+     *         if no host is waiting
+     */
+    long nanosUntilReady(long now, int maxDepth) {
+        promoteReadyHosts(now);
+        HostQueue ready = readyQueue.peek();
+        if (ready != null && ready.depth <= maxDepth) {
+            return 0;
+        }
+        HostQueue waiting = waitingQueue.peek();
+        return waiting == null ? Long.MAX_VALUE : Math.max(0, waiting.readyAt - now);
+    }
+
+    private void promoteReadyHosts(long now) {
+        while (!waitingQueue.isEmpty() && waitingQueue.peek().readyAt - now <= 0) {
+            readyQueue.add(waitingQueue.poll());
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the number of hosts whose queued tasks may currently be handed out
+     */
+    int activeHostCount() {
+        return readyQueue.size() + waitingQueue.size();
+    }
+
+    private boolean hasFreeSlot(HostQueue host) {
+        return concurrency == null || host.running < concurrency.getWindow(host.key);
+    }
+
+    private void scheduleFrom(HostQueue host, long now) {
+        if (host.readyAt - now < 0) {
+            host.readyAt = now;
+        }
+        schedule(host);
+    }
+
+    private void schedule(HostQueue host) {
+        host.depth = host.tasks.peekFirst().depth();
+        host.sequence = nextSequence++;
+        host.scheduled = true;
+        waitingQueue.add(host);
+    }
+
+    private static final class HostQueue {
+        private final String key;
+        private final Deque<CrawlTask> tasks = new ArrayDeque<>();
+        private long readyAt;
+        private int depth;
+        private long sequence;
+        private int running;
+        private boolean scheduled;
+        private boolean held;
+
+        private HostQueue(String key, long readyAt) {
+            this.key = key;
+            this.readyAt = readyAt;
+        }
+    }
+}
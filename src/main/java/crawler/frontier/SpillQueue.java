@@ -0,0 +1,183 @@
+package crawler.frontier;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * First-in first-out queue of crawl tasks kept in segment files on disk.
+ * <p>
+ * Tasks are appended through a buffer to the newest segment, which is sealed once it reaches the
+ * segment size. Sealed segments are memory-mapped and read from the oldest one; a segment file is
+ * deleted as soon as its last task has been read. Only the write buffer and one mapping are on
+ * the heap at a time. Files go to a temporary directory that is created on the first spill.
+ * <p>
+ * Not thread-safe; the owning {@link Frontier} guards all access. I/O failures are thrown as
+ * {@link UncheckedIOException}.
+ */
+class SpillQueue implements AutoCloseable {
+    private final Path parentDirectory;
+    private final long segmentBytes;
+    private final Deque<Path> sealed = new ArrayDeque<>();
+    private Path directory;
+    private int nextSegment;
+    private Path writing;
+    private DataOutputStream out;
+    private long writtenBytes;
+    private Path reading;
+    private MappedByteBuffer mapped;
+    private byte[] chars = new byte[256];
+    private long size;
+    private long totalSpilled;
+
+    /**
+     * @param parentDirectory where the segment directory is created, or null for the temp directory
+     * @param segmentBytes    size at which a segment is sealed and a new one started
+     */
+    SpillQueue(Path parentDirectory, long segmentBytes) {
+        this.parentDirectory = parentDirectory;
+        this.segmentBytes = segmentBytes;
+    }
+
+    void add(CrawlTask task) {
+        try {
+            if (out == null) {
+                startSegment();
+            }
+            int before = out.size();
+            writeString(task.url().toString());
+            out.writeInt(task.depth());
+            writeString(task.parent() == null ? "" : task.parent().toString());
+            writtenBytes += out.size() - before;
+            size++;
+            totalSpilled++;
+            if (writtenBytes >= segmentBytes) {
+                sealSegment();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot spill frontier to " + directory, e);
+        }
+    }
+
+    /**
+     * @return the oldest task, or null if the queue is empty
+     */
+    CrawlTask poll() {
+        if (size == 0) {
+            return null;
+        }
+        try {
+            if (mapped == null || !mapped.hasRemaining()) {
+                nextMapping();
+            }
+            URI url = URI.create(readString());
+            int depth = mapped.getInt();
+            String parent = readString();
+            size--;
+            return new CrawlTask(url, depth, parent.isEmpty() ? null : URI.create(parent));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read spilled frontier from " + directory, e);
+        }
+    }
+
+    long size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return number of tasks spilled since the queue was created
+     */
+    long totalSpilled() {
+        return totalSpilled;
+    }
+
+    /**
+     * Deletes all segment files.
+     */
+    @Override
+    public void close() {
+        try {
+            if (out != null) {
+                out.close();
+                out = null;
+            }
+            mapped = null;
+            if (directory != null) {
+                try (var files = Files.list(directory)) {
+                    for (Path file : files.toList()) {
+                        Files.deleteIfExists(file);
+                    }
+                }
+                Files.deleteIfExists(directory);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot delete spilled frontier in " + directory, e);
+        }
+        sealed.clear();
+        size = 0;
+    }
+
+    private void startSegment() throws IOException {
+        if (directory == null) {
+            directory = parentDirectory == null
+                    ? Files.createTempDirectory("frontier")
+                    : Files.createTempDirectory(parentDirectory, "frontier");
+        }
+        writing = directory.resolve("segment-" + nextSegment++);
+        out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(writing), 1 << 16));
+        writtenBytes = 0;
+    }
+
+    private void sealSegment() throws IOException {
+        out.close();
+        out = null;
+        sealed.addLast(writing);
+        writing = null;
+    }
+
+    /**
+     * Maps the oldest sealed segment, sealing the segment being written if there is no other.
+     */
+    private void nextMapping() throws IOException {
+        if (reading != null) {
+            Files.deleteIfExists(reading);
+            reading = null;
+        }
+        if (sealed.isEmpty()) {
+            sealSegment();
+        }
+        reading = sealed.removeFirst();
+        try (FileChannel channel = FileChannel.open(reading, StandardOpenOption.READ)) {
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    private void writeString(String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private String readString() {
+        int length = mapped.getInt();
+        if (length > chars.length) {
+            chars = new byte[Math.max(length, chars.length * 2)];
+        }
+        mapped.get(chars, 0, length);
+        return new String(chars, 0, length, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,49 @@
+package crawler.host;
+
+import java.net.URI;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import static crawler.constants.CrawlerConstants.MAX_CRAWL_DELAY_MS;
+
+/**
+ * Thread-safe registry of the minimum spacing between two fetches against the same host.
+ * Hosts use their robots.txt {@code Crawl-delay} once it is known, otherwise the default delay.
+ */
+public class CrawlDelayPolicy {
+    private final long defaultDelayMillis;
+    private final ConcurrentMap<String, Long> delaysByHost = new ConcurrentHashMap<>();
+
+    public CrawlDelayPolicy(long defaultDelayMillis) {
+        if (defaultDelayMillis < 0) {
+            throw new IllegalArgumentException("Default crawl delay must be non-negative.");
+        }
+        this.defaultDelayMillis = Math.min(defaultDelayMillis, MAX_CRAWL_DELAY_MS);
+    }
+
+    /**
+     * Records the crawl delay announced by a host's robots.txt.
+     * Values are capped at {@code MAX_CRAWL_DELAY_MS}; non-positive values keep the default.
+     *
+     * @param url         any URL of the host
+     * @param delayMillis the announced delay in milliseconds
+     */
+    public void setCrawlDelay(URI url, long delayMillis) {
+        if (delayMillis > 0) {
+            delaysByHost.put(HostKey.of(url), Math.min(delayMillis, MAX_CRAWL_DELAY_MS));
+        }
+    }
+
+    public long getDelayMillis(String host) {
+        return delaysByHost.getOrDefault(host, defaultDelayMillis);
+    }
+
+    public long getDelayNanos(String host) {
+        return TimeUnit.MILLISECONDS.toNanos(getDelayMillis(host));
+    }
+
+    public long getDefaultDelayMillis() {
+        return defaultDelayMillis;
+    }
+}
@@ -0,0 +1,152 @@
+package crawler.host;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import static crawler.constants.CrawlerConstants.CIRCUIT_BREAKER_FAILURE_THRESHOLD;
+import static crawler.constants.CrawlerConstants.CIRCUIT_BREAKER_OPEN_MS;
+
+/**
+ * Thread-safe per-host circuit breakers that stop fetching from hosts that keep failing.
+ * <p>
+ * A host's breaker starts {@link State#CLOSED closed}. After {@code CIRCUIT_BREAKER_FAILURE_THRESHOLD}
+ * consecutive host failures (no response, a timeout or a server error) it opens, and requests to
+ * the host are refused without waiting for its connection timeout. Once
+ * {@code CIRCUIT_BREAKER_OPEN_MS} have passed, the breaker is half-open and lets a single probe
+ * through: if the probe succeeds the breaker closes again, otherwise it stays open for another period.
+ * <p>
+ * Every request that {@link #allowRequest(URI)} lets through must be followed by
+ * {@link #recordSuccess(URI)} or {@link #recordFailure(URI)}, so a half-open probe is always resolved.
+ */
+public class HostCircuitBreaker {
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final LongSupplier clock;
+    private final ConcurrentMap<String, Breaker> breakersByHost = new ConcurrentHashMap<>();
+
+    public HostCircuitBreaker() {
+        this(CIRCUIT_BREAKER_FAILURE_THRESHOLD, CIRCUIT_BREAKER_OPEN_MS, System::nanoTime);
+    }
+
+    /**
+     * @param failureThreshold consecutive failures that open a host's breaker
+     * @param openMillis       how long an open breaker refuses requests before it lets a probe through
+     * @param clock            the current time in nanoseconds, like {@link System#nanoTime()}
+     */
+    public HostCircuitBreaker(int failureThreshold, long openMillis, LongSupplier clock) {
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("Failure threshold must be positive.");
+        }
+        if (openMillis < 0) {
+            throw new IllegalArgumentException("Open duration must be non-negative.");
+        }
+        this.failureThreshold = failureThreshold;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+        this.clock = clock;
+    }
+
+    /**
+     * @param url the URL about to be fetched
+     * @return false if the host's breaker is open, or half-open with its probe already in flight
+     */
+    public boolean allowRequest(URI url) {
+        Breaker breaker = breakersByHost.get(HostKey.of(url));
+        return breaker == null || breaker.allowRequest();
+    }
+
+    /**
+     * Records that the host answered, even if only with an error page; closes a half-open breaker.
+     */
+    public void recordSuccess(URI url) {
+        Breaker breaker = breakersByHost.get(HostKey.of(url));
+        if (breaker != null) {
+            breaker.success();
+        }
+    }
+
+    /**
+     * Records that the host failed to answer properly; may open its breaker.
+     */
+    public void recordFailure(URI url) {
+        breakersByHost.computeIfAbsent(HostKey.of(url), host -> new Breaker()).failure();
+    }
+
+    /**
+     * @param host the host as returned by {@link HostKey#of}
+     */
+    public State getState(String host) {
+        Breaker breaker = breakersByHost.get(host);
+        return breaker == null ? State.CLOSED : breaker.state();
+    }
+
+    /**
+     * @return the hosts whose breaker is not closed, with their state
+     */
+    public Map<String, State> getTrippedHosts() {
+        Map<String, State> tripped = new TreeMap<>();
+        breakersByHost.forEach((host, breaker) -> {
+            State state = breaker.state();
+            if (state != State.CLOSED) {
+                tripped.put(host, state);
+            }
+        });
+        return tripped;
+    }
+
+    private final class Breaker {
+        private State state = State.CLOSED;
+        private int consecutiveFailures;
+        private long openedAt;
+        private boolean probeInFlight;
+
+        synchronized boolean allowRequest() {
+            if (state == State.OPEN && clock.getAsLong() - openedAt >= openNanos) {
+                state = State.HALF_OPEN;
+            }
+            return switch (state) {
+                case CLOSED -> true;
+                case OPEN -> false;
+                case HALF_OPEN -> {
+                    if (probeInFlight) {
+                        yield false;
+                    }
+                    probeInFlight = true;
+                    yield true;
+                }
+            };
+        }
+
+        synchronized void success() {
+            state = State.CLOSED;
+            consecutiveFailures = 0;
+            probeInFlight = false;
+        }
+
+        synchronized void failure() {
+            consecutiveFailures++;
+            if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+                state = State.OPEN;
+                openedAt = clock.getAsLong();
+                probeInFlight = false;
+            }
+        }
+
+        synchronized State state() {
+            if (state == State.OPEN && clock.getAsLong() - openedAt >= openNanos) {
+                return State.HALF_OPEN;
+            }
+            return state;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package crawler.host;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static crawler.constants.CrawlerConstants.HOST_CONCURRENCY_DECREASE_FACTOR;
+import static crawler.constants.CrawlerConstants.HOST_LATENCY_TOLERANCE;
+import static crawler.constants.CrawlerConstants.INITIAL_HOST_CONCURRENCY;
+
+/**
+ * Thread-safe registry of how many fetches each host may have in flight, adapted to how the host
+ * responds (additive increase, multiplicative decrease).
+ * <p>
+ * A host starts with {@code INITIAL_HOST_CONCURRENCY} slots. Every successful fetch adds
+ * {@code 1 / window}, so the window grows by one slot per window's worth of successes, up to the
+ * maximum. A timeout, a 429 or 503 response, or a short-term latency average that rises above
+ * {@code HOST_LATENCY_TOLERANCE} times the long-term one multiplies the window by
+ * {@code HOST_CONCURRENCY_DECREASE_FACTOR}. After a cut, the fetches that were already in flight
+ * finish without cutting again, so one overload burst costs one decrease.
+ */
+public class HostConcurrencyPolicy {
+    /** Latency samples before rising latency counts as overload. */
+    private static final int MIN_LATENCY_SAMPLES = 8;
+    private static final double SHORT_TERM_WEIGHT = 0.25;
+    private static final double LONG_TERM_WEIGHT = 1.0 / 32;
+
+    private final int maxWindow;
+    private final ConcurrentMap<String, Window> windowsByHost = new ConcurrentHashMap<>();
+
+    /**
+     * @param maxWindow the most fetches a single host may ever have in flight
+     */
+    public HostConcurrencyPolicy(int maxWindow) {
+        if (maxWindow < 1) {
+            throw new IllegalArgumentException("Maximum host concurrency must be positive.");
+        }
+        this.maxWindow = maxWindow;
+    }
+
+    /**
+     * Records a successful fetch and how long it took.
+     *
+     * @param url          the fetched URL
+     * @param latencyNanos time from sending the request to receiving the response
+     */
+    public void recordSuccess(URI url, long latencyNanos) {
+        windowFor(HostKey.of(url)).success(latencyNanos);
+    }
+
+    /**
+     * Records a fetch that failed because the host is overloaded: a timeout, or a 429 or 503 response.
+     *
+     * @param url the URL whose fetch failed
+     */
+    public void recordOverload(URI url) {
+        windowFor(HostKey.of(url)).decrease();
+    }
+
+    /**
+     * @param host the host as returned by {@link HostKey#of}
+     * @return how many fetches the host may currently have in flight
+     */
+    public int getWindow(String host) {
+        Window window = windowsByHost.get(host);
+        return window == null ? initialWindow() : window.slots();
+    }
+
+    /**
+     * @return the current window of every host seen so far, by host
+     */
+    public Map<String, Integer> getWindows() {
+        Map<String, Integer> windows = new TreeMap<>();
+        windowsByHost.forEach((host, window) -> windows.put(host, window.slots()));
+        return windows;
+    }
+
+    public int getMaxWindow() {
+        return maxWindow;
+    }
+
+    private int initialWindow() {
+        return Math.min(INITIAL_HOST_CONCURRENCY, maxWindow);
+    }
+
+    private Window windowFor(String host) {
+        return windowsByHost.computeIfAbsent(host, h -> new Window(initialWindow()));
+    }
+
+    private final class Window {
+        private double size;
+        private double shortTermLatency;
+        private double longTermLatency;
+        private int samples;
+        /** Completions still to come from fetches started before the last decrease. */
+        private int recovering;
+
+        private Window(int size) {
+            this.size = size;
+        }
+
+        synchronized void success(long latencyNanos) {
+            if (samples++ == 0) {
+                shortTermLatency = latencyNanos;
+                longTermLatency = latencyNanos;
+            } else {
+                shortTermLatency += SHORT_TERM_WEIGHT * (latencyNanos - shortTermLatency);
+                longTermLatency += LONG_TERM_WEIGHT * (latencyNanos - longTermLatency);
+            }
+
+            if (samples >= MIN_LATENCY_SAMPLES && shortTermLatency > HOST_LATENCY_TOLERANCE * longTermLatency) {
+                decrease();
+            } else {
+                if (recovering > 0) {
+                    recovering--;
+                }
+                size = Math.min(maxWindow, size + 1 / size);
+            }
+        }
+
+        synchronized void decrease() {
+            if (recovering > 0) {
+                recovering--;
+                return;
+            }
+            recovering = slots() - 1; // the other fetches of the window are still in flight
+            size = Math.max(1, size * HOST_CONCURRENCY_DECREASE_FACTOR);
+        }
+
+        synchronized int slots() {
+            return (int) size;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package crawler.host;
+
+import java.net.URI;
+import java.util.Locale;
+
+/**
+ * Derives the key under which per-host state is stored.
+ */
+public final class HostKey {
+
+    private HostKey() {
+        // Utility class - prevent instantiation
+    }
+
+    /**
+     * @param url any absolute or relative URL
+     * @return the lower-cased host, or an empty string if the URL has none
+     */
+    public static String of(URI url) {
+        String host = url.getHost();
+        return host == null ? "" : host.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,51 @@
+package crawler.host;
+
+import java.net.URI;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Bounds how many fetches may hit the same host at once.
+ * Each host gets its own fair semaphore the first time it is seen.
+ */
+public class HostPermits {
+    private final int permitsPerHost;
+    private final ConcurrentMap<String, Semaphore> semaphores = new ConcurrentHashMap<>();
+
+    public HostPermits(int permitsPerHost) {
+        if (permitsPerHost < 1) {
+            throw new IllegalArgumentException("Permits per host must be positive.");
+        }
+        this.permitsPerHost = permitsPerHost;
+    }
+
+    /**
+     * Waits until a fetch slot for the URL's host is free and claims it.
+     *
+     * @param url the URL about to be fetched
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void acquire(URI url) throws InterruptedException {
+        semaphoreFor(url).acquire();
+    }
+
+    /**
+     * Releases a slot previously claimed with {@link #acquire(URI)}.
+     */
+    public void release(URI url) {
+        semaphoreFor(url).release();
+    }
+
+    public int availablePermits(URI url) {
+        return semaphoreFor(url).availablePermits();
+    }
+
+    public int getPermitsPerHost() {
+        return permitsPerHost;
+    }
+
+    private Semaphore semaphoreFor(URI url) {
+        return semaphores.computeIfAbsent(HostKey.of(url), h -> new Semaphore(permitsPerHost, true));
+    }
+}
@@ -0,0 +1,155 @@
+package crawler.model;
+
+import crawler.model.PageResult.Heading;
+import crawler.model.PageResult.Section;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Crawl-wide store that keeps finished pages in a compact form.
+ * <p>
+ * Links and headings that repeat on many pages of a site, such as navigation bars and footers,
+ * are interned into tables shared by all pages. A page keeps its sections as a single
+ * {@code int[]} of table indices, laid out per section as
+ * {@code headingIndex, linkCount, linkIndex...}. Pages are expanded back into {@link PageResult}s
+ * only when they are read.
+ */
+public final class CompactPageStore {
+    private final InternTable<Url> urls = new InternTable<>();
+    private final InternTable<Heading> headings = new InternTable<>();
+
+    /**
+     * Interns the page's links and headings. The page's children are not kept.
+     *
+     * @param page a finished page
+     * @return the compact form of the page
+     */
+    public synchronized CompactPage compact(PageResult page) {
+        List<Section> sections = page.sections();
+        int length = 0;
+        for (Section section : sections) {
+            length += 2 + section.links().size();
+        }
+
+        int[] encoded = new int[length];
+        int position = 0;
+        for (Section section : sections) {
+            encoded[position++] = headings.intern(section.heading());
+            encoded[position++] = section.links().size();
+            for (Url link : section.links()) {
+                encoded[position++] = urls.intern(link);
+            }
+        }
+        return new CompactPage(page.url(), page.depth(), page.broken(), encoded);
+    }
+
+    /**
+     * Rebuilds a page from its compact form.
+     *
+     * @param page     a page compacted by this store
+     * @param children the children to attach
+     * @return the page with its sections and the given children
+     */
+    public synchronized PageResult expand(CompactPage page, Set<PageResult> children) {
+        int[] encoded = page.sections();
+        List<Section> sections = new ArrayList<>();
+        int position = 0;
+        while (position < encoded.length) {
+            Heading heading = headings.get(encoded[position++]);
+            int linkCount = encoded[position++];
+            LinkedHashSet<Url> links = LinkedHashSet.newLinkedHashSet(linkCount);
+            for (int i = 0; i < linkCount; i++) {
+                links.add(urls.get(encoded[position++]));
+            }
+            sections.add(new Section(heading, links));
+        }
+        return new PageResult(page.url(), page.depth(), page.broken(), List.copyOf(sections), children);
+    }
+
+    /**
+     * @return number of distinct links stored
+     */
+    public synchronized int getUrlCount() {
+        return urls.size();
+    }
+
+    /**
+     * @return number of distinct headings stored
+     */
+    public synchronized int getHeadingCount() {
+        return headings.size();
+    }
+
+    /**
+     * A page whose sections refer to the store's tables.
+     *
+     * @param url      the URL of the page
+     * @param depth    the crawl depth of the page
+     * @param broken   whether the page could not be fetched
+     * @param sections per section: heading index, link count, then the link indices
+     */
+    public record CompactPage(URI url, int depth, boolean broken, int[] sections) {}
+
+    /**
+     * Assigns each distinct value a stable index. The hash index is an open-addressing
+     * {@code int[]}, so no map entry or boxed integer is allocated per value.
+     */
+    private static final class InternTable<T> {
+        private Object[] values = new Object[16];
+        private int[] slots = new int[32]; // value index + 1, 0 = empty
+        private int size;
+
+        int intern(T value) {
+            int mask = slots.length - 1;
+            int slot = spread(value.hashCode()) & mask;
+            while (slots[slot] != 0) {
+                int index = slots[slot] - 1;
+                if (values[index].equals(value)) {
+                    return index;
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size] = value;
+            slots[slot] = ++size;
+            if (size * 2 > slots.length) {
+                rehash();
+            }
+            return size - 1;
+        }
+
+        @SuppressWarnings("unchecked")
+        T get(int index) {
+            return (T) values[index];
+        }
+
+        int size() {
+            return size;
+        }
+
+        private void rehash() {
+            int[] grown = new int[slots.length * 2];
+            int mask = grown.length - 1;
+            for (int index = 0; index < size; index++) {
+                int slot = spread(values[index].hashCode()) & mask;
+                while (grown[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                grown[slot] = index + 1;
+            }
+            slots = grown;
+        }
+
+        private static int spread(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package crawler.model;
 
+import crawler.util.DomainMatcher;
+
 import java.net.URI;
 import java.util.List;
 
@@ -7,6 +9,7 @@ public class CrawlerConfig {
     private final URI rootUrl;
     private final int maxDepth;
     private final List<String> allowedDomains;
+    private final DomainMatcher domainMatcher;
 
     public CrawlerConfig(URI url, int maxDepth, String... domains) {
         if (url == null) {
@@ -23,6 +26,7 @@ public class CrawlerConfig {
             throw new IllegalArgumentException("Domains cannot be null.");
         }
         this.allowedDomains = List.of(domains);
+        this.domainMatcher = DomainMatcher.of(allowedDomains);
     }
 
     public URI getRootUrl() {
@@ -36,4 +40,11 @@ public class CrawlerConfig {
     public List<String> getAllowedDomains() {
         return allowedDomains;
     }
+
+    /**
+     * @return the allowed domains compiled for matching hosts, built once per config
+     */
+    public DomainMatcher getDomainMatcher() {
+        return domainMatcher;
+    }
 }
\ No newline at end of file
@@ -24,17 +24,28 @@ public record PageResult(
         Set<PageResult> children
 ) {
 
-    public record Section(Heading heading, LinkedHashSet<URI> links) {}
+    /**
+     * @param heading the section heading, or level 0 for links before the first heading
+     * @param links   the links in the section in document order
+     */
+    public record Section(Heading heading, LinkedHashSet<Url> links) {}
     public record Heading(int level, String text) {}
 
     public static PageResult brokenLink(URI url, int depth) {
         return new PageResult(url, depth, true, List.of(), Set.of());
     }
+
+    /**
+     * A reachable page whose content was not downloaded, e.g. an image or an oversized file.
+     */
+    public static PageResult skipped(URI url, int depth) {
+        return new PageResult(url, depth, false, List.of(), Set.of());
+    }
     public PageResult withChildren(Set<PageResult> newChildren) {
         return new PageResult(url, depth, broken, sections, newChildren);
     }
 
-    public List<URI> getAllLinks() {
+    public List<Url> getAllLinks() {
         return sections.stream()
                 .flatMap(section -> section.links().stream())
                 .toList();
@@ -0,0 +1,599 @@
+package crawler.model;
+
+import java.net.URI;
+import java.util.Locale;
+
+/**
+ * Absolute URL parsed once into offsets over its string form.
+ * <p>
+ * Link handling only needs the host, path and query of each URL, and resolving and normalizing
+ * a link with {@link URI} means parsing and validating it several times. A {@code Url} keeps
+ * the string and the positions of its components, so accessors are substrings, the host is
+ * lower-cased once, and {@link #resolve(String)} and {@link #normalized()} work on the offsets.
+ * Only strings that {@link URI} would also accept are parsed, so {@link #toUri()} cannot fail.
+ * An authority must hold a host that {@link URI#getHost()} would report, an IPv6 or IPv4 address or
+ * a host name, and a decimal port; {@code http:///path}, {@code http://ex_ample.com/} and
+ * {@code http://host:abc/} are rejected although {@link URI} parses them with no host.
+ * <p>
+ * Resolution follows RFC 3986, which differs from {@link URI#resolve(String)} in a few corner
+ * cases: a query-only reference keeps the base path, a relative path against a host without
+ * path gets a leading slash, and dot segments are removed from absolute references too.
+ */
+public final class Url {
+    private static final int NONE = -1;
+
+    private final String value;
+    private final int schemeEnd;      // index of ':'
+    private final int hostStart;      // NONE without authority
+    private final int hostEnd;
+    private final int pathStart;
+    private final int pathEnd;
+    private final int queryStart;     // index after '?', or NONE
+    private final int fragmentStart;  // index after '#', or NONE
+    private final String host;        // lower-cased, null without authority
+
+    private Url(String value, Components parts) {
+        this(value, parts.schemeEnd, parts.hostStart, parts.hostEnd, parts.pathStart, parts.pathEnd,
+                parts.queryStart, parts.fragmentStart,
+                parts.hostStart == NONE ? null : value.substring(parts.hostStart, parts.hostEnd).toLowerCase(Locale.ROOT));
+    }
+
+    private Url(String value, int schemeEnd, int hostStart, int hostEnd, int pathStart, int pathEnd,
+                int queryStart, int fragmentStart, String host) {
+        this.value = value;
+        this.schemeEnd = schemeEnd;
+        this.hostStart = hostStart;
+        this.hostEnd = hostEnd;
+        this.pathStart = pathStart;
+        this.pathEnd = pathEnd;
+        this.queryStart = queryStart;
+        this.fragmentStart = fragmentStart;
+        this.host = host;
+    }
+
+    /**
+     * @param value an absolute URL
+     * @return the parsed URL
+     * @throws IllegalArgumentException if the value is not an absolute URL that {@link URI} accepts
+     */
+    public static Url parse(String value) {
+        Url url = tryParse(value);
+        if (url == null) {
+            throw new IllegalArgumentException("Not an absolute URL: " + value);
+        }
+        return url;
+    }
+
+    /**
+     * @param uri an absolute URI
+     * @return the same URL
+     * @throws IllegalArgumentException if the URI is relative
+     */
+    public static Url of(URI uri) {
+        return parse(uri.toString());
+    }
+
+    private static Url tryParse(String value) {
+        Components parts = Components.split(value);
+        if (parts == null || parts.schemeEnd == NONE || !isValid(value, parts)) {
+            return null;
+        }
+        return new Url(value, parts);
+    }
+
+    /**
+     * Resolves a reference such as an href attribute value against this URL.
+     *
+     * @param reference an absolute or relative reference, without surrounding whitespace; an
+     *                  empty reference resolves to this URL without its fragment
+     * @return the resolved URL, or null if the reference is malformed
+     */
+    public Url resolve(String reference) {
+        Components ref = Components.split(reference);
+        if (ref == null) {
+            return null;
+        }
+        if (ref.schemeEnd != NONE) {
+            return tryParse(withNormalizedPath(reference, ref));
+        }
+
+        if (ref.hostStart != NONE) {
+            StringBuilder target = new StringBuilder(value.length() + reference.length());
+            target.append(value, 0, schemeEnd + 1);
+            target.append(reference, 0, ref.pathStart);
+            target.append(removeDotSegments(reference.substring(ref.pathStart, ref.pathEnd)));
+            target.append(reference, ref.pathEnd, reference.length());
+            return tryParse(target.toString());
+        }
+        return resolveRelative(reference, ref);
+    }
+
+    /**
+     * Resolves a reference without scheme and authority. The result shares this URL's scheme and
+     * authority, so their offsets and the lower-cased host are reused and only the new part is checked.
+     */
+    private Url resolveRelative(String reference, Components ref) {
+        String path = null; // null keeps this URL's path
+        if (ref.pathEnd > ref.pathStart) {
+            String refPath = reference.substring(ref.pathStart, ref.pathEnd);
+            path = removeDotSegments(refPath.charAt(0) == '/' ? refPath : mergePaths(refPath));
+        }
+
+        StringBuilder target = new StringBuilder(value.length() + reference.length());
+        target.append(value, 0, pathStart);
+        if (path == null) {
+            target.append(value, pathStart, pathEnd);
+        } else {
+            target.append(path);
+        }
+        int newPathEnd = target.length();
+
+        int newQueryStart = NONE;
+        if (ref.queryStart != NONE) {
+            newQueryStart = target.length() + 1;
+            int refQueryEnd = ref.fragmentStart == NONE ? reference.length() : ref.fragmentStart - 1;
+            target.append(reference, ref.queryStart - 1, refQueryEnd);
+        } else if (path == null && queryStart != NONE) {
+            newQueryStart = target.length() + 1;
+            target.append(value, queryStart - 1, queryEnd());
+        }
+        int newFragmentStart = NONE;
+        if (ref.fragmentStart != NONE) {
+            newFragmentStart = target.length() + 1;
+            target.append(reference, ref.fragmentStart - 1, reference.length());
+        }
+
+        String resolved = target.toString();
+        if (hostStart == NONE || hostStart == pathStart) {
+            return tryParse(resolved); // rare bases without a host keep the full check
+        }
+        if (!hasValidCharacters(resolved, pathStart, NONE, NONE, newFragmentStart)) {
+            return null;
+        }
+        return new Url(resolved, schemeEnd, hostStart, hostEnd, pathStart, newPathEnd,
+                newQueryStart, newFragmentStart, host);
+    }
+
+    /**
+     * Returns the form used to decide whether two URLs name the same page: scheme and host in
+     * lower case, dot segments removed, an empty path written as "/", and no fragment.
+     */
+    public String normalized() {
+        boolean emptyPath = hostStart != NONE && pathEnd == pathStart;
+        boolean lowerCase = isLowerCase(0, schemeEnd) && (hostStart == NONE || isLowerCase(hostStart, hostEnd));
+        if (lowerCase && !emptyPath && fragmentStart == NONE && !hasDotSegment(value, pathStart, pathEnd)) {
+            return value;
+        }
+
+        int end = fragmentStart == NONE ? value.length() : fragmentStart - 1;
+        String normalizedPath = emptyPath ? "/" : removeDotSegments(rawPath());
+
+        StringBuilder normalized = new StringBuilder(value.length() + 1);
+        normalized.append(value.substring(0, schemeEnd).toLowerCase(Locale.ROOT));
+        if (hostStart != NONE) {
+            normalized.append(value, schemeEnd, hostStart).append(host).append(value, hostEnd, pathStart);
+        } else {
+            normalized.append(':');
+        }
+        normalized.append(normalizedPath);
+        normalized.append(value, pathEnd, end);
+        return normalized.toString();
+    }
+
+    public String scheme() {
+        return value.substring(0, schemeEnd);
+    }
+
+    /**
+     * @return the lower-cased host, or null if the URL has no authority
+     */
+    public String host() {
+        return host;
+    }
+
+    /**
+     * @return the path with its escapes intact; may be empty
+     */
+    public String rawPath() {
+        return value.substring(pathStart, pathEnd);
+    }
+
+    /**
+     * @return the query without its leading '?', or null if there is none
+     */
+    public String rawQuery() {
+        return queryStart == NONE ? null : value.substring(queryStart, queryEnd());
+    }
+
+    public boolean hasFragment() {
+        return fragmentStart != NONE;
+    }
+
+    /**
+     * Converts to a {@link URI} for APIs that need one.
+     */
+    public URI toUri() {
+        return URI.create(value);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof Url other && value.equals(other.value));
+    }
+
+    @Override
+    public int hashCode() {
+        return value.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+
+    private int queryEnd() {
+        return fragmentStart == NONE ? value.length() : fragmentStart - 1;
+    }
+
+    private String mergePaths(String refPath) {
+        if (hostStart != NONE && pathEnd == pathStart) {
+            return "/" + refPath;
+        }
+        int lastSlash = value.lastIndexOf('/', pathEnd - 1);
+        return lastSlash < pathStart ? refPath : value.substring(pathStart, lastSlash + 1) + refPath;
+    }
+
+    private boolean isLowerCase(int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String withNormalizedPath(String reference, Components ref) {
+        String path = reference.substring(ref.pathStart, ref.pathEnd);
+        String normalized = removeDotSegments(path);
+        if (normalized.equals(path)) {
+            return reference;
+        }
+        return reference.substring(0, ref.pathStart) + normalized + reference.substring(ref.pathEnd);
+    }
+
+    /**
+     * Removes "." and ".." segments as described in RFC 3986, section 5.2.4.
+     *
+     * @param path a raw path
+     * @return the path without dot segments, or {@code path} itself if it has none
+     */
+    public static String removeDotSegments(String path) {
+        if (!hasDotSegment(path, 0, path.length())) {
+            return path;
+        }
+
+        StringBuilder output = new StringBuilder(path.length());
+        int i = 0;
+        int length = path.length();
+        while (i < length) {
+            if (path.startsWith("../", i)) {
+                i += 3;
+            } else if (path.startsWith("./", i)) {
+                i += 2;
+            } else if (path.startsWith("/./", i)) {
+                i += 2;
+            } else if (i + 2 == length && path.startsWith("/.", i)) {
+                output.append('/');
+                i += 2;
+            } else if (path.startsWith("/../", i)) {
+                removeLastSegment(output);
+                i += 3;
+            } else if (i + 3 == length && path.startsWith("/..", i)) {
+                removeLastSegment(output);
+                output.append('/');
+                i += 3;
+            } else if (i + 1 == length && path.charAt(i) == '.'
+                    || i + 2 == length && path.startsWith("..", i)) {
+                i = length;
+            } else {
+                int next = path.indexOf('/', i + 1);
+                int end = next < 0 ? length : next;
+                output.append(path, i, end);
+                i = end;
+            }
+        }
+        return output.toString();
+    }
+
+    private static boolean hasDotSegment(String s, int start, int end) {
+        int dot = s.indexOf('.', start);
+        while (dot >= 0 && dot < end) {
+            boolean segmentStart = dot == start || s.charAt(dot - 1) == '/';
+            int after = dot + 1 < end && s.charAt(dot + 1) == '.' ? dot + 2 : dot + 1;
+            boolean segmentEnd = after == end || s.charAt(after) == '/';
+            if (segmentStart && segmentEnd) {
+                return true;
+            }
+            dot = s.indexOf('.', dot + 1);
+        }
+        return false;
+    }
+
+    private static void removeLastSegment(StringBuilder output) {
+        int lastSlash = output.lastIndexOf("/");
+        output.setLength(Math.max(lastSlash, 0));
+    }
+
+    /**
+     * Rejects what {@link URI} would reject: illegal or unescaped characters, malformed
+     * percent escapes, brackets outside the host, and empty scheme-specific parts. Authorities
+     * without a valid host are rejected as well, see {@link #isValidServer}.
+     */
+    private static boolean isValid(String value, Components parts) {
+        if (parts.hostStart != NONE) {
+            if (!isValidServer(value, parts.hostStart, parts.hostEnd, parts.pathStart)) {
+                return false;
+            }
+        } else if (parts.pathEnd == parts.pathStart) {
+            return false; // "mailto:" or "http:?q"
+        }
+
+        return hasValidCharacters(value, 0, parts.hostStart, parts.hostEnd, parts.fragmentStart);
+    }
+
+    /**
+     * Checks host and port the way {@link URI} parses a server-based authority. Authorities that
+     * {@link URI} only keeps as registry-based, and so reports without a host, are rejected: an
+     * empty host as in "http:///p", characters outside a host name as in "ex_ample.com", and a
+     * port that is not a decimal int as in "host:abc".
+     */
+    private static boolean isValidServer(String value, int hostStart, int hostEnd, int authorityEnd) {
+        if (hostStart == hostEnd) {
+            return false;
+        }
+        if (value.charAt(hostStart) == '[') {
+            if (hostEnd - hostStart < 3) {
+                return false;
+            }
+            for (int i = hostStart + 1; i < hostEnd - 1; i++) {
+                char c = value.charAt(i);
+                if (!isHex(c) && c != ':' && c != '.') {
+                    return false;
+                }
+            }
+        } else if (!isIpv4Address(value, hostStart, hostEnd) && !isHostName(value, hostStart, hostEnd)) {
+            return false;
+        }
+
+        if (hostEnd == authorityEnd) {
+            return true;
+        }
+        if (value.charAt(hostEnd) != ':') {
+            return false; // text after an IPv6 literal, e.g. "[::1]x"
+        }
+        long port = 0;
+        for (int i = hostEnd + 1; i < authorityEnd; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+            port = port * 10 + (c - '0');
+            if (port > Integer.MAX_VALUE) {
+                return false;
+            }
+        }
+        return true; // an empty port is allowed, as in "host:/"
+    }
+
+    /**
+     * @return whether the range holds four dot-separated decimal numbers of at most 255
+     */
+    private static boolean isIpv4Address(String value, int start, int end) {
+        int groups = 0;
+        int position = start;
+        while (groups < 4) {
+            int number = 0;
+            int digits = 0;
+            while (position < end && digits < 3 && value.charAt(position) >= '0' && value.charAt(position) <= '9') {
+                number = number * 10 + (value.charAt(position++) - '0');
+                digits++;
+            }
+            if (digits == 0 || number > 255) {
+                return false;
+            }
+            groups++;
+            if (groups < 4) {
+                if (position >= end || value.charAt(position) != '.') {
+                    return false;
+                }
+                position++;
+            }
+        }
+        return position == end;
+    }
+
+    /**
+     * Checks a host name as {@link URI} does: dot-separated labels of ASCII letters, digits and
+     * inner hyphens, an optional trailing dot, and a last label starting with a letter unless the
+     * name is a single label.
+     */
+    private static boolean isHostName(String value, int start, int end) {
+        if (value.charAt(end - 1) == '.') {
+            end--;
+        }
+        int labelStart = start;
+        for (int i = start; i <= end; i++) {
+            if (i < end && value.charAt(i) != '.') {
+                char c = value.charAt(i);
+                boolean alphanumeric = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+                if (!alphanumeric && !(c == '-' && i != labelStart)) {
+                    return false;
+                }
+                continue;
+            }
+            if (i == labelStart || value.charAt(i - 1) == '-') {
+                return false; // empty label or a label ending with a hyphen
+            }
+            if (i < end) {
+                labelStart = i + 1;
+            }
+        }
+        char topLabelStart = value.charAt(labelStart);
+        return labelStart == start || (topLabelStart >= 'a' && topLabelStart <= 'z')
+                || (topLabelStart >= 'A' && topLabelStart <= 'Z');
+    }
+
+    /**
+     * Checks the characters from {@code start} to the end of the string.
+     */
+    private static boolean hasValidCharacters(String value, int start, int hostStart, int hostEnd, int fragmentStart) {
+        int length = value.length();
+        for (int i = start; i < length; i++) {
+            char c = value.charAt(i);
+            if (c == '%') {
+                if (i + 2 >= length || !isHex(value.charAt(i + 1)) || !isHex(value.charAt(i + 2))) {
+                    return false;
+                }
+                i += 2;
+            } else if (c == '[' || c == ']') {
+                if (hostStart == NONE || i < hostStart || i >= hostEnd) {
+                    return false;
+                }
+            } else if (c == '#') {
+                if (i != fragmentStart - 1) {
+                    return false;
+                }
+            } else if (!isLegal(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isLegal(char c) {
+        if (c < 0x80) {
+            return c > ' ' && c != 0x7F && "\"<>\\^`{|}".indexOf(c) < 0;
+        }
+        return !Character.isISOControl(c) && !Character.isSpaceChar(c);
+    }
+
+    private static boolean isHex(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    }
+
+    /**
+     * Component offsets of an absolute URL or relative reference.
+     */
+    private static final class Components {
+        int schemeEnd = NONE;
+        int hostStart = NONE;
+        int hostEnd = NONE;
+        int pathStart;
+        int pathEnd;
+        int queryStart = NONE;
+        int fragmentStart = NONE;
+
+        /**
+         * @return the offsets, or null if the authority is malformed
+         */
+        static Components split(String s) {
+            int length = s.length();
+            Components parts = new Components();
+
+            int position = 0;
+            int colon = schemeEnd(s);
+            if (colon != NONE) {
+                parts.schemeEnd = colon;
+                position = colon + 1;
+            } else if (hasColonInFirstSegment(s)) {
+                return null; // neither a valid scheme nor a relative path, e.g. "ht!tp://host"
+            }
+
+            if (s.startsWith("//", position)) {
+                int authorityStart = position + 2;
+                int authorityEnd = authorityStart;
+                while (authorityEnd < length && "/?#".indexOf(s.charAt(authorityEnd)) < 0) {
+                    authorityEnd++;
+                }
+                int at = s.lastIndexOf('@', authorityEnd - 1);
+                parts.hostStart = at >= authorityStart ? at + 1 : authorityStart;
+                parts.hostEnd = hostEnd(s, parts.hostStart, authorityEnd);
+                if (parts.hostEnd == NONE) {
+                    return null;
+                }
+                position = authorityEnd;
+            }
+
+            parts.pathStart = position;
+            while (position < length && s.charAt(position) != '?' && s.charAt(position) != '#') {
+                position++;
+            }
+            parts.pathEnd = position;
+
+            if (position < length && s.charAt(position) == '?') {
+                parts.queryStart = position + 1;
+                while (position < length && s.charAt(position) != '#') {
+                    position++;
+                }
+            }
+            if (position < length) {
+                parts.fragmentStart = position + 1;
+            }
+            return parts;
+        }
+
+        private static boolean hasColonInFirstSegment(String s) {
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c == ':') {
+                    return true;
+                }
+                if (c == '/' || c == '?' || c == '#') {
+                    return false;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * @return the index of the colon ending a valid scheme, or NONE
+         */
+        private static int schemeEnd(String s) {
+            if (s.isEmpty()) {
+                return NONE;
+            }
+            char first = s.charAt(0);
+            if (!((first >= 'a' && first <= 'z') || (first >= 'A' && first <= 'Z'))) {
+                return NONE;
+            }
+            for (int i = 1; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c == ':') {
+                    return i;
+                }
+                boolean schemeChar = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')
+                        || (c >= '0' && c <= '9') || c == '+' || c == '-' || c == '.';
+                if (!schemeChar) {
+                    return NONE;
+                }
+            }
+            return NONE;
+        }
+
+        /**
+         * @return the end of the host within the authority, excluding a port, or NONE if malformed
+         */
+        private static int hostEnd(String s, int hostStart, int authorityEnd) {
+            if (hostStart < authorityEnd && s.charAt(hostStart) == '[') {
+                int close = s.indexOf(']', hostStart);
+                if (close < 0 || close >= authorityEnd) {
+                    return NONE;
+                }
+                return close + 1;
+            }
+            int colon = s.indexOf(':', hostStart);
+            return colon >= 0 && colon < authorityEnd ? colon : authorityEnd;
+        }
+    }
+}
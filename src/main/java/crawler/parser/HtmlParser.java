@@ -1,20 +1,19 @@
 package crawler.parser;
 
+import crawler.adapters.HtmlDocument;
+import crawler.adapters.JsoupHtmlDocument;
 import crawler.model.PageResult;
 import crawler.model.PageResult.Heading;
 import crawler.model.PageResult.Section;
+import crawler.model.Url;
 import org.jsoup.nodes.Document;
-import org.jsoup.nodes.Element;
 
 import java.net.URI;
-import java.net.URISyntaxException;
 import java.util.*;
 import java.util.function.Predicate;
 
-import static crawler.constants.CrawlerConstants.MAX_HEADING_LEVEL;
-
 /**
- * HTML parser that converts a jsoup Document
+ * HTML parser that converts a jsoup Document or any {@link HtmlDocument}
  * into a PageResult. It preserves document order and guarantees deterministic link ordering.
  */
 public class HtmlParser {
@@ -29,6 +28,18 @@ public class HtmlParser {
      * @return corresponding {@code PageResult}
      */
     public PageResult parse(URI url, int depth, Document document) {
+        return parse(url, depth, document == null ? null : new JsoupHtmlDocument(document));
+    }
+
+    /**
+     * Parses a document behind the {@link HtmlDocument} abstraction into a PageResult.
+     *
+     * @param url      page URL
+     * @param depth    crawl depth
+     * @param document the fetched document
+     * @return corresponding {@code PageResult}
+     */
+    public PageResult parse(URI url, int depth, HtmlDocument document) {
         if (document == null) {
             return new PageResult(url, depth, false, List.of(), java.util.Set.of());
         }
@@ -36,66 +47,39 @@ public class HtmlParser {
         return new PageResult(url, depth, false, sections, java.util.Set.of());
     }
 
+    private List<Section> extractSections(HtmlDocument doc, URI baseUrl) {
+        SectionCollector collector = new SectionCollector();
+        doc.traverse(baseUrl, collector);
 
-    private List<Section> extractSections(Document doc, URI baseUrl) {
-        Map<Heading, LinkedHashSet<URI>> buckets = new LinkedHashMap<>();
-        Heading current = ROOT_HEADING;
-        buckets.put(current, new LinkedHashSet<>());
-
-        for (Element el : doc.getAllElements()) {
-            Optional<Heading> maybeHeading = extractHeading(el);
-            if (maybeHeading.isPresent()) {
-                current = maybeHeading.get();
-                buckets.put(current, new LinkedHashSet<>());
-                continue;
-            }
-
-            URI link = extractLink(el, baseUrl);
-            if (link != null) {
-                buckets.get(current).add(link);
-            }
-        }
-
-        return buckets.entrySet().stream()
+        return collector.buckets.entrySet().stream()
                 .filter(IS_VALID_SECTION)
                 .map(e -> new Section(e.getKey(), e.getValue()))
                 .toList();
     }
 
-    private static final Predicate<Map.Entry<Heading, LinkedHashSet<URI>>> IS_VALID_SECTION =
+    private static final Predicate<Map.Entry<Heading, LinkedHashSet<Url>>> IS_VALID_SECTION =
             entry -> entry.getKey().level() != 0 || !entry.getValue().isEmpty();
 
-    private static Optional<Heading> extractHeading(Element el) {
-        String tag = el.tagName();
-        if (tag.length() == 2 && tag.charAt(0) == 'h') {
-            int level = tag.charAt(1) - '0';
-            if (level >= 1 && level <= MAX_HEADING_LEVEL) {
-                String text = el.text().trim();
-                if (!text.isEmpty()) {
-                    return Optional.of(new Heading(level, text));
-                }
-            }
-        }
-        return Optional.empty();
-    }
+    /**
+     * Groups links under the most recent heading.
+     */
+    private static final class SectionCollector implements HtmlDocument.ContentHandler {
+        private final Map<Heading, LinkedHashSet<Url>> buckets = new LinkedHashMap<>();
+        private Heading current = ROOT_HEADING;
 
-    private static URI extractLink(Element el, URI base) {
-        if (!"a".equals(el.tagName())) {
-            return null;
+        private SectionCollector() {
+            buckets.put(current, new LinkedHashSet<>());
         }
-        String href = el.attr("href");
-        if (href.isBlank()) {
-            return null;
+
+        @Override
+        public void heading(int level, String text) {
+            current = new Heading(level, text);
+            buckets.put(current, new LinkedHashSet<>());
         }
-        String trimmed = href.trim();
-        try {
-            return base.resolve(trimmed);
-        } catch (IllegalArgumentException e) { // bad relative link
-            try {
-                return new URI(trimmed);
-            } catch (URISyntaxException ex) {
-                return null; // hopelessly malformed
-            }
+
+        @Override
+        public void link(Url link) {
+            buckets.get(current).add(link);
         }
     }
 }
@@ -0,0 +1,167 @@
+package crawler.reporter;
+
+import crawler.model.PageResult;
+import crawler.model.PageResult.Heading;
+import crawler.model.PageResult.Section;
+import crawler.model.Url;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reads a report written by {@link BinaryReporter} record by record.
+ * <p>
+ * The file is memory-mapped in regions of up to 1 GiB. A region always starts at a record
+ * boundary and is moved forward once the next record does not fit in it, so records never
+ * straddle two mappings and the file is never copied through a read buffer. Not thread-safe.
+ */
+public final class BinaryReportReader implements Closeable {
+    private static final long MAX_REGION_SIZE = 1L << 30;
+
+    private final FileChannel channel;
+    private final long size;
+    private MappedByteBuffer region;
+    private long regionStart;
+    private byte[] chars = new byte[256];
+
+    private BinaryReportReader(FileChannel channel) throws IOException {
+        this.channel = channel;
+        this.size = channel.size();
+    }
+
+    /**
+     * Opens a binary report and checks its header.
+     *
+     * @param file the report file
+     * @return a reader positioned at the first record
+     * @throws IOException if the file cannot be read or is not a binary report
+     */
+    public static BinaryReportReader open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            BinaryReportReader reader = new BinaryReportReader(channel);
+            reader.readHeader();
+            return reader;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the next page and the URL of its parent, or null at the end of the report
+     * @throws IOException if the record is truncated or malformed
+     */
+    public PageRecord next() throws IOException {
+        long position = regionStart + region.position();
+        if (position == size) {
+            return null;
+        }
+        if (region.remaining() < Integer.BYTES) {
+            map(position);
+        }
+        int length = region.getInt(region.position());
+        if (length < 0 || size - position - Integer.BYTES < length) {
+            throw new IOException("Truncated record at offset " + position);
+        }
+        if (region.remaining() - Integer.BYTES < length) {
+            map(position);
+        }
+        region.position(region.position() + Integer.BYTES);
+        int end = region.position() + length;
+        try {
+            PageRecord record = readRecord();
+            if (region.position() != end) {
+                throw new IOException("Malformed record at offset " + position);
+            }
+            return record;
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Malformed record at offset " + position, e);
+        }
+    }
+
+    private PageRecord readRecord() {
+        URI url = URI.create(readString());
+        String parent = readString();
+        int depth = readVarint();
+        boolean broken = (region.get() & BinaryReporter.FLAG_BROKEN) != 0;
+        int sectionCount = readVarint();
+        List<Section> sections = new ArrayList<>(sectionCount);
+        for (int i = 0; i < sectionCount; i++) {
+            Heading heading = new Heading(readVarint(), readString());
+            int linkCount = readVarint();
+            LinkedHashSet<Url> links = LinkedHashSet.newLinkedHashSet(linkCount);
+            for (int j = 0; j < linkCount; j++) {
+                links.add(Url.parse(readString()));
+            }
+            sections.add(new Section(heading, links));
+        }
+        PageResult page = new PageResult(url, depth, broken, List.copyOf(sections), Set.of());
+        return new PageRecord(page, parent.isEmpty() ? null : URI.create(parent));
+    }
+
+    private int readVarint() {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = region.get();
+            value |= (b & 0x7f) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint too long");
+    }
+
+    private String readString() {
+        int length = readVarint();
+        if (length > region.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        if (length > chars.length) {
+            chars = new byte[Math.max(length, chars.length * 2)];
+        }
+        region.get(chars, 0, length);
+        return new String(chars, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private void readHeader() throws IOException {
+        map(0);
+        if (region.remaining() < 2 * Integer.BYTES || region.getInt() != BinaryReporter.MAGIC) {
+            throw new IOException("Not a binary crawl report");
+        }
+        int version = region.getInt();
+        if (version != BinaryReporter.VERSION) {
+            throw new IOException("Unsupported report version " + version);
+        }
+    }
+
+    private void map(long start) throws IOException {
+        long length = Math.min(MAX_REGION_SIZE, size - start);
+        region = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+        regionStart = start;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * A page as stored in the report; its children are the records that name it as parent.
+     *
+     * @param page   the page, without children
+     * @param parent the URL of the page that linked to it, or null for the root
+     */
+    public record PageRecord(PageResult page, URI parent) {}
+}
@@ -0,0 +1,217 @@
+package crawler.reporter;
+
+import crawler.constants.CrawlerConstants;
+import crawler.model.CrawlerConfig;
+import crawler.model.PageResult;
+import crawler.model.PageResult.Section;
+import crawler.model.Url;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Writes pages as length-prefixed binary records, read back by {@link BinaryReportReader}.
+ * <p>
+ * The file starts with the magic number {@value #MAGIC} and the format version, both as big-endian
+ * {@code int}s. Each record is a big-endian {@code int} body length followed by the body:
+ * <pre>
+ * url, parent (empty for the root), depth, flags (bit 0: broken), section count,
+ * per section: level, heading, link count, links
+ * </pre>
+ * Numbers are unsigned LEB128 varints, strings a varint byte length followed by UTF-8. Records are
+ * encoded into one reusable byte array and written through a large buffer, so writing a page
+ * allocates nothing. Like the NDJSON report, the buffer is not flushed per page.
+ */
+public class BinaryReporter extends RecordReporter {
+    /** "WCR1" */
+    static final int MAGIC = 0x57435231;
+    static final int VERSION = 1;
+    static final int FLAG_BROKEN = 1;
+
+    private static final Logger logger = LoggerFactory.getLogger(BinaryReporter.class);
+
+    public BinaryReporter() {
+        this(Path.of(CrawlerConstants.BINARY_REPORT_FILENAME));
+    }
+
+    public BinaryReporter(Path file) {
+        super(file);
+    }
+
+    /**
+     * Records always name their parent, so both layouts produce the same format.
+     */
+    @Override
+    public ReportWriter openReport(CrawlerConfig config, Layout layout) throws IOException {
+        return openReport(Files.newOutputStream(file));
+    }
+
+    /**
+     * Writes the file header and records to the given stream, which is closed with the report.
+     */
+    public ReportWriter openReport(OutputStream out) throws IOException {
+        BinaryReportWriter writer = new BinaryReportWriter(
+                new BufferedOutputStream(out, CrawlerConstants.REPORT_BUFFER_SIZE));
+        writer.writeHeader();
+        return writer;
+    }
+
+    private static final class BinaryReportWriter implements ReportWriter {
+        private final OutputStream out;
+        private byte[] buffer = new byte[1024];
+        private int length;
+        private int pageCount;
+        private IOException failure;
+
+        private BinaryReportWriter(OutputStream out) {
+            this.out = out;
+        }
+
+        private void writeHeader() throws IOException {
+            length = 0;
+            putInt(MAGIC);
+            putInt(VERSION);
+            out.write(buffer, 0, length);
+        }
+
+        @Override
+        public synchronized void writePage(PageResult page, URI parent) {
+            if (failure != null) {
+                return;
+            }
+            length = Integer.BYTES; // body length is filled in below
+            putString(page.url().toString());
+            putString(parent == null ? "" : parent.toString());
+            putVarint(page.depth());
+            ensureCapacity(1);
+            buffer[length++] = (byte) (page.broken() ? FLAG_BROKEN : 0);
+            putVarint(page.sections().size());
+            for (Section section : page.sections()) {
+                putVarint(section.heading().level());
+                putString(section.heading().text());
+                putVarint(section.links().size());
+                for (Url link : section.links()) {
+                    putString(link.toString());
+                }
+            }
+
+            int bodyLength = length - Integer.BYTES;
+            length = 0;
+            putInt(bodyLength);
+            try {
+                out.write(buffer, 0, bodyLength + Integer.BYTES);
+                pageCount++;
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+
+        private void putInt(int value) {
+            ensureCapacity(Integer.BYTES);
+            buffer[length++] = (byte) (value >>> 24);
+            buffer[length++] = (byte) (value >>> 16);
+            buffer[length++] = (byte) (value >>> 8);
+            buffer[length++] = (byte) value;
+        }
+
+        private void putVarint(int value) {
+            ensureCapacity(5);
+            while ((value & ~0x7f) != 0) {
+                buffer[length++] = (byte) ((value & 0x7f) | 0x80);
+                value >>>= 7;
+            }
+            buffer[length++] = (byte) value;
+        }
+
+        /**
+         * Encodes a string as UTF-8 without going through {@code getBytes}; a lone surrogate is
+         * written as {@code '?'}, as {@code getBytes} would. Null is written as the empty string.
+         */
+        private void putString(String s) {
+            if (s == null) {
+                putVarint(0);
+                return;
+            }
+            int chars = s.length();
+            putVarint(utf8Length(s));
+            ensureCapacity(chars * 3);
+            for (int i = 0; i < chars; i++) {
+                char c = s.charAt(i);
+                if (c < 0x80) {
+                    buffer[length++] = (byte) c;
+                } else if (c < 0x800) {
+                    buffer[length++] = (byte) (0xc0 | (c >> 6));
+                    buffer[length++] = (byte) (0x80 | (c & 0x3f));
+                } else if (Character.isHighSurrogate(c) && i + 1 < chars
+                        && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, s.charAt(++i));
+                    buffer[length++] = (byte) (0xf0 | (codePoint >> 18));
+                    buffer[length++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+                    buffer[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+                    buffer[length++] = (byte) (0x80 | (codePoint & 0x3f));
+                } else if (Character.isSurrogate(c)) {
+                    buffer[length++] = '?';
+                } else {
+                    buffer[length++] = (byte) (0xe0 | (c >> 12));
+                    buffer[length++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                    buffer[length++] = (byte) (0x80 | (c & 0x3f));
+                }
+            }
+        }
+
+        private static int utf8Length(String s) {
+            int chars = s.length();
+            int bytes = chars;
+            for (int i = 0; i < chars; i++) {
+                char c = s.charAt(i);
+                if (c < 0x80) {
+                    continue;
+                }
+                if (c < 0x800) {
+                    bytes += 1;
+                } else if (Character.isHighSurrogate(c) && i + 1 < chars
+                        && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    bytes += 2; // four bytes for two chars
+                    i++;
+                } else if (!Character.isSurrogate(c)) {
+                    bytes += 2;
+                }
+            }
+            return bytes;
+        }
+
+        private void ensureCapacity(int extra) {
+            if (length + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+            }
+        }
+
+        @Override
+        public synchronized int getPageCount() {
+            return pageCount;
+        }
+
+        @Override
+        public synchronized void close() {
+            try {
+                out.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+            if (failure != null) {
+                logger.error("Failed to write report after {} pages: {}", pageCount, failure.getMessage());
+            } else {
+                logger.info("Successfully wrote {} pages to the report", pageCount);
+            }
+        }
+    }
+}
@@ -4,19 +4,66 @@ import crawler.constants.CrawlerConstants;
 import crawler.model.CrawlerConfig;
 import crawler.model.PageResult;
 import crawler.model.PageResult.Section;
+import crawler.model.Url;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * Writes the crawl results into a Markdown file with blockquote hierarchy.
+ * <p>
+ * {@link #writeReport} needs the finished page tree. {@link #openReport} instead returns a
+ * {@link ReportWriter} that appends each page as soon as it is handed over, so the crawler does
+ * not have to keep finished pages and a crash leaves the report up to the last page on disk.
+ * <p>
+ * With a {@link ForkJoinPool}, {@link #writeReport} walks the page tree on the calling thread and
+ * hands batches of consecutive pages to the pool for rendering. Rendered batches are written in
+ * order as soon as all batches before them are written, and at most a few batches per pool thread
+ * are pending, so neither the expanded tree nor the report text is held in memory. Only the
+ * calling thread expands pages, so a lazily expanded tree is never read concurrently. The output
+ * is identical byte for byte.
  */
-public class MarkdownReporter {
+public class MarkdownReporter implements Reporter {
     private static final Logger logger = LoggerFactory.getLogger(MarkdownReporter.class);
+    private static final int RENDER_BATCH_PAGES = 64;
+    private static final int PENDING_BATCHES_PER_THREAD = 4;
+
+    private final Path file;
+    private final ForkJoinPool pool;
+
+    public MarkdownReporter() {
+        this((ForkJoinPool) null);
+    }
+
+    /**
+     * @param pool renders the page tree in parallel, or null to render it on the calling thread
+     */
+    public MarkdownReporter(ForkJoinPool pool) {
+        this(Path.of(CrawlerConstants.REPORT_FILENAME), pool);
+    }
+
+    /**
+     * @param file the report file
+     * @param pool renders the page tree in parallel, or null to render it on the calling thread
+     */
+    public MarkdownReporter(Path file, ForkJoinPool pool) {
+        this.file = file;
+        this.pool = pool;
+    }
 
     /**
      * Writes the crawl results starting from the root PageResult into a Markdown file.
@@ -24,21 +71,58 @@ public class MarkdownReporter {
      * @param root   The root page of the crawl result
      * @param config The crawler configuration
      */
+    @Override
     public void writeReport(PageResult root, CrawlerConfig config) {
         if (root == null || config == null) {
             logger.error("Cannot write report: root or config is null.");
             return;
         }
 
-        try (PrintWriter writer = new PrintWriter(new FileWriter(CrawlerConstants.REPORT_FILENAME))) {
-            writeReportHeader(config, writer);
-            writePage(root, writer);
-            logger.info("Successfully wrote report to '{}'", CrawlerConstants.REPORT_FILENAME);
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            writeReport(root, config, writer);
+            logger.info("Successfully wrote report to '{}'", file);
         } catch (IOException e) {
             logger.error("Failed to write report: {}", e.getMessage());
         }
     }
 
+    /**
+     * Writes the whole report for the page tree to the given writer.
+     */
+    public void writeReport(PageResult root, CrawlerConfig config, Writer out) {
+        PrintWriter writer = out instanceof PrintWriter printWriter ? printWriter : new PrintWriter(out);
+        writeReportHeader(config, writer);
+        if (pool == null) {
+            writePage(root, writer);
+        } else {
+            new ParallelRendering(writer).render(root);
+        }
+        writer.flush();
+    }
+
+    /**
+     * Creates the report file and writes its header; pages are added through the returned writer.
+     *
+     * @param config the crawler configuration
+     * @param layout the order in which pages will be written
+     * @return the open report, to be closed when the crawl is over
+     * @throws IOException if the report file cannot be created
+     */
+    @Override
+    public ReportWriter openReport(CrawlerConfig config, Layout layout) throws IOException {
+        return openReport(config, layout, Files.newBufferedWriter(file, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Writes the report header to the given writer; pages are added through the returned writer.
+     */
+    public ReportWriter openReport(CrawlerConfig config, Layout layout, Writer out) {
+        PrintWriter writer = new PrintWriter(out);
+        writeReportHeader(config, writer);
+        writer.flush();
+        return new MarkdownReportWriter(writer, layout);
+    }
+
     /**
      * Writes the report header with configuration info.
      */
@@ -50,27 +134,42 @@ public class MarkdownReporter {
     }
 
     /**
-     * Recursively writes a page and its children to the report.
+     * Recursively writes a page and its children, in URL order, to the report.
      */
     void writePage(PageResult page, PrintWriter writer) {
+        writeSinglePage(page, writer);
+
+        for (PageResult child : Reporter.orderedChildren(page)) {
+            writer.println("---\n");
+            writePage(child, writer);
+        }
+    }
+
+    private void writeSinglePage(PageResult page, PrintWriter writer) {
         writePageHeader(page, writer);
 
         if (!page.broken()) {
             writePageContent(page, writer);
         }
-
-        for (PageResult child : page.children()) {
-            writer.println("---\n");
-            writePage(child, writer);
-        }
     }
 
+
     /**
      * Writes the page header with URL, depth, and status.
      */
     void writePageHeader(PageResult page, PrintWriter writer) {
+        writePageHeader(page, null, writer);
+    }
+
+    /**
+     * Writes the page header, naming the parent page if one is given.
+     */
+    void writePageHeader(PageResult page, URI parent, PrintWriter writer) {
         writer.printf("## Page: %s%n", page.url());
         writer.printf("**Depth:** %d  %n", page.depth());
+        if (parent != null) {
+            writer.printf("**Parent:** %s  %n", parent);
+        }
         writer.printf("**Status:** %s%n%n", page.broken() ? "Broken" : "OK");
 
         if (page.broken()) {
@@ -109,7 +208,7 @@ public class MarkdownReporter {
                 section.heading().level(),
                 section.heading().text());
 
-        for (URI link : section.links()) {
+        for (Url link : section.links()) {
             writer.printf("%s* %s%n", blockquote, link.toString());
         }
 
@@ -123,7 +222,7 @@ public class MarkdownReporter {
         for (Section section : page.sections()) {
             if (section.heading().level() == 0 && !section.links().isEmpty()) {
                 writer.println("**Links Before First Heading:**");
-                for (URI link : section.links()) {
+                for (Url link : section.links()) {
                     writer.printf("* %s%n", link.toString());
                 }
                 writer.println();
@@ -131,4 +230,129 @@ public class MarkdownReporter {
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * A Markdown report that is written page by page while the crawl runs.
+     * Each page is flushed once written.
+     */
+    private final class MarkdownReportWriter implements ReportWriter {
+        private final PrintWriter writer;
+        private final Layout layout;
+        private int pageCount;
+
+        private MarkdownReportWriter(PrintWriter writer, Layout layout) {
+            this.writer = writer;
+            this.layout = layout;
+        }
+
+        /**
+         * The parent is only shown in the {@link Layout#FLAT} layout.
+         */
+        @Override
+        public synchronized void writePage(PageResult page, URI parent) {
+            if (pageCount > 0) {
+                writer.println("---\n");
+            }
+            writePageHeader(page, layout == Layout.FLAT ? parent : null, writer);
+            if (!page.broken()) {
+                writePageContent(page, writer);
+            }
+            writer.flush();
+            pageCount++;
+        }
+
+        @Override
+        public synchronized int getPageCount() {
+            return pageCount;
+        }
+
+        @Override
+        public synchronized void close() {
+            writer.close();
+            if (writer.checkError()) {
+                logger.error("Failed to write report after {} pages", pageCount);
+            } else {
+                logger.info("Successfully wrote {} pages to the report", pageCount);
+            }
+        }
+    }
+
+    /**
+     * Walks the page tree in report order and renders it batch by batch on the pool.
+     */
+    private final class ParallelRendering {
+        private final PrintWriter writer;
+        private final int maxPending = pool.getParallelism() * PENDING_BATCHES_PER_THREAD;
+        private final Deque<RenderTask> pending = new ArrayDeque<>();
+        private List<PageResult> batch = new ArrayList<>(RENDER_BATCH_PAGES);
+        private boolean firstBatch = true;
+
+        private ParallelRendering(PrintWriter writer) {
+            this.writer = writer;
+        }
+
+        void render(PageResult root) {
+            collect(root);
+            submitBatch();
+            while (!pending.isEmpty()) {
+                writer.write(pending.remove().join());
+            }
+        }
+
+        private void collect(PageResult page) {
+            batch.add(page);
+            if (batch.size() == RENDER_BATCH_PAGES) {
+                submitBatch();
+            }
+            for (PageResult child : Reporter.orderedChildren(page)) {
+                collect(child);
+            }
+        }
+
+        private void submitBatch() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            RenderTask task = new RenderTask(batch, firstBatch);
+            pool.execute(task);
+            pending.add(task);
+            firstBatch = false;
+            batch = new ArrayList<>(RENDER_BATCH_PAGES);
+
+            // write finished batches right away, and wait for the oldest one once too many are pending
+            while (!pending.isEmpty() && (pending.peek().isDone() || pending.size() > maxPending)) {
+                writer.write(pending.remove().join());
+            }
+        }
+    }
+
+    /**
+     * Renders consecutive pages of the report, each preceded by the page separator unless it is
+     * the first page of the report.
+     */
+    private final class RenderTask extends RecursiveTask<String> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<PageResult> pages;
+        private final boolean startsReport;
+
+        private RenderTask(List<PageResult> pages, boolean startsReport) {
+            this.pages = pages;
+            this.startsReport = startsReport;
+        }
+
+        @Override
+        protected String compute() {
+            StringWriter buffer = new StringWriter();
+            PrintWriter writer = new PrintWriter(buffer);
+            for (int i = 0; i < pages.size(); i++) {
+                if (i > 0 || !startsReport) {
+                    writer.println("---\n");
+                }
+                writeSinglePage(pages.get(i), writer);
+            }
+            writer.flush();
+            return buffer.toString();
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package crawler.reporter;
+
+import crawler.constants.CrawlerConstants;
+import crawler.model.CrawlerConfig;
+import crawler.model.PageResult;
+import crawler.model.PageResult.Section;
+import crawler.model.Url;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes one JSON object per page and line (NDJSON):
+ * <pre>
+ * {"url":"...","parent":"..."|null,"depth":1,"broken":false,
+ *  "sections":[{"level":1,"heading":"...","links":["..."]}]}
+ * </pre>
+ * Records are escaped straight into one reusable character buffer, copying unescaped runs of a
+ * string in one call, so no intermediate strings or JSON trees are built and the underlying writer
+ * only sees large blocks. The buffer is not flushed per page; a crash loses at most the last
+ * {@value CrawlerConstants#REPORT_BUFFER_SIZE} characters of records.
+ */
+public class NdjsonReporter extends RecordReporter {
+    private static final Logger logger = LoggerFactory.getLogger(NdjsonReporter.class);
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    public NdjsonReporter() {
+        this(Path.of(CrawlerConstants.NDJSON_REPORT_FILENAME));
+    }
+
+    public NdjsonReporter(Path file) {
+        super(file);
+    }
+
+    /**
+     * Records always name their parent, so both layouts produce the same format.
+     */
+    @Override
+    public ReportWriter openReport(CrawlerConfig config, Layout layout) throws IOException {
+        return openReport(new OutputStreamWriter(Files.newOutputStream(file), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Writes records to the given writer, which is closed with the report.
+     */
+    public ReportWriter openReport(Writer out) {
+        return new NdjsonReportWriter(out);
+    }
+
+    private static final class NdjsonReportWriter implements ReportWriter {
+        private final Writer out;
+        private final char[] buffer = new char[CrawlerConstants.REPORT_BUFFER_SIZE];
+        private int length;
+        private int pageCount;
+        private IOException failure;
+
+        private NdjsonReportWriter(Writer out) {
+            this.out = out;
+        }
+
+        @Override
+        public synchronized void writePage(PageResult page, URI parent) {
+            if (failure != null) {
+                return;
+            }
+            try {
+                writeRecord(page, parent);
+                pageCount++;
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+
+        private void writeRecord(PageResult page, URI parent) throws IOException {
+            append("{\"url\":");
+            writeString(page.url().toString());
+            append(",\"parent\":");
+            if (parent == null) {
+                append("null");
+            } else {
+                writeString(parent.toString());
+            }
+            append(",\"depth\":");
+            appendInt(page.depth());
+            append(page.broken() ? ",\"broken\":true" : ",\"broken\":false");
+            append(",\"sections\":[");
+            boolean firstSection = true;
+            for (Section section : page.sections()) {
+                if (!firstSection) {
+                    append(',');
+                }
+                firstSection = false;
+                append("{\"level\":");
+                appendInt(section.heading().level());
+                append(",\"heading\":");
+                writeString(section.heading().text());
+                append(",\"links\":[");
+                boolean firstLink = true;
+                for (Url link : section.links()) {
+                    if (!firstLink) {
+                        append(',');
+                    }
+                    firstLink = false;
+                    writeString(link.toString());
+                }
+                append("]}");
+            }
+            append("]}\n");
+        }
+
+        /**
+         * Writes a JSON string literal, escaping quotes, backslashes and control characters.
+         */
+        private void writeString(String s) throws IOException {
+            if (s == null) {
+                append("null");
+                return;
+            }
+            append('"');
+            int runStart = 0;
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c >= 0x20 && c != '"' && c != '\\') {
+                    continue;
+                }
+                append(s, runStart, i - runStart);
+                runStart = i + 1;
+                switch (c) {
+                    case '"' -> append("\\\"");
+                    case '\\' -> append("\\\\");
+                    case '\n' -> append("\\n");
+                    case '\r' -> append("\\r");
+                    case '\t' -> append("\\t");
+                    default -> {
+                        append("\\u00");
+                        append(HEX[c >> 4]);
+                        append(HEX[c & 0xf]);
+                    }
+                }
+            }
+            append(s, runStart, s.length() - runStart);
+            append('"');
+        }
+
+        private void append(String s) throws IOException {
+            append(s, 0, s.length());
+        }
+
+        private void append(String s, int start, int count) throws IOException {
+            while (count > 0) {
+                if (length == buffer.length) {
+                    flushBuffer();
+                }
+                int chunk = Math.min(count, buffer.length - length);
+                s.getChars(start, start + chunk, buffer, length);
+                length += chunk;
+                start += chunk;
+                count -= chunk;
+            }
+        }
+
+        private void append(char c) throws IOException {
+            if (length == buffer.length) {
+                flushBuffer();
+            }
+            buffer[length++] = c;
+        }
+
+        private void appendInt(int value) throws IOException {
+            if (value < 0) {
+                append('-');
+                value = -value; // depths and levels are far from Integer.MIN_VALUE
+            }
+            int divisor = 1;
+            while (value / divisor >= 10) {
+                divisor *= 10;
+            }
+            for (; divisor > 0; divisor /= 10) {
+                append((char) ('0' + value / divisor % 10));
+            }
+        }
+
+        private void flushBuffer() throws IOException {
+            out.write(buffer, 0, length);
+            length = 0;
+        }
+
+        @Override
+        public synchronized int getPageCount() {
+            return pageCount;
+        }
+
+        @Override
+        public synchronized void close() {
+            try (out) {
+                if (failure == null) {
+                    flushBuffer();
+                }
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+            if (failure != null) {
+                logger.error("Failed to write report after {} pages: {}", pageCount, failure.getMessage());
+            } else {
+                logger.info("Successfully wrote {} pages to the report", pageCount);
+            }
+        }
+    }
+}
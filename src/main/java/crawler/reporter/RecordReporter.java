@@ -0,0 +1,52 @@
+package crawler.reporter;
+
+import crawler.model.CrawlerConfig;
+import crawler.model.PageResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+
+/**
+ * Base for formats that store one self-contained record per page. Such a record names its parent,
+ * so the finished tree is written by walking it in pre-order through the incremental writer.
+ */
+abstract class RecordReporter implements Reporter {
+    private static final Logger logger = LoggerFactory.getLogger(RecordReporter.class);
+
+    protected final Path file;
+
+    protected RecordReporter(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public void writeReport(PageResult root, CrawlerConfig config) {
+        if (root == null || config == null) {
+            logger.error("Cannot write report: root or config is null.");
+            return;
+        }
+
+        try (ReportWriter writer = openReport(config, Layout.TREE)) {
+            writeTree(root, null, writer);
+        } catch (IOException e) {
+            logger.error("Failed to write report: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return the file the report is written to
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    private static void writeTree(PageResult page, URI parent, ReportWriter writer) {
+        writer.writePage(page, parent);
+        for (PageResult child : Reporter.orderedChildren(page)) {
+            writeTree(child, page.url(), writer);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package crawler.reporter;
+
+import crawler.model.CrawlerConfig;
+import crawler.model.PageResult;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Writes crawl results in some output format.
+ * <p>
+ * A report is either written at the end of the crawl from the finished page tree, or page by page
+ * through a {@link ReportWriter} while the crawl runs. Children are always written in URL order,
+ * so a crawl that finds the same pages always yields the same report.
+ */
+public interface Reporter {
+
+    /**
+     * Order of the pages in an incremental report.
+     */
+    enum Layout {
+        /**
+         * Each page is followed by the subtrees of its children, as in {@link #writeReport}.
+         * Pages must be written in depth-first pre-order, which is the sequential crawl order.
+         */
+        TREE,
+        /**
+         * Pages appear in the order they finish and name their parent page, from which the
+         * tree can be rebuilt. Used by the concurrent engines, which finish pages level by level.
+         */
+        FLAT
+    }
+
+    /**
+     * Writes the report for a finished page tree. Failures are logged, not thrown.
+     *
+     * @param root   the root page of the crawl result
+     * @param config the crawler configuration
+     */
+    void writeReport(PageResult root, CrawlerConfig config);
+
+    /**
+     * Opens the report for incremental writing.
+     *
+     * @param config the crawler configuration
+     * @param layout the order in which pages will be written
+     * @return the open report, to be closed when the crawl is over
+     * @throws IOException if the report cannot be created
+     */
+    ReportWriter openReport(CrawlerConfig config, Layout layout) throws IOException;
+
+    /**
+     * @return the children of a page in the order reports write them
+     */
+    static List<PageResult> orderedChildren(PageResult page) {
+        List<PageResult> children = new ArrayList<>(page.children());
+        children.sort(Comparator.comparing(child -> child.url().toString()));
+        return children;
+    }
+
+    /**
+     * A report that is written page by page. {@link #writePage} may be called from several threads.
+     */
+    interface ReportWriter extends Closeable {
+
+        /**
+         * Appends a finished page without its children.
+         *
+         * @param page   the page to write
+         * @param parent the URL of the page that linked to it, or null for the root
+         */
+        void writePage(PageResult page, URI parent);
+
+        /**
+         * @return number of pages written so far
+         */
+        int getPageCount();
+
+        /**
+         * Flushes and closes the report. Write failures are logged, not thrown.
+         */
+        @Override
+        void close();
+    }
+}
+
@@ -0,0 +1,299 @@
+package crawler.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Visited set backed by a Bloom filter sized for an expected number of URLs and a target
+ * false-positive rate, for crawls too large to keep even one fingerprint per URL on the heap.
+ * <p>
+ * Without confirmation, a false positive makes the crawler skip a page it has never seen.
+ * With a confirmation file, every URL's fingerprint is also recorded on disk: new fingerprints
+ * are collected in memory and periodically merged into a sorted, memory-mapped file, and a
+ * possible hit from the filter is only accepted once the fingerprint is found there.
+ * <p>
+ * {@link #getFalsePositiveRate()} estimates the current rate from the fill ratio. Once it
+ * exceeds the target, the filter was sized too small and a warning is logged.
+ */
+public class BloomVisitedSet implements VisitedSet {
+    private static final Logger logger = LoggerFactory.getLogger(BloomVisitedSet.class);
+    private static final int LOCK_STRIPES = 64;
+    private static final int MIN_PENDING_BEFORE_MERGE = 1 << 20;
+    private static final int RATE_CHECK_INTERVAL = 1024;
+
+    private final long expectedCount;
+    private final double targetFalsePositiveRate;
+    private final long bitCount;
+    private final int hashCount;
+    private final AtomicLongArray bits;
+    private final LongAdder setBits = new LongAdder();
+    private final LongAdder size = new LongAdder();
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private final Confirmation confirmation;
+    private final AtomicBoolean saturationReported = new AtomicBoolean();
+
+    /**
+     * @param expectedCount           number of URLs the filter is sized for
+     * @param targetFalsePositiveRate acceptable probability of treating a new URL as visited
+     */
+    public BloomVisitedSet(long expectedCount, double targetFalsePositiveRate) {
+        this(expectedCount, targetFalsePositiveRate, null);
+    }
+
+    /**
+     * @param expectedCount           number of URLs the filter is sized for
+     * @param targetFalsePositiveRate rate of possible hits that need a lookup in the confirmation file
+     * @param confirmationFile        where fingerprints are kept to confirm possible hits, or null to
+     *                                trust the filter; an existing file is replaced
+     */
+    public BloomVisitedSet(long expectedCount, double targetFalsePositiveRate, Path confirmationFile) {
+        this(expectedCount, targetFalsePositiveRate, confirmationFile, MIN_PENDING_BEFORE_MERGE);
+    }
+
+    BloomVisitedSet(long expectedCount, double targetFalsePositiveRate, Path confirmationFile, int minPendingBeforeMerge) {
+        if (expectedCount < 1) {
+            throw new IllegalArgumentException("Expected count must be positive.");
+        }
+        if (!(targetFalsePositiveRate > 0 && targetFalsePositiveRate < 1)) {
+            throw new IllegalArgumentException("False-positive rate must be between 0 and 1.");
+        }
+        this.expectedCount = expectedCount;
+        this.targetFalsePositiveRate = targetFalsePositiveRate;
+
+        double ln2 = Math.log(2);
+        long optimalBits = (long) Math.ceil(-expectedCount * Math.log(targetFalsePositiveRate) / (ln2 * ln2));
+        long words = Math.max(1, (optimalBits + 63) / 64);
+        if (words > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Filter for " + expectedCount + " URLs does not fit in memory.");
+        }
+        this.bitCount = words * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedCount * ln2));
+        this.bits = new AtomicLongArray((int) words);
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+
+        try {
+            this.confirmation = confirmationFile == null ? null : new Confirmation(confirmationFile, minPendingBeforeMerge);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create fingerprint file " + confirmationFile, e);
+        }
+    }
+
+    @Override
+    public boolean add(String key) {
+        long fingerprint = FingerprintVisitedSet.fingerprint(key);
+        boolean added;
+        // a URL's bits and fingerprint are only ever touched under its own stripe, so one of two
+        // threads adding the same URL sees the other's bits and reports it as visited
+        synchronized (locks[(int) (fingerprint >>> 58)]) {
+            boolean possiblyPresent = mightContain(fingerprint);
+            if (possiblyPresent && (confirmation == null || confirmation.contains(fingerprint))) {
+                return false;
+            }
+            if (!possiblyPresent) {
+                setBits(fingerprint);
+            }
+            added = confirmation == null || confirmation.add(fingerprint);
+        }
+        if (added) {
+            size.increment();
+            if (confirmation != null) {
+                confirmation.mergeIfFull();
+            }
+            checkSaturation();
+        }
+        return added;
+    }
+
+    @Override
+    public boolean contains(String key) {
+        long fingerprint = FingerprintVisitedSet.fingerprint(key);
+        return mightContain(fingerprint) && (confirmation == null || confirmation.contains(fingerprint));
+    }
+
+    @Override
+    public int size() {
+        return (int) Math.min(Integer.MAX_VALUE, size.sum());
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < bits.length(); i++) {
+            bits.set(i, 0);
+        }
+        setBits.reset();
+        size.reset();
+        saturationReported.set(false);
+        if (confirmation != null) {
+            confirmation.clear();
+        }
+    }
+
+    /**
+     * Heap memory only; the confirmation file lives in the page cache.
+     */
+    @Override
+    public long memoryFootprintBytes() {
+        long bytes = 16L + bits.length() * 8L;
+        return confirmation == null ? bytes : bytes + confirmation.pendingFootprintBytes();
+    }
+
+    /**
+     * @return the fraction of filter bits that are set
+     */
+    public double getFillRatio() {
+        return (double) setBits.sum() / bitCount;
+    }
+
+    /**
+     * @return the estimated probability that an unseen URL currently passes the filter
+     */
+    public double getFalsePositiveRate() {
+        return Math.pow(getFillRatio(), hashCount);
+    }
+
+    public double getTargetFalsePositiveRate() {
+        return targetFalsePositiveRate;
+    }
+
+    public long getExpectedCount() {
+        return expectedCount;
+    }
+
+    public long getBitCount() {
+        return bitCount;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    private boolean mightContain(long fingerprint) {
+        long h1 = fingerprint & 0xFFFFFFFFL;
+        long h2 = (fingerprint >>> 32) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void setBits(long fingerprint) {
+        long h1 = fingerprint & 0xFFFFFFFFL;
+        long h2 = (fingerprint >>> 32) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            long mask = 1L << bit;
+            if ((bits.getAndAccumulate((int) (bit >>> 6), mask, (word, m) -> word | m) & mask) == 0) {
+                setBits.increment();
+            }
+        }
+    }
+
+    private void checkSaturation() {
+        if (size.sum() % RATE_CHECK_INTERVAL == 0 && !saturationReported.get()
+                && getFalsePositiveRate() > targetFalsePositiveRate
+                && saturationReported.compareAndSet(false, true)) {
+            logger.warn("Visited filter sized for {} URLs now holds {}: false-positive rate {} exceeds target {}",
+                    expectedCount, size.sum(), getFalsePositiveRate(), targetFalsePositiveRate);
+        }
+    }
+
+    /**
+     * Exact record of all fingerprints: recent ones in memory, older ones in the sorted file.
+     * Lookups and adds share the read lock; a merge takes the write lock.
+     */
+    private static final class Confirmation {
+        private final Path path;
+        private final int minPendingBeforeMerge;
+        private final FingerprintFile file;
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private volatile FingerprintVisitedSet pending = new FingerprintVisitedSet();
+        private volatile boolean mergeFailed = false;
+
+        Confirmation(Path path, int minPendingBeforeMerge) throws IOException {
+            this.path = path;
+            this.minPendingBeforeMerge = minPendingBeforeMerge;
+            this.file = new FingerprintFile(path);
+        }
+
+        boolean contains(long fingerprint) {
+            lock.readLock().lock();
+            try {
+                return pending.containsFingerprint(fingerprint) || file.contains(fingerprint);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        boolean add(long fingerprint) {
+            lock.readLock().lock();
+            try {
+                return !file.contains(fingerprint) && pending.addFingerprint(fingerprint);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        /**
+         * Merges pending fingerprints into the file once they are a sizable fraction of it,
+         * so each fingerprint is rewritten only a bounded number of times.
+         */
+        void mergeIfFull() {
+            if (!isFull()) {
+                return;
+            }
+            lock.writeLock().lock();
+            try {
+                if (isFull()) {
+                    file.merge(pending.sortedFingerprints());
+                    pending = new FingerprintVisitedSet();
+                }
+            } catch (IOException e) {
+                mergeFailed = true;
+                logger.warn("Failed to merge visited fingerprints into {}, keeping them in memory: {}",
+                        path, e.getMessage());
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void clear() {
+            lock.writeLock().lock();
+            try {
+                file.clear();
+                pending = new FingerprintVisitedSet();
+                mergeFailed = false;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        long pendingFootprintBytes() {
+            lock.readLock().lock();
+            try {
+                return pending.memoryFootprintBytes();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private boolean isFull() {
+            return !mergeFailed && pending.size() >= Math.max(minPendingBeforeMerge, file.size() / 8);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package crawler.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * Allowed-domain list compiled into a hash table of label suffixes.
+ * <p>
+ * A host matches a domain if it is the domain itself or one of its subdomains:
+ * {@code example.com} allows {@code www.example.com} but not {@code evilexample.com}.
+ * Matching hashes the host once from its last character to its first and looks up the suffix
+ * at every label boundary, so it costs O(host length) regardless of the number of domains
+ * and allocates nothing. Lists of up to {@value #LINEAR_SCAN_LIMIT} domains, the usual case, are
+ * compared directly instead, which is cheaper than hashing the host.
+ * Comparison is case-insensitive and ignores a trailing dot.
+ * <p>
+ * A blank entry allows every host, as the plain {@code endsWith} check did.
+ */
+public final class DomainMatcher {
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final int LINEAR_SCAN_LIMIT = 4;
+
+    private final long[] hashes;
+    private final String[] domains;
+    private final int mask;
+    private final String[] distinctDomains;
+    private final boolean matchesAnyHost;
+
+    private DomainMatcher(long[] hashes, String[] domains, String[] distinctDomains, boolean matchesAnyHost) {
+        this.hashes = hashes;
+        this.domains = domains;
+        this.mask = hashes.length - 1;
+        this.distinctDomains = distinctDomains;
+        this.matchesAnyHost = matchesAnyHost;
+    }
+
+    /**
+     * @param allowedDomains domain names; a leading or trailing dot is ignored
+     * @return a matcher for the domains and their subdomains
+     */
+    public static DomainMatcher of(Collection<String> allowedDomains) {
+        int capacity = Integer.highestOneBit(Math.max(2, allowedDomains.size()) * 2 - 1) << 1;
+        long[] hashes = new long[capacity];
+        String[] domains = new String[capacity];
+        String[] distinctDomains = new String[allowedDomains.size()];
+        int size = 0;
+        boolean matchesAnyHost = false;
+
+        for (String entry : allowedDomains) {
+            String domain = normalize(entry);
+            if (domain.isEmpty()) {
+                matchesAnyHost = true;
+                continue;
+            }
+            long hash = suffixHash(domain, 0, domain.length());
+            int slot = slot(hash, capacity - 1);
+            while (hashes[slot] != 0 && !(hashes[slot] == hash && domains[slot].equals(domain))) {
+                slot = (slot + 1) & (capacity - 1);
+            }
+            if (hashes[slot] == 0) {
+                hashes[slot] = hash;
+                domains[slot] = domain;
+                distinctDomains[size++] = domain;
+            }
+        }
+        return new DomainMatcher(hashes, domains, Arrays.copyOf(distinctDomains, size), matchesAnyHost);
+    }
+
+    /**
+     * @param host a host name, or null
+     * @return true if the host is one of the domains or a subdomain of one
+     */
+    public boolean matches(String host) {
+        if (host == null) {
+            return false;
+        }
+        if (matchesAnyHost) {
+            return true;
+        }
+        int end = host.endsWith(".") ? host.length() - 1 : host.length();
+        if (distinctDomains.length <= LINEAR_SCAN_LIMIT) {
+            for (String domain : distinctDomains) {
+                if (endsWithLabels(host, end, domain)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        long hash = FNV_OFFSET;
+        for (int i = end - 1; i >= 0; i--) {
+            hash = (hash ^ lowerCase(host.charAt(i))) * FNV_PRIME;
+            if ((i == 0 || host.charAt(i - 1) == '.') && contains(hash, host, i, end)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return number of distinct domains
+     */
+    public int size() {
+        return distinctDomains.length;
+    }
+
+    /**
+     * Matchers are equal if they were compiled from the same normalized domains.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DomainMatcher other)) return false;
+        if (distinctDomains.length != other.distinctDomains.length || matchesAnyHost != other.matchesAnyHost) {
+            return false;
+        }
+        for (String domain : distinctDomains) {
+            if (!other.contains(suffixHash(domain, 0, domain.length()), domain, 0, domain.length())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = Boolean.hashCode(matchesAnyHost);
+        for (String domain : distinctDomains) {
+            hash += domain.hashCode();
+        }
+        return hash;
+    }
+
+    private static boolean endsWithLabels(String host, int end, String domain) {
+        int start = end - domain.length();
+        return start >= 0
+                && (start == 0 || host.charAt(start - 1) == '.')
+                && host.regionMatches(true, start, domain, 0, domain.length());
+    }
+
+    private boolean contains(long hash, String host, int start, int end) {
+        long key = hash == 0 ? 1 : hash; // as stored by suffixHash
+        for (int slot = slot(key, mask); hashes[slot] != 0; slot = (slot + 1) & mask) {
+            String domain = domains[slot];
+            if (hashes[slot] == key && domain.length() == end - start
+                    && host.regionMatches(true, start, domain, 0, domain.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String normalize(String entry) {
+        if (entry == null) {
+            return "";
+        }
+        String domain = entry.trim().toLowerCase(Locale.ROOT);
+        int start = domain.startsWith(".") ? 1 : 0;
+        int end = domain.endsWith(".") ? domain.length() - 1 : domain.length();
+        return start >= end ? "" : domain.substring(start, end);
+    }
+
+    /**
+     * Hashes the characters from {@code end - 1} down to {@code start}, as {@link #matches} does.
+     */
+    private static long suffixHash(String s, int start, int end) {
+        long hash = FNV_OFFSET;
+        for (int i = end - 1; i >= start; i--) {
+            hash = (hash ^ lowerCase(s.charAt(i))) * FNV_PRIME;
+        }
+        return hash == 0 ? 1 : hash;
+    }
+
+    private static char lowerCase(char c) {
+        if (c < 0x80) {
+            return c >= 'A' && c <= 'Z' ? (char) (c | 0x20) : c;
+        }
+        return Character.toLowerCase(c);
+    }
+
+    private static int slot(long hash, int mask) {
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
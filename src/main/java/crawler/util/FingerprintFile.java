@@ -0,0 +1,116 @@
+package crawler.util;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Sorted file of 64-bit fingerprints, memory-mapped for binary search.
+ * <p>
+ * The file is immutable once written. New fingerprints are added by merging a sorted batch with
+ * the current file into a new one, which then replaces it. Not thread-safe; callers serialize
+ * merges against lookups.
+ */
+final class FingerprintFile {
+    private static final int LONGS_PER_MAPPING = 1 << 27; // 1 GiB per mapped region
+
+    private final Path file;
+    private LongBuffer[] mappings = new LongBuffer[0];
+    private long count = 0;
+
+    /**
+     * Creates an empty fingerprint file, replacing any existing one.
+     */
+    FingerprintFile(Path file) throws IOException {
+        this.file = file;
+        Files.deleteIfExists(file);
+        Files.createFile(file);
+    }
+
+    boolean contains(long fingerprint) {
+        long low = 0;
+        long high = count - 1;
+        while (low <= high) {
+            long middle = (low + high) >>> 1;
+            long value = get(middle);
+            if (value < fingerprint) {
+                low = middle + 1;
+            } else if (value > fingerprint) {
+                high = middle - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Merges fingerprints into the file.
+     *
+     * @param sorted fingerprints in ascending order
+     * @throws IOException if the new file cannot be written; the current file stays valid
+     */
+    void merge(long[] sorted) throws IOException {
+        Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), "fingerprints", ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+            long existing = 0;
+            int added = 0;
+            long last = 0;
+            boolean first = true;
+            while (existing < count || added < sorted.length) {
+                long next;
+                if (added == sorted.length || (existing < count && get(existing) <= sorted[added])) {
+                    next = get(existing++);
+                } else {
+                    next = sorted[added++];
+                }
+                if (first || next != last) {
+                    out.writeLong(next);
+                    last = next;
+                    first = false;
+                }
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        map();
+    }
+
+    /**
+     * Removes all fingerprints.
+     */
+    void clear() throws IOException {
+        Files.write(file, new byte[0]);
+        mappings = new LongBuffer[0];
+        count = 0;
+    }
+
+    long size() {
+        return count;
+    }
+
+    private long get(long index) {
+        return mappings[(int) (index / LONGS_PER_MAPPING)].get((int) (index % LONGS_PER_MAPPING));
+    }
+
+    private void map() throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long longs = channel.size() / Long.BYTES;
+            int regions = (int) ((longs + LONGS_PER_MAPPING - 1) / LONGS_PER_MAPPING);
+            LongBuffer[] mapped = new LongBuffer[regions];
+            for (int i = 0; i < regions; i++) {
+                long start = (long) i * LONGS_PER_MAPPING;
+                long length = Math.min(LONGS_PER_MAPPING, longs - start);
+                mapped[i] = channel.map(FileChannel.MapMode.READ_ONLY, start * Long.BYTES, length * Long.BYTES)
+                        .asLongBuffer();
+            }
+            mappings = mapped;
+            count = longs;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package crawler.util;
+
+import java.util.Arrays;
+
+/**
+ * Visited set that stores a 64-bit fingerprint per URL instead of the URL itself.
+ * <p>
+ * Fingerprints live in open-addressing {@code long[]} tables with linear probing, split into
+ * lock-striped segments so concurrent crawler threads rarely contend. A slot costs 8 bytes and
+ * tables are kept at most half full, so a URL takes 16 to 32 bytes regardless of its length.
+ * <p>
+ * Two different URLs with the same fingerprint are indistinguishable: the second one is treated
+ * as visited and not crawled. For {@code n} URLs the probability of any such collision is about
+ * {@code n² / 2^65}, roughly 3 in a million for ten million URLs.
+ */
+public class FingerprintVisitedSet implements VisitedSet {
+    private static final int DEFAULT_SEGMENTS = 64;
+    private static final int INITIAL_SEGMENT_CAPACITY = 64;
+    private static final long EMPTY = 0L;
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final Segment[] segments;
+    private final int segmentShift;
+
+    public FingerprintVisitedSet() {
+        this(DEFAULT_SEGMENTS);
+    }
+
+    /**
+     * @param segmentCount number of independently locked tables, rounded up to a power of two
+     */
+    public FingerprintVisitedSet(int segmentCount) {
+        if (segmentCount < 1) {
+            throw new IllegalArgumentException("Segment count must be positive.");
+        }
+        int count = Integer.highestOneBit(segmentCount - 1) << 1;
+        count = Math.max(count, 1);
+        segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment();
+        }
+        segmentShift = 64 - Integer.numberOfTrailingZeros(count);
+    }
+
+    @Override
+    public boolean add(String key) {
+        return addFingerprint(fingerprint(key));
+    }
+
+    @Override
+    public boolean contains(String key) {
+        return containsFingerprint(fingerprint(key));
+    }
+
+    boolean addFingerprint(long fingerprint) {
+        return segmentFor(fingerprint).add(fingerprint);
+    }
+
+    boolean containsFingerprint(long fingerprint) {
+        return segmentFor(fingerprint).contains(fingerprint);
+    }
+
+    /**
+     * @return all stored fingerprints in ascending order; not atomic with respect to concurrent adds
+     */
+    long[] sortedFingerprints() {
+        long[] all = new long[size()];
+        int count = 0;
+        for (Segment segment : segments) {
+            count = segment.copyTo(all, count);
+        }
+        long[] result = count == all.length ? all : Arrays.copyOf(all, count);
+        Arrays.sort(result);
+        return result;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    @Override
+    public long memoryFootprintBytes() {
+        long bytes = 16L + segments.length * 8L;
+        for (Segment segment : segments) {
+            bytes += segment.memoryFootprintBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * FNV-1a over the UTF-16 code units followed by the MurmurHash3 finalizer, so that every
+     * bit of the result depends on every character. Zero marks an empty slot and is remapped.
+     */
+    static long fingerprint(String key) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash == EMPTY ? 1L : hash;
+    }
+
+    private Segment segmentFor(long fingerprint) {
+        // the segment comes from the high bits, the slot from the low bits
+        return segments.length == 1 ? segments[0] : segments[(int) (fingerprint >>> segmentShift)];
+    }
+
+    private static final class Segment {
+        private long[] table = new long[INITIAL_SEGMENT_CAPACITY];
+        private int size = 0;
+
+        synchronized boolean add(long fingerprint) {
+            int mask = table.length - 1;
+            int slot = (int) fingerprint & mask;
+            while (table[slot] != EMPTY) {
+                if (table[slot] == fingerprint) {
+                    return false;
+                }
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = fingerprint;
+            if (++size * 2 > table.length) {
+                grow();
+            }
+            return true;
+        }
+
+        synchronized boolean contains(long fingerprint) {
+            int mask = table.length - 1;
+            int slot = (int) fingerprint & mask;
+            while (table[slot] != EMPTY) {
+                if (table[slot] == fingerprint) {
+                    return true;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return false;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized void clear() {
+            table = new long[INITIAL_SEGMENT_CAPACITY];
+            size = 0;
+        }
+
+        synchronized int copyTo(long[] target, int offset) {
+            for (long fingerprint : table) {
+                if (fingerprint != EMPTY && offset < target.length) {
+                    target[offset++] = fingerprint;
+                }
+            }
+            return offset;
+        }
+
+        synchronized long memoryFootprintBytes() {
+            return 16L + 16L + table.length * 8L;
+        }
+
+        private void grow() {
+            long[] old = table;
+            table = new long[old.length * 2];
+            int mask = table.length - 1;
+            for (long fingerprint : old) {
+                if (fingerprint != EMPTY) {
+                    int slot = (int) fingerprint & mask;
+                    while (table[slot] != EMPTY) {
+                        slot = (slot + 1) & mask;
+                    }
+                    table[slot] = fingerprint;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package crawler.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Exact visited set that keeps every URL string in a {@link ConcurrentHashMap}.
+ */
+public class HashVisitedSet implements VisitedSet {
+    // map node, String object, byte[] header and table slot on a 64-bit JVM with compressed oops
+    private static final int BYTES_PER_ENTRY = 32 + 24 + 16 + 8;
+
+    private final ConcurrentHashMap.KeySetView<String, Boolean> keys = ConcurrentHashMap.newKeySet();
+    private final LongAdder keyBytes = new LongAdder();
+
+    @Override
+    public boolean add(String key) {
+        boolean added = keys.add(key);
+        if (added) {
+            keyBytes.add(key.length());
+        }
+        return added;
+    }
+
+    @Override
+    public boolean contains(String key) {
+        return keys.contains(key);
+    }
+
+    @Override
+    public int size() {
+        return keys.size();
+    }
+
+    @Override
+    public void clear() {
+        keys.clear();
+        keyBytes.reset();
+    }
+
+    @Override
+    public long memoryFootprintBytes() {
+        return (long) keys.size() * BYTES_PER_ENTRY + keyBytes.sum();
+    }
+}
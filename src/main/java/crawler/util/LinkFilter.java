@@ -1,44 +1,92 @@
 package crawler.util;
 
+import crawler.model.Url;
+
 import java.net.URI;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 
 public class LinkFilter {
-    private final ConcurrentMap<URI, Boolean> visited = new ConcurrentHashMap<>();
+    private final VisitedSet visited;
+
+    public LinkFilter() {
+        this(new HashVisitedSet());
+    }
+
+    /**
+     * @param visited stores the URLs that have been marked as visited
+     */
+    public LinkFilter(VisitedSet visited) {
+        this.visited = visited;
+    }
 
+    /**
+     * Compiles the domain list on every call; crawls should use {@link #isAllowedDomain(Url, DomainMatcher)}.
+     */
     public boolean isAllowedDomain(URI url, List<String> allowedDomains) {
-        if (url == null || allowedDomains == null || allowedDomains.isEmpty()) {
+        if (allowedDomains == null) {
+            return false;
+        }
+        return isAllowedDomain(url, DomainMatcher.of(allowedDomains));
+    }
+
+    /**
+     * Compiles the domain list on every call; crawls should use {@link #isAllowedDomain(Url, DomainMatcher)}.
+     */
+    public boolean isAllowedDomain(Url url, List<String> allowedDomains) {
+        if (allowedDomains == null) {
             return false;
         }
+        return isAllowedDomain(url, DomainMatcher.of(allowedDomains));
+    }
 
-        String host = url.getHost();
-        if (host == null) return false;
+    public boolean isAllowedDomain(URI url, DomainMatcher allowedDomains) {
+        if (url == null || allowedDomains == null) {
+            return false;
+        }
+        return allowedDomains.matches(url.getHost());
+    }
 
-        return allowedDomains.stream().anyMatch(host::endsWith);
+    public boolean isAllowedDomain(Url url, DomainMatcher allowedDomains) {
+        if (url == null || allowedDomains == null) {
+            return false;
+        }
+        return allowedDomains.matches(url.host());
     }
 
     public boolean isVisited(URI url) {
         if (url == null) return true;
 
-        URI normalizedUrl = normalizeUri(url);
-        return visited.containsKey(normalizedUrl);
+        return visited.contains(visitedKey(url));
+    }
+
+    public boolean isVisited(Url url) {
+        if (url == null) return true;
+
+        return visited.contains(url.normalized());
     }
 
     /**
      * Marks a URL as visited atomically.
      *
      * @param url the URL to mark as visited
-     * @return true if the URL was already visited, false if this is the first visit
+     * @return true if this is the first visit, false if the URL was already visited
      */
     public boolean markVisited(URI url) {
         if (url == null) return false;
 
-        URI normalizedUrl = normalizeUri(url);
-        // putIfAbsent returns null if the key was not present (first visit)
-        // returns the existing value if the key was already present (already visited)
-        return visited.putIfAbsent(normalizedUrl, Boolean.TRUE) == null;
+        return visited.add(visitedKey(url));
+    }
+
+    /**
+     * Marks a link as visited atomically.
+     *
+     * @param url the link to mark as visited
+     * @return true if this is the first visit, false if the URL was already visited
+     */
+    public boolean markVisited(Url url) {
+        if (url == null) return false;
+
+        return visited.add(url.normalized());
     }
 
     public int getVisitedCount() {
@@ -49,17 +97,25 @@ public class LinkFilter {
         visited.clear();
     }
 
-    private URI normalizeUri(URI uri) {
+    public VisitedSet getVisitedSet() {
+        return visited;
+    }
+
+    /**
+     * @return estimated heap memory held by the visited URLs, in bytes
+     */
+    public long getVisitedMemoryBytes() {
+        return visited.memoryFootprintBytes();
+    }
+
+    /**
+     * Uses the same key as {@link Url#normalized()}, so a page reached by URI and by link is seen once.
+     */
+    private static String visitedKey(URI url) {
         try {
-            return new URI(
-                    uri.getScheme(),
-                    uri.getAuthority(),
-                    uri.getPath(),
-                    uri.getQuery(),
-                    null
-            );
-        } catch (Exception e) {
-            return uri;
+            return Url.of(url).normalized();
+        } catch (IllegalArgumentException e) {
+            return url.toString(); // relative URIs are only compared with themselves
         }
     }
-}
\ No newline at end of file
+}
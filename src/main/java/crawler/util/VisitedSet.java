@@ -0,0 +1,27 @@
+package crawler.util;
+
+/**
+ * Set of URLs the crawler has already seen, keyed by the normalized URL string.
+ * Implementations must be safe for concurrent use.
+ */
+public interface VisitedSet {
+
+    /**
+     * Adds a URL atomically.
+     *
+     * @param key the normalized URL
+     * @return true if the URL was not in the set before
+     */
+    boolean add(String key);
+
+    boolean contains(String key);
+
+    int size();
+
+    void clear();
+
+    /**
+     * @return an estimate of the heap memory held by the set, in bytes
+     */
+    long memoryFootprintBytes();
+}
@@ -0,0 +1,277 @@
+package crawler.adapters;
+
+import com.sun.net.httpserver.HttpServer;
+import crawler.adapters.HtmlDocumentSource.DocumentRetrievalException;
+import crawler.adapters.HtmlDocumentSource.DocumentRetrievalException.ErrorType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static crawler.constants.CrawlerConstants.MAX_BODY_SIZE_BYTES;
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpClientDocumentSourceTest {
+
+    private static final int SMALL_BODY_LIMIT = 1024;
+    private static final String LARGE_PAGE = "<html><body>" + "x".repeat(4 * SMALL_BODY_LIMIT) + "</body></html>";
+
+    private HttpServer server;
+    private URI baseUri;
+    private final AtomicReference<String> receivedUserAgent = new AtomicReference<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/page", exchange -> {
+            receivedUserAgent.set(exchange.getRequestHeaders().getFirst("User-Agent"));
+            respond(exchange, 200, """
+                    <html><head><title>Test Page</title></head><body>
+                        <h1>Heading</h1>
+                        <a href="/other">Other</a>
+                    </body></html>
+                    """);
+        });
+        server.createContext("/missing", exchange -> respond(exchange, 404, "not found"));
+        server.createContext("/busy", exchange -> {
+            exchange.getResponseHeaders().set("Retry-After", "7");
+            respond(exchange, 503, "busy");
+        });
+        server.createContext("/slow", exchange -> {
+            try {
+                Thread.sleep(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, 200, "<html></html>");
+        });
+        server.createContext("/image", exchange -> {
+            exchange.getResponseHeaders().set("Content-Type", "image/png");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(new byte[4 * SMALL_BODY_LIMIT]);
+            } catch (IOException e) {
+                // the client hangs up without reading
+            }
+        });
+        server.createContext("/large", exchange -> respond(exchange, 200, LARGE_PAGE));
+        server.createContext("/large-chunked", exchange -> {
+            exchange.getResponseHeaders().set("Content-Type", "text/html");
+            exchange.sendResponseHeaders(200, 0); // no Content-Length
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(LARGE_PAGE.getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                // the client hangs up once the limit is reached
+            }
+        });
+        server.createContext("/latin1", exchange -> {
+            byte[] bytes = "<html><body><h1>Caf\u00e9</h1></body></html>".getBytes(StandardCharsets.ISO_8859_1);
+            exchange.getResponseHeaders().set("Content-Type", "text/html; charset=ISO-8859-1");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.start();
+        baseUri = URI.create("http://127.0.0.1:" + server.getAddress().getPort());
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    private static void respond(com.sun.net.httpserver.HttpExchange exchange, int status, String body)
+            throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/html; charset=UTF-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Test
+    void testFetchDocumentParsesHeadingsAndLinks() throws Exception {
+        HttpClientDocumentSource source = new HttpClientDocumentSource("TestBot/1.0");
+        URI pageUri = baseUri.resolve("/page");
+
+        HtmlDocument document = source.fetchDocument(pageUri);
+
+        assertEquals("Test Page", document.getTitle());
+        assertEquals(List.of(new HtmlDocument.DocumentHeading(1, "Heading")), document.getHeadings());
+        assertEquals(List.of(baseUri.resolve("/other")), document.getLinks(pageUri));
+        assertEquals("TestBot/1.0", receivedUserAgent.get());
+    }
+
+    @Test
+    void testStreamingModeExtractsSameContent() throws Exception {
+        HttpClientDocumentSource source = new HttpClientDocumentSource(
+                "TestBot/1.0", java.util.concurrent.Executors.newVirtualThreadPerTaskExecutor(), true);
+        URI pageUri = baseUri.resolve("/page");
+
+        HtmlDocument document = source.fetchDocument(pageUri);
+
+        assertFalse(document instanceof JsoupHtmlDocument);
+        assertEquals("Test Page", document.getTitle());
+        assertEquals(List.of(new HtmlDocument.DocumentHeading(1, "Heading")), document.getHeadings());
+        assertEquals(List.of(baseUri.resolve("/other")), document.getLinks(pageUri));
+    }
+
+    @Test
+    void testClosedSourceFetchesNothing() throws Exception {
+        for (HttpClientDocumentSource source : List.of(new HttpClientDocumentSource("TestBot/1.0"),
+                new HttpClientDocumentSource("TestBot/1.0", true))) {
+            source.fetchDocument(baseUri.resolve("/page"));
+
+            source.close();
+
+            assertThrows(DocumentRetrievalException.class, () -> source.fetchDocument(baseUri.resolve("/page")));
+        }
+    }
+
+    @Test
+    void testFetchDocumentAsyncRunsConcurrentRequests() {
+        HttpClientDocumentSource source = new HttpClientDocumentSource("TestBot/1.0");
+
+        List<CompletableFuture<HtmlDocument>> futures = java.util.stream.IntStream.range(0, 10)
+                .mapToObj(i -> source.fetchDocumentAsync(baseUri.resolve("/page")))
+                .toList();
+
+        for (CompletableFuture<HtmlDocument> future : futures) {
+            assertEquals("Test Page", future.join().getTitle());
+        }
+    }
+
+    @Test
+    void testHttpErrorStatusIsReported() {
+        HttpClientDocumentSource source = new HttpClientDocumentSource("TestBot/1.0");
+
+        DocumentRetrievalException e = assertThrows(DocumentRetrievalException.class,
+                () -> source.fetchDocument(baseUri.resolve("/missing")));
+
+        assertEquals(ErrorType.HTTP_ERROR, e.getErrorType());
+        assertEquals(404, e.getStatusCode());
+        assertNull(e.getRetryAfter());
+    }
+
+    @Test
+    void testRetryAfterIsReported() {
+        HttpClientDocumentSource source = new HttpClientDocumentSource("TestBot/1.0");
+
+        DocumentRetrievalException e = assertThrows(DocumentRetrievalException.class,
+                () -> source.fetchDocument(baseUri.resolve("/busy")));
+
+        assertEquals(503, e.getStatusCode());
+        assertEquals("7", e.getRetryAfter());
+    }
+
+    @Test
+    void testAsyncFailureCarriesRetrievalException() {
+        HttpClientDocumentSource source = new HttpClientDocumentSource("TestBot/1.0");
+
+        CompletionException e = assertThrows(CompletionException.class,
+                () -> source.fetchDocumentAsync(baseUri.resolve("/missing")).join());
+
+        assertInstanceOf(DocumentRetrievalException.class, e.getCause());
+    }
+
+    @Test
+    void testRequestTimeout() {
+        HttpClientDocumentSource source = new HttpClientDocumentSource(
+                HttpClient.newHttpClient(), "TestBot/1.0", Duration.ofMillis(100), MAX_BODY_SIZE_BYTES, false);
+
+        DocumentRetrievalException e = assertThrows(DocumentRetrievalException.class,
+                () -> source.fetchDocument(baseUri.resolve("/slow")));
+
+        assertEquals(ErrorType.TIMEOUT, e.getErrorType());
+    }
+
+    @Test
+    void testConnectionRefusedIsNetworkError() throws Exception {
+        HttpClientDocumentSource source = new HttpClientDocumentSource("TestBot/1.0");
+        URI closed = baseUri.resolve("/page");
+        server.stop(0);
+
+        DocumentRetrievalException e = assertThrows(DocumentRetrievalException.class,
+                () -> source.fetchDocument(closed));
+
+        assertEquals(ErrorType.NETWORK_ERROR, e.getErrorType());
+    }
+
+    @Test
+    void testUnsupportedSchemeIsInvalidUrl() {
+        HttpClientDocumentSource source = new HttpClientDocumentSource("TestBot/1.0");
+
+        DocumentRetrievalException e = assertThrows(DocumentRetrievalException.class,
+                () -> source.fetchDocument(URI.create("ftp://example.com/file")));
+
+        assertEquals(ErrorType.INVALID_URL, e.getErrorType());
+    }
+
+    @Test
+    void testNonHtmlContentIsSkipped() {
+        HttpClientDocumentSource source = new HttpClientDocumentSource("TestBot/1.0");
+
+        DocumentRetrievalException e = assertThrows(DocumentRetrievalException.class,
+                () -> source.fetchDocument(baseUri.resolve("/image")));
+
+        assertEquals(ErrorType.CONTENT_SKIPPED, e.getErrorType());
+        assertTrue(e.getMessage().contains("image/png"));
+    }
+
+    @Test
+    void testAnnouncedOversizedBodyIsSkipped() {
+        HttpClientDocumentSource source = limitedSource(false);
+
+        DocumentRetrievalException e = assertThrows(DocumentRetrievalException.class,
+                () -> source.fetchDocument(baseUri.resolve("/large")));
+
+        assertEquals(ErrorType.CONTENT_SKIPPED, e.getErrorType());
+        assertTrue(e.getMessage().contains("Content-Length"));
+    }
+
+    @Test
+    void testBodyWithoutLengthIsCappedAtLimit() {
+        for (boolean streaming : new boolean[] {false, true}) {
+            HttpClientDocumentSource source = limitedSource(streaming);
+
+            DocumentRetrievalException e = assertThrows(DocumentRetrievalException.class,
+                    () -> source.fetchDocument(baseUri.resolve("/large-chunked")));
+
+            assertEquals(ErrorType.CONTENT_SKIPPED, e.getErrorType());
+        }
+    }
+
+    @Test
+    void testBodyWithinLimitIsRead() throws Exception {
+        HtmlDocument document = limitedSource(false).fetchDocument(baseUri.resolve("/page"));
+
+        assertEquals("Test Page", document.getTitle());
+    }
+
+    @Test
+    void testCharsetFromContentTypeIsUsed() throws Exception {
+        for (boolean streaming : new boolean[] {false, true}) {
+            HtmlDocument document = limitedSource(streaming).fetchDocument(baseUri.resolve("/latin1"));
+
+            assertEquals(List.of(new HtmlDocument.DocumentHeading(1, "Caf\u00e9")), document.getHeadings());
+        }
+    }
+
+    private static HttpClientDocumentSource limitedSource(boolean streaming) {
+        return new HttpClientDocumentSource(
+                HttpClient.newHttpClient(), "TestBot/1.0", Duration.ofSeconds(5), SMALL_BODY_LIMIT, streaming);
+    }
+}
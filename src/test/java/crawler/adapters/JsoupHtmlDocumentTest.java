@@ -0,0 +1,73 @@
+package crawler.adapters;
+
+import crawler.model.Url;
+import org.jsoup.Jsoup;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class JsoupHtmlDocumentTest {
+
+    private static final URI BASE_URI = URI.create("https://example.com/dir/page");
+
+    private final JsoupHtmlDocument document = new JsoupHtmlDocument(Jsoup.parse("""
+            <html><head><title>Title</title></head><body>
+                <a href="/root">Root</a>
+                <h1>First</h1>
+                <h2>   </h2>
+                <a href="relative">Relative</a>
+                <a href="  ">Blank</a>
+                <h7>Not a heading</h7>
+                <h3>Third</h3>
+                <a href="https://other.com/x">External</a>
+            </body></html>
+            """));
+
+    @Test
+    void testTraverseReportsContentInDocumentOrder() {
+        List<String> events = new ArrayList<>();
+
+        document.traverse(BASE_URI, new HtmlDocument.ContentHandler() {
+            @Override
+            public void heading(int level, String text) {
+                events.add("h" + level + ":" + text);
+            }
+
+            @Override
+            public void link(Url link) {
+                events.add(link.toString());
+            }
+        });
+
+        assertEquals(List.of(
+                "https://example.com/root",
+                "h1:First",
+                "https://example.com/dir/relative",
+                "h3:Third",
+                "https://other.com/x"), events);
+    }
+
+    @Test
+    void testHeadingsSkipBlankAndInvalidLevels() {
+        assertEquals(List.of(
+                new HtmlDocument.DocumentHeading(1, "First"),
+                new HtmlDocument.DocumentHeading(3, "Third")), document.getHeadings());
+    }
+
+    @Test
+    void testLinksAreResolvedAgainstBase() {
+        assertEquals(List.of(
+                URI.create("https://example.com/root"),
+                URI.create("https://example.com/dir/relative"),
+                URI.create("https://other.com/x")), document.getLinks(BASE_URI));
+    }
+
+    @Test
+    void testTitle() {
+        assertEquals("Title", document.getTitle());
+    }
+}
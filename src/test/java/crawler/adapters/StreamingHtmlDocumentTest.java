@@ -0,0 +1,103 @@
+package crawler.adapters;
+
+import crawler.model.Url;
+import org.jsoup.Jsoup;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StreamingHtmlDocumentTest {
+
+    private static final URI BASE_URI = URI.create("https://example.com/dir/page");
+
+    @Test
+    void testTitleIsNormalized() {
+        StreamingHtmlDocument document = new StreamingHtmlDocument(
+                "<html><head><title>  A\n  &amp;   B </title></head><body><title>Second</title></body></html>");
+
+        assertEquals("A & B", document.getTitle());
+    }
+
+    @Test
+    void testScriptAndCommentContentIsIgnored() {
+        StreamingHtmlDocument document = new StreamingHtmlDocument("""
+                <script>var s = "<a href='/script'>x</a><h1>No</h1>";</script>
+                <!-- <a href="/comment">c</a> -->
+                <h1>Yes</h1><a href="relative">r</a>
+                """);
+
+        assertEquals(List.of(new HtmlDocument.DocumentHeading(1, "Yes")), document.getHeadings());
+        assertEquals(List.of(URI.create("https://example.com/dir/relative")), document.getLinks(BASE_URI));
+    }
+
+    @Test
+    void testLinksInsideHeadingFollowTheHeading() {
+        List<String> events = new ArrayList<>();
+
+        new StreamingHtmlDocument("<h2><a href=\"/a\">A</a> and <a href=\"/b\">B</a></h2>")
+                .traverse(BASE_URI, recorder(events));
+
+        assertEquals(List.of("h2:A and B", "https://example.com/a", "https://example.com/b"), events);
+    }
+
+    @Test
+    void testReaderInputLargerThanBufferMatchesDomParser() throws Exception {
+        StringBuilder html = new StringBuilder("<html><body>");
+        for (int i = 0; i < 2_000; i++) {
+            html.append("<h3 id=\"section-").append(i).append("\">Section ").append(i).append("</h3>")
+                    .append("<p>Some text <a href=\"/page/").append(i).append("\">link</a></p>");
+        }
+        html.append("</body></html>");
+
+        List<String> streamed = new ArrayList<>();
+        StreamingHtmlDocument.traverse(new StringReader(html.toString()), BASE_URI, recorder(streamed));
+        List<String> parsed = new ArrayList<>();
+        new JsoupHtmlDocument(Jsoup.parse(html.toString())).traverse(BASE_URI, recorder(parsed));
+
+        assertEquals(4_000, streamed.size());
+        assertEquals(parsed, streamed);
+    }
+
+    @Test
+    void testExtractedDocumentMatchesTraversal() throws Exception {
+        String html = """
+                <html><head><title>Page</title></head><body>
+                <h1>Top <a href="top">t</a></h1><a href="/a">a</a>
+                <h2>Next</h2><a href="b">b</a>
+                </body></html>
+                """;
+        StreamingHtmlDocument document = new StreamingHtmlDocument(html);
+
+        HtmlDocument extracted = StreamingHtmlDocument.extract(new StringReader(html));
+
+        List<String> expected = new ArrayList<>();
+        document.traverse(BASE_URI, recorder(expected));
+        List<String> actual = new ArrayList<>();
+        extracted.traverse(BASE_URI, recorder(actual));
+        assertEquals(expected, actual);
+        assertEquals(document.getTitle(), extracted.getTitle());
+        assertEquals(document.getHeadings(), extracted.getHeadings());
+        URI otherBase = URI.create("https://other.org/x/");
+        assertEquals(document.getLinks(otherBase), extracted.getLinks(otherBase));
+        assertEquals(List.of(), extracted.getLinks(null));
+    }
+
+    private static HtmlDocument.ContentHandler recorder(List<String> events) {
+        return new HtmlDocument.ContentHandler() {
+            @Override
+            public void heading(int level, String text) {
+                events.add("h" + level + ":" + text);
+            }
+
+            @Override
+            public void link(Url link) {
+                events.add(link.toString());
+            }
+        };
+    }
+}
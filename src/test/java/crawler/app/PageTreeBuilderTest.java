@@ -0,0 +1,74 @@
+package crawler.app;
+
+import crawler.frontier.CrawlTask;
+import crawler.model.PageResult;
+import crawler.model.PageResult.Heading;
+import crawler.model.PageResult.Section;
+import crawler.model.Url;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageTreeBuilderTest {
+
+    private static final URI ROOT = URI.create("https://example.com");
+    private static final URI CHILD = URI.create("https://example.com/child");
+    private static final URI GRANDCHILD = URI.create("https://example.com/grandchild");
+
+    @Test
+    void testBuildAssemblesTreeFromParentPointers() {
+        PageTreeBuilder builder = new PageTreeBuilder();
+        CrawlTask rootTask = CrawlTask.root(ROOT);
+        CrawlTask childTask = rootTask.child(CHILD);
+        CrawlTask grandchildTask = childTask.child(GRANDCHILD);
+
+        // Results arrive in completion order, not tree order
+        builder.record(grandchildTask, PageResult.brokenLink(GRANDCHILD, 2));
+        builder.record(rootTask, page(ROOT, 0));
+        builder.record(childTask, page(CHILD, 1));
+
+        PageResult root = builder.build(ROOT);
+
+        assertEquals(3, builder.size());
+        assertEquals(1, root.children().size());
+        PageResult child = root.children().iterator().next();
+        assertEquals(CHILD, child.url());
+        assertEquals(1, child.children().size());
+        assertTrue(child.children().iterator().next().broken());
+    }
+
+    @Test
+    void testBuildRestoresSectionsFromCompactStore() {
+        PageTreeBuilder builder = new PageTreeBuilder();
+        CrawlTask rootTask = CrawlTask.root(ROOT);
+        Section navigation = new Section(new Heading(0, "Page Root"),
+                new LinkedHashSet<>(List.of(Url.parse("https://example.com/child"))));
+        PageResult rootPage = new PageResult(ROOT, 0, false, List.of(navigation), Set.of());
+        PageResult childPage = new PageResult(CHILD, 1, false, List.of(navigation), Set.of());
+
+        builder.record(rootTask, rootPage);
+        builder.record(rootTask.child(CHILD), childPage);
+
+        PageResult root = builder.build(ROOT);
+
+        assertEquals(rootPage.sections(), root.sections());
+        assertEquals(Set.of(childPage), root.children());
+        assertEquals(1, builder.getStore().getUrlCount());
+    }
+
+    @Test
+    void testBuildWithoutRootReturnsNull() {
+        PageTreeBuilder builder = new PageTreeBuilder();
+
+        assertNull(builder.build(ROOT));
+    }
+
+    private static PageResult page(URI url, int depth) {
+        return new PageResult(url, depth, false, List.of(), Set.of());
+    }
+}
@@ -1,24 +1,43 @@
 package crawler.app;
 
+import crawler.adapters.HtmlDocument;
+import crawler.adapters.HtmlDocumentSource;
+import crawler.checkpoint.CrawlJournal;
+import crawler.error.CrawlError;
+import crawler.error.RetryPolicy;
+import crawler.frontier.CrawlTask;
 import crawler.fetcher.PageFetcher;
 import crawler.fetcher.RobotsTxtCache;
 import crawler.fetcher.RobotsTxtHandler;
+import crawler.host.HostCircuitBreaker;
 import crawler.model.CrawlerConfig;
 import crawler.model.PageResult;
+import crawler.model.Url;
 import crawler.parser.HtmlParser;
 import crawler.reporter.MarkdownReporter;
+import crawler.reporter.Reporter;
 import crawler.util.LinkFilter;
 import org.jsoup.nodes.Document;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.io.StringWriter;
+import java.net.ConnectException;
 import java.net.URI;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -30,7 +49,7 @@ class WebCrawlerTest {
     @Mock private RobotsTxtCache mockRobotsCache;
     @Mock private RobotsTxtHandler mockRobotsHandler;
     @Mock private LinkFilter mockLinkFilter;
-    @Mock private MarkdownReporter mockReporter;
+    @Mock private Reporter mockReporter;
     @Mock private Document mockDocument;
 
     private WebCrawler sequentialCrawler;
@@ -43,14 +62,17 @@ class WebCrawlerTest {
         MockitoAnnotations.openMocks(this);
 
         sequentialCrawler = new WebCrawler(mockFetcher, mockParser, mockRobotsCache,
-                mockLinkFilter, mockReporter, 1, 30);
+                mockLinkFilter, mockReporter, 1);
         concurrentCrawler = new WebCrawler(mockFetcher, mockParser, mockRobotsCache,
-                mockLinkFilter, mockReporter, 4, 60);
+                mockLinkFilter, mockReporter, 4);
 
         rootUrl = new URI("https://example.com");
         config = new CrawlerConfig(rootUrl, 2, "example.com");
 
         when(mockRobotsCache.getHandler(any(URI.class))).thenReturn(mockRobotsHandler);
+        when(mockRobotsCache.getLoadedHandler(any(URI.class))).thenReturn(mockRobotsHandler);
+        when(mockRobotsCache.prefetch(any(URI.class)))
+                .thenReturn(CompletableFuture.completedFuture(mockRobotsHandler));
     }
 
     @Test
@@ -83,7 +105,7 @@ class WebCrawlerTest {
 
     @Test
     void testRobotsBlocking() throws Exception {
-        when(mockLinkFilter.isAllowedDomain(rootUrl, config.getAllowedDomains())).thenReturn(true);
+        when(mockLinkFilter.isAllowedDomain(rootUrl, config.getDomainMatcher())).thenReturn(true);
         when(mockLinkFilter.markVisited(rootUrl)).thenReturn(true);
         when(mockRobotsHandler.isAllowed(rootUrl)).thenReturn(false);
 
@@ -91,6 +113,8 @@ class WebCrawlerTest {
 
         verify(mockFetcher, never()).fetch(rootUrl);
         verify(mockReporter).writeReport(any(PageResult.class), eq(config));
+        assertEquals(Map.of(CrawlError.ErrorType.ROBOTS_BLOCKED, 1L),
+                sequentialCrawler.getErrorCollector().getErrorStatistics());
     }
 
     @Test
@@ -100,7 +124,7 @@ class WebCrawlerTest {
         PageResult rootResult = createMockPageResult(rootUrl, 0, List.of(externalUrl));
         setupSuccessfulCrawl(rootUrl, 0, rootResult);
 
-        when(mockLinkFilter.isAllowedDomain(externalUrl, config.getAllowedDomains())).thenReturn(false);
+        when(mockLinkFilter.isAllowedDomain(Url.of(externalUrl), config.getDomainMatcher())).thenReturn(false);
 
         sequentialCrawler.crawl(config);
 
@@ -138,8 +162,8 @@ class WebCrawlerTest {
         PageResult rootResult = createMockPageResult(rootUrl, 0, List.of(childUrl));
         setupSuccessfulCrawl(rootUrl, 0, rootResult);
 
-        when(mockLinkFilter.isAllowedDomain(childUrl, config.getAllowedDomains())).thenReturn(true);
-        when(mockLinkFilter.markVisited(childUrl)).thenReturn(false);
+        when(mockLinkFilter.isAllowedDomain(Url.of(childUrl), config.getDomainMatcher())).thenReturn(true);
+        when(mockLinkFilter.markVisited(Url.of(childUrl))).thenReturn(false);
         when(mockRobotsHandler.isAllowed(any())).thenReturn(true);
 
         sequentialCrawler.crawl(config);
@@ -148,17 +172,434 @@ class WebCrawlerTest {
         verify(mockFetcher, never()).fetch(childUrl);
     }
 
+    @Test
+    void testConcurrentCrawlWithChildren() throws Exception {
+        URI childUrl = new URI("https://example.com/child");
+        URI grandchildUrl = new URI("https://example.com/grandchild");
+
+        PageResult rootResult = createMockPageResult(rootUrl, 0, List.of(childUrl));
+        PageResult childResult = createMockPageResult(childUrl, 1, List.of(grandchildUrl));
+        PageResult grandchildResult = createMockPageResult(grandchildUrl, 2, List.of());
+
+        setupSuccessfulCrawl(rootUrl, 0, rootResult);
+        setupSuccessfulCrawl(childUrl, 1, childResult);
+        setupSuccessfulCrawl(grandchildUrl, 2, grandchildResult);
+
+        concurrentCrawler.crawl(config);
+
+        verify(mockFetcher).fetch(rootUrl);
+        verify(mockFetcher).fetch(childUrl);
+        verify(mockFetcher).fetch(grandchildUrl);
+        PageResult reported = reportedRoot();
+        assertEquals(rootUrl, reported.url());
+        PageResult reportedChild = reported.children().iterator().next();
+        assertEquals(childUrl, reportedChild.url());
+        assertEquals(Set.of(new PageResult(grandchildUrl, 2, false, List.of(), Set.of())), reportedChild.children());
+    }
+
+    @Test
+    void testConcurrentCrawlFailedFetchBecomesBrokenChild() throws Exception {
+        URI childUrl = new URI("https://example.com/child");
+
+        PageResult rootResult = createMockPageResult(rootUrl, 0, List.of(childUrl));
+        setupSuccessfulCrawl(rootUrl, 0, rootResult);
+        setupSuccessfulCrawl(childUrl, 1, createMockPageResult(childUrl, 1, List.of()));
+        when(mockFetcher.fetch(childUrl)).thenThrow(new PageFetcher.FetchException("boom", null));
+
+        concurrentCrawler.crawl(config);
+
+        assertEquals(Set.of(PageResult.brokenLink(childUrl, 1)), reportedRoot().children());
+    }
+
+    @Test
+    void testSequentialCrawlUnexpectedFailureBecomesBrokenChild() throws Exception {
+        URI childUrl = new URI("https://example.com/child");
+
+        PageResult rootResult = createMockPageResult(rootUrl, 0, List.of(childUrl));
+        setupSuccessfulCrawl(rootUrl, 0, rootResult);
+        setupSuccessfulCrawl(childUrl, 1, createMockPageResult(childUrl, 1, List.of()));
+        when(mockParser.parse(eq(childUrl), eq(1), any(Document.class)))
+                .thenThrow(new IllegalStateException("parser bug"));
+
+        sequentialCrawler.crawl(config);
+
+        assertEquals(Set.of(PageResult.brokenLink(childUrl, 1)), reportedRoot().children());
+        assertEquals(1, sequentialCrawler.getErrorCollector().getErrorCount(CrawlError.ErrorType.UNKNOWN));
+    }
+
+    @Test
+    void testTaskOfHostEvictedFromRobotsCacheIsQueuedAgain() throws Exception {
+        URI childUrl = new URI("https://example.com/child");
+
+        PageResult rootResult = createMockPageResult(rootUrl, 0, List.of(childUrl));
+        PageResult childResult = createMockPageResult(childUrl, 1, List.of());
+        setupSuccessfulCrawl(rootUrl, 0, rootResult);
+        setupSuccessfulCrawl(childUrl, 1, childResult);
+        when(mockRobotsCache.getLoadedHandler(childUrl)).thenReturn(null, mockRobotsHandler);
+
+        sequentialCrawler.crawl(config);
+
+        verify(mockRobotsCache, never()).getHandler(any(URI.class));
+        verify(mockFetcher).fetch(childUrl);
+        assertEquals(childUrl, reportedRoot().children().iterator().next().url());
+        assertFalse(sequentialCrawler.getErrorCollector().hasErrors());
+    }
+
+    @Test
+    void testServiceUnavailableNarrowsHostWindow() throws Exception {
+        URI busyUrl = new URI("https://example.com/busy");
+        URI missingUrl = new URI("https://example.com/missing");
+
+        PageResult rootResult = createMockPageResult(rootUrl, 0, List.of(busyUrl, missingUrl));
+        setupSuccessfulCrawl(rootUrl, 0, rootResult);
+        setupSuccessfulCrawl(busyUrl, 1, createMockPageResult(busyUrl, 1, List.of()));
+        setupSuccessfulCrawl(missingUrl, 1, createMockPageResult(missingUrl, 1, List.of()));
+        when(mockFetcher.fetch(busyUrl)).thenThrow(new PageFetcher.FetchException("busy", null, 503));
+        when(mockFetcher.fetch(missingUrl)).thenThrow(new PageFetcher.FetchException("missing", null, 404));
+
+        concurrentCrawler.crawl(config);
+
+        assertEquals(Map.of("example.com", 1), concurrentCrawler.getHostConcurrencyWindows());
+    }
+
+    @Test
+    void testTransientFailureIsRetried() throws Exception {
+        URI childUrl = new URI("https://example.com/child");
+        PageResult childResult = createMockPageResult(childUrl, 1, List.of());
+        setupSuccessfulCrawl(rootUrl, 0, createMockPageResult(rootUrl, 0, List.of(childUrl)));
+        setupSuccessfulCrawl(childUrl, 1, childResult);
+        when(mockFetcher.fetch(childUrl))
+                .thenThrow(new PageFetcher.FetchException("busy", null, 503, "0"))
+                .thenReturn(mockDocument);
+        WebCrawler retryingCrawler = WebCrawler.builder()
+                .fetcher(mockFetcher)
+                .parser(mockParser)
+                .robotsCache(mockRobotsCache)
+                .linkFilter(mockLinkFilter)
+                .reporter(mockReporter)
+                .threadCount(2)
+                .retryPolicy(new RetryPolicy(3, 0, 0, 1.0, 10, () -> 0))
+                .build();
+
+        retryingCrawler.crawl(config);
+
+        verify(mockFetcher, times(2)).fetch(childUrl);
+        PageResult child = reportedRoot().children().iterator().next();
+        assertEquals(childUrl, child.url());
+        assertFalse(child.broken());
+    }
+
+    @Test
+    void testPermanentHttpErrorIsNotRetried() throws Exception {
+        URI childUrl = new URI("https://example.com/child");
+        setupSuccessfulCrawl(rootUrl, 0, createMockPageResult(rootUrl, 0, List.of(childUrl)));
+        setupSuccessfulCrawl(childUrl, 1, createMockPageResult(childUrl, 1, List.of()));
+        when(mockFetcher.fetch(childUrl)).thenThrow(new PageFetcher.FetchException("missing", null, 404));
+
+        sequentialCrawler.crawl(config);
+
+        verify(mockFetcher, times(1)).fetch(childUrl);
+        assertEquals(Set.of(PageResult.brokenLink(childUrl, 1)), reportedRoot().children());
+        assertEquals(1, sequentialCrawler.getErrorCollector().getErrorCount(CrawlError.ErrorType.HTTP_ERROR));
+    }
+
+    @Test
+    void testOpenCircuitSkipsRemainingPagesOfFailingHost() throws Exception {
+        List<URI> deadUrls = List.of(new URI("https://example.com/a"), new URI("https://example.com/b"),
+                new URI("https://example.com/c"));
+        setupSuccessfulCrawl(rootUrl, 0, createMockPageResult(rootUrl, 0, deadUrls));
+        for (URI url : deadUrls) {
+            setupSuccessfulCrawl(url, 1, createMockPageResult(url, 1, List.of()));
+            when(mockFetcher.fetch(url)).thenThrow(new PageFetcher.FetchException("refused", new ConnectException()));
+        }
+        WebCrawler crawler = WebCrawler.builder()
+                .fetcher(mockFetcher)
+                .parser(mockParser)
+                .robotsCache(mockRobotsCache)
+                .linkFilter(mockLinkFilter)
+                .reporter(mockReporter)
+                .retryPolicy(new RetryPolicy(1, 0, 0, 0, 0, () -> 0))
+                .circuitBreaker(new HostCircuitBreaker(1, 60_000, System::nanoTime))
+                .build();
+
+        crawler.crawl(config);
+
+        verify(mockFetcher, times(2)).fetch(any(URI.class));
+        assertEquals(2, crawler.getErrorCollector().getErrorsByType(CrawlError.ErrorType.CIRCUIT_OPEN).size());
+        assertEquals(deadUrls.stream().map(url -> PageResult.brokenLink(url, 1)).collect(Collectors.toSet()),
+                reportedRoot().children());
+    }
+
+    @Test
+    void testSkippedContentIsRecordedButNotBroken() throws Exception {
+        URI pdfUrl = new URI("https://example.com/file.pdf");
+
+        PageResult rootResult = createMockPageResult(rootUrl, 0, List.of(pdfUrl));
+        setupSuccessfulCrawl(rootUrl, 0, rootResult);
+        setupSuccessfulCrawl(pdfUrl, 1, createMockPageResult(pdfUrl, 1, List.of()));
+        when(mockFetcher.fetch(pdfUrl)).thenThrow(new PageFetcher.ContentSkippedException("not HTML"));
+
+        concurrentCrawler.crawl(config);
+
+        assertEquals(Set.of(PageResult.skipped(pdfUrl, 1)), reportedRoot().children());
+        assertEquals(1, concurrentCrawler.getErrorCollector()
+                .getErrorsByType(CrawlError.ErrorType.CONTENT_SKIPPED).size());
+    }
+
+    @Test
+    void testConcurrentVisitedUrlsNotRecrawled() throws Exception {
+        URI childUrl = new URI("https://example.com/child");
+
+        PageResult rootResult = createMockPageResult(rootUrl, 0, List.of(childUrl, childUrl));
+        setupSuccessfulCrawl(rootUrl, 0, rootResult);
+        setupSuccessfulCrawl(childUrl, 1, createMockPageResult(childUrl, 1, List.of()));
+        when(mockLinkFilter.markVisited(Url.of(childUrl))).thenReturn(true, false);
+
+        concurrentCrawler.crawl(config);
+
+        verify(mockFetcher, times(1)).fetch(childUrl);
+    }
+
+    @Test
+    void testVirtualThreadCrawlWithChildren() throws Exception {
+        WebCrawler virtualCrawler = WebCrawler.builder()
+                .fetcher(mockFetcher)
+                .parser(mockParser)
+                .robotsCache(mockRobotsCache)
+                .linkFilter(mockLinkFilter)
+                .reporter(mockReporter)
+                .virtualThreads(true)
+                .maxFetchesPerHost(1)
+                .build();
+        URI childUrl = new URI("https://example.com/child");
+
+        PageResult rootResult = createMockPageResult(rootUrl, 0, List.of(childUrl));
+        PageResult childResult = createMockPageResult(childUrl, 1, List.of());
+        setupSuccessfulCrawl(rootUrl, 0, rootResult);
+        setupSuccessfulCrawl(childUrl, 1, childResult);
+
+        virtualCrawler.crawl(config);
+
+        assertTrue(virtualCrawler.usesVirtualThreads());
+        verify(mockFetcher).fetch(childUrl);
+        assertEquals(Set.of(new PageResult(childUrl, 1, false, List.of(), Set.of())), reportedRoot().children());
+    }
+
+    @Test
+    void testDocumentSourceReplacesPageFetcher() throws Exception {
+        HtmlDocumentSource documentSource = mock(HtmlDocumentSource.class);
+        HtmlDocument document = mock(HtmlDocument.class);
+        WebCrawler sourceCrawler = WebCrawler.builder()
+                .fetcher(mockFetcher)
+                .documentSource(documentSource)
+                .parser(mockParser)
+                .robotsCache(mockRobotsCache)
+                .linkFilter(mockLinkFilter)
+                .reporter(mockReporter)
+                .threadCount(2)
+                .build();
+        URI childUrl = new URI("https://example.com/child");
+
+        PageResult rootResult = createMockPageResult(rootUrl, 0, List.of(childUrl));
+        setupSuccessfulCrawl(rootUrl, 0, rootResult);
+        setupSuccessfulCrawl(childUrl, 1, createMockPageResult(childUrl, 1, List.of()));
+        when(documentSource.fetchDocument(rootUrl)).thenReturn(document);
+        when(documentSource.fetchDocument(childUrl)).thenThrow(new HtmlDocumentSource.DocumentRetrievalException(
+                "not found", null, HtmlDocumentSource.DocumentRetrievalException.ErrorType.HTTP_ERROR, 404));
+        when(mockParser.parse(rootUrl, 0, document)).thenReturn(rootResult);
+
+        sourceCrawler.crawl(config);
+
+        verify(mockFetcher, never()).fetch(any(URI.class));
+        assertEquals(Set.of(PageResult.brokenLink(childUrl, 1)), reportedRoot().children());
+        verify(documentSource).close();
+    }
+
+    @Test
+    void testSkippedDocumentIsRecordedButNotBroken() throws Exception {
+        HtmlDocumentSource documentSource = mock(HtmlDocumentSource.class);
+        HtmlDocument document = mock(HtmlDocument.class);
+        WebCrawler sourceCrawler = WebCrawler.builder()
+                .fetcher(mockFetcher)
+                .documentSource(documentSource)
+                .parser(mockParser)
+                .robotsCache(mockRobotsCache)
+                .linkFilter(mockLinkFilter)
+                .reporter(mockReporter)
+                .build();
+        URI pdfUrl = new URI("https://example.com/file.pdf");
+
+        PageResult rootResult = createMockPageResult(rootUrl, 0, List.of(pdfUrl));
+        setupSuccessfulCrawl(rootUrl, 0, rootResult);
+        setupSuccessfulCrawl(pdfUrl, 1, createMockPageResult(pdfUrl, 1, List.of()));
+        when(documentSource.fetchDocument(rootUrl)).thenReturn(document);
+        when(documentSource.fetchDocument(pdfUrl)).thenThrow(new HtmlDocumentSource.DocumentRetrievalException(
+                "not HTML", null, HtmlDocumentSource.DocumentRetrievalException.ErrorType.CONTENT_SKIPPED));
+        when(mockParser.parse(rootUrl, 0, document)).thenReturn(rootResult);
+
+        sourceCrawler.crawl(config);
+
+        assertEquals(Set.of(PageResult.skipped(pdfUrl, 1)), reportedRoot().children());
+        assertEquals(1, sourceCrawler.getErrorCollector().getErrorCount(CrawlError.ErrorType.CONTENT_SKIPPED));
+    }
+
+    @Test
+    void testIncrementalSequentialReportWritesPagesBreadthFirst() throws Exception {
+        WebCrawler incrementalCrawler = WebCrawler.builder()
+                .fetcher(mockFetcher)
+                .parser(mockParser)
+                .robotsCache(mockRobotsCache)
+                .linkFilter(mockLinkFilter)
+                .reporter(mockReporter)
+                .incrementalReport(true)
+                .build();
+        URI childUrl = new URI("https://example.com/child");
+        URI grandchildUrl = new URI("https://example.com/grandchild");
+        URI siblingUrl = new URI("https://example.com/sibling");
+
+        setupSuccessfulCrawl(rootUrl, 0, createMockPageResult(rootUrl, 0, List.of(childUrl, siblingUrl)));
+        setupSuccessfulCrawl(childUrl, 1, createMockPageResult(childUrl, 1, List.of(grandchildUrl)));
+        setupSuccessfulCrawl(grandchildUrl, 2, createMockPageResult(grandchildUrl, 2, List.of()));
+        setupSuccessfulCrawl(siblingUrl, 1, createMockPageResult(siblingUrl, 1, List.of()));
+
+        StringWriter out = new StringWriter();
+        Reporter.ReportWriter report =
+                new MarkdownReporter().openReport(config, Reporter.Layout.FLAT, out);
+        when(mockReporter.openReport(config, Reporter.Layout.FLAT)).thenReturn(report);
+
+        incrementalCrawler.crawl(config);
+
+        String written = out.toString();
+        assertTrue(written.indexOf("## Page: " + childUrl) < written.indexOf("## Page: " + siblingUrl));
+        assertTrue(written.indexOf("## Page: " + siblingUrl) < written.indexOf("## Page: " + grandchildUrl));
+        assertEquals(4, report.getPageCount());
+        verify(mockReporter, never()).writeReport(any(), any());
+    }
+
+    @Test
+    void testSequentialCrawlRecordsPagesAtMinimalDepth() throws Exception {
+        assertPagesRecordedAtMinimalDepth(1);
+    }
+
+    @Test
+    void testConcurrentCrawlRecordsPagesAtMinimalDepth() throws Exception {
+        assertPagesRecordedAtMinimalDepth(4);
+    }
+
+    /**
+     * The root links to a and b, and a links to b as well. A depth-first crawl would reach b
+     * through a at depth 2; strictly breadth-first, b belongs to the root at depth 1.
+     */
+    private void assertPagesRecordedAtMinimalDepth(int threadCount) throws Exception {
+        URI aUrl = new URI("https://example.com/a");
+        URI bUrl = new URI("https://example.com/b");
+        setupSuccessfulCrawl(rootUrl, 0, createMockPageResult(rootUrl, 0, List.of(aUrl, bUrl)));
+        setupSuccessfulCrawl(aUrl, 1, createMockPageResult(aUrl, 1, List.of(bUrl)));
+        setupSuccessfulCrawl(bUrl, 1, createMockPageResult(bUrl, 1, List.of()));
+        WebCrawler crawler = WebCrawler.builder()
+                .fetcher(mockFetcher)
+                .parser(mockParser)
+                .robotsCache(mockRobotsCache)
+                .linkFilter(new LinkFilter())
+                .reporter(mockReporter)
+                .threadCount(threadCount)
+                .strictBreadthFirst(true)
+                .build();
+
+        crawler.crawl(config);
+
+        verify(mockFetcher).fetch(bUrl);
+        verify(mockParser, never()).parse(eq(bUrl), eq(2), any(Document.class));
+        PageResult reported = reportedRoot();
+        assertEquals(Set.of(aUrl, bUrl),
+                reported.children().stream().map(PageResult::url).collect(Collectors.toSet()));
+        reported.children().forEach(child -> assertEquals(1, child.depth()));
+    }
+
+    @Test
+    void testIncrementalConcurrentReportUsesFlatLayout() throws Exception {
+        WebCrawler incrementalCrawler = WebCrawler.builder()
+                .fetcher(mockFetcher)
+                .parser(mockParser)
+                .robotsCache(mockRobotsCache)
+                .linkFilter(mockLinkFilter)
+                .reporter(mockReporter)
+                .threadCount(2)
+                .incrementalReport(true)
+                .build();
+        URI childUrl = new URI("https://example.com/child");
+
+        setupSuccessfulCrawl(rootUrl, 0, createMockPageResult(rootUrl, 0, List.of(childUrl)));
+        setupSuccessfulCrawl(childUrl, 1, createMockPageResult(childUrl, 1, List.of()));
+
+        StringWriter out = new StringWriter();
+        Reporter.ReportWriter report =
+                new MarkdownReporter().openReport(config, Reporter.Layout.FLAT, out);
+        when(mockReporter.openReport(config, Reporter.Layout.FLAT)).thenReturn(report);
+
+        incrementalCrawler.crawl(config);
+
+        assertTrue(out.toString().contains("**Parent:** " + rootUrl));
+        assertEquals(2, report.getPageCount());
+        verify(mockReporter, never()).writeReport(any(), any());
+    }
+
+    @Test
+    void testResumedCrawlSkipsFinishedPages(@TempDir Path checkpointDirectory) throws Exception {
+        URI childUrl = new URI("https://example.com/child");
+        CrawlTask root = CrawlTask.root(rootUrl);
+        PageResult rootPage = new PageResult(rootUrl, 0, false, List.of(), Set.of());
+        try (CrawlJournal journal = CrawlJournal.create(checkpointDirectory, config)) {
+            journal.enqueued(root);
+            journal.enqueued(root.child(childUrl));
+            journal.completed(root, rootPage);
+        }
+        setupSuccessfulCrawl(childUrl, 1, createMockPageResult(childUrl, 1, List.of()));
+        WebCrawler resumedCrawler = WebCrawler.builder()
+                .fetcher(mockFetcher)
+                .parser(mockParser)
+                .robotsCache(mockRobotsCache)
+                .linkFilter(mockLinkFilter)
+                .reporter(mockReporter)
+                .threadCount(2)
+                .checkpointDirectory(checkpointDirectory)
+                .resume(true)
+                .build();
+
+        resumedCrawler.crawl(config);
+
+        verify(mockFetcher, never()).fetch(rootUrl);
+        verify(mockFetcher).fetch(childUrl);
+        verify(mockLinkFilter).markVisited(childUrl);
+        PageResult reported = reportedRoot();
+        assertEquals(rootUrl, reported.url());
+        assertEquals(Set.of(new PageResult(childUrl, 1, false, List.of(), Set.of())), reported.children());
+
+        try (CrawlJournal journal = CrawlJournal.resume(checkpointDirectory, config, mock(CrawlJournal.Replay.class))) {
+            assertEquals(List.of(), journal.getPendingTasks());
+        }
+    }
+
     @Test
     void testCrawlerConfiguration() {
         assertEquals(1, sequentialCrawler.getThreadCount());
         assertEquals(4, concurrentCrawler.getThreadCount());
-        assertEquals(30, sequentialCrawler.getTimeoutSeconds());
-        assertEquals(60, concurrentCrawler.getTimeoutSeconds());
+    }
+
+    /**
+     * @return the page tree handed to the reporter, rebuilt from the compact page store
+     */
+    private PageResult reportedRoot() {
+        ArgumentCaptor<PageResult> root = ArgumentCaptor.forClass(PageResult.class);
+        verify(mockReporter).writeReport(root.capture(), eq(config));
+        return root.getValue();
     }
 
     private void setupSuccessfulCrawl(URI url, int depth, PageResult mockResult) throws Exception {
-        when(mockLinkFilter.isAllowedDomain(url, config.getAllowedDomains())).thenReturn(true);
+        when(mockLinkFilter.isAllowedDomain(url, config.getDomainMatcher())).thenReturn(true);
         when(mockLinkFilter.markVisited(url)).thenReturn(true);
+        when(mockLinkFilter.isAllowedDomain(Url.of(url), config.getDomainMatcher())).thenReturn(true);
+        when(mockLinkFilter.markVisited(Url.of(url))).thenReturn(true);
         when(mockRobotsHandler.isAllowed(url)).thenReturn(true);
         when(mockFetcher.fetch(url)).thenReturn(mockDocument);
         when(mockParser.parse(eq(url), eq(depth), any(Document.class))).thenReturn(mockResult);
@@ -171,7 +612,7 @@ class WebCrawlerTest {
         when(mockResult.broken()).thenReturn(false);
         when(mockResult.sections()).thenReturn(List.of());
         when(mockResult.children()).thenReturn(Set.of());
-        when(mockResult.getAllLinks()).thenReturn(links);
+        when(mockResult.getAllLinks()).thenReturn(links.stream().map(Url::of).toList());
         when(mockResult.withChildren(any())).thenReturn(mockResult);
         return mockResult;
     }
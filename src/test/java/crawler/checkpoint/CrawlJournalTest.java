@@ -0,0 +1,139 @@
+package crawler.checkpoint;
+
+import crawler.frontier.CrawlTask;
+import crawler.model.CrawlerConfig;
+import crawler.model.PageResult;
+import crawler.model.PageResult.Heading;
+import crawler.model.PageResult.Section;
+import crawler.model.Url;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static crawler.constants.CrawlerConstants.CHECKPOINT_JOURNAL_FILENAME;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CrawlJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private final URI rootUrl = URI.create("https://example.com/");
+    private final CrawlerConfig config = new CrawlerConfig(rootUrl, 2, "example.com");
+    private final CrawlTask root = CrawlTask.root(rootUrl);
+    private final CrawlTask first = root.child(URI.create("https://example.com/a"));
+    private final CrawlTask second = root.child(URI.create("https://example.com/b"));
+
+    @Test
+    void testResumeReplaysFinishedPagesAndReturnsPendingTasks() throws Exception {
+        Section section = new Section(new Heading(1, "Start"), new LinkedHashSet<>(List.of(
+                Url.parse("https://example.com/a"), Url.parse("https://example.com/b"))));
+        PageResult rootPage = new PageResult(rootUrl, 0, false, List.of(section), Set.of());
+        PageResult firstPage = PageResult.brokenLink(first.url(), 1);
+
+        try (CrawlJournal journal = CrawlJournal.create(directory, config)) {
+            journal.enqueued(root);
+            journal.enqueued(first);
+            journal.enqueued(second);
+            journal.completed(root, rootPage);
+            journal.completed(first, firstPage);
+            assertEquals(5, journal.getRecordCount());
+        }
+
+        RecordingReplay replay = new RecordingReplay();
+        try (CrawlJournal journal = CrawlJournal.resume(directory, config, replay)) {
+            assertTrue(journal.isResumed());
+            assertEquals(List.of(second), journal.getPendingTasks());
+        }
+        assertEquals(List.of(root, first, second), replay.enqueued);
+        assertEquals(List.of(rootPage, firstPage), replay.completed);
+    }
+
+    @Test
+    void testResumeAppendsToTheJournal() throws Exception {
+        try (CrawlJournal journal = CrawlJournal.create(directory, config)) {
+            journal.enqueued(root);
+        }
+        try (CrawlJournal journal = CrawlJournal.resume(directory, config, new RecordingReplay())) {
+            journal.enqueued(first);
+            journal.completed(root, PageResult.skipped(rootUrl, 0));
+        }
+
+        try (CrawlJournal journal = CrawlJournal.resume(directory, config, new RecordingReplay())) {
+            assertEquals(List.of(first), journal.getPendingTasks());
+        }
+    }
+
+    @Test
+    void testTornRecordAtTheEndIsDropped() throws Exception {
+        try (CrawlJournal journal = CrawlJournal.create(directory, config)) {
+            journal.enqueued(root);
+            journal.enqueued(first);
+        }
+        Path file = directory.resolve(CHECKPOINT_JOURNAL_FILENAME);
+        long intact = Files.size(file);
+        try (CrawlJournal journal = CrawlJournal.resume(directory, config, new RecordingReplay())) {
+            journal.enqueued(second);
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 5));
+
+        try (CrawlJournal journal = CrawlJournal.resume(directory, config, new RecordingReplay())) {
+            assertEquals(List.of(root, first), journal.getPendingTasks());
+        }
+        assertEquals(intact, Files.size(file));
+    }
+
+    @Test
+    void testResumeWithoutJournalStartsNewCrawl() throws Exception {
+        try (CrawlJournal journal = CrawlJournal.resume(directory.resolve("state"), config, new RecordingReplay())) {
+            assertFalse(journal.isResumed());
+            assertEquals(List.of(), journal.getPendingTasks());
+        }
+        assertTrue(Files.exists(directory.resolve("state").resolve(CHECKPOINT_JOURNAL_FILENAME)));
+    }
+
+    @Test
+    void testJournalOfAnotherCrawlIsRejected() throws Exception {
+        try (CrawlJournal journal = CrawlJournal.create(directory, config)) {
+            journal.enqueued(root);
+        }
+        CrawlerConfig other = new CrawlerConfig(URI.create("https://other.example/"), 2, "other.example");
+
+        assertThrows(IOException.class, () -> CrawlJournal.resume(directory, other, new RecordingReplay()));
+    }
+
+    @Test
+    void testDisabledJournalRecordsNothing() {
+        try (CrawlJournal journal = CrawlJournal.disabled()) {
+            journal.enqueued(root);
+            journal.completed(root, PageResult.brokenLink(rootUrl, 0));
+            assertEquals(0, journal.getRecordCount());
+            assertFalse(journal.isResumed());
+        }
+    }
+
+    private static final class RecordingReplay implements CrawlJournal.Replay {
+        final List<CrawlTask> enqueued = new ArrayList<>();
+        final List<PageResult> completed = new ArrayList<>();
+
+        @Override
+        public void enqueued(CrawlTask task) {
+            enqueued.add(task);
+        }
+
+        @Override
+        public void completed(CrawlTask task, PageResult page) {
+            completed.add(page);
+        }
+    }
+}
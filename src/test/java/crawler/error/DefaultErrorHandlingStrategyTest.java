@@ -0,0 +1,32 @@
+package crawler.error;
+
+import crawler.error.ErrorHandlingStrategy.ErrorAction;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DefaultErrorHandlingStrategyTest {
+
+    private final DefaultErrorHandlingStrategy strategy = new DefaultErrorHandlingStrategy();
+
+    @Test
+    void testTransientErrorsAreRetried() {
+        assertEquals(ErrorAction.RETRY, actionFor(CrawlError.ErrorType.NETWORK_ERROR));
+        assertEquals(ErrorAction.RETRY, actionFor(CrawlError.ErrorType.TIMEOUT));
+        assertEquals(ErrorAction.RETRY, actionFor(CrawlError.ErrorType.HTTP_UNAVAILABLE));
+    }
+
+    @Test
+    void testPermanentErrorsAreNotRetried() {
+        assertEquals(ErrorAction.CONTINUE, actionFor(CrawlError.ErrorType.HTTP_ERROR));
+        assertEquals(ErrorAction.CONTINUE, actionFor(CrawlError.ErrorType.ROBOTS_BLOCKED));
+        assertEquals(ErrorAction.SKIP, actionFor(CrawlError.ErrorType.INVALID_URL));
+        assertEquals(ErrorAction.ABORT, actionFor(CrawlError.ErrorType.THREAD_INTERRUPTED));
+    }
+
+    private ErrorAction actionFor(CrawlError.ErrorType type) {
+        return strategy.handleError(CrawlError.create(URI.create("https://example.com"), 1, type, "failed"));
+    }
+}
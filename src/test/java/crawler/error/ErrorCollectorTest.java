@@ -130,6 +130,32 @@ class ErrorCollectorTest {
         assertFalse(errorCollector.hasErrors());
         assertTrue(errorCollector.getAllErrors().isEmpty());
     }
+
+    @Test
+    void testSamplesAreBoundedButCountsAreExact() {
+        ErrorCollector bounded = new ErrorCollector(10, 4);
+        for (int i = 0; i < 10_000; i++) {
+            bounded.addError(CrawlError.create(testUrl, 1, CrawlError.ErrorType.TIMEOUT, "Timeout " + i));
+        }
+
+        assertEquals(10_000, bounded.getTotalErrors());
+        assertEquals(10_000, bounded.getErrorCount(CrawlError.ErrorType.TIMEOUT));
+        assertEquals(Map.of(CrawlError.ErrorType.TIMEOUT, 10_000L), bounded.getErrorStatistics());
+        assertEquals(10, bounded.getErrorsByType(CrawlError.ErrorType.TIMEOUT).size());
+    }
+
+    @Test
+    void testFloodOfOneTypeKeepsSamplesOfOthers() {
+        ErrorCollector bounded = new ErrorCollector(10, 4);
+        CrawlError blocked = CrawlError.create(testUrl, 1, CrawlError.ErrorType.ROBOTS_BLOCKED, "Blocked");
+        bounded.addError(blocked);
+        for (int i = 0; i < 1000; i++) {
+            bounded.addError(CrawlError.create(testUrl, 1, CrawlError.ErrorType.NETWORK_ERROR, "Error " + i));
+        }
+
+        assertEquals(List.of(blocked), bounded.getErrorsByType(CrawlError.ErrorType.ROBOTS_BLOCKED));
+        assertEquals(11, bounded.getAllErrors().size());
+    }
 }
 
 class CrawlErrorTest {
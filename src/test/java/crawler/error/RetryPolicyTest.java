@@ -0,0 +1,82 @@
+package crawler.error;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryPolicyTest {
+
+    @Test
+    void testBackoffDoublesUpToMaximum() {
+        RetryPolicy policy = new RetryPolicy(10, 100, 500, 1.0, 100, () -> 0.999);
+
+        assertEquals(99, policy.retryDelayMillis(0, null));
+        assertEquals(199, policy.retryDelayMillis(1, null));
+        assertEquals(399, policy.retryDelayMillis(2, null));
+        assertEquals(499, policy.retryDelayMillis(3, null));
+    }
+
+    @Test
+    void testJitterSpreadsDelay() {
+        RetryPolicy policy = new RetryPolicy(10, 100, 500, 1.0, 100, () -> 0.25);
+
+        assertEquals(50, policy.retryDelayMillis(1, null));
+    }
+
+    @Test
+    void testNoRetryAfterMaxAttempts() {
+        RetryPolicy policy = new RetryPolicy(3, 100, 500, 1.0, 100, () -> 0.5);
+
+        assertTrue(policy.retryDelayMillis(1, null) >= 0);
+        assertEquals(-1, policy.retryDelayMillis(2, null));
+    }
+
+    @Test
+    void testRetryAfterSecondsRaisesDelay() {
+        RetryPolicy policy = new RetryPolicy(3, 100, 5_000, 1.0, 100, () -> 0.5);
+
+        assertEquals(2_000, policy.retryDelayMillis(0, "2"));
+    }
+
+    @Test
+    void testRetryAfterBeyondMaximumIsNotRetried() {
+        RetryPolicy policy = new RetryPolicy(3, 100, 5_000, 1.0, 100, () -> 0.5);
+
+        assertEquals(-1, policy.retryDelayMillis(0, "3600"));
+        assertEquals(0, policy.getRetryCount());
+    }
+
+    @Test
+    void testRetryAfterHttpDate() {
+        Instant now = Instant.parse("2024-01-01T00:00:00Z");
+        String date = DateTimeFormatter.RFC_1123_DATE_TIME.format(now.plusSeconds(30).atZone(ZoneOffset.UTC));
+
+        assertEquals(30_000, RetryPolicy.parseRetryAfterMillis(date, now));
+        assertEquals(0, RetryPolicy.parseRetryAfterMillis("soon", now));
+        assertEquals(0, RetryPolicy.parseRetryAfterMillis(null, now));
+    }
+
+    @Test
+    void testBudgetLimitsRetriesToRatioOfFetches() {
+        RetryPolicy policy = new RetryPolicy(3, 0, 0, 0.1, 2, () -> 0.5);
+        for (int i = 0; i < 10; i++) {
+            policy.recordFetch();
+        }
+
+        assertEquals(0, policy.retryDelayMillis(0, null));
+        assertEquals(0, policy.retryDelayMillis(0, null));
+        assertEquals(0, policy.retryDelayMillis(0, null));
+        assertEquals(-1, policy.retryDelayMillis(0, null), "2 + 10% of 10 fetches are used up");
+        assertEquals(3, policy.getRetryCount());
+    }
+
+    @Test
+    void testInvalidSettingsThrow() {
+        assertThrows(IllegalArgumentException.class, () -> new RetryPolicy(0, 0, 0, 0, 0, () -> 0));
+        assertThrows(IllegalArgumentException.class, () -> new RetryPolicy(3, 500, 100, 0, 0, () -> 0));
+    }
+}
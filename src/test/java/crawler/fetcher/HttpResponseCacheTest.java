@@ -0,0 +1,107 @@
+package crawler.fetcher;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpResponseCacheTest {
+
+    @TempDir
+    Path directory;
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private HttpResponseCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new HttpResponseCache(directory, now::get);
+    }
+
+    @Test
+    void testStoreAndLookupRoundTrip() {
+        URI url = URI.create("https://example.com/page");
+        byte[] body = "<html>Cached</html>".getBytes(StandardCharsets.UTF_8);
+
+        cache.store(url, cache.createEntry("\"v1\"", "Mon, 01 Jan 2024 00:00:00 GMT", "max-age=60", "UTF-8", body));
+
+        HttpResponseCache.Entry entry = cache.lookup(url);
+        assertNotNull(entry);
+        assertEquals("\"v1\"", entry.etag());
+        assertEquals("Mon, 01 Jan 2024 00:00:00 GMT", entry.lastModified());
+        assertEquals("UTF-8", entry.charset());
+        assertArrayEquals(body, entry.body());
+    }
+
+    @Test
+    void testLookupMissingEntry() {
+        assertNull(cache.lookup(URI.create("https://example.com/unknown")));
+    }
+
+    @Test
+    void testEntryIsFreshUntilMaxAgeExpires() {
+        HttpResponseCache.Entry entry = cache.createEntry(null, null, "public, max-age=60", null, new byte[0]);
+
+        assertTrue(cache.isFresh(entry));
+        now.addAndGet(60_000);
+        assertFalse(cache.isFresh(entry));
+    }
+
+    @Test
+    void testNoCacheEntryMustBeRevalidated() {
+        HttpResponseCache.Entry entry = cache.createEntry("\"v1\"", null, "no-cache, max-age=60", null, new byte[0]);
+
+        assertNotNull(entry);
+        assertFalse(cache.isFresh(entry));
+    }
+
+    @Test
+    void testUncacheableResponses() {
+        assertNull(cache.createEntry("\"v1\"", null, "no-store", null, new byte[0]));
+        assertNull(cache.createEntry(null, null, null, null, new byte[0]), "no validators and no max-age");
+    }
+
+    @Test
+    void testRevalidateKeepsBodyAndRefreshesExpiry() {
+        byte[] body = "<html>Body</html>".getBytes(StandardCharsets.UTF_8);
+        HttpResponseCache.Entry entry = cache.createEntry("\"v1\"", null, null, "UTF-8", body);
+        assertFalse(cache.isFresh(entry));
+
+        HttpResponseCache.Entry revalidated = cache.revalidate(entry, null, null, "max-age=30");
+
+        assertEquals("\"v1\"", revalidated.etag());
+        assertArrayEquals(body, revalidated.body());
+        assertTrue(cache.isFresh(revalidated));
+    }
+
+    @Test
+    void testCorruptEntryIsIgnored() throws Exception {
+        URI url = URI.create("https://example.com/page");
+        cache.store(url, cache.createEntry("\"v1\"", null, null, null, new byte[10]));
+
+        try (Stream<Path> files = Files.list(directory)) {
+            Path file = files.findFirst().orElseThrow();
+            Files.write(file, new byte[]{1, 2, 3});
+        }
+
+        assertNull(cache.lookup(url));
+    }
+
+    @Test
+    void testCacheKeyNormalization() {
+        assertEquals(HttpResponseCache.cacheKey(URI.create("https://example.com/")),
+                HttpResponseCache.cacheKey(URI.create("HTTPS://Example.COM")));
+        assertEquals(HttpResponseCache.cacheKey(URI.create("https://example.com/a/b?q=1")),
+                HttpResponseCache.cacheKey(URI.create("https://example.com/a/./b?q=1#section")));
+        assertNotEquals(HttpResponseCache.cacheKey(URI.create("https://example.com/a?q=1")),
+                HttpResponseCache.cacheKey(URI.create("https://example.com/a?q=2")));
+    }
+}
@@ -1,13 +1,21 @@
 package crawler.fetcher;
 
+import com.sun.net.httpserver.HttpServer;
 import org.jsoup.Connection;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.MockedStatic;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -23,15 +31,13 @@ class PageFetcherTest {
         Document fakeDoc = Jsoup.parse("<html><head><title>Fake Page</title></head></html>");
 
         try (MockedStatic<Jsoup> mockedJsoup = mockStatic(Jsoup.class)) {
-            Connection mockConnection = mock(Connection.class);
+            Connection mockConnection = mockConnection(url, mockedJsoup);
+            Connection.Response mockResponse = mock(Connection.Response.class);
 
-            mockedJsoup.when(() -> Jsoup.connect(url.toString())).thenReturn(mockConnection);
-            when(mockConnection.timeout(anyInt())).thenReturn(mockConnection);
-            when(mockConnection.userAgent(anyString())).thenReturn(mockConnection);
-            when(mockConnection.ignoreHttpErrors(true)).thenReturn(mockConnection);
-            when(mockConnection.ignoreContentType(true)).thenReturn(mockConnection);
-            when(mockConnection.followRedirects(true)).thenReturn(mockConnection);
-            when(mockConnection.get()).thenReturn(fakeDoc);
+            when(mockConnection.execute()).thenReturn(mockResponse);
+            when(mockResponse.contentType()).thenReturn("text/html; charset=UTF-8");
+            when(mockResponse.bodyAsBytes()).thenReturn(new byte[100]);
+            when(mockResponse.parse()).thenReturn(fakeDoc);
 
             Document result = fetcher.fetch(url);
 
@@ -45,17 +51,183 @@ class PageFetcherTest {
         URI url = new URI("https://bad.example.com");
 
         try (MockedStatic<Jsoup> mockedJsoup = mockStatic(Jsoup.class)) {
-            Connection mockConnection = mock(Connection.class);
-
-            mockedJsoup.when(() -> Jsoup.connect(url.toString())).thenReturn(mockConnection);
-            when(mockConnection.timeout(anyInt())).thenReturn(mockConnection);
-            when(mockConnection.userAgent(anyString())).thenReturn(mockConnection);
-            when(mockConnection.ignoreHttpErrors(true)).thenReturn(mockConnection);
-            when(mockConnection.ignoreContentType(true)).thenReturn(mockConnection);
-            when(mockConnection.followRedirects(true)).thenReturn(mockConnection);
-            when(mockConnection.get()).thenThrow(new IOException("Failed to connect"));
+            Connection mockConnection = mockConnection(url, mockedJsoup);
+            when(mockConnection.execute()).thenThrow(new IOException("Failed to connect"));
 
             assertThrows(PageFetcher.FetchException.class, () -> fetcher.fetch(url));
         }
     }
+
+    @Test
+    void testNonHtmlContentTypeIsSkippedBeforeReadingBody() throws Exception {
+        URI url = new URI("https://example.com/file.pdf");
+
+        try (MockedStatic<Jsoup> mockedJsoup = mockStatic(Jsoup.class)) {
+            Connection mockConnection = mockConnection(url, mockedJsoup);
+            Connection.Response mockResponse = mock(Connection.Response.class);
+
+            when(mockConnection.execute()).thenReturn(mockResponse);
+            when(mockResponse.contentType()).thenReturn("application/pdf");
+
+            assertThrows(PageFetcher.ContentSkippedException.class, () -> fetcher.fetch(url));
+            verify(mockResponse, never()).bodyAsBytes();
+            verify(mockResponse, never()).parse();
+        }
+    }
+
+    @Test
+    void testAnnouncedOversizedBodyIsSkippedBeforeReadingBody() throws Exception {
+        URI url = new URI("https://example.com/huge.html");
+        PageFetcher limitedFetcher = new PageFetcher(1024);
+
+        try (MockedStatic<Jsoup> mockedJsoup = mockStatic(Jsoup.class)) {
+            Connection mockConnection = mockConnection(url, mockedJsoup);
+            Connection.Response mockResponse = mock(Connection.Response.class);
+
+            when(mockConnection.execute()).thenReturn(mockResponse);
+            when(mockResponse.contentType()).thenReturn("text/html");
+            when(mockResponse.header("Content-Length")).thenReturn("4096");
+
+            assertThrows(PageFetcher.ContentSkippedException.class, () -> limitedFetcher.fetch(url));
+            verify(mockResponse, never()).bodyAsBytes();
+        }
+    }
+
+    @Test
+    void testStreamedBodyOverLimitIsSkipped() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/chunked", exchange -> {
+            exchange.getResponseHeaders().set("Content-Type", "text/html");
+            exchange.sendResponseHeaders(200, 0); // chunked, no Content-Length
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write("<html><body>".repeat(500).getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        server.createContext("/small", exchange -> {
+            byte[] body = "<html><head><title>Small</title></head></html>".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/html");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+
+        try {
+            URI base = URI.create("http://127.0.0.1:" + server.getAddress().getPort());
+            PageFetcher limitedFetcher = new PageFetcher(1024);
+
+            assertThrows(PageFetcher.ContentSkippedException.class,
+                    () -> limitedFetcher.fetch(base.resolve("/chunked")));
+            assertEquals("Small", limitedFetcher.fetch(base.resolve("/small")).title());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void testErrorStatusIsReportedWithItsCode() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/busy", exchange -> {
+            byte[] body = "<html><body>Try again later</body></html>".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/html");
+            exchange.getResponseHeaders().set("Retry-After", "120");
+            exchange.sendResponseHeaders(503, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+
+        try {
+            URI url = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/busy");
+
+            PageFetcher.FetchException e = assertThrows(PageFetcher.FetchException.class, () -> fetcher.fetch(url));
+            assertEquals(503, e.getStatusCode());
+            assertEquals("120", e.getRetryAfter());
+            assertFalse(e.isTimeout());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void testTimeoutIsRecognizedFromCause() {
+        PageFetcher.FetchException e = new PageFetcher.FetchException("I/O error",
+                new IOException(new SocketTimeoutException("Read timed out")));
+
+        assertTrue(e.isTimeout());
+        assertEquals(-1, e.getStatusCode());
+    }
+
+    @Test
+    void testCachedPageIsRevalidatedWithETag(@TempDir Path cacheDirectory) throws Exception {
+        AtomicInteger fullResponses = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/page", exchange -> {
+            exchange.getResponseHeaders().set("ETag", "\"v1\"");
+            if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            fullResponses.incrementAndGet();
+            byte[] body = "<html><head><title>Cached</title></head></html>".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/html; charset=UTF-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+
+        try {
+            URI url = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/page");
+            HttpResponseCache cache = new HttpResponseCache(cacheDirectory);
+
+            assertEquals("Cached", new PageFetcher(1024, cache).fetch(url).title());
+            assertEquals("Cached", new PageFetcher(1024, cache).fetch(url).title());
+
+            assertEquals(1, fullResponses.get());
+            assertEquals(1, cache.getMissCount());
+            assertEquals(1, cache.getRevalidatedCount());
+            assertEquals(0, cache.getHitCount());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void testFreshCachedPageIsServedWithoutRequest(@TempDir Path cacheDirectory) throws Exception {
+        URI url = URI.create("https://example.com/fresh");
+        HttpResponseCache cache = new HttpResponseCache(cacheDirectory);
+        byte[] body = "<html><head><title>Fresh</title></head></html>".getBytes(StandardCharsets.UTF_8);
+        cache.store(url, cache.createEntry(null, null, "max-age=3600", "UTF-8", body));
+
+        try (MockedStatic<Jsoup> mockedJsoup = mockStatic(Jsoup.class, CALLS_REAL_METHODS)) {
+            Document result = new PageFetcher(1024, cache).fetch(url);
+
+            assertEquals("Fresh", result.title());
+            mockedJsoup.verify(() -> Jsoup.connect(anyString()), never());
+            assertEquals(1, cache.getHitCount());
+        }
+    }
+
+    @Test
+    void testInvalidBodyLimit() {
+        assertThrows(IllegalArgumentException.class, () -> new PageFetcher(0));
+    }
+
+    private static Connection mockConnection(URI url, MockedStatic<Jsoup> mockedJsoup) {
+        Connection mockConnection = mock(Connection.class);
+
+        mockedJsoup.when(() -> Jsoup.connect(url.toString())).thenReturn(mockConnection);
+        when(mockConnection.timeout(anyInt())).thenReturn(mockConnection);
+        when(mockConnection.userAgent(anyString())).thenReturn(mockConnection);
+        when(mockConnection.ignoreHttpErrors(true)).thenReturn(mockConnection);
+        when(mockConnection.ignoreContentType(true)).thenReturn(mockConnection);
+        when(mockConnection.followRedirects(true)).thenReturn(mockConnection);
+        when(mockConnection.maxBodySize(anyInt())).thenReturn(mockConnection);
+        return mockConnection;
+    }
 }
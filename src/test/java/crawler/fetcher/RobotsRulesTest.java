@@ -0,0 +1,100 @@
+package crawler.fetcher;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RobotsRulesTest {
+
+    @Test
+    void testAllowWinsTieWithSameLength() {
+        RobotsRules rules = RobotsRules.builder()
+                .disallow("/page")
+                .allow("/page")
+                .build();
+
+        assertTrue(rules.isAllowed("/page", null));
+    }
+
+    @Test
+    void testQueryIsPartOfTheMatchedPath() {
+        RobotsRules rules = RobotsRules.builder()
+                .disallow("/*?sessionid=")
+                .build();
+
+        assertFalse(rules.isAllowed("/cart", "sessionid=42"));
+        assertTrue(rules.isAllowed("/cart", "item=42"));
+        assertTrue(rules.isAllowed("/cart", null));
+    }
+
+    @Test
+    void testTrailingWildcardIsPrefixMatch() {
+        RobotsRules rules = RobotsRules.builder()
+                .disallow("/fish*")
+                .build();
+
+        assertFalse(rules.isAllowed("/fish", null));
+        assertFalse(rules.isAllowed("/fish.html", null));
+        assertTrue(rules.isAllowed("/Fish", null));
+    }
+
+    @Test
+    void testDollarOnlyAnchorsAtTheEnd() {
+        RobotsRules rules = RobotsRules.builder()
+                .disallow("/$")
+                .build();
+
+        assertFalse(rules.isAllowed("/", null));
+        assertTrue(rules.isAllowed("/index.html", null));
+    }
+
+    @Test
+    void testEmptyRulesAllowEverything() {
+        RobotsRules rules = RobotsRules.builder().disallow("").build();
+
+        assertEquals(0, rules.size());
+        assertTrue(rules.isAllowed("/anything", null));
+    }
+
+    @Test
+    void testManyWildcardsMatchInLinearTime() {
+        RobotsRules rules = RobotsRules.builder()
+                .disallow("/*a*a*a*a*a*a*a*b$")
+                .build();
+        String path = "/" + "a".repeat(10_000);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(2), () -> {
+            assertTrue(rules.isAllowed(path, null));
+            assertFalse(rules.isAllowed(path + "b", null));
+            assertFalse(rules.isAllowed(path, "b"));
+            assertTrue(rules.isAllowed(path + "b", "a"));
+        });
+    }
+
+    @Test
+    void testLookupDoesNotAllocate() {
+        RobotsRules rules = RobotsRules.builder()
+                .disallow("/private/")
+                .allow("/private/*.html$")
+                .disallow("/*?session=")
+                .build();
+        String[] paths = {"/private/a.html", "/private/a.pdf", "/public/page", "/search"};
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        boolean allowed = false;
+        for (int i = 0; i < 20_000; i++) { // warm up, including this thread's scratch arrays
+            allowed ^= rules.isAllowed(paths[i & 3], (i & 4) == 0 ? null : "session=1");
+        }
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 20_000; i++) {
+            allowed ^= rules.isAllowed(paths[i & 3], (i & 4) == 0 ? null : "session=1");
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        assertEquals(0, allocated, "isAllowed allocated " + allocated + " bytes (" + allowed + ")");
+    }
+}
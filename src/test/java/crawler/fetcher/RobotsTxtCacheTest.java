@@ -3,11 +3,28 @@ package crawler.fetcher;
 import org.junit.jupiter.api.Test;
 
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 class RobotsTxtCacheTest {
 
+    private static final long TTL = 1000;
+    private static final long NEGATIVE_TTL = 100;
+
+    private final AtomicLong clock = new AtomicLong(0);
+    private final AtomicInteger downloads = new AtomicInteger(0);
+
     @Test
     void testGetHandlerFirstTimeCreatesNew() throws Exception {
         RobotsTxtCache cache = new RobotsTxtCache("SimpleBot");
@@ -41,5 +58,168 @@ class RobotsTxtCacheTest {
 
         assertNotSame(handler1, handler2, "Handlers should be different for different domains");
     }
-}
 
+    @Test
+    void testConcurrentLookupsDownloadOnce() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RobotsTxtCache cache = cacheWith(uri -> {
+            awaitQuietly(release);
+            return loadedHandler();
+        }, 10);
+        URI uri = URI.create("https://example.com/page");
+
+        List<Thread> threads = new ArrayList<>();
+        List<RobotsTxtHandler> results = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            threads.add(Thread.ofVirtual().start(() -> results.add(cache.getHandler(uri))));
+        }
+        release.countDown();
+        for (Thread thread : threads) {
+            thread.join(2000);
+        }
+
+        assertEquals(1, downloads.get());
+        assertEquals(8, results.size());
+        assertTrue(results.stream().allMatch(handler -> handler == results.getFirst()));
+    }
+
+    @Test
+    void testEntriesExpireAfterTtl() {
+        RobotsTxtCache cache = cacheWith(uri -> loadedHandler(), 10);
+        URI uri = URI.create("https://example.com");
+
+        RobotsTxtHandler first = cache.getHandler(uri);
+        clock.set(TTL - 1);
+        assertSame(first, cache.getHandler(uri));
+
+        clock.set(TTL);
+        cache.getHandler(uri);
+        assertNotSame(first, cache.getHandler(uri));
+        assertEquals(2, downloads.get());
+    }
+
+    @Test
+    void testExpiredHandlerIsServedWhileRefreshing() {
+        List<Runnable> backgroundLoads = new ArrayList<>();
+        RobotsTxtCache cache = cacheWith(uri -> loadedHandler(), 10, backgroundLoads::add);
+        URI uri = URI.create("https://example.com/page");
+        cache.prefetch(uri);
+        backgroundLoads.removeFirst().run();
+        RobotsTxtHandler first = cache.getHandler(uri);
+
+        clock.set(TTL);
+
+        assertSame(first, cache.getHandler(uri), "an expired handler must not block the caller");
+        assertSame(first, cache.getLoadedHandler(uri));
+        assertEquals(1, backgroundLoads.size(), "only one refresh runs at a time");
+
+        backgroundLoads.removeFirst().run();
+
+        RobotsTxtHandler refreshed = cache.getHandler(uri);
+        assertNotSame(first, refreshed);
+        assertEquals(2, downloads.get());
+        clock.set(TTL + TTL - 1);
+        assertSame(refreshed, cache.getHandler(uri));
+    }
+
+    @Test
+    void testLoadedHandlerOfUncachedHostIsLoadedInBackground() {
+        List<Runnable> backgroundLoads = new ArrayList<>();
+        RobotsTxtHandler loaded = loadedHandler();
+        RobotsTxtCache cache = cacheWith(uri -> loaded, 1, backgroundLoads::add);
+        URI a = URI.create("https://a.com/page");
+
+        assertNull(cache.getLoadedHandler(a));
+        assertEquals(1, backgroundLoads.size());
+        assertEquals(0, downloads.get(), "the caller must not download robots.txt");
+
+        backgroundLoads.removeFirst().run();
+        assertSame(loaded, cache.getLoadedHandler(a));
+
+        cache.prefetch(URI.create("https://b.com")); // evicts a
+        assertNull(cache.getLoadedHandler(a));
+    }
+
+    @Test
+    void testFailedDownloadsAreCachedWithShortTtl() {
+        RobotsTxtCache cache = cacheWith(uri -> {
+            throw new IllegalStateException("connection reset");
+        }, 10);
+        URI uri = URI.create("https://example.com");
+
+        RobotsTxtHandler handler = cache.getHandler(uri);
+        cache.getHandler(uri);
+
+        assertFalse(handler.isLoaded());
+        assertTrue(handler.isAllowed(URI.create("https://example.com/anything")));
+        assertEquals(1, downloads.get());
+
+        clock.set(NEGATIVE_TTL);
+        cache.getHandler(uri);
+        assertEquals(2, downloads.get());
+    }
+
+    @Test
+    void testLeastRecentlyUsedHostIsEvicted() {
+        RobotsTxtCache cache = cacheWith(uri -> loadedHandler(), 2);
+        URI a = URI.create("https://a.com");
+        URI b = URI.create("https://b.com");
+        URI c = URI.create("https://c.com");
+
+        RobotsTxtHandler handlerA = cache.getHandler(a);
+        cache.getHandler(b);
+        cache.getHandler(a); // a is now more recent than b
+        cache.getHandler(c); // evicts b
+
+        assertEquals(2, cache.size());
+        assertSame(handlerA, cache.getHandler(a));
+        cache.getHandler(b);
+        assertEquals(4, downloads.get());
+    }
+
+    @Test
+    void testPrefetchLoadsInBackgroundAndSharesResult() {
+        List<Runnable> backgroundLoads = new ArrayList<>();
+        RobotsTxtHandler loaded = loadedHandler();
+        RobotsTxtCache cache = cacheWith(uri -> loaded, 10, backgroundLoads::add);
+        URI uri = URI.create("https://example.com/page");
+
+        CompletableFuture<RobotsTxtHandler> first = cache.prefetch(uri);
+        CompletableFuture<RobotsTxtHandler> second = cache.prefetch(URI.create("https://example.com/other"));
+
+        assertFalse(first.isDone(), "prefetch must not download on the calling thread");
+        assertSame(first, second);
+        assertEquals(1, backgroundLoads.size());
+
+        backgroundLoads.getFirst().run();
+
+        assertSame(loaded, first.join());
+        assertSame(loaded, cache.getHandler(uri));
+        assertEquals(1, downloads.get());
+    }
+
+    private RobotsTxtCache cacheWith(Function<URI, RobotsTxtHandler> loader, int maxHosts) {
+        return cacheWith(loader, maxHosts, Runnable::run);
+    }
+
+    private RobotsTxtCache cacheWith(Function<URI, RobotsTxtHandler> loader, int maxHosts, Executor executor) {
+        return new RobotsTxtCache("SimpleBot", uri -> {
+            downloads.incrementAndGet();
+            return loader.apply(uri);
+        }, maxHosts, TTL, NEGATIVE_TTL, clock::get, executor);
+    }
+
+    private static RobotsTxtHandler loadedHandler() {
+        RobotsTxtHandler handler = mock(RobotsTxtHandler.class);
+        when(handler.isLoaded()).thenReturn(true);
+        return handler;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
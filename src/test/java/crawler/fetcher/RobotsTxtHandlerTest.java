@@ -19,8 +19,11 @@ class RobotsTxtHandlerTest {
 
     @Test
     void testPathAllowanceLogic() {
-        handler.disallowedPaths.add(URI.create("/private"));
-        handler.allowedPaths.add(URI.create("/private/public"));
+        handler = RobotsTxtHandler.parse("TestBot", """
+                User-agent: *
+                Disallow: /private
+                Allow: /private/public
+                """);
 
         URI disallowedUri = BASE_URI.resolve("/private/secret");
         assertFalse(handler.isAllowed(disallowedUri));
@@ -34,13 +37,70 @@ class RobotsTxtHandlerTest {
 
     @Test
     void testPathNormalization() {
-        URI normalized = handler.normalizePath("/path/../another");
-        assertEquals("/another", normalized.getPath());
+        assertEquals("/another", handler.normalizePath("/path/../another"));
+        assertEquals("/path/to/page", handler.normalizePath("/path/./to/page"));
+        assertEquals("/", handler.normalizePath("invalid:path"));
+        assertEquals("/relative/page", handler.normalizePath("relative/page"));
+    }
+
+    @Test
+    void testLongestMatchWinsRegardlessOfOrder() {
+        RobotsTxtHandler robots = RobotsTxtHandler.parse("TestBot", """
+                User-agent: *
+                Allow: /shop
+                Disallow: /shop/cart
+                Allow: /shop/cart/view
+                """);
+
+        assertTrue(robots.isAllowed(BASE_URI.resolve("/shop/items")));
+        assertFalse(robots.isAllowed(BASE_URI.resolve("/shop/cart/checkout")));
+        assertTrue(robots.isAllowed(BASE_URI.resolve("/shop/cart/view/1")));
+    }
+
+    @Test
+    void testWildcardAndEndAnchor() {
+        RobotsTxtHandler robots = RobotsTxtHandler.parse("TestBot", """
+                User-agent: *
+                Disallow: /*.pdf$
+                Disallow: /search*q=
+                """);
+
+        assertFalse(robots.isAllowed(BASE_URI.resolve("/docs/manual.pdf")));
+        assertTrue(robots.isAllowed(BASE_URI.resolve("/docs/manual.pdf.html")));
+        assertFalse(robots.isAllowed(BASE_URI.resolve("/search/all?q=crawler")));
+        assertTrue(robots.isAllowed(BASE_URI.resolve("/search/all")));
+    }
+
+    @Test
+    void testOwnGroupReplacesWildcardGroup() {
+        String robotsTxt = """
+                User-agent: *
+                Disallow: /
+
+                # our own group
+                User-agent: SimpleWebCrawlerBot
+                Disallow: /admin
+                Crawl-delay: 1.5
+                """;
 
-        URI normalized2 = handler.normalizePath("/path/./to/page");
-        assertEquals("/path/to/page", normalized2.getPath());
+        RobotsTxtHandler ours = RobotsTxtHandler.parse("SimpleWebCrawlerBot/1.0", robotsTxt);
+        RobotsTxtHandler other = RobotsTxtHandler.parse("OtherBot", robotsTxt);
+
+        assertTrue(ours.isAllowed(BASE_URI.resolve("/page")));
+        assertFalse(ours.isAllowed(BASE_URI.resolve("/admin/users")));
+        assertEquals(1500, ours.getCrawlDelayMillis());
+        assertFalse(other.isAllowed(BASE_URI.resolve("/page")));
+        assertEquals(0, other.getCrawlDelayMillis());
+    }
+
+    @Test
+    void testEmptyDisallowAllowsEverything() {
+        RobotsTxtHandler robots = RobotsTxtHandler.parse("TestBot", """
+                User-agent: *
+                Disallow:
+                """);
 
-        URI normalized3 = handler.normalizePath("invalid:path");
-        assertEquals("/", normalized3.getPath());
+        assertTrue(robots.isLoaded());
+        assertTrue(robots.isAllowed(BASE_URI.resolve("/anything")));
     }
-}
\ No newline at end of file
+}
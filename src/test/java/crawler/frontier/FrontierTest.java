@@ -0,0 +1,251 @@
+package crawler.frontier;
+
+import crawler.host.CrawlDelayPolicy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static crawler.constants.CrawlerConstants.DEFAULT_FRONTIER_HEAP_BUDGET_BYTES;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrontierTest {
+
+    private static final URI ROOT = URI.create("https://example.com");
+
+    private Frontier frontier;
+
+    @BeforeEach
+    void setUp() {
+        frontier = new Frontier();
+    }
+
+    @Test
+    void testTakeReturnsTasksInOfferOrder() throws Exception {
+        CrawlTask root = CrawlTask.root(ROOT);
+        CrawlTask child = root.child(URI.create("https://example.com/a"));
+
+        frontier.offer(root);
+        frontier.offer(child);
+
+        assertEquals(root, frontier.take());
+        frontier.complete(root);
+        assertEquals(child, frontier.take());
+        assertEquals(1, frontier.pendingCount());
+    }
+
+    @Test
+    void testDeeperTaskRunsWhileShallowerTaskIsRunning() throws Exception {
+        CrawlTask root = CrawlTask.root(ROOT);
+        frontier.offer(root);
+        frontier.offer(CrawlTask.root(URI.create("https://other.com")));
+        CrawlTask first = frontier.take();
+        frontier.take();
+
+        CrawlTask child = root.child(URI.create("https://example.com/a"));
+        frontier.offer(child);
+        frontier.complete(first);
+
+        assertEquals(child, frontier.take());
+    }
+
+    @Test
+    void testStrictFrontierHoldsDeeperTaskUntilShallowerTasksComplete() throws Exception {
+        Frontier frontier = strictFrontier();
+        CrawlTask root = CrawlTask.root(ROOT);
+        CrawlTask other = CrawlTask.root(URI.create("https://other.com"));
+        frontier.offer(root);
+        frontier.offer(other);
+        CrawlTask first = frontier.take();
+        CrawlTask second = frontier.take();
+
+        CrawlTask child = root.child(URI.create("https://example.com/a"));
+        frontier.offer(child);
+        frontier.complete(first);
+
+        AtomicReference<CrawlTask> taken = new AtomicReference<>();
+        Thread worker = new Thread(() -> {
+            try {
+                taken.set(frontier.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        worker.start();
+        worker.join(200);
+        assertNull(taken.get(), "depth 1 must not start while a depth 0 task is running");
+
+        frontier.complete(second);
+        worker.join(1000);
+
+        assertEquals(child, taken.get());
+    }
+
+    @Test
+    void testHostsTakeTurnsWithinADepth() throws Exception {
+        CrawlTask root = CrawlTask.root(ROOT);
+        frontier.offer(root);
+        assertEquals(root, frontier.take());
+
+        List<CrawlTask> big = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            big.add(root.child(URI.create("https://big.com/page-" + i)));
+        }
+        CrawlTask small = root.child(URI.create("https://small.com/page"));
+        big.forEach(frontier::offer);
+        frontier.offer(small);
+        frontier.complete(root);
+
+        assertEquals(big.get(0), frontier.take());
+        assertEquals(small, frontier.take());
+        assertEquals(big.get(1), frontier.take());
+    }
+
+    @Test
+    void testTakeReturnsNullWhenExhausted() throws Exception {
+        frontier.offer(CrawlTask.root(ROOT));
+
+        CrawlTask root = frontier.take();
+        assertNotNull(root);
+        frontier.complete(root);
+
+        assertNull(frontier.take());
+        assertEquals(0, frontier.pendingCount());
+    }
+
+    @Test
+    void testTakeWaitsForRunningTasks() throws Exception {
+        frontier.offer(CrawlTask.root(ROOT));
+        CrawlTask root = frontier.take();
+
+        CountDownLatch waiting = new CountDownLatch(1);
+        AtomicReference<CrawlTask> taken = new AtomicReference<>();
+        Thread worker = new Thread(() -> {
+            try {
+                waiting.countDown();
+                taken.set(frontier.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        worker.start();
+        assertTrue(waiting.await(1, TimeUnit.SECONDS));
+
+        CrawlTask child = root.child(URI.create("https://example.com/a"));
+        frontier.offer(child);
+        frontier.complete(root);
+        worker.join(1000);
+
+        assertEquals(child, taken.get());
+    }
+
+    @Test
+    void testChildTaskKeepsParentPointer() {
+        CrawlTask root = CrawlTask.root(ROOT);
+        CrawlTask child = root.child(URI.create("https://example.com/a"));
+
+        assertTrue(root.isRoot());
+        assertFalse(child.isRoot());
+        assertEquals(ROOT, child.parent());
+        assertEquals(1, child.depth());
+    }
+
+    @Test
+    void testDeeperTasksRunWhileRetryWaits() throws Exception {
+        assertDeeperTasksRunWhileRetryWaits(frontier);
+    }
+
+    @Test
+    void testDelayedRetryDoesNotHoldBackStrictFrontier() throws Exception {
+        assertDeeperTasksRunWhileRetryWaits(strictFrontier());
+    }
+
+    private void assertDeeperTasksRunWhileRetryWaits(Frontier frontier) throws Exception {
+        CrawlTask root = CrawlTask.root(ROOT);
+        frontier.offer(root);
+        frontier.take();
+        CrawlTask child = root.child(URI.create("https://example.com/a"));
+        frontier.offer(child);
+        frontier.complete(root);
+        CrawlTask failed = frontier.take();
+        CrawlTask grandchild = failed.child(URI.create("https://example.com/b"));
+        frontier.offer(grandchild);
+
+        long start = System.nanoTime();
+        frontier.retry(failed.retry(), TimeUnit.MILLISECONDS.toNanos(500));
+        frontier.complete(failed);
+        assertEquals(2, frontier.pendingCount());
+
+        assertEquals(grandchild, frontier.take());
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(500));
+        frontier.complete(grandchild);
+
+        CrawlTask retried = frontier.take();
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(500));
+        assertEquals(child.url(), retried.url());
+        assertEquals(1, retried.attempt());
+        frontier.complete(retried);
+        assertNull(frontier.take());
+    }
+
+    @Test
+    void testHostIsHeldUntilGateOpens() throws Exception {
+        CompletableFuture<Void> robotsLoaded = new CompletableFuture<>();
+        Frontier gated = new Frontier(new CrawlDelayPolicy(0),
+                url -> url.getHost().equals("slow.com") ? robotsLoaded : CompletableFuture.completedFuture(null));
+
+        CrawlTask slow = CrawlTask.root(URI.create("https://slow.com/page"));
+        CrawlTask fast = CrawlTask.root(URI.create("https://fast.com/page"));
+        gated.offer(slow);
+        gated.offer(fast);
+
+        assertEquals(fast, gated.take());
+        gated.complete(fast);
+        assertEquals(1, gated.size());
+
+        robotsLoaded.complete(null);
+
+        assertEquals(slow, gated.take());
+    }
+
+    @Test
+    void testTasksBeyondHeapBudgetAreSpilledAndReturnedInOrder(@TempDir Path spillDirectory) throws Exception {
+        CrawlTask root = CrawlTask.root(ROOT);
+        List<CrawlTask> tasks = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            tasks.add(root.child(URI.create("https://example.com/page-" + i)));
+        }
+
+        try (Frontier bounded = new Frontier(new CrawlDelayPolicy(0), HostGate.OPEN, 1_000, spillDirectory)) {
+            tasks.forEach(bounded::offer);
+
+            assertTrue(bounded.spilledCount() > 40);
+            assertEquals(50, bounded.size());
+            assertEquals(50, bounded.pendingCount());
+
+            for (CrawlTask task : tasks) {
+                assertEquals(task, bounded.take());
+                bounded.complete(task);
+            }
+            assertNull(bounded.take());
+            assertEquals(0, bounded.spilledCount());
+            assertTrue(bounded.totalSpilledCount() > 40);
+        }
+        try (var files = Files.list(spillDirectory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    private static Frontier strictFrontier() {
+        return new Frontier(new CrawlDelayPolicy(0), null, HostGate.OPEN, DEFAULT_FRONTIER_HEAP_BUDGET_BYTES, null, true);
+    }
+}
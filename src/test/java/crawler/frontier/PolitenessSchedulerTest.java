@@ -0,0 +1,126 @@
+package crawler.frontier;
+
+import crawler.host.CrawlDelayPolicy;
+import crawler.host.HostConcurrencyPolicy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PolitenessSchedulerTest {
+
+    private static final long DELAY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private CrawlDelayPolicy delays;
+    private PolitenessScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        delays = new CrawlDelayPolicy(0);
+        delays.setCrawlDelay(URI.create("https://slow.com"), 1000);
+        scheduler = new PolitenessScheduler(delays);
+    }
+
+    @Test
+    void testThrottledHostDoesNotBlockOtherHosts() {
+        CrawlTask slow1 = task("https://slow.com/1");
+        CrawlTask slow2 = task("https://slow.com/2");
+        CrawlTask fast1 = task("https://fast.com/1");
+        CrawlTask fast2 = task("https://fast.com/2");
+        long now = 0;
+
+        scheduler.add(slow1, now);
+        scheduler.add(slow2, now);
+        scheduler.add(fast1, now);
+        scheduler.add(fast2, now);
+
+        assertEquals(slow1, scheduler.poll(now));
+        assertEquals(fast1, scheduler.poll(now));
+        assertEquals(fast2, scheduler.poll(now));
+        assertNull(scheduler.poll(now), "slow.com must wait for its crawl delay");
+        assertEquals(DELAY_NANOS, scheduler.nanosUntilReady(now));
+
+        assertEquals(slow2, scheduler.poll(now + DELAY_NANOS));
+        assertTrue(scheduler.isEmpty());
+    }
+
+    @Test
+    void testDelayIsRememberedWhileHostQueueIsEmpty() {
+        long now = 0;
+        scheduler.add(task("https://slow.com/1"), now);
+        assertNotNull(scheduler.poll(now));
+
+        scheduler.add(task("https://slow.com/2"), now + 10);
+
+        assertNull(scheduler.poll(now + 10));
+        assertNotNull(scheduler.poll(now + DELAY_NANOS));
+    }
+
+    @Test
+    void testHostsWithoutDelayAlternate() {
+        long now = 0;
+        scheduler.add(task("https://a.com/1"), now);
+        scheduler.add(task("https://a.com/2"), now);
+        scheduler.add(task("https://b.com/1"), now);
+
+        assertEquals("a.com", scheduler.poll(now).url().getHost());
+        assertEquals("b.com", scheduler.poll(now).url().getHost());
+        assertEquals("a.com", scheduler.poll(now).url().getHost());
+        assertEquals(Long.MAX_VALUE, scheduler.nanosUntilReady(now));
+    }
+
+    @Test
+    void testShallowerTasksComeFirst() {
+        long now = 0;
+        CrawlTask deep = task("https://a.com/").child(URI.create("https://a.com/deep"));
+        CrawlTask shallow = task("https://b.com/");
+        scheduler.add(deep, now);
+        scheduler.add(shallow, now + 1);
+
+        assertEquals(shallow, scheduler.poll(now + 1, 1));
+        assertNull(scheduler.poll(now + 1, 0), "depth 1 must wait while only depth 0 may run");
+        assertEquals(Long.MAX_VALUE, scheduler.nanosUntilReady(now + 1, 0));
+        assertEquals(deep, scheduler.poll(now + 1, 1));
+    }
+
+    @Test
+    void testThrottledShallowHostDoesNotHoldBackDeeperHosts() {
+        long now = 0;
+        CrawlTask slow1 = task("https://slow.com/1");
+        CrawlTask slow2 = task("https://slow.com/2");
+        CrawlTask deep = task("https://a.com/").child(URI.create("https://a.com/deep"));
+        scheduler.add(slow1, now);
+        scheduler.add(slow2, now);
+        scheduler.add(deep, now);
+
+        assertEquals(slow1, scheduler.poll(now));
+        assertEquals(deep, scheduler.poll(now), "a.com is ready while slow.com waits for its delay");
+        assertEquals(DELAY_NANOS, scheduler.nanosUntilReady(now));
+        assertEquals(slow2, scheduler.poll(now + DELAY_NANOS));
+    }
+
+    @Test
+    void testHostAtItsWindowWaitsForARunningTaskToFinish() {
+        PolitenessScheduler limited = new PolitenessScheduler(new CrawlDelayPolicy(0), new HostConcurrencyPolicy(1));
+        long now = 0;
+        CrawlTask a1 = task("https://a.com/1");
+        limited.add(a1, now);
+        limited.add(task("https://a.com/2"), now);
+        limited.add(task("https://b.com/1"), now);
+
+        assertEquals(a1, limited.poll(now));
+        assertEquals("b.com", limited.poll(now).url().getHost());
+        assertNull(limited.poll(now), "a.com already runs as many tasks as its window allows");
+        assertEquals(Long.MAX_VALUE, limited.nanosUntilReady(now));
+
+        limited.finished(a1, now);
+        assertEquals("a.com", limited.poll(now).url().getHost());
+    }
+
+    private static CrawlTask task(String url) {
+        return CrawlTask.root(URI.create(url));
+    }
+}
@@ -0,0 +1,65 @@
+package crawler.frontier;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpillQueueTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testTasksComeBackInOrderAcrossSegments() {
+        CrawlTask root = CrawlTask.root(URI.create("https://example.com/"));
+        try (SpillQueue queue = new SpillQueue(directory, 256)) {
+            queue.add(root);
+            for (int i = 0; i < 100; i++) {
+                queue.add(root.child(URI.create("https://example.com/ü/" + i)));
+            }
+            assertEquals(101, queue.size());
+
+            assertEquals(root, queue.poll());
+            for (int i = 0; i < 100; i++) {
+                assertEquals(root.child(URI.create("https://example.com/ü/" + i)), queue.poll());
+            }
+            assertNull(queue.poll());
+            assertTrue(queue.isEmpty());
+            assertEquals(101, queue.totalSpilled());
+        }
+    }
+
+    @Test
+    void testReadingCatchesUpWithTheSegmentBeingWritten() {
+        CrawlTask root = CrawlTask.root(URI.create("https://example.com/"));
+        try (SpillQueue queue = new SpillQueue(directory, 1 << 20)) {
+            queue.add(root.child(URI.create("https://example.com/a")));
+            assertEquals(URI.create("https://example.com/a"), queue.poll().url());
+
+            queue.add(root.child(URI.create("https://example.com/b")));
+            queue.add(root.child(URI.create("https://example.com/c")));
+            assertEquals(URI.create("https://example.com/b"), queue.poll().url());
+            queue.add(root.child(URI.create("https://example.com/d")));
+            assertEquals(URI.create("https://example.com/c"), queue.poll().url());
+            assertEquals(URI.create("https://example.com/d"), queue.poll().url());
+            assertNull(queue.poll());
+        }
+    }
+
+    @Test
+    void testCloseDeletesSegments() throws Exception {
+        try (SpillQueue queue = new SpillQueue(directory, 64)) {
+            for (int i = 0; i < 20; i++) {
+                queue.add(CrawlTask.root(URI.create("https://example.com/" + i)));
+            }
+        }
+        try (var files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package crawler.host;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+
+import static crawler.constants.CrawlerConstants.MAX_CRAWL_DELAY_MS;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CrawlDelayPolicyTest {
+
+    @Test
+    void testRobotsDelayOverridesDefault() {
+        CrawlDelayPolicy policy = new CrawlDelayPolicy(250);
+        policy.setCrawlDelay(URI.create("https://Example.com/page"), 2000);
+
+        assertEquals(2000, policy.getDelayMillis("example.com"));
+        assertEquals(250, policy.getDelayMillis("other.com"));
+    }
+
+    @Test
+    void testMissingRobotsDelayKeepsDefault() {
+        CrawlDelayPolicy policy = new CrawlDelayPolicy(250);
+        policy.setCrawlDelay(URI.create("https://example.com"), 0);
+
+        assertEquals(250, policy.getDelayMillis("example.com"));
+    }
+
+    @Test
+    void testExcessiveDelayIsCapped() {
+        CrawlDelayPolicy policy = new CrawlDelayPolicy(0);
+        policy.setCrawlDelay(URI.create("https://example.com"), 86_400_000);
+
+        assertEquals(MAX_CRAWL_DELAY_MS, policy.getDelayMillis("example.com"));
+    }
+
+    @Test
+    void testNegativeDefaultThrows() {
+        assertThrows(IllegalArgumentException.class, () -> new CrawlDelayPolicy(-1));
+    }
+}
@@ -0,0 +1,103 @@
+package crawler.host;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HostCircuitBreakerTest {
+
+    private static final URI PAGE = URI.create("https://Example.com/page");
+    private static final URI OTHER_PAGE = URI.create("https://example.com/other");
+    private static final long OPEN_MS = 1000;
+
+    private final AtomicLong now = new AtomicLong();
+    private final HostCircuitBreaker breaker = new HostCircuitBreaker(3, OPEN_MS, now::get);
+
+    @Test
+    void testUnknownHostIsClosed() {
+        assertTrue(breaker.allowRequest(PAGE));
+        assertEquals(HostCircuitBreaker.State.CLOSED, breaker.getState("example.com"));
+        assertTrue(breaker.getTrippedHosts().isEmpty());
+    }
+
+    @Test
+    void testOpensAfterConsecutiveFailures() {
+        breaker.recordFailure(PAGE);
+        breaker.recordFailure(PAGE);
+        assertTrue(breaker.allowRequest(OTHER_PAGE));
+
+        breaker.recordFailure(PAGE);
+
+        assertFalse(breaker.allowRequest(OTHER_PAGE));
+        assertEquals(Map.of("example.com", HostCircuitBreaker.State.OPEN), breaker.getTrippedHosts());
+        assertTrue(breaker.allowRequest(URI.create("https://other.org/")));
+    }
+
+    @Test
+    void testSuccessResetsFailureCount() {
+        breaker.recordFailure(PAGE);
+        breaker.recordFailure(PAGE);
+        breaker.recordSuccess(PAGE);
+        breaker.recordFailure(PAGE);
+        breaker.recordFailure(PAGE);
+
+        assertTrue(breaker.allowRequest(PAGE));
+    }
+
+    @Test
+    void testHalfOpenLetsOneProbeThrough() {
+        trip();
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(OPEN_MS));
+
+        assertEquals(HostCircuitBreaker.State.HALF_OPEN, breaker.getState("example.com"));
+        assertTrue(breaker.allowRequest(PAGE));
+        assertFalse(breaker.allowRequest(OTHER_PAGE));
+    }
+
+    @Test
+    void testSuccessfulProbeClosesBreaker() {
+        trip();
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(OPEN_MS));
+        assertTrue(breaker.allowRequest(PAGE));
+
+        breaker.recordSuccess(PAGE);
+
+        assertEquals(HostCircuitBreaker.State.CLOSED, breaker.getState("example.com"));
+        assertTrue(breaker.allowRequest(OTHER_PAGE));
+        breaker.recordFailure(PAGE);
+        assertTrue(breaker.allowRequest(OTHER_PAGE));
+    }
+
+    @Test
+    void testFailedProbeReopensBreaker() {
+        trip();
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(OPEN_MS));
+        assertTrue(breaker.allowRequest(PAGE));
+
+        breaker.recordFailure(PAGE);
+
+        assertEquals(HostCircuitBreaker.State.OPEN, breaker.getState("example.com"));
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(OPEN_MS) - 1);
+        assertFalse(breaker.allowRequest(PAGE));
+        now.incrementAndGet();
+        assertTrue(breaker.allowRequest(PAGE));
+    }
+
+    @Test
+    void testRejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new HostCircuitBreaker(0, OPEN_MS, now::get));
+        assertThrows(IllegalArgumentException.class, () -> new HostCircuitBreaker(1, -1, now::get));
+    }
+
+    private void trip() {
+        for (int i = 0; i < 3; i++) {
+            breaker.recordFailure(PAGE);
+        }
+        assertFalse(breaker.allowRequest(PAGE));
+    }
+}
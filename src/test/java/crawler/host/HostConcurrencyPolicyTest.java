@@ -0,0 +1,102 @@
+package crawler.host;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.Map;
+
+import static crawler.constants.CrawlerConstants.INITIAL_HOST_CONCURRENCY;
+import static org.junit.jupiter.api.Assertions.*;
+
+class HostConcurrencyPolicyTest {
+
+    private static final URI PAGE = URI.create("https://Example.com/page");
+    private static final long LATENCY = 10_000_000L;
+
+    @Test
+    void testUnknownHostStartsWithInitialWindow() {
+        assertEquals(INITIAL_HOST_CONCURRENCY, new HostConcurrencyPolicy(16).getWindow("example.com"));
+        assertEquals(1, new HostConcurrencyPolicy(1).getWindow("example.com"));
+    }
+
+    @Test
+    void testWindowGrowsByOneSlotPerWindowOfSuccesses() {
+        HostConcurrencyPolicy policy = new HostConcurrencyPolicy(16);
+
+        for (int i = 0; i < 3; i++) {
+            policy.recordSuccess(PAGE, LATENCY); // 2 + 1/2 + 1/2.5 + 1/2.9
+        }
+        assertEquals(3, policy.getWindow("example.com"));
+
+        for (int i = 0; i < 3; i++) {
+            policy.recordSuccess(PAGE, LATENCY);
+        }
+        assertEquals(4, policy.getWindow("example.com"));
+    }
+
+    @Test
+    void testWindowIsCappedAtMaximum() {
+        HostConcurrencyPolicy policy = new HostConcurrencyPolicy(4);
+        for (int i = 0; i < 100; i++) {
+            policy.recordSuccess(PAGE, LATENCY);
+        }
+
+        assertEquals(4, policy.getWindow("example.com"));
+    }
+
+    @Test
+    void testOverloadHalvesWindowOncePerBurst() {
+        HostConcurrencyPolicy policy = new HostConcurrencyPolicy(16);
+        for (int i = 0; i < 30; i++) {
+            policy.recordSuccess(PAGE, LATENCY);
+        }
+        int before = policy.getWindow("example.com");
+
+        for (int i = 0; i < before; i++) {
+            policy.recordOverload(PAGE); // the whole window times out together
+        }
+        assertEquals(before / 2, policy.getWindow("example.com"));
+
+        policy.recordOverload(PAGE);
+        assertEquals(before / 4, policy.getWindow("example.com"));
+    }
+
+    @Test
+    void testWindowNeverDropsBelowOne() {
+        HostConcurrencyPolicy policy = new HostConcurrencyPolicy(16);
+        for (int i = 0; i < 10; i++) {
+            policy.recordOverload(PAGE);
+        }
+
+        assertEquals(1, policy.getWindow("example.com"));
+    }
+
+    @Test
+    void testRisingLatencyShrinksWindow() {
+        HostConcurrencyPolicy policy = new HostConcurrencyPolicy(16);
+        for (int i = 0; i < 30; i++) {
+            policy.recordSuccess(PAGE, LATENCY);
+        }
+        int before = policy.getWindow("example.com");
+
+        for (int i = 0; i < 5; i++) {
+            policy.recordSuccess(PAGE, 10 * LATENCY);
+        }
+
+        assertTrue(policy.getWindow("example.com") < before);
+    }
+
+    @Test
+    void testWindowsAreExportedByHost() {
+        HostConcurrencyPolicy policy = new HostConcurrencyPolicy(16);
+        policy.recordOverload(URI.create("https://slow.com/a"));
+        policy.recordSuccess(URI.create("https://fast.com/a"), LATENCY);
+
+        assertEquals(Map.of("fast.com", 2, "slow.com", 1), policy.getWindows());
+    }
+
+    @Test
+    void testNonPositiveMaximumThrows() {
+        assertThrows(IllegalArgumentException.class, () -> new HostConcurrencyPolicy(0));
+    }
+}
@@ -0,0 +1,57 @@
+package crawler.host;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HostPermitsTest {
+
+    private static final URI PAGE_A = URI.create("https://example.com/a");
+    private static final URI PAGE_B = URI.create("https://EXAMPLE.com/b");
+    private static final URI OTHER_HOST = URI.create("https://other.org/a");
+
+    @Test
+    void testPermitsAreSharedPerHost() throws Exception {
+        HostPermits permits = new HostPermits(2);
+
+        permits.acquire(PAGE_A);
+        permits.acquire(PAGE_B);
+
+        assertEquals(0, permits.availablePermits(PAGE_A));
+        assertEquals(2, permits.availablePermits(OTHER_HOST));
+
+        permits.release(PAGE_A);
+        assertEquals(1, permits.availablePermits(PAGE_B));
+    }
+
+    @Test
+    void testAcquireWaitsUntilHostSlotIsReleased() throws Exception {
+        HostPermits permits = new HostPermits(1);
+        permits.acquire(PAGE_A);
+
+        AtomicBoolean acquired = new AtomicBoolean(false);
+        Thread waiter = Thread.ofVirtual().start(() -> {
+            try {
+                permits.acquire(PAGE_B);
+                acquired.set(true);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        waiter.join(200);
+        assertFalse(acquired.get());
+
+        permits.release(PAGE_A);
+        waiter.join(1000);
+        assertTrue(acquired.get());
+    }
+
+    @Test
+    void testInvalidPermitCountThrows() {
+        assertThrows(IllegalArgumentException.class, () -> new HostPermits(0));
+    }
+}
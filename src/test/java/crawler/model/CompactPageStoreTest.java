@@ -0,0 +1,83 @@
+package crawler.model;
+
+import crawler.model.CompactPageStore.CompactPage;
+import crawler.model.PageResult.Heading;
+import crawler.model.PageResult.Section;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactPageStoreTest {
+
+    private final CompactPageStore store = new CompactPageStore();
+
+    @Test
+    void testRoundTripKeepsSectionsAndLinkOrder() {
+        PageResult page = page("https://example.com/a",
+                section(0, "Page Root", "https://example.com/home", "https://example.com/about"),
+                section(1, "Title", "https://example.com/z", "https://example.com/b", "https://example.com/m"),
+                section(2, "Empty"));
+
+        CompactPage compact = store.compact(page);
+        PageResult expanded = store.expand(compact, Set.of());
+
+        assertEquals(page, expanded);
+        assertEquals(List.of(Url.parse("https://example.com/z"), Url.parse("https://example.com/b"),
+                Url.parse("https://example.com/m")), List.copyOf(expanded.sections().get(1).links()));
+    }
+
+    @Test
+    void testRepeatedLinksAndHeadingsAreStoredOnce() {
+        for (int i = 0; i < 100; i++) {
+            store.compact(page("https://example.com/page" + i,
+                    section(0, "Page Root", "https://example.com/home", "https://example.com/about"),
+                    section(2, "Related", "https://example.com/page" + (i + 1))));
+        }
+
+        assertEquals(2 + 100, store.getUrlCount());
+        assertEquals(2, store.getHeadingCount());
+    }
+
+    @Test
+    void testBrokenPageAndChildren() {
+        PageResult broken = PageResult.brokenLink(URI.create("https://example.com/missing"), 2);
+        PageResult parent = page("https://example.com/", section(1, "Title", "https://example.com/missing"));
+
+        PageResult expanded = store.expand(store.compact(parent), Set.of(broken));
+
+        assertEquals(Set.of(broken), expanded.children());
+        assertEquals(broken, store.expand(store.compact(broken), Set.of()));
+    }
+
+    @Test
+    void testTablesGrowPastInitialCapacity() {
+        List<PageResult> pages = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            pages.add(page("https://example.com/" + i, section(i % 6 + 1, "Heading " + i,
+                    "https://example.com/link" + i, "https://example.com/link" + (i * 7))));
+        }
+        List<CompactPage> compacted = pages.stream().map(store::compact).toList();
+
+        for (int i = 0; i < pages.size(); i++) {
+            assertEquals(pages.get(i), store.expand(compacted.get(i), Set.of()));
+        }
+    }
+
+    private static PageResult page(String url, Section... sections) {
+        return new PageResult(URI.create(url), 1, false, List.of(sections), Set.of());
+    }
+
+    private static Section section(int level, String heading, String... links) {
+        LinkedHashSet<Url> urls = new LinkedHashSet<>();
+        for (String link : links) {
+            urls.add(Url.parse(link));
+        }
+        return new Section(new Heading(level, heading), urls);
+    }
+}
@@ -24,6 +24,15 @@ class CrawlerConfigTest {
         assertTrue(config.getAllowedDomains().contains(VALID_DOMAIN));
     }
 
+    @Test
+    void testDomainMatcherIsCompiledOnce() {
+        CrawlerConfig config = new CrawlerConfig(VALID_URI, 2, "example.com", "example.org");
+
+        assertSame(config.getDomainMatcher(), config.getDomainMatcher());
+        assertTrue(config.getDomainMatcher().matches("www.example.org"));
+        assertFalse(config.getDomainMatcher().matches("evilexample.com"));
+    }
+
     @Test
     void testNullUrlThrowsException() {
         Exception exception = assertThrows(IllegalArgumentException.class,
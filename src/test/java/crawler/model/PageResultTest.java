@@ -15,9 +15,9 @@ class PageResultTest {
     void constructorStoresValues() {
         URI url = URI.create("http://example.com");
         PageResult.Heading h1 = new PageResult.Heading(1, "Main");
-        LinkedHashSet<URI> links = new LinkedHashSet<>(List.of(
-                URI.create("http://example.com/a"),
-                URI.create("http://example.com/b")
+        LinkedHashSet<Url> links = new LinkedHashSet<>(List.of(
+                Url.parse("http://example.com/a"),
+                Url.parse("http://example.com/b")
         ));
         PageResult.Section section = new PageResult.Section(h1, links);
 
@@ -45,10 +45,10 @@ class PageResultTest {
 
     @Test
     void getAllLinksReturnsInsertionOrder() {
-        URI a = URI.create("http://example.com/a");
-        URI b = URI.create("http://example.com/b");
+        Url a = Url.parse("http://example.com/a");
+        Url b = Url.parse("http://example.com/b");
 
-        LinkedHashSet<URI> links = new LinkedHashSet<>(List.of(a, b));
+        LinkedHashSet<Url> links = new LinkedHashSet<>(List.of(a, b));
         PageResult.Section section =
                 new PageResult.Section(new PageResult.Heading(2, "H2"), links);
 
@@ -0,0 +1,158 @@
+package crawler.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.net.URI;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UrlTest {
+
+    private static final Url BASE = Url.parse("http://a/b/c/d;p?q");
+
+    /**
+     * The examples of RFC 3986, section 5.4.
+     */
+    @ParameterizedTest
+    @CsvSource({
+            "g:h, g:h",
+            "g, http://a/b/c/g",
+            "./g, http://a/b/c/g",
+            "g/, http://a/b/c/g/",
+            "/g, http://a/g",
+            "//g, http://g",
+            "?y, http://a/b/c/d;p?y",
+            "g?y, http://a/b/c/g?y",
+            "#s, http://a/b/c/d;p?q#s",
+            "g#s, http://a/b/c/g#s",
+            "g?y#s, http://a/b/c/g?y#s",
+            ";x, http://a/b/c/;x",
+            "g;x, http://a/b/c/g;x",
+            "g;x?y#s, http://a/b/c/g;x?y#s",
+            "., http://a/b/c/",
+            "./, http://a/b/c/",
+            ".., http://a/b/",
+            "../, http://a/b/",
+            "../g, http://a/b/g",
+            "../.., http://a/",
+            "../../, http://a/",
+            "../../g, http://a/g",
+            "../../../g, http://a/g",
+            "../../../../g, http://a/g",
+            "/./g, http://a/g",
+            "/../g, http://a/g",
+            "g., http://a/b/c/g.",
+            ".g, http://a/b/c/.g",
+            "g.., http://a/b/c/g..",
+            "..g, http://a/b/c/..g",
+            "./../g, http://a/b/g",
+            "./g/., http://a/b/c/g/",
+            "g/./h, http://a/b/c/g/h",
+            "g/../h, http://a/b/c/h",
+            "g;x=1/./y, http://a/b/c/g;x=1/y",
+            "g;x=1/../y, http://a/b/c/y",
+            "g?y/./x, http://a/b/c/g?y/./x",
+            "g?y/../x, http://a/b/c/g?y/../x",
+            "g#s/./x, http://a/b/c/g#s/./x",
+            "g#s/../x, http://a/b/c/g#s/../x",
+            "http:g, http:g",
+            "'', http://a/b/c/d;p?q"
+    })
+    void testResolveFollowsRfc3986(String reference, String expected) {
+        assertEquals(expected, BASE.resolve(reference).toString());
+    }
+
+    @Test
+    void testResolveAgainstHostWithoutPath() {
+        assertEquals("https://example.com/page", Url.parse("https://example.com").resolve("page").toString());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"ht!tp://broken", "a b", "/path with space", "%zz", "/a#b#c", "/[x]", "http://", "mailto:",
+            "///p", "//user@/p", "//ex_ample.com/", "//host:abc/", "http://a.9/"})
+    void testMalformedReferencesAreRejected(String reference) {
+        assertNull(Url.parse("https://example.com/").resolve(reference));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "https://example.com", "https://Example.COM:8080/a/b?q=1#frag", "http://[::1]:8080/x",
+            "https://user:pw@example.com/", "mailto:someone@example.com", "https://example.com/café",
+            "https://example.com/a%20b", "http:///path", "ftp://example.com/%41",
+            "https://example.com/a b", "https://example.com/a|b", "https://example.com/%G1", "http://",
+            "https://example.com/a#b#c", "https://example.com/[x]", "javascript:void(0)", "tel:+123",
+            "http:", "1http://example.com", "https://example.com/ ", "http://ex_ample.com/", "http://host:abc/",
+            "http://host:/", "http://host:2147483648/", "http://1.2.3.4/", "http://1.2.3.256/", "http://01.2.3.4/",
+            "http://123/", "http://1a/", "http://a.9/", "http://a.b./", "http://a..b/", "http://-a.b/",
+            "http://a-.b/", "http://A-B.COM/", "http://user@/p", "file:///p", "http://bücher.de/",
+            "http://%41.com/", "http://[::1]x/", "http:/path"
+    })
+    void testAcceptsExactlyWhatUriAccepts(String value) {
+        boolean uriAccepts;
+        try {
+            URI uri = URI.create(value);
+            // an authority must name a host, see the class comment of Url
+            uriAccepts = uri.isAbsolute() && (uri.getHost() != null || !uri.getRawSchemeSpecificPart().startsWith("//"));
+        } catch (IllegalArgumentException e) {
+            uriAccepts = false;
+        }
+
+        boolean urlAccepts;
+        try {
+            Url url = Url.parse(value);
+            assertEquals(URI.create(value), url.toUri());
+            urlAccepts = true;
+        } catch (IllegalArgumentException e) {
+            urlAccepts = false;
+        }
+
+        assertEquals(uriAccepts, urlAccepts, value);
+    }
+
+    @Test
+    void testComponents() {
+        Url url = Url.parse("https://user@Example.COM:8443/a/b%2Fc?x=1&y=2#top");
+
+        assertEquals("https", url.scheme());
+        assertEquals("example.com", url.host());
+        assertEquals("/a/b%2Fc", url.rawPath());
+        assertEquals("x=1&y=2", url.rawQuery());
+        assertTrue(url.hasFragment());
+    }
+
+    @Test
+    void testComponentsWithoutAuthority() {
+        Url url = Url.parse("mailto:someone@example.com");
+
+        assertNull(url.host());
+        assertEquals("someone@example.com", url.rawPath());
+        assertNull(url.rawQuery());
+    }
+
+    @Test
+    void testNormalized() {
+        assertEquals("https://example.com/", Url.parse("HTTPS://Example.com").normalized());
+        assertEquals("https://example.com/b?q", Url.parse("https://example.com/a/../b?q#frag").normalized());
+        assertEquals("https://Ex@example.com:80/A", Url.parse("https://Ex@EXAMPLE.com:80/A").normalized());
+
+        String alreadyNormal = "https://example.com/page?q=1";
+        assertSame(alreadyNormal, Url.parse(alreadyNormal).normalized());
+    }
+
+    @Test
+    void testRemoveDotSegments() {
+        assertEquals("/a/g", Url.removeDotSegments("/a/b/c/./../../g"));
+        assertEquals("mid/6", Url.removeDotSegments("mid/content=5/../6"));
+        assertEquals("/", Url.removeDotSegments("/.."));
+        assertEquals("/no/dots.html", Url.removeDotSegments("/no/dots.html"));
+    }
+
+    @Test
+    void testEqualityIsByString() {
+        assertEquals(Url.parse("https://example.com/a"), Url.parse("https://example.com/a"));
+        assertNotEquals(Url.parse("https://example.com/a"), Url.parse("https://EXAMPLE.com/a"));
+    }
+}
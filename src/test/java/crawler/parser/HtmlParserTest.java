@@ -1,11 +1,17 @@
 package crawler.parser;
 
+import crawler.adapters.HtmlDocument;
+import crawler.adapters.JsoupHtmlDocument;
+import crawler.adapters.StreamingHtmlDocument;
 import crawler.model.PageResult;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
 
 import java.net.URI;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -94,4 +100,85 @@ class HtmlParserTest {
 
         assertTrue(result.sections().isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testParsesHtmlDocumentAbstraction() {
+        String html = """
+            <html><body>
+                <a href="/root-link">Root Link</a>
+                <h1>Main Heading</h1>
+                <a href="/first">Link 1</a>
+                <h2>Sub Heading</h2>
+                <a href="#fragment">Fragment Link</a>
+            </body></html>
+            """;
+
+        Document doc = Jsoup.parse(html);
+        HtmlDocument document = new JsoupHtmlDocument(doc);
+
+        assertEquals(parser.parse(BASE_URI, 1, doc), parser.parse(BASE_URI, 1, document));
+        assertEquals(3, parser.parse(BASE_URI, 1, document).sections().size());
+    }
+
+    static Stream<String> streamingFixtures() {
+        return Stream.of(
+                """
+                <html><body>
+                    <h1>Main Heading</h1>
+                    <a href="https://example.com/first">Link 1</a>
+                    <a href="/second">Link 2</a>
+                    <h2>Sub Heading</h2>
+                    <a href="#fragment">Fragment Link</a>
+                </body></html>
+                """,
+                """
+                <html><body>
+                    <a href="/root-link">Root Link</a>
+                    <h1>First Heading</h1>
+                    <a href="/under-heading">Under Heading</a>
+                </body></html>
+                """,
+                """
+                <html><body>
+                    <h1>Test</h1>
+                    <a href="ht!tp://broken">Broken Link</a>
+                    <a href="/valid">Valid Link</a>
+                </body></html>
+                """,
+                "",
+                """
+                <!DOCTYPE html>
+                <html><head><title>T &amp; T</title>
+                <script>document.write('<h1>not a heading</h1><a href="/script">x</a>');</script>
+                <style>h1 { color: red; }</style></head>
+                <body>
+                    <!-- <h2>commented</h2> <a href="/comment">c</a> -->
+                    <h1>  Fish &amp;   <em>Chips</em>  </h1>
+                    <h2><a href="/in-heading">Linked</a> heading</h2>
+                    <H3 class="x">Upper<br>Case</H3>
+                    <a href='/single?a=1&amp;b=2'>Query</a>
+                    <a href=/unquoted>Unquoted</a>
+                    <a>No href</a>
+                    <a href="">Empty</a>
+                    <h4>   </h4>
+                    <a href="/after-empty-heading">After</a>
+                    <div><h5>Unclosed</div>
+                    <a href="/after-unclosed">After unclosed</a>
+                    <h6><p>Block</p><p>Text</p></h6>
+                    <a href="/same">Same</a>
+                    <a href="/same">Same again</a>
+                    <h2>&copy; 2024 &#8364;&#x41;&#150; &amp no &notit; &bogus;</h2>
+                    <a href="/q?a=1&copy=2&amp;lang=en&#38;x=&lt;">Entities</a>
+                </body></html>
+                """);
+    }
+
+    @ParameterizedTest
+    @MethodSource("streamingFixtures")
+    void testStreamingExtractionMatchesDomParser(String html) {
+        PageResult expected = parser.parse(BASE_URI, 0, Jsoup.parse(html));
+        PageResult actual = parser.parse(BASE_URI, 0, new StreamingHtmlDocument(html));
+
+        assertEquals(expected, actual);
+    }
+}
@@ -0,0 +1,57 @@
+package crawler.reporter;
+
+import crawler.model.PageResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinaryReportReaderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void open_rejectsOtherFiles() throws Exception {
+        Path file = directory.resolve("report.md");
+        Files.writeString(file, "# Crawl Report: http://example.com\n");
+
+        assertThrows(IOException.class, () -> BinaryReportReader.open(file));
+    }
+
+    @Test
+    void emptyReport_hasNoRecords() throws Exception {
+        Path file = directory.resolve("report.bin");
+        new BinaryReporter(file).openReport(Files.newOutputStream(file)).close();
+
+        try (BinaryReportReader reader = BinaryReportReader.open(file)) {
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void truncatedRecord_isReported() throws Exception {
+        Path file = directory.resolve("report.bin");
+        try (Reporter.ReportWriter report = new BinaryReporter(file).openReport(Files.newOutputStream(file))) {
+            report.writePage(PageResult.brokenLink(URI.create("http://example.com"), 0), null);
+            report.writePage(PageResult.brokenLink(URI.create("http://example.com/a"), 1), URI.create("http://example.com"));
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+
+        try (BinaryReportReader reader = BinaryReportReader.open(file)) {
+            assertNotNull(reader.next());
+            IOException e = assertThrows(IOException.class, reader::next);
+            assertTrue(e.getMessage().startsWith("Truncated record"));
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package crawler.reporter;
+
+import crawler.model.CrawlerConfig;
+import crawler.model.PageResult;
+import crawler.model.PageResult.Heading;
+import crawler.model.PageResult.Section;
+import crawler.model.Url;
+import crawler.reporter.BinaryReportReader.PageRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class BinaryReporterTest {
+
+    @TempDir
+    Path directory;
+
+    private static final URI ROOT = URI.create("http://example.com");
+
+    @Test
+    void writtenPages_areReadBackUnchanged() throws Exception {
+        Section beforeHeadings = new Section(new Heading(0, "Page Root"),
+                new LinkedHashSet<>(List.of(Url.parse("http://example.com/nav"))));
+        Section section = new Section(new Heading(3, "Grüße 😀 ✓"),
+                new LinkedHashSet<>(List.of(Url.parse("http://example.com/a"), Url.parse("http://example.com/b?q=1"))));
+        PageResult root = new PageResult(ROOT, 0, false, List.of(beforeHeadings, section), Set.of());
+        PageResult broken = PageResult.brokenLink(URI.create("http://example.com/a"), 1);
+        Path file = directory.resolve("report.bin");
+
+        try (Reporter.ReportWriter report = new BinaryReporter(file).openReport(Files.newOutputStream(file))) {
+            report.writePage(root, null);
+            report.writePage(broken, ROOT);
+            assertEquals(2, report.getPageCount());
+        }
+
+        try (BinaryReportReader reader = BinaryReportReader.open(file)) {
+            assertEquals(new PageRecord(root, null), reader.next());
+            assertEquals(new PageRecord(broken, ROOT), reader.next());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void writeReport_writesTreeInPreOrderWithParents() throws Exception {
+        PageResult b = new PageResult(URI.create("http://example.com/b"), 1, false, List.of(), Set.of());
+        PageResult a1 = new PageResult(URI.create("http://example.com/a/1"), 2, false, List.of(), Set.of());
+        PageResult a = new PageResult(URI.create("http://example.com/a"), 1, false, List.of(), Set.of(a1));
+        PageResult root = new PageResult(ROOT, 0, false, List.of(), Set.of(b, a));
+        Path file = directory.resolve("report.bin");
+
+        new BinaryReporter(file).writeReport(root, new CrawlerConfig(ROOT, 2, "example.com"));
+
+        List<String> records = new ArrayList<>();
+        try (BinaryReportReader reader = BinaryReportReader.open(file)) {
+            for (PageRecord record = reader.next(); record != null; record = reader.next()) {
+                records.add(record.page().url() + " <- " + record.parent());
+            }
+        }
+        assertEquals(List.of("http://example.com <- null", "http://example.com/a <- http://example.com",
+                "http://example.com/a/1 <- http://example.com/a", "http://example.com/b <- http://example.com"), records);
+    }
+
+    @Test
+    void largeRecords_growTheEncodingBuffer() throws Exception {
+        LinkedHashSet<Url> links = new LinkedHashSet<>();
+        for (int i = 0; i < 5_000; i++) {
+            links.add(Url.parse("http://example.com/page/" + i));
+        }
+        PageResult page = new PageResult(ROOT, 0, false, List.of(new Section(new Heading(1, "Many"), links)), Set.of());
+        Path file = directory.resolve("report.bin");
+
+        try (Reporter.ReportWriter report = new BinaryReporter(file).openReport(Files.newOutputStream(file))) {
+            report.writePage(page, null);
+            report.writePage(page, null);
+        }
+
+        try (BinaryReportReader reader = BinaryReportReader.open(file)) {
+            assertEquals(page, reader.next().page());
+            assertEquals(page, reader.next().page());
+            assertNull(reader.next());
+        }
+    }
+}
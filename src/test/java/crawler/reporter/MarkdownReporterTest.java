@@ -4,17 +4,24 @@ import crawler.model.CrawlerConfig;
 import crawler.model.PageResult;
 import crawler.model.PageResult.Heading;
 import crawler.model.PageResult.Section;
+import crawler.model.Url;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.net.URI;
+import java.util.AbstractSet;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -106,8 +113,8 @@ class MarkdownReporterTest {
     @Test
     void writeSectionWithLinks_writesCorrectBlockQuote() {
         Heading heading = new Heading(2, "Test Heading");
-        URI link1 = URI.create("http://example.com/link1");
-        URI link2 = URI.create("http://example.com/link2");
+        Url link1 = Url.parse("http://example.com/link1");
+        Url link2 = Url.parse("http://example.com/link2");
         Section section = new Section(heading, new LinkedHashSet<>(List.of(link1, link2)));
 
         reporter.writeSectionWithLinks(section, writer);
@@ -124,8 +131,8 @@ class MarkdownReporterTest {
     @Test
     void writeLinksBeforeHeadings_onlyFirstPreHeadingBlockIsWritten() {
         Heading rootHeading = new Heading(0, "Page Root");
-        URI     link1       = URI.create("http://example.com/root1");
-        URI     link2       = URI.create("http://example.com/root2");
+        Url     link1       = Url.parse("http://example.com/root1");
+        Url     link2       = Url.parse("http://example.com/root2");
         Section rootSection = new Section(rootHeading, new LinkedHashSet<>(List.of(link1, link2)));
 
         PageResult page = new PageResult(exampleUri, 0, false,
@@ -144,10 +151,10 @@ class MarkdownReporterTest {
     @Test
     void writePage_recursivelyWritesChildrenSeparatedByRules() {
         Heading h1 = new Heading(1, "Main Heading");
-        Section rootSection = new Section(h1, new LinkedHashSet<>(List.of(URI.create("http://example.com/main"))));
+        Section rootSection = new Section(h1, new LinkedHashSet<>(List.of(Url.parse("http://example.com/main"))));
 
         Heading h2 = new Heading(2, "Sub Heading");
-        Section childSection = new Section(h2, new LinkedHashSet<>(List.of(URI.create("http://example.com/sub"))));
+        Section childSection = new Section(h2, new LinkedHashSet<>(List.of(Url.parse("http://example.com/sub"))));
 
         PageResult childPage = new PageResult(URI.create("http://example.com/child"), 1, false,
                 List.of(childSection), Collections.emptySet());
@@ -171,5 +178,149 @@ class MarkdownReporterTest {
         assertTrue(out.contains("---"));
     }
 
+    @Test
+    void incrementalTreeReport_matchesWriteReportLayout() {
+        Section rootSection = new Section(new Heading(1, "Main Heading"),
+                new LinkedHashSet<>(List.of(Url.parse("http://example.com/child"))));
+        PageResult childPage = new PageResult(URI.create("http://example.com/child"), 1, false,
+                List.of(), Collections.emptySet());
+        PageResult rootPage = new PageResult(exampleUri, 0, false, List.of(rootSection), Set.of(childPage));
+
+        reporter.writeReportHeader(config, writer);
+        reporter.writePage(rootPage, writer);
+        writer.flush();
+
+        StringWriter incremental = new StringWriter();
+        try (Reporter.ReportWriter report =
+                     reporter.openReport(config, Reporter.Layout.TREE, incremental)) {
+            report.writePage(rootPage.withChildren(Set.of()), null);
+            report.writePage(childPage, exampleUri);
+            assertEquals(2, report.getPageCount());
+        }
+
+        assertEquals(normalise(buffer.toString()), normalise(incremental.toString()));
+    }
+
+    @Test
+    void incrementalFlatReport_namesParentPage() {
+        StringWriter incremental = new StringWriter();
+        try (Reporter.ReportWriter report =
+                     reporter.openReport(config, Reporter.Layout.FLAT, incremental)) {
+            report.writePage(PageResult.brokenLink(URI.create("http://example.com/child"), 1), exampleUri);
+
+            // written through before the report is closed
+            assertTrue(normalise(incremental.toString()).contains(
+                    "## Page: http://example.com/child" + NEWLINE +
+                    "**Depth:** 1  " + NEWLINE +
+                    "**Parent:** http://example.com  " + NEWLINE +
+                    "**Status:** Broken" + NEWLINE));
+        }
+    }
+
+    @Test
+    void writePage_writesChildrenInUrlOrder() {
+        PageResult rootPage = new PageResult(exampleUri, 0, false, List.of(), Set.of(
+                new PageResult(URI.create("http://example.com/c"), 1, false, List.of(), Set.of()),
+                new PageResult(URI.create("http://example.com/a"), 1, true, List.of(), Set.of()),
+                new PageResult(URI.create("http://example.com/b"), 1, false, List.of(), Set.of())));
+
+        reporter.writePage(rootPage, writer);
+        writer.flush();
+
+        List<String> pages = normalise(buffer.toString()).lines().filter(IS_PAGE_HEADER).toList();
+        assertEquals(List.of("## Page: http://example.com", "## Page: http://example.com/a",
+                "## Page: http://example.com/b", "## Page: http://example.com/c"), pages);
+    }
+
+    @Test
+    void parallelReport_isIdenticalToSequentialReport() {
+        PageResult root = syntheticTree(exampleUri, 0, 4);
+
+        reporter.writeReport(root, config, writer);
+        writer.flush();
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            MarkdownReporter parallelReporter = new MarkdownReporter(pool);
+            for (int run = 0; run < 3; run++) {
+                StringWriter parallel = new StringWriter();
+                PrintWriter parallelWriter = new PrintWriter(parallel);
+                parallelReporter.writeReport(root, config, parallelWriter);
+                parallelWriter.flush();
+
+                assertEquals(buffer.toString(), parallel.toString());
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(1 + 5 + 25 + 125 + 625, buffer.toString().lines().filter(IS_PAGE_HEADER).count());
+    }
+
+    @Test
+    void parallelReport_writesPagesBeforeTheWholeTreeIsWalked() {
+        AtomicInteger expanded = new AtomicInteger(1);
+        PageResult root = lazyTree(exampleUri, 0, 5, expanded);
+        AtomicInteger expandedAtFirstPage = new AtomicInteger(-1);
+        StringWriter parallel = new StringWriter() {
+            @Override
+            public void write(String str, int off, int len) {
+                if (str.contains("## Page:")) {
+                    expandedAtFirstPage.compareAndSet(-1, expanded.get());
+                }
+                super.write(str, off, len);
+            }
+        };
+
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            new MarkdownReporter(pool).writeReport(root, config, new PrintWriter(parallel));
+        } finally {
+            pool.shutdown();
+        }
+
+        int pageCount = 1 + 5 + 25 + 125 + 625 + 3125;
+        assertEquals(pageCount, expanded.get());
+        assertTrue(expandedAtFirstPage.get() > 0 && expandedAtFirstPage.get() < pageCount / 4,
+                "first page written after " + expandedAtFirstPage.get() + " of " + pageCount + " pages were expanded");
+        reporter.writeReport(lazyTree(exampleUri, 0, 5, new AtomicInteger()), config, writer);
+        writer.flush();
+        assertEquals(buffer.toString(), parallel.toString());
+    }
+
+    /**
+     * A tree whose children are created each time they are iterated, like the expanded crawl tree.
+     */
+    private static PageResult lazyTree(URI url, int depth, int maxDepth, AtomicInteger expanded) {
+        Section section = new Section(new Heading(1, "Heading " + url),
+                new LinkedHashSet<>(List.of(Url.parse(url + "/link"))));
+        Set<PageResult> children = depth == maxDepth ? Set.of() : new AbstractSet<>() {
+            @Override
+            public Iterator<PageResult> iterator() {
+                return IntStream.range(0, size()).mapToObj(i -> {
+                    expanded.incrementAndGet();
+                    return lazyTree(URI.create(url + "/" + i), depth + 1, maxDepth, expanded);
+                }).iterator();
+            }
+
+            @Override
+            public int size() {
+                return 5;
+            }
+        };
+        return new PageResult(url, depth, false, List.of(section), children);
+    }
+
+    private static PageResult syntheticTree(URI url, int depth, int maxDepth) {
+        Section section = new Section(new Heading(1, "Heading " + url),
+                new LinkedHashSet<>(List.of(Url.parse(url + "/link"))));
+        Set<PageResult> children = new HashSet<>();
+        if (depth < maxDepth) {
+            for (int i = 0; i < 5; i++) {
+                children.add(syntheticTree(URI.create(url + "/" + i), depth + 1, maxDepth));
+            }
+        }
+        return new PageResult(url, depth, depth == maxDepth && url.toString().endsWith("3"), List.of(section), children);
+    }
+
     private static final Predicate<String> IS_PAGE_HEADER = line -> line.startsWith("## Page:");
 }
@@ -0,0 +1,83 @@
+package crawler.reporter;
+
+import crawler.model.CrawlerConfig;
+import crawler.model.PageResult;
+import crawler.model.PageResult.Heading;
+import crawler.model.PageResult.Section;
+import crawler.model.Url;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.StringWriter;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class NdjsonReporterTest {
+
+    @TempDir
+    Path directory;
+
+    private static final URI ROOT = URI.create("http://example.com");
+
+    @Test
+    void writePage_writesOneRecordPerLine() {
+        Section section = new Section(new Heading(1, "Main"),
+                new LinkedHashSet<>(List.of(Url.parse("http://example.com/a"), Url.parse("http://example.com/b"))));
+        PageResult root = new PageResult(ROOT, 0, false, List.of(section), Set.of());
+        PageResult child = PageResult.brokenLink(URI.create("http://example.com/a"), 1);
+
+        StringWriter out = new StringWriter();
+        try (Reporter.ReportWriter report = new NdjsonReporter().openReport(out)) {
+            report.writePage(root, null);
+            report.writePage(child, ROOT);
+            assertEquals(2, report.getPageCount());
+        }
+
+        assertEquals("""
+                {"url":"http://example.com","parent":null,"depth":0,"broken":false,\
+                "sections":[{"level":1,"heading":"Main","links":["http://example.com/a","http://example.com/b"]}]}
+                {"url":"http://example.com/a","parent":"http://example.com","depth":1,"broken":true,"sections":[]}
+                """, out.toString());
+    }
+
+    @Test
+    void writePage_escapesHeadingText() {
+        Section section = new Section(new Heading(2, "Say \"hi\" \\ now\n\u0001 é"), new LinkedHashSet<>());
+        PageResult page = new PageResult(ROOT, 0, false, List.of(section), Set.of());
+
+        StringWriter out = new StringWriter();
+        try (Reporter.ReportWriter report = new NdjsonReporter().openReport(out)) {
+            report.writePage(page, null);
+        }
+
+        assertEquals("{\"url\":\"http://example.com\",\"parent\":null,\"depth\":0,\"broken\":false,"
+                + "\"sections\":[{\"level\":2,\"heading\":\"Say \\\"hi\\\" \\\\ now\\n\\u0001 é\",\"links\":[]}]}\n",
+                out.toString());
+    }
+
+    @Test
+    void writeReport_writesTreeInPreOrderWithParents() throws Exception {
+        PageResult b = new PageResult(URI.create("http://example.com/b"), 1, false, List.of(), Set.of());
+        PageResult a1 = new PageResult(URI.create("http://example.com/a/1"), 2, false, List.of(), Set.of());
+        PageResult a = new PageResult(URI.create("http://example.com/a"), 1, false, List.of(), Set.of(a1));
+        PageResult root = new PageResult(ROOT, 0, false, List.of(), Set.of(b, a));
+        Path file = directory.resolve("report.ndjson");
+
+        new NdjsonReporter(file).writeReport(root, new CrawlerConfig(ROOT, 2, "example.com"));
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals(List.of(
+                "{\"url\":\"http://example.com\",\"parent\":null,\"depth\":0,\"broken\":false,\"sections\":[]}",
+                "{\"url\":\"http://example.com/a\",\"parent\":\"http://example.com\",\"depth\":1,\"broken\":false,\"sections\":[]}",
+                "{\"url\":\"http://example.com/a/1\",\"parent\":\"http://example.com/a\",\"depth\":2,\"broken\":false,\"sections\":[]}",
+                "{\"url\":\"http://example.com/b\",\"parent\":\"http://example.com\",\"depth\":1,\"broken\":false,\"sections\":[]}"),
+                lines);
+    }
+}
@@ -0,0 +1,114 @@
+package crawler.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomVisitedSetTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testSizingFromExpectedCountAndRate() {
+        BloomVisitedSet filter = new BloomVisitedSet(1_000_000, 0.01);
+
+        // about 9.6 bits and 7 hash functions per element for a 1% rate
+        assertEquals(9_585_088, filter.getBitCount());
+        assertEquals(7, filter.getHashCount());
+        assertEquals(0.0, filter.getFillRatio());
+    }
+
+    @Test
+    void testAddReportsFirstVisitOnly() {
+        BloomVisitedSet filter = new BloomVisitedSet(1000, 0.01);
+
+        assertTrue(filter.add("https://example.com/a"));
+        assertFalse(filter.add("https://example.com/a"));
+        assertTrue(filter.contains("https://example.com/a"));
+        assertEquals(1, filter.size());
+    }
+
+    @Test
+    void testFalsePositiveRateStaysNearTargetWhenFilled() {
+        BloomVisitedSet filter = new BloomVisitedSet(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("https://example.com/page" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filter.contains("https://example.com/other" + i)) {
+                falsePositives++;
+            }
+        }
+
+        assertTrue(falsePositives < 200, "measured " + falsePositives + " false positives in 10000");
+        assertEquals(0.01, filter.getFalsePositiveRate(), 0.005);
+        assertEquals(0.5, filter.getFillRatio(), 0.05);
+    }
+
+    @Test
+    void testOverfilledFilterReportsRateAboveTarget() {
+        BloomVisitedSet filter = new BloomVisitedSet(100, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            filter.add("https://example.com/page" + i);
+        }
+
+        assertTrue(filter.getFalsePositiveRate() > filter.getTargetFalsePositiveRate());
+    }
+
+    @Test
+    void testConfirmationFileRejectsFalsePositives() {
+        // a deliberately tiny filter that answers "maybe" for almost everything
+        BloomVisitedSet filter = new BloomVisitedSet(10, 0.5, directory.resolve("visited.fp"), 64);
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(filter.add("https://example.com/page" + i), "page" + i);
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(filter.contains("https://example.com/page" + i));
+            assertFalse(filter.add("https://example.com/page" + i));
+            assertFalse(filter.contains("https://example.com/other" + i));
+        }
+        assertEquals(1000, filter.size());
+    }
+
+    @Test
+    void testConfirmedFingerprintsAreMergedToDisk() throws Exception {
+        Path file = directory.resolve("visited.fp");
+        BloomVisitedSet filter = new BloomVisitedSet(1000, 0.01, file, 64);
+        for (int i = 0; i < 500; i++) {
+            filter.add("https://example.com/page" + i);
+        }
+
+        assertTrue(Files.size(file) >= 64 * Long.BYTES);
+        assertEquals(0, Files.size(file) % Long.BYTES);
+        assertTrue(filter.contains("https://example.com/page0"));
+    }
+
+    @Test
+    void testClear() {
+        BloomVisitedSet filter = new BloomVisitedSet(1000, 0.01, directory.resolve("visited.fp"), 64);
+        for (int i = 0; i < 200; i++) {
+            filter.add("https://example.com/page" + i);
+        }
+
+        filter.clear();
+
+        assertEquals(0, filter.size());
+        assertEquals(0.0, filter.getFillRatio());
+        assertTrue(filter.add("https://example.com/page0"));
+    }
+
+    @Test
+    void testInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> new BloomVisitedSet(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new BloomVisitedSet(1000, 0));
+        assertThrows(IllegalArgumentException.class, () -> new BloomVisitedSet(1000, 1));
+    }
+}
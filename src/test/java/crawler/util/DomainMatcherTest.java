@@ -0,0 +1,89 @@
+package crawler.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DomainMatcherTest {
+
+    private final DomainMatcher matcher = DomainMatcher.of(List.of("example.com", "docs.example.org"));
+
+    @ParameterizedTest
+    @ValueSource(strings = {"example.com", "www.example.com", "a.b.example.com", "WWW.Example.COM",
+            "example.com.", "docs.example.org", "v2.docs.example.org"})
+    void testMatchesDomainAndSubdomains(String host) {
+        assertTrue(matcher.matches(host));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"evilexample.com", "example.com.evil.net", "example.org", "www.example.org",
+            "xdocs.example.org", "com", "", "."})
+    void testRespectsLabelBoundaries(String host) {
+        assertFalse(matcher.matches(host));
+    }
+
+    @Test
+    void testHashedLookupForLongerLists() {
+        DomainMatcher hashed = DomainMatcher.of(List.of("a.example", "b.example", "c.example", "d.example",
+                "e.example", "f.example"));
+
+        assertTrue(hashed.matches("a.example"));
+        assertTrue(hashed.matches("www.b.example"));
+        assertTrue(hashed.matches("F.EXAMPLE"));
+        assertTrue(hashed.matches("e.example."));
+        assertFalse(hashed.matches("xa.example"));
+        assertFalse(hashed.matches("g.example"));
+        assertFalse(hashed.matches("example"));
+    }
+
+    @Test
+    void testNullHostAndEmptyList() {
+        assertFalse(matcher.matches(null));
+        assertFalse(DomainMatcher.of(List.of()).matches("example.com"));
+    }
+
+    @Test
+    void testEntriesAreNormalized() {
+        DomainMatcher normalized = DomainMatcher.of(List.of(" Example.COM ", ".example.net", "example.com."));
+
+        assertEquals(2, normalized.size());
+        assertTrue(normalized.matches("www.example.com"));
+        assertTrue(normalized.matches("example.net"));
+    }
+
+    @Test
+    void testEqualityIgnoresOrderAndNormalization() {
+        assertEquals(matcher, DomainMatcher.of(List.of("DOCS.example.org", "example.com")));
+        assertEquals(matcher.hashCode(), DomainMatcher.of(List.of("docs.example.org.", "example.com")).hashCode());
+        assertNotEquals(matcher, DomainMatcher.of(List.of("example.com")));
+    }
+
+    @Test
+    void testBlankEntryMatchesAnyHost() {
+        DomainMatcher any = DomainMatcher.of(List.of(""));
+
+        assertTrue(any.matches("anything.net"));
+        assertFalse(any.matches(null));
+    }
+
+    @Test
+    void testManyDomains() {
+        List<String> domains = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            domains.add("site" + i + ".example");
+        }
+        DomainMatcher large = DomainMatcher.of(domains);
+
+        assertEquals(5_000, large.size());
+        for (int i = 0; i < 5_000; i++) {
+            assertTrue(large.matches("www.site" + i + ".example"));
+        }
+        assertFalse(large.matches("site5000.example"));
+        assertFalse(large.matches("xsite1.example"));
+    }
+}
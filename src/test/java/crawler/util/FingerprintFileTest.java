@@ -0,0 +1,52 @@
+package crawler.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FingerprintFileTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testMergeKeepsFingerprintsSortedAndUnique() throws Exception {
+        Path path = directory.resolve("fingerprints");
+        FingerprintFile file = new FingerprintFile(path);
+
+        file.merge(new long[]{-5, 3, 10});
+        file.merge(new long[]{-7, 3, 4, 42});
+
+        assertEquals(6, file.size());
+        assertEquals(6 * Long.BYTES, Files.size(path));
+        for (long fingerprint : new long[]{-7, -5, 3, 4, 10, 42}) {
+            assertTrue(file.contains(fingerprint), "missing " + fingerprint);
+        }
+        assertFalse(file.contains(0));
+        assertFalse(file.contains(Long.MAX_VALUE));
+        assertFalse(file.contains(Long.MIN_VALUE));
+    }
+
+    @Test
+    void testEmptyFileContainsNothing() throws Exception {
+        FingerprintFile file = new FingerprintFile(directory.resolve("fingerprints"));
+
+        assertFalse(file.contains(1));
+        assertEquals(0, file.size());
+    }
+
+    @Test
+    void testClear() throws Exception {
+        FingerprintFile file = new FingerprintFile(directory.resolve("fingerprints"));
+        file.merge(new long[]{1, 2, 3});
+
+        file.clear();
+
+        assertEquals(0, file.size());
+        assertFalse(file.contains(2));
+    }
+}
@@ -0,0 +1,93 @@
+package crawler.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FingerprintVisitedSetTest {
+
+    @Test
+    void testAddReportsFirstVisitOnly() {
+        FingerprintVisitedSet visited = new FingerprintVisitedSet();
+
+        assertTrue(visited.add("https://example.com/a"));
+        assertFalse(visited.add("https://example.com/a"));
+        assertTrue(visited.contains("https://example.com/a"));
+        assertFalse(visited.contains("https://example.com/b"));
+        assertEquals(1, visited.size());
+    }
+
+    @Test
+    void testTablesGrowBeyondInitialCapacity() {
+        FingerprintVisitedSet visited = new FingerprintVisitedSet(1);
+        long emptyFootprint = visited.memoryFootprintBytes();
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(visited.add("https://example.com/page" + i));
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(visited.contains("https://example.com/page" + i));
+        }
+        assertEquals(10_000, visited.size());
+        assertTrue(visited.memoryFootprintBytes() > emptyFootprint);
+        assertTrue(visited.memoryFootprintBytes() <= 10_000 * 32L + emptyFootprint);
+    }
+
+    @Test
+    void testClear() {
+        FingerprintVisitedSet visited = new FingerprintVisitedSet();
+        visited.add("https://example.com/a");
+
+        visited.clear();
+
+        assertEquals(0, visited.size());
+        assertFalse(visited.contains("https://example.com/a"));
+    }
+
+    @Test
+    void testConcurrentAddsCountEachUrlOnce() throws Exception {
+        FingerprintVisitedSet visited = new FingerprintVisitedSet(4);
+        int threads = 8;
+        int urlCount = 5_000;
+
+        List<Future<Integer>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    int firstVisits = 0;
+                    for (int i = 0; i < urlCount; i++) {
+                        if (visited.add("https://example.com/page" + i)) {
+                            firstVisits++;
+                        }
+                    }
+                    return firstVisits;
+                }));
+            }
+        }
+
+        int totalFirstVisits = 0;
+        for (Future<Integer> result : results) {
+            totalFirstVisits += result.get();
+        }
+        assertEquals(urlCount, totalFirstVisits);
+        assertEquals(urlCount, visited.size());
+    }
+
+    @Test
+    void testFingerprintIsNeverEmptyMarker() {
+        assertNotEquals(0L, FingerprintVisitedSet.fingerprint(""));
+        assertNotEquals(FingerprintVisitedSet.fingerprint("https://example.com/a"),
+                FingerprintVisitedSet.fingerprint("https://example.com/b"));
+    }
+
+    @Test
+    void testInvalidSegmentCount() {
+        assertThrows(IllegalArgumentException.class, () -> new FingerprintVisitedSet(0));
+    }
+}
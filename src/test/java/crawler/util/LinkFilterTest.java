@@ -1,11 +1,13 @@
 package crawler.util;
 
+import crawler.model.Url;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.net.URI;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -42,6 +44,15 @@ class LinkFilterTest {
         assertFalse(linkFilter.isAllowedDomain(url, allowedDomains));
     }
 
+    @Test
+    void testIsAllowedDomainRespectsLabelBoundary() throws Exception {
+        List<String> allowedDomains = List.of("example.com");
+
+        assertFalse(linkFilter.isAllowedDomain(new URI("https://evilexample.com/page"), allowedDomains));
+        assertTrue(linkFilter.isAllowedDomain(Url.parse("https://WWW.example.com/page"),
+                DomainMatcher.of(allowedDomains)));
+    }
+
     @Test
     void testFragmentNormalization() throws Exception {
         URI urlWithoutFragment = new URI("https://example.com/page");
@@ -50,4 +61,22 @@ class LinkFilterTest {
         assertTrue(linkFilter.markVisited(urlWithoutFragment));
         assertFalse(linkFilter.markVisited(urlWithFragment));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testSchemeAndHostAreCaseInsensitive() throws Exception {
+        assertTrue(linkFilter.markVisited(new URI("https://Example.COM/Page")));
+        assertFalse(linkFilter.markVisited(new URI("HTTPS://example.com/Page")));
+        assertTrue(linkFilter.markVisited(new URI("https://example.com/page")));
+    }
+
+    @Test
+    void testFingerprintVisitedSet() throws Exception {
+        LinkFilter fingerprintFilter = new LinkFilter(new FingerprintVisitedSet());
+
+        assertTrue(fingerprintFilter.markVisited(new URI("https://example.com/page")));
+        assertFalse(fingerprintFilter.markVisited(new URI("https://example.com/page#section")));
+        assertTrue(fingerprintFilter.isVisited(new URI("https://example.com/page")));
+        assertEquals(1, fingerprintFilter.getVisitedCount());
+        assertTrue(fingerprintFilter.getVisitedMemoryBytes() > 0);
+    }
+}